@@ -0,0 +1,30 @@
+package configs;
+
+/**
+ * @file AvgAgent.java
+ * @brief N-ary agent that publishes the mean of all its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * AvgAgent subscribes to any number of topics and publishes the mean of the
+ * last values of the inputs that have received one. It keeps the same
+ * running sum as SumAgent, so one update costs O(1).
+ */
+public class AvgAgent extends SumAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (must have at least 1 element)
+     * @throws IllegalArgumentException if subs or pubs is empty
+     */
+    public AvgAgent(String[] subs, String[] pubs) {
+        super("AvgAgent", subs, pubs);
+    }
+
+    @Override
+    protected double result() {
+        return super.result() / getPresentCount();
+    }
+}
@@ -0,0 +1,224 @@
+package configs;
+
+import graph.Agent;
+import graph.Topic;
+import graph.TopicManagerSingleton;
+import graph.TopicManagerSingleton.TopicManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * @file CompactGraph.java
+ * @brief Immutable compressed-sparse-row snapshot of the topic-agent graph
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * The same topology as Graph.createFromTopics() (edges topic → subscriber
+ * and publisher → topic), stored as int arrays instead of one Node object
+ * and one ArrayList per vertex:
+ *
+ * - Topics get the ids 0 .. getTopicCount()-1, agents the ids after them.
+ * - The successors of node v are targets[first[v] .. first[v+1]), sorted
+ *   and without duplicates; the predecessors are kept the same way, so a
+ *   topic's subscribers and an agent's subscriptions are both one slice.
+ * - Names ("T" + topic, "A" + agent name) are interned, so all agents of
+ *   one type share a single String.
+ *
+ * It is built from the TopicManager in one pass over the subscriber and
+ * publisher lists, plus two counting sorts. Agents are distinct nodes even when they share a name.
+ * Graph.createFromTopics() creates its nodes from a snapshot, and the
+ * config-data endpoint reads cycle membership from analyzeCycles().
+ */
+public final class CompactGraph {
+
+    private final String[] names;
+    private final Topic[]  topics;
+    private final Agent[]  agents;
+    private final int[]    first;
+    private final int[]    targets;
+    private final int[]    firstIn;
+    private final int[]    sources;
+
+    private CompactGraph(String[] names, Topic[] topics, Agent[] agents, int[] src, int[] dst, int edgeCount) {
+        this.names  = names;
+        this.topics = topics;
+        this.agents = agents;
+        int n = names.length;
+        this.first   = new int[n + 1];
+        this.firstIn = new int[n + 1];
+        int[] out = group(src, dst, edgeCount, n, first);
+        int[] in  = group(dst, src, edgeCount, n, firstIn);
+        this.targets = dedupe(out, first);
+        this.sources = dedupe(in, firstIn);
+    }
+
+    /**
+     * @brief Builds a snapshot of the current TopicManager
+     * @return The graph of every topic and every agent subscribed or publishing to one
+     */
+    public static CompactGraph fromTopics() {
+        return fromTopics(TopicManagerSingleton.get().getTopics());
+    }
+
+    /**
+     * @brief Builds a snapshot of the given topics
+     * @param allTopics The topics; their subscribers and publishers become the agent nodes
+     * @return The graph
+     */
+    public static CompactGraph fromTopics(Collection<Topic> allTopics) {
+        Topic[] topics = allTopics.toArray(new Topic[0]);
+        int t = topics.length;
+        Map<Agent, Integer> agentIds = new IdentityHashMap<>();
+        Agent[] agents = new Agent[16];
+        int[] src = new int[16], dst = new int[16];
+        int edges = 0;
+
+        for (int pass = 0; pass < 2; pass++) {                // subscribers first: agent ids follow dispatch order
+            for (int i = 0; i < t; i++) {
+                for (Agent a : pass == 0 ? topics[i].getSubs() : topics[i].getPubs()) {
+                    Integer id = agentIds.get(a);
+                    if (id == null) {
+                        id = t + agentIds.size();
+                        if (id - t == agents.length) agents = Arrays.copyOf(agents, agents.length * 2);
+                        agents[id - t] = a;
+                        agentIds.put(a, id);
+                    }
+                    if (edges == src.length) {
+                        src = Arrays.copyOf(src, edges * 2);
+                        dst = Arrays.copyOf(dst, edges * 2);
+                    }
+                    src[edges] = pass == 0 ? i : id;      // topic → subscriber, publisher → topic
+                    dst[edges] = pass == 0 ? id : i;
+                    edges++;
+                }
+            }
+        }
+
+        int a = agentIds.size();
+        String[] names = new String[t + a];
+        Map<String, String> interned = new HashMap<>();
+        for (int i = 0; i < t; i++) names[i] = "T" + topics[i].name;
+        for (int i = 0; i < a; i++) {
+            String name = "A" + agents[i].getName();
+            String shared = interned.putIfAbsent(name, name);
+            names[t + i] = shared != null ? shared : name;
+        }
+        return new CompactGraph(names, topics, Arrays.copyOf(agents, a), src, dst, edges);
+    }
+
+    public int getNodeCount()  {return names.length;}
+    public int getTopicCount() {return topics.length;}
+    public int getAgentCount() {return agents.length;}
+    public int getEdgeCount()  {return targets.length;}
+
+    /**
+     * @brief Checks whether a node is a topic
+     * @param id The node id
+     * @return true for a topic, false for an agent
+     */
+    public boolean isTopic(int id) {return id < topics.length;}
+
+    /**
+     * @brief Gets the name of a node
+     * @param id The node id
+     * @return "T" + topic name or "A" + agent name, as in Graph
+     */
+    public String getName(int id) {return names[id];}
+
+    /**
+     * @brief Gets the topic of a topic node
+     * @param id The node id
+     * @return The topic, or null for an agent node
+     */
+    public Topic getTopic(int id) {return id < topics.length ? topics[id] : null;}
+
+    /**
+     * @brief Gets the agent of an agent node
+     * @param id The node id
+     * @return The agent, or null for a topic node
+     */
+    public Agent getAgent(int id) {return id < topics.length ? null : agents[id - topics.length];}
+
+    /**
+     * @brief Gets the successors of a node
+     * @param id The node id
+     * @return Subscribers of a topic, or the topics an agent publishes to (sorted ids)
+     */
+    public int[] successors(int id) {return Arrays.copyOfRange(targets, first[id], first[id + 1]);}
+
+    /**
+     * @brief Gets the predecessors of a node
+     * @param id The node id
+     * @return Publishers of a topic, or the topics an agent subscribes to (sorted ids)
+     */
+    public int[] predecessors(int id) {return Arrays.copyOfRange(sources, firstIn[id], firstIn[id + 1]);}
+
+    public int outDegree(int id) {return first[id + 1] - first[id];}
+    public int inDegree(int id)  {return firstIn[id + 1] - firstIn[id];}
+
+    /**
+     * @brief Computes the strongly connected components of the graph
+     * @return Components, topological order and cycle membership, by node id
+     */
+    public CycleAnalysis analyzeCycles() {
+        return new CycleAnalysis(names.length, first, targets);
+    }
+
+    /**
+     * @brief Checks whether the graph contains a cycle
+     * @return true if some agent can reach itself
+     */
+    public boolean hasCycles() {
+        return analyzeCycles().hasCycles();
+    }
+
+    /**
+     * @brief Estimates the memory held by this snapshot's own arrays
+     * @return Bytes used by the id arrays, excluding the topics, agents and name strings
+     */
+    public long getArrayBytes() {
+        long refs = names.length + topics.length + agents.length;
+        long ints = first.length + targets.length + firstIn.length + sources.length;
+        return 4 * ints + 4 * refs + 6 * 16;             // compressed references, 6 array headers
+    }
+
+    /* helpers ------------------------------------------------------------ */
+
+    /**
+     * @brief Counting sort of the edges by their key node
+     * @param offsets Filled with the row offsets
+     * @return The values, grouped by key
+     */
+    private static int[] group(int[] key, int[] value, int edgeCount, int n, int[] offsets) {
+        for (int e = 0; e < edgeCount; e++) offsets[key[e] + 1]++;
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] grouped = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) grouped[fill[key[e]]++] = value[e];
+        return grouped;
+    }
+
+    /**
+     * @brief Sorts each row and drops repeated entries, compacting the rows in place
+     * @param offsets Row offsets, updated to the compacted rows
+     * @return The compacted values
+     */
+    private static int[] dedupe(int[] values, int[] offsets) {
+        int write = 0;
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            int from = offsets[v], to = offsets[v + 1];
+            Arrays.sort(values, from, to);
+            offsets[v] = write;
+            for (int i = from; i < to; i++) {
+                if (i == from || values[i] != values[i - 1]) values[write++] = values[i];
+            }
+        }
+        offsets[offsets.length - 1] = write;
+        return write == values.length ? values : Arrays.copyOf(values, write);
+    }
+}
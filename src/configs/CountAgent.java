@@ -0,0 +1,48 @@
+package configs;
+
+import graph.AggregateAgent;
+
+/**
+ * @file CountAgent.java
+ * @brief N-ary agent that publishes how many of its inputs have a value
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * CountAgent subscribes to any number of topics and publishes, after every
+ * valid input, the number of inputs that have received a value so far (a
+ * topic listed twice counts twice). Useful to see how many sensors of a
+ * group have reported. See AggregateAgent.
+ */
+public class CountAgent extends AggregateAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (must have at least 1 element)
+     * @throws IllegalArgumentException if subs or pubs is empty
+     */
+    public CountAgent(String[] subs, String[] pubs) {
+        super("CountAgent", subs, pubs);
+    }
+
+    @Override
+    protected void insert(int slot, double value) {
+        // the count is kept by AggregateAgent
+    }
+
+    @Override
+    protected void update(int slot, double oldValue, double newValue) {
+        // a changed value does not change the count
+    }
+
+    @Override
+    protected double result() {
+        return getPresentCount();
+    }
+
+    @Override
+    protected void clear() {
+        // nothing beyond the slots
+    }
+}
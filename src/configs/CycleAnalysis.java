@@ -0,0 +1,336 @@
+package configs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file CycleAnalysis.java
+ * @brief Strongly connected components, topological order and cycle membership of a Graph
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Computed in one pass by an iterative version of Tarjan's algorithm over
+ * int arrays, so it runs in O(N + E) and its depth is not limited by the
+ * thread stack (long pipelines and graphs with millions of nodes are fine).
+ *
+ * Components are numbered in topological order of the condensed graph:
+ * every edge goes from a component to itself or to a later one. A component
+ * is cyclic if it has more than one node or a node with an edge to itself.
+ * Nodes that are only reachable through edges are included as well.
+ *
+ * The analysis of a CompactGraph identifies nodes by their int id; the
+ * Node-based accessors are only available for the analysis of a Graph.
+ */
+public class CycleAnalysis {
+
+    /** @brief Analyzed nodes, indexed by their internal id (null for a CompactGraph) */
+    private final Node[] nodes;
+
+    /** @brief Dense id of each analyzed node (null for a CompactGraph) */
+    private final Map<Node, Integer> ids;
+
+    /** @brief Component of each node, in topological order */
+    private final int[] component;
+
+    /** @brief Node ids grouped by component: members of c are order[start[c] .. start[c+1]) */
+    private final int[] order;
+    private final int[] start;
+
+    /** @brief Whether each component contains a cycle */
+    private final boolean[] cyclic;
+
+    /** @brief Number of cyclic components */
+    private final int cyclicCount;
+
+    /**
+     * @brief Analyzes the given nodes and everything reachable from them
+     * @param graph The nodes to analyze
+     */
+    CycleAnalysis(List<Node> graph) {
+        this(Adjacency.of(graph));
+    }
+
+    /**
+     * @brief Analyzes a graph given in compressed sparse row form
+     * @param n Number of nodes (ids 0 .. n-1)
+     * @param first Edges of node v are targets[first[v] .. first[v+1])
+     * @param targets Edge targets
+     */
+    CycleAnalysis(int n, int[] first, int[] targets) {
+        this(new Adjacency(n, first, targets, null, null));
+    }
+
+    private CycleAnalysis(Adjacency adjacency) {
+        int n = adjacency.n;
+        int[] first = adjacency.first;
+        int[] targets = adjacency.targets;
+        nodes = adjacency.nodes;
+        ids = adjacency.ids;
+
+        // Tarjan with explicit stacks; components come out sinks first
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] next = new int[n];                     // next edge to follow, per node on the DFS path
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] path = new int[n];
+        int[] reverseComponent = new int[n];
+        boolean[] selfLoop = new boolean[n];
+        Arrays.fill(index, -1);
+        int counter = 0, sp = 0, components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            path[depth++] = root;
+            index[root] = low[root] = counter++;
+            next[root] = first[root];
+            stack[sp++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int v = path[depth - 1];
+                if (next[v] < first[v + 1]) {
+                    int w = targets[next[v]++];
+                    if (w == v) selfLoop[v] = true;
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        next[w] = first[w];
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        path[depth++] = w;
+                    } else if (onStack[w] && index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    if (low[v] < low[parent]) low[parent] = low[v];
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        reverseComponent[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+            }
+        }
+
+        // renumber upstream first and group the members (counting sort)
+        component = reverseComponent;
+        start = new int[components + 1];
+        for (int v = 0; v < n; v++) {
+            component[v] = components - 1 - component[v];
+            start[component[v] + 1]++;
+        }
+        for (int c = 0; c < components; c++) start[c + 1] += start[c];
+        order = new int[n];
+        int[] fill = Arrays.copyOf(start, components);
+        for (int v = 0; v < n; v++) order[fill[component[v]]++] = v;
+
+        cyclic = new boolean[components];
+        int count = 0;
+        for (int c = 0; c < components; c++) {
+            cyclic[c] = start[c + 1] - start[c] > 1 || selfLoop[order[start[c]]];
+            if (cyclic[c]) count++;
+        }
+        cyclicCount = count;
+    }
+
+    /**
+     * @brief Checks whether the graph has at least one cycle
+     * @return true if some component is cyclic
+     */
+    public boolean hasCycles() {return cyclicCount > 0;}
+
+    public int getNodeCount()           {return component.length;}
+    public int getComponentCount()      {return cyclic.length;}
+    public int getCyclicComponentCount() {return cyclicCount;}
+
+    /**
+     * @brief Checks whether a node lies on a cycle
+     * @param id The node id (see CompactGraph)
+     * @return true if its component is cyclic
+     */
+    public boolean isInCycle(int id) {return cyclic[component[id]];}
+
+    /**
+     * @brief Gets the component of a node
+     * @param id The node id (see CompactGraph)
+     * @return Its component number; upstream components have lower numbers
+     */
+    public int getComponent(int id) {return component[id];}
+
+    /**
+     * @brief Checks whether a component contains a cycle
+     * @param c The component number
+     * @return true if it has several nodes or a self-loop
+     */
+    public boolean isCyclic(int c) {return cyclic[c];}
+
+    /**
+     * @brief Gets the ids of the members of one component
+     * @param c The component number
+     * @return Its node ids
+     */
+    public int[] getComponentIds(int c) {return Arrays.copyOfRange(order, start[c], start[c + 1]);}
+
+    /**
+     * @brief Gets the node ids in topological order
+     * @return Every id after the ids of all nodes that can reach it without being reachable from it
+     */
+    public int[] getTopologicalIds() {return order.clone();}
+
+    /**
+     * @brief Checks whether a node lies on a cycle
+     * @param node The node
+     * @return true if its component is cyclic, false if it is not or was not analyzed
+     */
+    public boolean isInCycle(Node node) {
+        Integer id = idOf(node);
+        return id != null && cyclic[component[id]];
+    }
+
+    /**
+     * @brief Gets the component of a node
+     * @param node The node
+     * @return Its component number (upstream components have lower numbers), or -1 if not analyzed
+     */
+    public int getComponent(Node node) {
+        Integer id = idOf(node);
+        return id != null ? component[id] : -1;
+    }
+
+    /**
+     * @brief Gets the members of one component
+     * @param c The component number
+     * @return Its nodes
+     */
+    public List<Node> getComponentMembers(int c) {
+        requireNodes();
+        List<Node> members = new ArrayList<>(start[c + 1] - start[c]);
+        for (int i = start[c]; i < start[c + 1]; i++) members.add(nodes[order[i]]);
+        return members;
+    }
+
+    /**
+     * @brief Gets every component, upstream first
+     * @return One list of nodes per component
+     */
+    public List<List<Node>> getComponents() {
+        List<List<Node>> result = new ArrayList<>(cyclic.length);
+        for (int c = 0; c < cyclic.length; c++) result.add(getComponentMembers(c));
+        return result;
+    }
+
+    /**
+     * @brief Gets the cyclic components
+     * @return One list of nodes per cycle (strongly connected component), upstream first
+     */
+    public List<List<Node>> getCycles() {
+        List<List<Node>> result = new ArrayList<>(cyclicCount);
+        for (int c = 0; c < cyclic.length; c++) {
+            if (cyclic[c]) result.add(getComponentMembers(c));
+        }
+        return result;
+    }
+
+    /**
+     * @brief Gets every node that lies on a cycle
+     * @return The nodes of the cyclic components
+     */
+    public List<Node> getCycleNodes() {
+        List<Node> result = new ArrayList<>();
+        for (int c = 0; c < cyclic.length; c++) {
+            if (cyclic[c]) result.addAll(getComponentMembers(c));
+        }
+        return result;
+    }
+
+    /**
+     * @brief Gets the nodes in topological order
+     * @return Every node after all nodes that can reach it without being reachable from it;
+     *         the members of a cycle are adjacent, in no particular order
+     */
+    public List<Node> getTopologicalOrder() {
+        requireNodes();
+        Node[] sorted = new Node[order.length];
+        for (int i = 0; i < order.length; i++) sorted[i] = nodes[order[i]];
+        return Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+
+    private Integer idOf(Node node) {
+        requireNodes();
+        return ids.get(node);
+    }
+
+    private void requireNodes() {
+        if (nodes == null)
+            throw new IllegalStateException("Node objects are only available for an analysis of a Graph; use the id methods");
+    }
+
+    @Override
+    public String toString() {
+        return "CycleAnalysis{nodes=" + component.length + ", components=" + cyclic.length
+            + ", cyclicComponents=" + cyclicCount + "}";
+    }
+
+    /**
+     * @brief Compressed sparse row form of the graph being analyzed
+     */
+    private static final class Adjacency {
+        final int               n;
+        final int[]             first;
+        final int[]             targets;
+        final Node[]            nodes;
+        final Map<Node, Integer> ids;
+
+        Adjacency(int n, int[] first, int[] targets, Node[] nodes, Map<Node, Integer> ids) {
+            this.n       = n;
+            this.first   = first;
+            this.targets = targets;
+            this.nodes   = nodes;
+            this.ids     = ids;
+        }
+
+        /**
+         * @brief Assigns dense ids to the nodes (and the nodes they reach) and flattens their edges
+         */
+        static Adjacency of(List<Node> graph) {
+            Map<Node, Integer> ids = new IdentityHashMap<>(graph.size() * 2);
+            List<Node> all = new ArrayList<>(graph.size());
+            for (Node node : graph) {
+                if (ids.putIfAbsent(node, all.size()) == null) all.add(node);
+            }
+            int[] first = new int[all.size() + 1];
+            int[] targets = new int[16];
+            int edgeCount = 0;
+            for (int v = 0; v < all.size(); v++) {   // all grows while new targets are found
+                if (v + 1 >= first.length) first = Arrays.copyOf(first, first.length * 2);
+                first[v] = edgeCount;
+                for (Node dst : all.get(v).getEdges()) {
+                    Integer id = ids.get(dst);
+                    if (id == null) {
+                        id = all.size();
+                        ids.put(dst, id);
+                        all.add(dst);
+                    }
+                    if (edgeCount == targets.length) targets = Arrays.copyOf(targets, edgeCount * 2);
+                    targets[edgeCount++] = id;
+                }
+            }
+            int n = all.size();
+            first = Arrays.copyOf(first, n + 1);
+            first[n] = edgeCount;
+            return new Adjacency(n, first, targets, all.toArray(new Node[0]), ids);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package configs;
+
+import graph.ShapingAgent;
+import graph.ShapingConfig;
+import graph.ShapingMode;
+
+/**
+ * @file DeadbandAgent.java
+ * @brief Agent that republishes its input only when it moves by more than a deadband
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * DeadbandAgent republishes a message of its input topics only if its value
+ * differs by more than "deadband" from the last value it republished
+ * (non-numeric messages when their text changes), so noise around a
+ * steady value is filtered out. Slow drift still passes once it exceeds
+ * the deadband. See RateShaper and ShapingAgent.
+ */
+public class DeadbandAgent extends ShapingAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (at least 1 element)
+     * @param config Threshold (ShapingConfig with mode DEADBAND)
+     * @throws IllegalArgumentException if the topics are missing or the config is not a deadband configuration
+     */
+    public DeadbandAgent(String[] subs, String[] pubs, ShapingConfig config) {
+        super("DeadbandAgent", subs, pubs, config, ShapingMode.DEADBAND);
+    }
+}
@@ -0,0 +1,31 @@
+package configs;
+
+import graph.ShapingAgent;
+import graph.ShapingConfig;
+import graph.ShapingMode;
+
+/**
+ * @file DebounceAgent.java
+ * @brief Agent that republishes its input once it stops changing
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * DebounceAgent republishes the latest message of its input topics once no
+ * new message has arrived for "debounce" milliseconds, so a burst of
+ * updates produces a single publication of its final value. See
+ * RateShaper and ShapingAgent.
+ */
+public class DebounceAgent extends ShapingAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (at least 1 element)
+     * @param config Quiet period (ShapingConfig with mode DEBOUNCE)
+     * @throws IllegalArgumentException if the topics are missing or the config is not a debounce configuration
+     */
+    public DebounceAgent(String[] subs, String[] pubs, ShapingConfig config) {
+        super("DebounceAgent", subs, pubs, config, ShapingMode.DEBOUNCE);
+    }
+}
@@ -0,0 +1,33 @@
+package configs;
+
+import graph.Ewma;
+import graph.StatisticsAgent;
+
+/**
+ * @file EwmaAgent.java
+ * @brief Agent that publishes an exponentially weighted moving average of its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * EwmaAgent smooths the values of its input topics with a fixed weight per
+ * value (alpha) or a weight that halves every halfLife milliseconds, and
+ * publishes the average ("ewma") and its weighted standard deviation
+ * ("stddev"), or the outputs named in its configuration. Memory is
+ * constant. See Ewma and StatisticsAgent.
+ */
+public class EwmaAgent extends StatisticsAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names, one per output
+     * @param ewma The average to maintain (Ewma.withAlpha or Ewma.withHalfLife)
+     * @param outputs Output published to each publication, or null for "ewma", "stddev"
+     * @param intervalMillis Minimum time between two publications (0 for every value)
+     * @throws IllegalArgumentException if the topics or outputs are invalid
+     */
+    public EwmaAgent(String[] subs, String[] pubs, Ewma ewma, String[] outputs, long intervalMillis) {
+        super("EwmaAgent", subs, pubs, ewma, outputs, intervalMillis);
+    }
+}
@@ -1,6 +1,11 @@
 package configs;
 
 import graph.Agent;
+import graph.ExecutionMode;
+import graph.IdleStrategy;
+import graph.MailboxConfig;
+import graph.MailboxType;
+import graph.OverflowPolicy;
 import graph.ParallelAgent;
 
 import java.io.BufferedReader;
@@ -33,6 +38,12 @@ public class GenericConfig implements Config {
     
     /** @brief List of instantiated parallel agents created from configuration */
     private final List<ParallelAgent> agents = new ArrayList<>();
+    
+    /** @brief How the ParallelAgent wrappers execute (one thread each by default) */
+    private ExecutionMode executionMode = ExecutionMode.DEDICATED_THREAD;
+    
+    /** @brief Mailbox of the ParallelAgent wrappers unless an agent line overrides it, null for the mode's default */
+    private MailboxConfig mailbox;
 
     /**
      * @brief Sets the configuration file path from a string
@@ -48,6 +59,45 @@ public class GenericConfig implements Config {
      * @param p Path object pointing to the configuration file
      */
     public void setConfFile(Path   p)       { this.confFile = p; }
+    
+    /**
+     * @brief Selects how the created agents are executed
+     * @param mode DEDICATED_THREAD (default) or SHARED_POOL
+     * @throws IllegalArgumentException if mode is SYNCHRONOUS
+     * 
+     * Must be called before create(). SHARED_POOL lets configurations with
+     * thousands of agents run on a core-sized carrier pool instead of one
+     * OS thread per agent.
+     */
+    public void setExecutionMode(ExecutionMode mode) {
+        if (mode == ExecutionMode.SYNCHRONOUS)
+            throw new IllegalArgumentException("GenericConfig always wraps agents in ParallelAgent");
+        this.executionMode = mode;
+    }
+    
+    /**
+     * @brief Selects the mailbox used by the created agents
+     * @param type BLOCKING (default) or RING
+     * @param idle How a RING mailbox waits when empty or full
+     * 
+     * Must be called before create().
+     */
+    public void setMailbox(MailboxType type, IdleStrategy idle) {
+        MailboxConfig base = defaultMailbox();
+        this.mailbox = new MailboxConfig(base.getCapacity(), type, idle,
+                base.getOverflowPolicy(), base.getBlockTimeoutMillis());
+    }
+    
+    /**
+     * @brief Sets the default mailbox of the created agents
+     * @param config Capacity, implementation and overflow policy to use
+     * 
+     * Must be called before create(). Options on an agent's class line
+     * override the capacity, overflow policy and timeout for that agent.
+     */
+    public void setMailboxConfig(MailboxConfig config) {
+        this.mailbox = config;
+    }
 
     /**
      * @brief Returns the name of this configuration type
@@ -68,12 +118,16 @@ public class GenericConfig implements Config {
      * @throws RuntimeException if agent class loading or instantiation fails
      * 
      * Reads the configuration file and processes it in triplets of lines:
-     * 1. Fully qualified class name of the agent
+     * 1. Fully qualified class name of the agent, optionally followed by
+     *    capacity=N, overflow=POLICY and timeout=MILLIS options
      * 2. Comma-separated list of subscription topic names
      * 3. Comma-separated list of publication topic names
      * 
      * Each agent is instantiated using reflection and wrapped in a ParallelAgent
-     * with a buffer size of 128 for concurrent message processing.
+     * for concurrent message processing, executed according to the selected
+     * ExecutionMode. Its mailbox is the configured default (capacity 128,
+     * blocking when full, for at most 100 ms under SHARED_POOL) unless the
+     * class line declares options.
      */
     @Override
     public void create() {
@@ -85,7 +139,8 @@ public class GenericConfig implements Config {
             throw new IllegalArgumentException("Config file must come in triplets");
 
         for (int i = 0; i < lines.size(); i += 3) {
-            String className = lines.get(i).trim();
+            String[] classLine = lines.get(i).trim().split("\\s+");
+            String className = classLine[0];
             String[] subs = split(lines.get(i + 1));
             String[] pubs = split(lines.get(i + 2));
 
@@ -94,8 +149,9 @@ public class GenericConfig implements Config {
                 Constructor<?> ctor  =
                         clazz.getConstructor(String[].class, String[].class);
 
+                MailboxConfig agentMailbox = mailboxFor(classLine);
                 Agent core = (Agent) ctor.newInstance((Object) subs, (Object) pubs);
-                agents.add(new ParallelAgent(core, 128));
+                agents.add(new ParallelAgent(core, executionMode, subs, agentMailbox));
             } catch (Exception e) {
                 throw new RuntimeException("Failed to load " + className, e);
             }
@@ -138,6 +194,41 @@ public class GenericConfig implements Config {
         }
     }
 
+    /**
+     * @brief Applies the key=value options of an agent's class line to the default mailbox
+     * @param classLine The class line split on whitespace (class name first)
+     * @return The mailbox configuration for this agent
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    private MailboxConfig mailboxFor(String[] classLine) {
+        MailboxConfig mailbox = defaultMailbox();
+        if (classLine.length == 1) return mailbox;
+
+        int capacity = mailbox.getCapacity();
+        OverflowPolicy overflow = mailbox.getOverflowPolicy();
+        long timeout = mailbox.getBlockTimeoutMillis();
+        for (int i = 1; i < classLine.length; i++) {
+            int eq = classLine[i].indexOf('=');
+            String key = eq > 0 ? classLine[i].substring(0, eq) : classLine[i];
+            String value = eq > 0 ? classLine[i].substring(eq + 1) : "";
+            switch (key) {
+                case "capacity": capacity = Integer.parseInt(value); break;
+                case "overflow": overflow = OverflowPolicy.fromString(value); break;
+                case "timeout":  timeout  = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown agent option: " + classLine[i]);
+            }
+        }
+        return new MailboxConfig(capacity, mailbox.getType(), mailbox.getIdleStrategy(), overflow, timeout);
+    }
+
+    /**
+     * @brief Gets the mailbox used unless an agent line overrides it
+     * @return The configured mailbox, or the default of the execution mode
+     */
+    private MailboxConfig defaultMailbox() {
+        return mailbox != null ? mailbox : MailboxConfig.defaultFor(executionMode);
+    }
+
     /**
      * @brief Splits a comma-separated line into an array of strings
      * @param line The input line containing comma-separated values
@@ -5,8 +5,7 @@ package configs;
 import graph.TopicManagerSingleton;
 import graph.TopicManagerSingleton.TopicManager;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * @file Graph.java
@@ -19,23 +18,37 @@ import java.util.Map;
  * topics and agents in the system. It can construct itself from the current
  * TopicManager state and detect cycles that could lead to infinite message
  * loops or deadlocks in the agent communication system.
+ * 
+ * Cycle detection runs one iterative Tarjan pass (see CycleAnalysis), which
+ * also yields the strongly connected components and a topological order.
+ * The graph is a plain, mutable list of nodes, so the analysis always runs
+ * on the nodes and edges it holds; for the live topology in O(1), ask the
+ * TopicManager's TopologyIndex instead.
  */
 public class Graph extends ArrayList<Node> {
 
+    /** @brief TopicManager version the graph was built at, -1 if not built from topics */
+    private long builtVersion = -1;
+
     /**
      * @brief Checks if the graph contains any cycles
      * @return true if any cycles are detected in the graph, false otherwise
      * 
-     * Iterates through all nodes in the graph and uses each node's individual
-     * cycle detection capability to determine if there are any strongly
-     * connected components with cycles. This is crucial for validating
-     * that the agent communication topology is acyclic.
+     * Runs a single strongly connected component analysis over the whole
+     * graph in O(N + E), including nodes and edges added after
+     * createFromTopics(). This is crucial for validating that the agent
+     * communication topology is acyclic.
      */
     public boolean hasCycles() {
-        for (Node n : this) {
-            if (n.hasCycles()) return true;
-        }
-        return false;
+        return analyzeCycles().hasCycles();
+    }
+
+    /**
+     * @brief Computes the strongly connected components of the graph
+     * @return Components, topological order and cycle membership of every node
+     */
+    public CycleAnalysis analyzeCycles() {
+        return new CycleAnalysis(this);
     }
 
     /**
@@ -43,40 +56,43 @@ public class Graph extends ArrayList<Node> {
      * 
      * This method builds a directed graph representation where:
      * - Topic nodes are prefixed with "T" (e.g., "Ttopic_name")
-     * - Agent nodes are prefixed with "A" (e.g., "Aagent_name")
+     * - Agent nodes are prefixed with "A" (e.g., "Aagent_name"); each agent
+     *   instance gets its own node, even if several share a name
      * - Edges represent data flow: topic → subscriber agents, publisher agents → topic
      * 
      * The resulting graph can be used for topology analysis, cycle detection,
      * and visualization of the message flow patterns in the system.
+     * 
+     * The topology is read once into a CompactGraph, whose rows are already
+     * free of duplicate edges, and the nodes are created from it.
      */
     public void createFromTopics() {
         clear();
-        Map<String,Node> map = new HashMap<>();
         TopicManager tm = TopicManagerSingleton.get();
+        builtVersion = tm.getVersion();
+        CompactGraph snapshot = CompactGraph.fromTopics(tm.getTopics());
 
-        /**
-         * @brief Helper function to get or create a node by name
-         * Uses computeIfAbsent to efficiently manage node creation and retrieval
-         */
-        java.util.function.Function<String,Node> get =
-            nm -> map.computeIfAbsent(nm, Node::new);
-
-        /* Topics: T<name>  |  Agents: A<name> */
-        tm.getTopics().forEach(t -> {
-            Node topicNode = get.apply("T" + t.name);
-            /* edges: topic → subscriber agents */
-            t.getSubs().forEach(ag -> {
-                Node agentNode = get.apply("A" + ag.getName());
-                topicNode.addEdge(agentNode);
-            });
-            
-            /* edges: publisher agents → topic */
-            t.getPubs().forEach(ag -> {
-                Node agentNode = get.apply("A" + ag.getName());
-                agentNode.addEdge(topicNode);
-            });
-        });
+        /* Topics: T<name>  |  Agents: A<name>, one node per id */
+        Node[] nodes = new Node[snapshot.getNodeCount()];
+        for (int id = 0; id < nodes.length; id++) {
+            nodes[id] = new Node(snapshot.getName(id));
+        }
+        /* edges: topic → subscriber agents, publisher agents → topic */
+        for (int id = 0; id < nodes.length; id++) {
+            for (int dst : snapshot.successors(id)) {
+                nodes[id].addEdge(nodes[dst]);
+            }
+        }
+        addAll(Arrays.asList(nodes));
+    }
 
-        addAll(map.values());
+    /**
+     * @brief Checks whether the graph still matches the TopicManager
+     * @return true if it was built by createFromTopics() and no topic,
+     *         subscription or publisher changed since (changes made to the
+     *         graph itself are not tracked)
+     */
+    public boolean isCurrent() {
+        return builtVersion >= 0 && builtVersion == TopicManagerSingleton.get().getVersion();
     }
 }
@@ -77,7 +77,7 @@ public class IncAgent implements Agent {
      */
     @Override
     public void callback(String topic, Message msg) {
-        double v = msg.asDouble;
+        double v = msg.asDouble();
         if (!Double.isNaN(v))
             out.publish(new Message(v + 1));
     }
@@ -0,0 +1,53 @@
+package configs;
+
+import graph.AggregateAgent;
+import graph.IndexedDoubleHeap;
+
+/**
+ * @file MaxAgent.java
+ * @brief N-ary agent that publishes the largest of its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * MaxAgent subscribes to any number of topics and publishes the largest of
+ * their last values. The inputs are kept in an indexed max-heap, so a
+ * changed input is moved in place in O(log N) and the maximum is read in
+ * O(1). See AggregateAgent.
+ */
+public class MaxAgent extends AggregateAgent {
+
+    /** @brief Input values by slot, largest on top */
+    private final IndexedDoubleHeap heap;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (must have at least 1 element)
+     * @throws IllegalArgumentException if subs or pubs is empty
+     */
+    public MaxAgent(String[] subs, String[] pubs) {
+        super("MaxAgent", subs, pubs);
+        heap = new IndexedDoubleHeap(subs.length, true);
+    }
+
+    @Override
+    protected void insert(int slot, double value) {
+        heap.set(slot, value);
+    }
+
+    @Override
+    protected void update(int slot, double oldValue, double newValue) {
+        heap.set(slot, newValue);
+    }
+
+    @Override
+    protected double result() {
+        return heap.peek();
+    }
+
+    @Override
+    protected void clear() {
+        heap.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package configs;
+
+import graph.AggregateAgent;
+import graph.IndexedDoubleHeap;
+
+/**
+ * @file MinAgent.java
+ * @brief N-ary agent that publishes the smallest of its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * MinAgent subscribes to any number of topics and publishes the smallest of
+ * their last values. The inputs are kept in an indexed min-heap, so a
+ * changed input is moved in place in O(log N) and the minimum is read in
+ * O(1). See AggregateAgent.
+ */
+public class MinAgent extends AggregateAgent {
+
+    /** @brief Input values by slot, smallest on top */
+    private final IndexedDoubleHeap heap;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (must have at least 1 element)
+     * @throws IllegalArgumentException if subs or pubs is empty
+     */
+    public MinAgent(String[] subs, String[] pubs) {
+        super("MinAgent", subs, pubs);
+        heap = new IndexedDoubleHeap(subs.length, false);
+    }
+
+    @Override
+    protected void insert(int slot, double value) {
+        heap.set(slot, value);
+    }
+
+    @Override
+    protected void update(int slot, double oldValue, double newValue) {
+        heap.set(slot, newValue);
+    }
+
+    @Override
+    protected double result() {
+        return heap.peek();
+    }
+
+    @Override
+    protected void clear() {
+        heap.clear();
+    }
+}
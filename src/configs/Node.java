@@ -2,9 +2,13 @@ package configs;
 
 import graph.Message;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -20,12 +24,18 @@ import java.util.Set;
  * with cycles using depth-first search algorithms.
  */
 public class Node {
+    /** @brief Edge count from which duplicates are checked with a set */
+    private static final int EDGE_SET_THRESHOLD = 16;
+    
     /** @brief Name identifier for this node */
     private String     name;
     
     /** @brief List of outgoing edges to other nodes */
     private List<Node> edges = new ArrayList<>();
     
+    /** @brief Set view of edges, created once the list is long enough for contains() to matter */
+    private Set<Node> edgeSet = null;
+    
     /** @brief Optional message associated with this node */
     private Message    message = null;
 
@@ -70,42 +80,57 @@ public class Node {
      * @param dst The destination node to connect to
      * 
      * Creates a directed edge if it doesn't already exist. Duplicate edges
-     * to the same destination are prevented by checking containment.
+     * to the same destination are prevented by checking containment; nodes
+     * with many edges keep an identity set for that, so high fan-out stays
+     * linear.
      */
     public void addEdge(Node dst) {
-        if (!edges.contains(dst)) edges.add(dst);
+        if (edgeSet == null) {
+            if (edges.contains(dst)) return;
+            edges.add(dst);
+            if (edges.size() == EDGE_SET_THRESHOLD) {
+                edgeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                edgeSet.addAll(edges);
+            }
+        } else if (edgeSet.add(dst)) {
+            edges.add(dst);
+        }
     }
 
     /**
      * @brief Detects if this node participates in any cycles within its strongly connected component
      * @return true if cycles are detected, false otherwise
      * 
-     * Uses depth-first search with a recursion stack to detect back edges
-     * that indicate the presence of cycles. This is particularly useful
-     * for validating directed acyclic graph (DAG) properties.
+     * Uses depth-first search to detect back edges that indicate the
+     * presence of a cycle reachable from this node. The search keeps its
+     * path on an explicit stack, so long chains cannot overflow the thread
+     * stack. To check a whole graph, use Graph.analyzeCycles() instead of
+     * calling this for every node.
      */
     public boolean hasCycles() {
-        return dfs(this, new HashSet<>(), new HashSet<>());
-    }
-    
-    /**
-     * @brief Internal depth-first search method for cycle detection
-     * @param cur Current node being visited in the DFS traversal
-     * @param seen Set of nodes that have been completely processed
-     * @param stack Set of nodes in the current recursion stack (path)
-     * @return true if a back edge (cycle) is detected, false otherwise
-     * 
-     * This private helper implements the classic DFS-based cycle detection
-     * algorithm using three colors: white (unvisited), gray (in stack),
-     * and black (completely processed).
-     */
-    private boolean dfs(Node cur, Set<Node> seen, Set<Node> stack) {
-        if (stack.contains(cur)) return true;
-        if (seen.contains(cur))  return false;
-        seen.add(cur); stack.add(cur);
-        for (Node nxt : cur.edges)
-            if (dfs(nxt, seen, stack)) return true;
-        stack.remove(cur);
+        // three colors: absent (unvisited), TRUE (on the current path), FALSE (done)
+        Map<Node, Boolean> onPath = new IdentityHashMap<>();
+        ArrayDeque<Node> path = new ArrayDeque<>();
+        ArrayDeque<Iterator<Node>> pending = new ArrayDeque<>();
+        onPath.put(this, Boolean.TRUE);
+        path.push(this);
+        pending.push(edges.iterator());
+        while (!path.isEmpty()) {
+            Iterator<Node> it = pending.peek();
+            if (!it.hasNext()) {
+                onPath.put(path.pop(), Boolean.FALSE);
+                pending.pop();
+                continue;
+            }
+            Node nxt = it.next();
+            Boolean state = onPath.get(nxt);
+            if (state == Boolean.TRUE) return true;  // back edge
+            if (state == null) {
+                onPath.put(nxt, Boolean.TRUE);
+                path.push(nxt);
+                pending.push(nxt.edges.iterator());
+            }
+        }
         return false;
     }
 }
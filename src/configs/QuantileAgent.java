@@ -0,0 +1,36 @@
+package configs;
+
+import graph.LogHistogram;
+import graph.StatisticsAgent;
+
+/**
+ * @file QuantileAgent.java
+ * @brief Agent that publishes quantiles (p50, p95, p99, ...) of its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * QuantileAgent counts every value of its input topics in a LogHistogram
+ * and publishes the quantiles named in its configuration ("p50", "p99.9",
+ * "median", ..., default "p50", "p95", "p99"). Each quantile is within the
+ * configured relative accuracy of the exact one, and memory depends only
+ * on the spread of the values. See LogHistogram and StatisticsAgent.
+ */
+public class QuantileAgent extends StatisticsAgent {
+
+    /** @brief Relative accuracy used when the configuration names none */
+    public static final double DEFAULT_ACCURACY = 0.01;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names, one per output
+     * @param accuracy Relative accuracy of the quantiles, in (0, 1)
+     * @param outputs Output published to each publication, or null for "p50", "p95", "p99"
+     * @param intervalMillis Minimum time between two publications (0 for every value)
+     * @throws IllegalArgumentException if the topics, accuracy or outputs are invalid
+     */
+    public QuantileAgent(String[] subs, String[] pubs, double accuracy, String[] outputs, long intervalMillis) {
+        super("QuantileAgent", subs, pubs, new LogHistogram(accuracy), outputs, intervalMillis);
+    }
+}
@@ -0,0 +1,31 @@
+package configs;
+
+import graph.ShapingAgent;
+import graph.ShapingConfig;
+import graph.ShapingMode;
+
+/**
+ * @file SampleAgent.java
+ * @brief Agent that republishes its latest input at a fixed rate
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * SampleAgent republishes, once every "sample" milliseconds, the latest
+ * message of its input topics if a new one arrived during the period, so
+ * a fast stream reaches its subscribers at a bounded, steady rate. See
+ * RateShaper and ShapingAgent.
+ */
+public class SampleAgent extends ShapingAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (at least 1 element)
+     * @param config Sampling period (ShapingConfig with mode SAMPLE)
+     * @throws IllegalArgumentException if the topics are missing or the config is not a sample configuration
+     */
+    public SampleAgent(String[] subs, String[] pubs, ShapingConfig config) {
+        super("SampleAgent", subs, pubs, config, ShapingMode.SAMPLE);
+    }
+}
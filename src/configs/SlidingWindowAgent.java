@@ -0,0 +1,122 @@
+package configs;
+
+import graph.Agent;
+import graph.Message;
+import graph.Topic;
+import graph.TopicManagerSingleton;
+import graph.TopicManagerSingleton.TopicManager;
+import graph.WindowBuffer;
+import graph.WindowFunction;
+
+/**
+ * @file SlidingWindowAgent.java
+ * @brief Agent that publishes an aggregate over the last N messages or T milliseconds
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * SlidingWindowAgent subscribes to one topic and, after every valid
+ * message, publishes a WindowFunction (sum, avg, min, max, count or rate) of
+ * the values in its window:
+ * - a count window (size=N) holds the last N values;
+ * - a time window (span=T) holds the values whose messages were created in
+ *   the last T milliseconds. Older values are evicted when a message
+ *   arrives, so a quiet topic keeps its last published result.
+ *
+ * The values live in a WindowBuffer, so an update is O(1) amortized and
+ * allocates nothing but the published Message. For count windows, rate is
+ * the number of messages per second between the oldest and the newest
+ * value. Undefined results (e.g. a rate before the second message) are not
+ * published. NaN inputs are ignored.
+ */
+public class SlidingWindowAgent implements Agent {
+
+    /** @brief Name of the subscription topic */
+    private final String sub;
+
+    /** @brief Output topic where the aggregate is published */
+    private final Topic out;
+
+    /** @brief Reference to the TopicManager for topic operations */
+    private final TopicManager tm;
+
+    private final WindowFunction function;
+
+    /** @brief Window length in nanoseconds, or 0 for a count window */
+    private final long spanNanos;
+
+    private final WindowBuffer buffer;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (the first one is used)
+     * @param pubs Array of publication topic names (the first one is used)
+     * @param function The aggregate to publish
+     * @param size Number of values in a count window, or 0 for a time window
+     * @param spanMillis Length of a time window in milliseconds, or 0 for a count window
+     * @throws IllegalArgumentException if subs or pubs is empty, or unless exactly one
+     *         of size and spanMillis is positive
+     */
+    public SlidingWindowAgent(String[] subs, String[] pubs, WindowFunction function,
+                              int size, long spanMillis) {
+        if (subs.length == 0 || pubs.length == 0)
+            throw new IllegalArgumentException("SlidingWindowAgent needs 1 sub & 1 pub");
+        if ((size > 0) == (spanMillis > 0))
+            throw new IllegalArgumentException("SlidingWindowAgent needs either a size or a span");
+
+        this.function  = function;
+        this.spanNanos = spanMillis * 1_000_000L;
+        buffer = size > 0
+            ? new WindowBuffer(size, false, function.needsExtremes())
+            : new WindowBuffer(16, true, function.needsExtremes());
+
+        sub = subs[0];
+        tm  = TopicManagerSingleton.get();
+        tm.getTopic(sub).subscribe(this);
+
+        out = tm.getTopic(pubs[0]);
+        out.addPublisher(this);
+    }
+
+    @Override public String getName() { return "SlidingWindowAgent"; }
+
+    /**
+     * @brief Gets the aggregate this agent publishes
+     * @return The window function
+     */
+    public WindowFunction getFunction() { return function; }
+
+    @Override
+    public void reset() {
+        buffer.clear();
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        double v = msg.asDouble();
+        if (Double.isNaN(v)) return;                // ignore bad data
+
+        long now = msg.nanoTime();
+        if (spanNanos > 0) buffer.evictThrough(now - spanNanos);
+        buffer.add(now, v);
+
+        double result = function.evaluate(buffer.size(), buffer.sum(), buffer.min(), buffer.max(), rate());
+        if (!Double.isNaN(result))
+            out.publish(new Message(result));
+    }
+
+    @Override
+    public void close() {
+        tm.getTopic(sub).unsubscribe(this);
+        out.removePublisher(this);
+    }
+
+    /**
+     * @brief Messages per second over the window
+     */
+    private double rate() {
+        if (spanNanos > 0) return buffer.size() * 1e9 / spanNanos;
+        long elapsed = buffer.newestStamp() - buffer.oldestStamp();
+        return elapsed > 0 ? (buffer.size() - 1) * 1e9 / elapsed : Double.NaN;
+    }
+}
@@ -0,0 +1,114 @@
+package configs;
+
+import graph.AggregateAgent;
+
+/**
+ * @file SumAgent.java
+ * @brief N-ary agent that publishes the sum of all its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * SumAgent subscribes to any number of topics and publishes the sum of
+ * their last values. A changed input adds its difference to the running
+ * sum, so one update costs O(1) however many inputs there are. The running
+ * sum is compensated (Neumaier) so the differences do not accumulate
+ * rounding error, and it is recomputed from the inputs once every
+ * RECOMPUTE_FACTOR * N updates, which is still O(1) per update on average.
+ * Infinite inputs are counted apart from the finite ones, so replacing an
+ * infinity never turns the sum into NaN. See AggregateAgent.
+ */
+public class SumAgent extends AggregateAgent {
+
+    /** @brief Updates per input between two full recomputations */
+    static final int RECOMPUTE_FACTOR = 64;
+
+    /** @brief Running sum of the finite inputs and its compensation term */
+    private double sum;
+    private double compensation;
+
+    /** @brief Number of inputs at +infinity and at -infinity */
+    private int positiveInfinities;
+    private int negativeInfinities;
+
+    /** @brief Updates since the last full recomputation */
+    private long updates;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (must have at least 1 element)
+     * @throws IllegalArgumentException if subs or pubs is empty
+     */
+    public SumAgent(String[] subs, String[] pubs) {
+        this("SumAgent", subs, pubs);
+    }
+
+    /**
+     * @brief Creates a subclass that builds on the sum
+     * @param name Name reported by getName()
+     * @param subs Array of subscription topic names
+     * @param pubs Array of publication topic names
+     */
+    protected SumAgent(String name, String[] subs, String[] pubs) {
+        super(name, subs, pubs);
+    }
+
+    @Override
+    protected void insert(int slot, double value) {
+        add(value, 1);
+    }
+
+    @Override
+    protected void update(int slot, double oldValue, double newValue) {
+        if (++updates >= (long) RECOMPUTE_FACTOR * getInputCount()) {
+            recompute();
+            return;
+        }
+        add(oldValue, -1);
+        add(newValue, 1);
+    }
+
+    @Override
+    protected double result() {
+        if (positiveInfinities > 0) {
+            return negativeInfinities > 0 ? Double.NaN : Double.POSITIVE_INFINITY;
+        }
+        if (negativeInfinities > 0) return Double.NEGATIVE_INFINITY;
+        return sum + compensation;
+    }
+
+    @Override
+    protected void clear() {
+        sum = compensation = 0;
+        positiveInfinities = negativeInfinities = 0;
+        updates = 0;
+    }
+
+    /**
+     * @brief Adds (sign 1) or removes (sign -1) one input value
+     */
+    private void add(double value, int sign) {
+        if (value == Double.POSITIVE_INFINITY) {
+            positiveInfinities += sign;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            negativeInfinities += sign;
+        } else {
+            double x = sign * value;
+            double t = sum + x;
+            if (Math.abs(sum) >= Math.abs(x)) compensation += (sum - t) + x;
+            else compensation += (x - t) + sum;
+            sum = t;
+        }
+    }
+
+    /**
+     * @brief Rebuilds the running sum from the current inputs
+     */
+    private void recompute() {
+        clear();
+        for (int slot = 0; slot < getInputCount(); slot++) {
+            if (hasValue(slot)) add(valueAt(slot), 1);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package configs;
+
+import graph.ShapingAgent;
+import graph.ShapingConfig;
+import graph.ShapingMode;
+
+/**
+ * @file ThrottleAgent.java
+ * @brief Agent that republishes at most N of its inputs per second
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * ThrottleAgent republishes at most "throttle" messages per second of its
+ * input topics: with "leading" the first message of a burst passes
+ * immediately, with "trailing" the last message of a burst is published
+ * when the interval ends (both by default). See RateShaper and
+ * ShapingAgent.
+ */
+public class ThrottleAgent extends ShapingAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names (at least 1 element)
+     * @param config Rate and edges (ShapingConfig with mode THROTTLE)
+     * @throws IllegalArgumentException if the topics are missing or the config is not a throttle configuration
+     */
+    public ThrottleAgent(String[] subs, String[] pubs, ShapingConfig config) {
+        super("ThrottleAgent", subs, pubs, config, ShapingMode.THROTTLE);
+    }
+}
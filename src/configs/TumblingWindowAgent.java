@@ -0,0 +1,186 @@
+package configs;
+
+import graph.Agent;
+import graph.AgentScheduler;
+import graph.Message;
+import graph.Topic;
+import graph.TopicManagerSingleton;
+import graph.TopicManagerSingleton.TopicManager;
+import graph.WindowFunction;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @file TumblingWindowAgent.java
+ * @brief Agent that publishes one aggregate per consecutive, non-overlapping window
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * TumblingWindowAgent subscribes to one topic and splits its messages into
+ * back-to-back windows, publishing a WindowFunction (sum, avg, min, max,
+ * count or rate) of each window exactly once, when the window closes:
+ * - a count window (size=N) closes with its Nth value;
+ * - a time window (span=T) closes every T milliseconds, on the shared
+ *   AgentScheduler timer, whether or not messages arrived. An empty window
+ *   publishes its count, sum and rate (0); min, max and avg are undefined
+ *   and not published. Its subscribers are then called from the pool, so
+ *   a configuration with "sync" execution cannot use time windows.
+ *
+ * Only the running count, sum, minimum and maximum of the open window are
+ * kept, so an update is O(1) and allocates nothing. For count windows,
+ * rate is the number of messages per second between the first and the
+ * last value of the window. NaN inputs are ignored.
+ */
+public class TumblingWindowAgent implements Agent {
+
+    /** @brief Name of the subscription topic */
+    private final String sub;
+
+    /** @brief Output topic where the aggregates are published */
+    private final Topic out;
+
+    /** @brief Reference to the TopicManager for topic operations */
+    private final TopicManager tm;
+
+    private final WindowFunction function;
+
+    /** @brief Values per count window, or 0 for a time window */
+    private final int size;
+
+    /** @brief Window length in milliseconds, or 0 for a count window */
+    private final long spanMillis;
+
+    /** @brief Closes time windows; null for count windows */
+    private final ScheduledFuture<?> ticker;
+
+    /** @brief Running aggregates of the open window (guarded by this) */
+    private long   count;
+    private double sum;
+    private double min;
+    private double max;
+    private long   firstStamp;
+    private long   lastStamp;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (the first one is used)
+     * @param pubs Array of publication topic names (the first one is used)
+     * @param function The aggregate to publish
+     * @param size Number of values per count window, or 0 for a time window
+     * @param spanMillis Length of a time window in milliseconds, or 0 for a count window
+     * @throws IllegalArgumentException if subs or pubs is empty, or unless exactly one
+     *         of size and spanMillis is positive
+     */
+    public TumblingWindowAgent(String[] subs, String[] pubs, WindowFunction function,
+                               int size, long spanMillis) {
+        if (subs.length == 0 || pubs.length == 0)
+            throw new IllegalArgumentException("TumblingWindowAgent needs 1 sub & 1 pub");
+        if ((size > 0) == (spanMillis > 0))
+            throw new IllegalArgumentException("TumblingWindowAgent needs either a size or a span");
+
+        this.function   = function;
+        this.size       = size;
+        this.spanMillis = spanMillis;
+        clearWindow();
+
+        sub = subs[0];
+        tm  = TopicManagerSingleton.get();
+        tm.getTopic(sub).subscribe(this);
+
+        out = tm.getTopic(pubs[0]);
+        out.addPublisher(this);
+
+        // the timer thread only hands the boundary to the pool
+        Runnable close = this::closeWindow;
+        ticker = spanMillis > 0
+            ? AgentScheduler.timer().scheduleAtFixedRate(
+                () -> AgentScheduler.shared().execute(close), spanMillis, spanMillis, TimeUnit.MILLISECONDS)
+            : null;
+    }
+
+    @Override public String getName() { return "TumblingWindowAgent"; }
+
+    /**
+     * @brief Gets the aggregate this agent publishes
+     * @return The window function
+     */
+    public WindowFunction getFunction() { return function; }
+
+    @Override
+    public synchronized void reset() {
+        clearWindow();
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        double v = msg.asDouble();
+        if (Double.isNaN(v)) return;                // ignore bad data
+
+        double result;
+        synchronized (this) {
+            long stamp = msg.nanoTime();
+            if (count == 0) firstStamp = stamp;
+            lastStamp = stamp;
+            count++;
+            sum += v;
+            if (v < min) min = v;
+            if (v > max) max = v;
+            if (size == 0 || count < size) return;
+            result = takeWindow();
+        }
+        publish(result);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) ticker.cancel(false);
+        tm.getTopic(sub).unsubscribe(this);
+        out.removePublisher(this);
+    }
+
+    /**
+     * @brief Publishes the aggregate of the open window and starts the next one
+     */
+    private void closeWindow() {
+        double result;
+        synchronized (this) {
+            result = takeWindow();
+        }
+        publish(result);
+    }
+
+    /**
+     * @brief Computes the aggregate of the open window and empties it (holding the lock)
+     */
+    private double takeWindow() {
+        double result = function.evaluate(count, sum, min, max, rate());
+        clearWindow();
+        return result;
+    }
+
+    /**
+     * @brief Publishes a window aggregate, outside the lock, unless it is undefined
+     */
+    private void publish(double result) {
+        if (!Double.isNaN(result))
+            out.publish(new Message(result));
+    }
+
+    /**
+     * @brief Messages per second over the open window
+     */
+    private double rate() {
+        if (spanMillis > 0) return count * 1000.0 / spanMillis;
+        long elapsed = lastStamp - firstStamp;
+        return elapsed > 0 ? (count - 1) * 1e9 / elapsed : Double.NaN;
+    }
+
+    private void clearWindow() {
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+}
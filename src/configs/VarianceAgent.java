@@ -0,0 +1,32 @@
+package configs;
+
+import graph.RunningVariance;
+import graph.StatisticsAgent;
+
+/**
+ * @file VarianceAgent.java
+ * @brief Agent that publishes the running variance of its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * VarianceAgent keeps the count, mean and variance of every value of its
+ * input topics with Welford's method and publishes the variance, standard
+ * deviation and mean ("variance", "stddev", "mean"), or the outputs named
+ * in its configuration. Memory is constant. See RunningVariance and
+ * StatisticsAgent.
+ */
+public class VarianceAgent extends StatisticsAgent {
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param subs Array of subscription topic names (at least 1 element)
+     * @param pubs Array of publication topic names, one per output
+     * @param outputs Output published to each publication, or null for "variance", "stddev", "mean"
+     * @param intervalMillis Minimum time between two publications (0 for every value)
+     * @throws IllegalArgumentException if the topics or outputs are invalid
+     */
+    public VarianceAgent(String[] subs, String[] pubs, String[] outputs, long intervalMillis) {
+        super("VarianceAgent", subs, pubs, new RunningVariance(), outputs, intervalMillis);
+    }
+}
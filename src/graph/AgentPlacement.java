@@ -0,0 +1,466 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @file AgentPlacement.java
+ * @brief Pins groups of connected agents to a few worker threads
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * With one thread (or one mailbox) per agent every edge of the graph is a
+ * cross-thread handoff: an enqueue, a wakeup and the message's cache lines
+ * moving between cores. An AgentPlacement runs a fixed number of worker
+ * threads and assigns each PlacedAgent to one of them. A message between
+ * two agents on the same worker is a plain method call; only messages that
+ * cross workers, or come from outside (e.g. the HTTP thread), are queued.
+ *
+ * repartition() splits the agent graph with a GraphPartitioner into one
+ * group per worker, minimizing the edge weight between groups while
+ * keeping the groups' loads balanced. Edges are weighted by the messages
+ * observed on them since the previous repartition, so it can be called
+ * again at runtime (see the /app/placement endpoint) once traffic shows
+ * which edges are hot. Agents are moved with a handover that keeps each
+ * agent single-threaded and its queued messages in order.
+ *
+ * Worker queues are unbounded so workers never wait for each other (which
+ * could deadlock two full mailboxes); messages from outside the placement
+ * wait for one of `capacity` permits instead, which bounds the backlog.
+ * Counters written by the workers are read without synchronization and may
+ * lag slightly.
+ */
+public class AgentPlacement {
+
+    /** @brief Allowed group load above the average when partitioning */
+    static final double DEFAULT_SLACK = 1.1;
+
+    /** @brief Time repartition() waits for the moved agents to be handed over */
+    private static final long HANDOVER_TIMEOUT_MILLIS = 10_000;
+
+    /** @brief Placement of the loaded configuration, for the admin endpoint */
+    private static volatile AgentPlacement current;
+
+    private final Worker[]          workers;
+    private final List<PlacedAgent> agents = new ArrayList<>();
+
+    /** @brief Bounds the messages queued by threads outside the placement */
+    private final Semaphore         inputPermits;
+    private final int               capacity;
+
+    /** @brief Messages queued by threads outside the placement */
+    private final LongAdder         external = new LongAdder();
+
+    private volatile boolean        closed;
+    private int                     repartitions;
+    private int                     lastMoved;
+    private long                    lastCut = -1;
+
+    /** @brief Counter values and time of the previous sampleRates() call */
+    private long markNanos = System.nanoTime();
+    private long markHandoffs;
+    private long markDirect;
+
+    /**
+     * @brief Creates and starts the workers
+     * @param workerCount Number of worker threads
+     * @param capacity Most messages from outside the placement queued at once
+     * @throws IllegalArgumentException if either value is less than 1
+     */
+    public AgentPlacement(int workerCount, int capacity) {
+        if (workerCount < 1) throw new IllegalArgumentException("workers must be at least 1: " + workerCount);
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        this.capacity = capacity;
+        this.inputPermits = new Semaphore(capacity);
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(this, i);
+            workers[i].start();
+        }
+        synchronized (AgentPlacement.class) {
+            current = this;
+        }
+    }
+
+    /**
+     * @brief Gets the placement of the loaded configuration
+     * @return The most recently created placement that is still running, or null
+     */
+    public static AgentPlacement current() {return current;}
+
+    public int getWorkerCount()   {return workers.length;}
+    public int getCapacity()      {return capacity;}
+    public synchronized int getRepartitionCount() {return repartitions;}
+
+    /**
+     * @brief Gets the number of agents moved by the last repartition
+     * @return Moved agents, 0 before the first repartition
+     */
+    public synchronized int getLastMovedCount() {return lastMoved;}
+
+    /**
+     * @brief Gets the cut of the last repartition
+     * @return Weight (observed messages + 1 per edge) between different workers, -1 before the first repartition
+     */
+    public synchronized long getLastCutWeight() {return lastCut;}
+
+    /**
+     * @brief Gets the placed agents
+     * @return Every registered agent, in registration order
+     */
+    public synchronized List<PlacedAgent> getAgents() {
+        return Collections.unmodifiableList(new ArrayList<>(agents));
+    }
+
+    /**
+     * @brief Counts the agents assigned to each worker
+     * @return One count per worker
+     */
+    public synchronized int[] getAgentsPerWorker() {
+        int[] counts = new int[workers.length];
+        for (PlacedAgent p : agents) counts[p.getWorkerIndex()]++;
+        return counts;
+    }
+
+    /**
+     * @brief Gets the number of messages queued by threads outside the placement
+     */
+    public long getExternalHandoffCount() {return external.sum();}
+
+    /**
+     * @brief Gets the number of messages queued by one worker for an agent on another
+     */
+    public long getCrossWorkerHandoffCount() {
+        long sum = 0;
+        for (Worker w : workers) sum += w.crossWorker;
+        return sum;
+    }
+
+    /**
+     * @brief Gets the number of cross-thread handoffs (external plus cross-worker)
+     */
+    public long getHandoffCount() {return getExternalHandoffCount() + getCrossWorkerHandoffCount();}
+
+    /**
+     * @brief Gets the number of messages delivered by a direct call on the same worker
+     */
+    public long getDirectCallCount() {
+        long sum = 0;
+        for (Worker w : workers) sum += w.direct;
+        return sum;
+    }
+
+    /**
+     * @brief Measures handoff and direct call rates since the previous call
+     * @return The rates over the elapsed interval
+     */
+    public synchronized Rates sampleRates() {
+        long now = System.nanoTime();
+        long handoffs = getHandoffCount(), direct = getDirectCallCount();
+        double seconds = Math.max(1e-9, (now - markNanos) / 1e9);
+        Rates rates = new Rates(seconds, (handoffs - markHandoffs) / seconds, (direct - markDirect) / seconds);
+        markNanos = now;
+        markHandoffs = handoffs;
+        markDirect = direct;
+        return rates;
+    }
+
+    /**
+     * @brief Assigns a new agent to a worker, round robin until the next repartition
+     */
+    synchronized void register(PlacedAgent p) {
+        Worker w = workers[agents.size() % workers.length];
+        p.worker = w;
+        p.owner = w;
+        agents.add(p);
+    }
+
+    /**
+     * @brief Queues a message on the agent's worker
+     * @param p The receiving agent
+     * @param topic The topic the message arrived on
+     * @param msg The message
+     */
+    void send(PlacedAgent p, String topic, Message msg) {
+        if (closed) return;
+        Thread t = Thread.currentThread();
+        boolean inside = t instanceof Worker && ((Worker) t).placement == this;
+        if (inside) {
+            ((Worker) t).crossWorker++;
+        } else {
+            try {
+                while (!inputPermits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    if (closed) return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            external.increment();
+        }
+        synchronized (p) {                       // the worker cannot change between reading and queuing
+            p.worker.queue.add(new Envelope(Envelope.DELIVER, p, topic, msg, !inside, null, null));
+        }
+    }
+
+    /**
+     * @brief Regroups the agents by the traffic observed since the previous repartition
+     * @return The number of agents moved to another worker
+     *
+     * Must not be called from an agent (it waits for the workers). Agents
+     * are only moved once every message queued for them on their old
+     * worker has been delivered.
+     */
+    public synchronized int repartition() {
+        int n = agents.size();
+        if (n == 0 || closed) return 0;
+        long start = System.nanoTime();
+
+        // edges: publisher of an input topic -> agent, weighted by messages observed on it
+        Map<Agent, Integer> ids = new IdentityHashMap<>(n * 4);
+        for (int i = 0; i < n; i++) {
+            ids.put(agents.get(i), i);
+            ids.putIfAbsent(agents.get(i).getAgent(), i);    // publishers register the wrapped agent
+        }
+        long[] load = new long[n];
+        int[] from = new int[16], to = new int[16];
+        long[] weight = new long[16];
+        int edges = 0;
+        for (int v = 0; v < n; v++) {
+            PlacedAgent p = agents.get(v);
+            load[v] = 1;
+            List<Topic> inputs = p.getInputs();
+            for (int i = 0; i < inputs.size(); i++) {
+                long count = Math.max(0, p.recentCount(i));
+                load[v] += count;
+                for (Agent pub : inputs.get(i).getPubs()) {
+                    Integer u = ids.get(pub);
+                    if (u == null || u == v) continue;
+                    if (edges == from.length) {
+                        from = Arrays.copyOf(from, edges * 2);
+                        to = Arrays.copyOf(to, edges * 2);
+                        weight = Arrays.copyOf(weight, edges * 2);
+                    }
+                    from[edges] = u;
+                    to[edges] = v;
+                    weight[edges++] = count + 1;
+                }
+            }
+        }
+        int[] first = new int[n + 1];
+        for (int e = 0; e < edges; e++) first[from[e] + 1]++;
+        for (int v = 0; v < n; v++) first[v + 1] += first[v];
+        int[] targets = new int[edges];
+        long[] weights = new long[edges];
+        int[] fill = Arrays.copyOf(first, n);
+        for (int e = 0; e < edges; e++) {
+            int slot = fill[from[e]]++;
+            targets[slot] = to[e];
+            weights[slot] = weight[e];
+        }
+
+        GraphPartitioner partitioner = new GraphPartitioner(n, first, targets, weights, load, workers.length);
+        int[] part = partitioner.partition(DEFAULT_SLACK);
+        int[] workerOf = matchWorkers(part);
+
+        // move the agents whose worker changed
+        List<PlacedAgent> moved = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            if (agents.get(v).worker.index != workerOf[part[v]]) moved.add(agents.get(v));
+        }
+        CountDownLatch handovers = new CountDownLatch(moved.size());
+        for (PlacedAgent p : moved) {
+            Worker next = workers[workerOf[part[ids.get(p)]]];
+            synchronized (p) {
+                Worker previous = p.worker;
+                p.worker = next;
+                previous.queue.add(new Envelope(Envelope.HANDOVER, p, null, null, false, next, handovers));
+            }
+        }
+        try {
+            if (!handovers.await(HANDOVER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                System.err.println("AgentPlacement: " + handovers.getCount() + " agents not yet handed over after "
+                    + HANDOVER_TIMEOUT_MILLIS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (PlacedAgent p : agents) p.resetCounts();
+        repartitions++;
+        lastMoved = moved.size();
+        lastCut = partitioner.cutWeight(part);
+        System.out.println("AgentPlacement: Placed " + n + " agents on " + workers.length + " workers ("
+            + edges + " edges, cut weight " + lastCut + ", moved " + lastMoved + ") in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return lastMoved;
+    }
+
+    /**
+     * @brief Stops the workers; queued messages are discarded
+     *
+     * Returns once every worker has finished the message it was delivering,
+     * so the placed agents can then be closed without a worker still running
+     * them.
+     */
+    public void shutdown() {
+        closed = true;
+        for (Worker w : workers) w.queue.add(new Envelope(Envelope.STOP, null, null, null, false, null, null));
+        for (Worker w : workers) {
+            if (w == Thread.currentThread()) continue;
+            try { w.join(HANDOVER_TIMEOUT_MILLIS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        synchronized (AgentPlacement.class) {
+            if (current == this) current = null;
+        }
+    }
+
+    /**
+     * @brief Maps partition groups to workers so that as few agents as possible move
+     * @return Worker index of each group
+     */
+    private int[] matchWorkers(int[] part) {
+        int k = workers.length;
+        long[][] overlap = new long[k][k];
+        for (int v = 0; v < part.length; v++) overlap[part[v]][agents.get(v).worker.index]++;
+        int[] workerOf = new int[k];
+        boolean[] groupDone = new boolean[k], workerTaken = new boolean[k];
+        for (int round = 0; round < k; round++) {
+            int bestGroup = -1, bestWorker = -1;
+            for (int g = 0; g < k; g++) {
+                if (groupDone[g]) continue;
+                for (int w = 0; w < k; w++) {
+                    if (workerTaken[w]) continue;
+                    if (bestGroup < 0 || overlap[g][w] > overlap[bestGroup][bestWorker]) {
+                        bestGroup = g;
+                        bestWorker = w;
+                    }
+                }
+            }
+            groupDone[bestGroup] = true;
+            workerTaken[bestWorker] = true;
+            workerOf[bestGroup] = bestWorker;
+        }
+        return workerOf;
+    }
+
+    /**
+     * @brief Handoff and direct call rates over one interval
+     */
+    public static final class Rates {
+        private final double seconds;
+        private final double handoffsPerSecond;
+        private final double directCallsPerSecond;
+
+        Rates(double seconds, double handoffsPerSecond, double directCallsPerSecond) {
+            this.seconds              = seconds;
+            this.handoffsPerSecond    = handoffsPerSecond;
+            this.directCallsPerSecond = directCallsPerSecond;
+        }
+
+        public double getSeconds()              {return seconds;}
+        public double getHandoffsPerSecond()    {return handoffsPerSecond;}
+        public double getDirectCallsPerSecond() {return directCallsPerSecond;}
+    }
+
+    /**
+     * @brief Queue entry: a message for an agent, or a handover step
+     */
+    static final class Envelope {
+        static final int DELIVER = 0, HANDOVER = 1, RESUME = 2, STOP = 3;
+
+        final int            kind;
+        final PlacedAgent    target;
+        final String         topic;
+        final Message        msg;
+        final boolean        permit;                 // holds an input permit to return after delivery
+        final Worker         next;                   // HANDOVER: the agent's new worker
+        final CountDownLatch handovers;              // HANDOVER, RESUME: counted down when done
+
+        Envelope(int kind, PlacedAgent target, String topic, Message msg, boolean permit,
+                 Worker next, CountDownLatch handovers) {
+            this.kind      = kind;
+            this.target    = target;
+            this.topic     = topic;
+            this.msg       = msg;
+            this.permit    = permit;
+            this.next      = next;
+            this.handovers = handovers;
+        }
+    }
+
+    /**
+     * @brief Worker thread running the agents placed on it
+     */
+    static final class Worker extends Thread {
+        final AgentPlacement                  placement;
+        final int                             index;
+        final LinkedBlockingQueue<Envelope>   queue = new LinkedBlockingQueue<>();
+
+        /** @brief Messages delivered by a direct call (this thread only) */
+        long direct;
+
+        /** @brief Messages queued on another worker (this thread only) */
+        long crossWorker;
+
+        Worker(AgentPlacement placement, int index) {
+            super("placement-worker-" + index);
+            this.placement = placement;
+            this.index     = index;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Envelope e;
+                try {
+                    e = queue.take();
+                } catch (InterruptedException ex) {
+                    break;
+                }
+                switch (e.kind) {
+                    case Envelope.DELIVER:
+                        PlacedAgent p = e.target;
+                        if (p.owner != this || !p.held.isEmpty()) {
+                            p.held.add(e);                           // arrived before the handover
+                        } else {
+                            runAgent(e);
+                        }
+                        break;
+                    case Envelope.HANDOVER:                          // everything queued here for it is done
+                        e.target.owner = e.next;
+                        e.next.queue.add(new Envelope(Envelope.RESUME, e.target, null, null, false, null, e.handovers));
+                        break;
+                    case Envelope.RESUME:
+                        Envelope held;
+                        while ((held = e.target.held.poll()) != null) runAgent(held);
+                        e.handovers.countDown();
+                        break;
+                    default:
+                        return;
+                }
+            }
+        }
+
+        private void runAgent(Envelope e) {
+            try {
+                if (!placement.closed) e.target.deliver(e.topic, e.msg);
+            } catch (RuntimeException ex) {
+                System.err.println("AgentPlacement: " + e.target.getName() + " failed on " + e.topic + ": " + ex);
+            } finally {
+                if (e.permit) placement.inputPermits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package graph;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @file AgentScheduler.java
+ * @brief Shared carrier pool that drains ParallelAgent mailboxes
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Agents running in ExecutionMode.SHARED_POOL do not own a thread. Instead,
+ * whenever their mailbox goes from idle to non-empty they submit a drain task
+ * to this scheduler. The pool is sized to the number of available cores and
+ * uses daemon threads, so thousands of agents cost a handful of OS threads.
+ * It uses the static holder idiom, like TopicManagerSingleton.
+ * 
+ * A single shared timer thread is also provided for delayed work (e.g.
+ * rate-limited deliveries), so time-based features never need a thread
+ * per agent or per topic. Timer tasks should only hand work to the pool.
+ */
+public final class AgentScheduler {
+
+    /**
+     * @brief Static holder idiom for thread-safe lazy initialization
+     */
+    private static class Holder {
+        /** @brief The shared executor, created on first use */
+        private static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), new CarrierFactory("agent-carrier-"));
+    }
+
+    /**
+     * @brief Static holder for the shared timer, created on first use
+     */
+    private static class TimerHolder {
+        /** @brief The shared single-threaded timer */
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new CarrierFactory("agent-timer-"));
+    }
+
+    /**
+     * @brief Retrieves the shared carrier pool
+     * @return The executor that drains shared-pool mailboxes
+     */
+    public static ExecutorService shared() { return Holder.INSTANCE; }
+
+    /**
+     * @brief Retrieves the shared timer
+     * @return A single-threaded daemon scheduler for delayed tasks
+     */
+    public static ScheduledExecutorService timer() { return TimerHolder.INSTANCE; }
+
+    /**
+     * @brief Names carrier threads and marks them as daemons
+     */
+    private static final class CarrierFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String prefix;
+
+        CarrierFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private AgentScheduler() {}
+}
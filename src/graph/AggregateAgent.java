@@ -0,0 +1,172 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import graph.TopicManagerSingleton.TopicManager;
+
+/**
+ * @file AggregateAgent.java
+ * @brief Agent that folds any number of input topics into one value
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Base of the N-ary aggregate agents (SumAgent, AvgAgent, MinAgent,
+ * MaxAgent and CountAgent). Every subscription is an input slot holding the
+ * last value received on it, like the two operands of a DoubleBinaryAgent.
+ * A new value only touches its own slot: the subclass is told which slot
+ * got a value for the first time (insert) or changed (update) and keeps its
+ * aggregate up to date from that, instead of folding all N slots again.
+ *
+ * After every valid input the aggregate over the slots that have a value is
+ * published. NaN inputs are ignored. A topic listed twice fills two slots,
+ * so it counts twice.
+ */
+public abstract class AggregateAgent implements Agent {
+
+    /** @brief The name reported by getName() */
+    private final String name;
+
+    /** @brief Slots of every input topic name, as held by the topics themselves */
+    private final Map<String, int[]> slotsByTopic;
+
+    /** @brief Distinct input topics, each subscribed once */
+    private final Topic[] inputs;
+
+    /** @brief The output topic */
+    private final Topic out;
+
+    /** @brief Last value of each slot and whether it has one */
+    private final double[]  values;
+    private final boolean[] present;
+    private int presentCount;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param name Name reported by getName()
+     * @param subs Input topic names, one slot each
+     * @param pubs Output topic names (the first one is used)
+     * @throws IllegalArgumentException if subs or pubs is empty
+     */
+    protected AggregateAgent(String name, String[] subs, String[] pubs) {
+        if (subs.length == 0 || pubs.length == 0)
+            throw new IllegalArgumentException(name + " needs at least 1 sub & 1 pub");
+
+        this.name = name;
+        values  = new double[subs.length];
+        present = new boolean[subs.length];
+
+        TopicManager tm = TopicManagerSingleton.get();
+        Map<Topic, int[]> slots = new LinkedHashMap<>();
+        for (int i = 0; i < subs.length; i++) {
+            slots.merge(tm.getTopic(subs[i]), new int[] {i}, AggregateAgent::concat);
+        }
+        inputs = slots.keySet().toArray(new Topic[0]);
+        slotsByTopic = new HashMap<>();
+        for (Map.Entry<Topic, int[]> e : slots.entrySet()) {
+            slotsByTopic.put(e.getKey().name, e.getValue());
+            e.getKey().subscribe(this);
+        }
+
+        out = tm.getTopic(pubs[0]);
+        out.addPublisher(this);
+    }
+
+    @Override public String getName() { return name; }
+
+    /**
+     * @brief Gets the number of input slots
+     * @return The number of subscriptions
+     */
+    public int getInputCount() { return values.length; }
+
+    /**
+     * @brief Gets the number of input slots that have received a value
+     * @return Slots taking part in the aggregate
+     */
+    public int getPresentCount() { return presentCount; }
+
+    @Override
+    public void reset() {
+        Arrays.fill(present, false);
+        presentCount = 0;
+        clear();
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        double v = msg.asDouble();
+        if (Double.isNaN(v)) return;                // ignore bad data
+
+        int[] slots = slotsByTopic.get(topic);
+        if (slots == null) return;
+        for (int slot : slots) {
+            if (!present[slot]) {
+                values[slot]  = v;
+                present[slot] = true;
+                presentCount++;
+                insert(slot, v);
+            } else if (Double.compare(values[slot], v) != 0) {
+                double old = values[slot];
+                values[slot] = v;
+                update(slot, old, v);
+            }
+        }
+        out.publish(new Message(result()));
+    }
+
+    @Override
+    public void close() {
+        for (Topic t : inputs) t.unsubscribe(this);
+        out.removePublisher(this);
+    }
+
+    /**
+     * @brief Gets the last value of a slot
+     * @param slot The slot
+     * @return Its value (meaningful only if hasValue(slot))
+     */
+    protected final double valueAt(int slot) { return values[slot]; }
+
+    /**
+     * @brief Tells whether a slot has received a value
+     * @param slot The slot
+     * @return true if it takes part in the aggregate
+     */
+    protected final boolean hasValue(int slot) { return present[slot]; }
+
+    /**
+     * @brief Called when a slot receives its first value
+     * @param slot The slot
+     * @param value Its value
+     */
+    protected abstract void insert(int slot, double value);
+
+    /**
+     * @brief Called when the value of a slot changes
+     * @param slot The slot
+     * @param oldValue Its previous value
+     * @param newValue Its new value
+     */
+    protected abstract void update(int slot, double oldValue, double newValue);
+
+    /**
+     * @brief Gets the aggregate over the slots that have a value
+     * @return The value to publish (at least one slot has a value)
+     */
+    protected abstract double result();
+
+    /**
+     * @brief Forgets the aggregate; called by reset() after all slots were emptied
+     */
+    protected abstract void clear();
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] c = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        return c;
+    }
+}
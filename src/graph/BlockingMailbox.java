@@ -0,0 +1,66 @@
+package graph;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @file BlockingMailbox.java
+ * @brief Mailbox backed by a lock-based ArrayBlockingQueue
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * The original ParallelAgent queue. Producers and the consumer share one
+ * lock, and a waiting consumer is woken by the producer on every put.
+ * Cheap when idle, but contended under heavy fan-in.
+ * 
+ * @param <E> Type of the buffered entries
+ */
+public class BlockingMailbox<E> implements Mailbox<E> {
+
+    /** @brief Underlying bounded queue */
+    private final ArrayBlockingQueue<E> queue;
+
+    /**
+     * @brief Creates a blocking mailbox
+     * @param capacity Maximum number of buffered entries
+     */
+    public BlockingMailbox(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {queue.put(e);}
+
+    @Override
+    public boolean offer(E e) {return queue.offer(e);}
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(e, timeout, unit);
+    }
+
+    @Override
+    public E take() throws InterruptedException {return queue.take();}
+
+    @Override
+    public E poll() {return queue.poll();}
+
+    @Override
+    public int drain(Consumer<? super E> sink, int limit) {
+        int n = 0;
+        E e;
+        while (n < limit && (e = queue.poll()) != null) {
+            sink.accept(e);
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isEmpty() {return queue.isEmpty();}
+
+    @Override
+    public void clear() {queue.clear();}
+}
@@ -0,0 +1,184 @@
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @file ConflatingDispatcher.java
+ * @brief Latest-value delivery for a conflating Topic
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Each subscriber of a conflating topic owns a one-message slot. publish()
+ * only overwrites the slot and, if the subscriber has no delivery queued or
+ * running, submits one to the AgentScheduler pool. A delivery hands the
+ * newest value to the subscriber, so every update that arrived while it was
+ * busy (or waiting for its minimum interval) is coalesced into one callback.
+ * 
+ * Deliveries to one subscriber never overlap, even across topics: every
+ * conflating topic hands the subscriber's due slots to the same Lane,
+ * which runs them one after the other on the pool. An agent fed by several
+ * conflating topics (e.g. a PlusAgent on two sensors) is therefore called
+ * by one thread at a time, as it would be by a single publisher. Its
+ * non-conflating inputs still arrive on the publishing threads, so the
+ * subscriber must serialize its callbacks itself (ConfigurationService
+ * only allows conflation with thread, pool or placed execution).
+ */
+final class ConflatingDispatcher {
+
+    /** @brief Name of the owning topic, passed to the subscribers' callbacks */
+    private final String topicName;
+
+    /** @brief Minimum time between two deliveries to the same subscriber, 0 for none */
+    private final long minIntervalNanos;
+
+    /** @brief Most due slots a lane delivers per pool task */
+    private static final int LANE_BATCH = 64;
+
+    /** @brief Delivery lane of each subscriber of any conflating topic (weak keys, so lanes do not keep agents alive) */
+    private static final Map<Agent, Lane> LANES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** @brief One slot per subscriber */
+    private final ConcurrentHashMap<Agent, Slot> slots = new ConcurrentHashMap<>();
+
+    /** @brief Updates that replaced a still-pending value */
+    private final LongAdder coalesced = new LongAdder();
+
+    /** @brief Callbacks actually made */
+    private final LongAdder delivered = new LongAdder();
+
+    /**
+     * @brief Creates a dispatcher for one topic
+     * @param topicName The topic name passed to callbacks
+     * @param minIntervalMillis Minimum time between deliveries to one subscriber, 0 for none
+     */
+    ConflatingDispatcher(String topicName, long minIntervalMillis) {
+        this.topicName = topicName;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+    }
+
+    /**
+     * @brief Makes a message pending for every subscriber in the snapshot
+     * @param subscribers Current subscriber snapshot of the topic
+     * @param m The message to deliver
+     */
+    void publish(Agent[] subscribers, Message m) {
+        for (int i = 0; i < subscribers.length; i++) {
+            Agent a = subscribers[i];
+            Slot slot = slots.get(a);
+            if (slot == null) slot = slots.computeIfAbsent(a, Slot::new);
+            slot.offer(m);
+        }
+    }
+
+    /**
+     * @brief Discards the slot (and any pending value) of a former subscriber
+     * @param a The agent that unsubscribed
+     */
+    void remove(Agent a) {
+        Slot slot = slots.remove(a);
+        if (slot != null) slot.pending.set(null);
+    }
+
+    /**
+     * @brief Gets the lane that serializes the deliveries to an agent
+     * @param a A subscriber
+     * @return The agent's lane, shared by all conflating topics
+     */
+    private static Lane laneOf(Agent a) {
+        synchronized (LANES) {
+            return LANES.computeIfAbsent(a, k -> new Lane());
+        }
+    }
+
+    long getMinIntervalMillis() {return TimeUnit.NANOSECONDS.toMillis(minIntervalNanos);}
+    long getCoalescedCount()    {return coalesced.sum();}
+    long getDeliveredCount()    {return delivered.sum();}
+
+    /**
+     * @brief Pending value and delivery state of one subscriber
+     */
+    private final class Slot {
+        private final Agent agent;
+        private final Lane lane;
+        private final AtomicReference<Message> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Runnable resubmit;
+        private long lastDelivery;                        // only touched by the running delivery
+
+        Slot(Agent agent) {
+            this.agent = agent;
+            this.lane = laneOf(agent);
+            this.resubmit = () -> lane.submit(this);
+            this.lastDelivery = System.nanoTime() - minIntervalNanos;
+        }
+
+        void offer(Message m) {
+            if (pending.getAndSet(m) != null) coalesced.increment();
+            if (scheduled.compareAndSet(false, true)) lane.submit(this);
+        }
+
+        /**
+         * @brief Delivers the pending value, or waits for the minimum interval (runs in the lane)
+         */
+        void deliver() {
+            long wait = minIntervalNanos - (System.nanoTime() - lastDelivery);
+            if (wait > 0) {
+                AgentScheduler.timer().schedule(resubmit, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            Message m = pending.getAndSet(null);
+            try {
+                if (m != null) {
+                    lastDelivery = System.nanoTime();
+                    delivered.increment();
+                    agent.callback(topicName, m);
+                }
+            } finally {
+                scheduled.set(false);
+                if (pending.get() != null && scheduled.compareAndSet(false, true)) lane.submit(this);
+            }
+        }
+    }
+
+    /**
+     * @brief Serial executor of the deliveries to one agent
+     * 
+     * Due slots (of any topic) queue up in the lane; at most one pool task
+     * per lane runs them, in order, so the agent's callbacks never overlap.
+     */
+    private static final class Lane implements Runnable {
+        private final Executor executor = AgentScheduler.shared();
+        private final ConcurrentLinkedQueue<Slot> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        void submit(Slot slot) {
+            ready.add(slot);
+            if (running.compareAndSet(false, true)) executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < LANE_BATCH; i++) {
+                    Slot slot = ready.poll();
+                    if (slot == null) break;
+                    slot.deliver();
+                }
+            } finally {
+                running.set(false);
+                if (!ready.isEmpty() && running.compareAndSet(false, true)) executor.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package graph;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @file DistinctFilter.java
+ * @brief Distinct-until-changed filter for a Topic
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Remembers the last message the topic let through and rejects a new one
+ * that carries the same value: numeric messages whose value is within the
+ * deadband of the remembered one, or non-numeric messages with the same
+ * text. Because the reference only moves when a message passes, slow drift
+ * is still forwarded once it exceeds the deadband.
+ */
+final class DistinctFilter {
+
+    /** @brief Largest numeric difference that still counts as unchanged */
+    private final double deadband;
+
+    /** @brief Last message let through, null before the first publish */
+    private Message last;
+
+    /** @brief Publishes rejected as unchanged */
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * @brief Creates a filter
+     * @param deadband Largest difference treated as unchanged (0 for exact equality)
+     */
+    DistinctFilter(double deadband) {
+        this.deadband = deadband;
+    }
+
+    /**
+     * @brief Decides whether a message should be published
+     * @param m The new message
+     * @return true if it differs from the last message let through
+     */
+    synchronized boolean accept(Message m) {
+        if (last != null && same(last, m, deadband)) {
+            suppressed.increment();
+            return false;
+        }
+        last = m;
+        return true;
+    }
+
+    double getDeadband()       {return deadband;}
+    long   getSuppressedCount() {return suppressed.sum();}
+
+    /**
+     * @brief Compares two messages by value
+     * @param a First message
+     * @param b Second message
+     * @param deadband Largest numeric difference treated as equal
+     * @return true if both are numeric and within the deadband, or neither is and the texts match
+     */
+    static boolean same(Message a, Message b, double deadband) {
+        if (a == b) return true;
+        double x = a.asDouble(), y = b.asDouble();
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            return Double.isNaN(x) && Double.isNaN(y) && a.asText().equals(b.asText());
+        }
+        return Math.abs(x - y) <= deadband;
+    }
+}
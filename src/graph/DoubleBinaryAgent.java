@@ -0,0 +1,144 @@
+package graph;
+
+import java.util.function.DoubleBinaryOperator;
+
+import graph.TopicManagerSingleton.TopicManager;
+
+/**
+ * @file DoubleBinaryAgent.java
+ * @brief Two-input agent that applies a primitive double operator
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Base of the binary operator agents (PlusAgent, SubAgent, MulAgent,
+ * DivAgent and BinOpAgent). The operands are kept in two primitive slots and
+ * combined with a DoubleBinaryOperator, so an evaluation boxes nothing; the
+ * only allocation per result is the published Message.
+ *
+ * The slot of an incoming message is found by comparing the topic name with
+ * the names of the two input topics, by reference first (callbacks pass the
+ * Topic's own name) and by value otherwise. If both inputs are the same
+ * topic, only the first slot is ever filled.
+ *
+ * When a result is computed depends on the trigger:
+ * - EVERY_UPDATE: on every valid input once both slots are filled (Sub, Mul, Div)
+ * - ON_CHANGE: only when an input value differs from the one in its slot (Plus)
+ * - PAIRED: once both slots were filled, after which both are cleared (BinOpAgent)
+ *
+ * NaN inputs are ignored in every mode; an operator may still produce NaN
+ * (DivAgent divides by zero that way).
+ */
+public class DoubleBinaryAgent implements Agent {
+
+    /**
+     * @brief When a DoubleBinaryAgent publishes a result
+     */
+    public enum Trigger {
+        EVERY_UPDATE,
+        ON_CHANGE,
+        PAIRED
+    }
+
+    /** @brief The name reported by getName() */
+    private final String name;
+
+    /** @brief Names of the two input topics, as held by the topics themselves */
+    private final String[] inputs;
+
+    /** @brief The output topic */
+    private final Topic out;
+
+    private final DoubleBinaryOperator op;
+    private final Trigger trigger;
+
+    /** @brief Operand slots and whether each has received a value */
+    private final double[]  values  = new double[2];
+    private final boolean[] present = new boolean[2];
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param name Name reported by getName()
+     * @param subs Input topic names (the first two are used)
+     * @param pubs Output topic names (the first one is used)
+     * @param op Operator applied to (first input, second input)
+     * @param trigger When a result is published
+     * @throws IllegalArgumentException if subs has less than 2 elements or pubs is empty
+     */
+    public DoubleBinaryAgent(String name, String[] subs, String[] pubs,
+                             DoubleBinaryOperator op, Trigger trigger) {
+        if (subs.length < 2 || pubs.length == 0)
+            throw new IllegalArgumentException(name + " needs 2 subs & 1 pub");
+
+        this.name    = name;
+        this.op      = op;
+        this.trigger = trigger;
+
+        TopicManager tm = TopicManagerSingleton.get();
+        Topic first  = tm.getTopic(subs[0]);
+        Topic second = tm.getTopic(subs[1]);
+        inputs = new String[] {first.name, second.name};
+        first.subscribe(this);
+        second.subscribe(this);
+
+        out = tm.getTopic(pubs[0]);
+        out.addPublisher(this);
+    }
+
+    @Override public String getName() { return name; }
+
+    /**
+     * @brief Gets the operator applied to the inputs
+     * @return The operator
+     */
+    public DoubleBinaryOperator getOperator() { return op; }
+
+    /**
+     * @brief Gets when results are published
+     * @return The trigger
+     */
+    public Trigger getTrigger() { return trigger; }
+
+    @Override
+    public void reset() {
+        values[0] = values[1] = 0;
+        present[0] = present[1] = false;
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        double v = msg.asDouble();
+        if (Double.isNaN(v)) return;                // ignore bad data
+
+        int slot = slotOf(topic);
+        if (slot < 0) return;
+        if (trigger == Trigger.ON_CHANGE && present[slot] && values[slot] == v) return;
+        values[slot]  = v;
+        present[slot] = true;
+
+        if (present[0] && present[1]) {
+            out.publish(new Message(op.applyAsDouble(values[0], values[1])));
+            if (trigger == Trigger.PAIRED) reset();  // wait for two fresh inputs
+        }
+    }
+
+    @Override
+    public void close() {
+        TopicManager tm = TopicManagerSingleton.get();
+        tm.getTopic(inputs[0]).unsubscribe(this);
+        tm.getTopic(inputs[1]).unsubscribe(this);
+        out.removePublisher(this);
+    }
+
+    /**
+     * @brief Finds the slot of an input topic
+     * @return 0 or 1, or -1 if the topic is not an input
+     */
+    private int slotOf(String topic) {
+        if (topic == inputs[0]) return 0;
+        if (topic == inputs[1]) return 1;
+        if (topic.equals(inputs[0])) return 0;
+        if (topic.equals(inputs[1])) return 1;
+        return -1;
+    }
+}
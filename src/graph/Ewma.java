@@ -0,0 +1,108 @@
+package graph;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * @file Ewma.java
+ * @brief Exponentially weighted moving average and variance
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Each value moves the average a fraction alpha of the way towards itself:
+ * mean += alpha * (x - mean). The variance is weighted the same way
+ * (var = (1 - alpha) * (var + alpha * (x - mean)^2)), which gives a
+ * volatility estimate that forgets old values at the same speed.
+ *
+ * With a half-life instead of a fixed alpha, alpha depends on the time since
+ * the previous value, 1 - 2^(-dt / halfLife), so irregularly spaced values
+ * are weighted by time rather than by count.
+ *
+ * Outputs: "ewma" (or "mean"), "variance", "stddev", "count".
+ */
+public final class Ewma implements StreamStatistic {
+
+    /** @brief Outputs of an EwmaAgent that names none */
+    private static final String[] DEFAULT_OUTPUTS = {"ewma", "stddev"};
+
+    /** @brief Fixed weight of a new value, or 0 when a half-life is used */
+    private final double alpha;
+
+    /** @brief Nanoseconds per e-folding of the weights (half-life / ln 2), or 0 */
+    private final double tauNanos;
+
+    private double mean = Double.NaN;
+    private double variance = Double.NaN;
+    private long count;
+    private long lastStamp;
+
+    /**
+     * @brief Creates an average with a fixed weight per value
+     * @param alpha Weight of a new value, in (0, 1]
+     * @return The statistic
+     * @throws IllegalArgumentException if alpha is out of range
+     */
+    public static Ewma withAlpha(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        return new Ewma(alpha, 0);
+    }
+
+    /**
+     * @brief Creates an average whose weights halve every halfLifeMillis
+     * @param halfLifeMillis Half-life in milliseconds (positive)
+     * @return The statistic
+     * @throws IllegalArgumentException if the half-life is not positive
+     */
+    public static Ewma withHalfLife(double halfLifeMillis) {
+        if (!(halfLifeMillis > 0)) {
+            throw new IllegalArgumentException("halfLife must be positive: " + halfLifeMillis);
+        }
+        return new Ewma(0, halfLifeMillis * 1e6 / Math.log(2));
+    }
+
+    private Ewma(double alpha, double tauNanos) {
+        this.alpha = alpha;
+        this.tauNanos = tauNanos;
+    }
+
+    @Override
+    public void accept(long stamp, double value) {
+        if (count++ == 0) {
+            mean = value;
+            variance = 0;
+        } else {
+            double a = tauNanos > 0 ? -Math.expm1(-Math.max(0, stamp - lastStamp) / tauNanos) : alpha;
+            double diff = value - mean;
+            double increment = a * diff;
+            mean += increment;
+            variance = (1 - a) * (variance + diff * increment);
+        }
+        lastStamp = stamp;
+    }
+
+    @Override
+    public void clear() {
+        mean = variance = Double.NaN;
+        count = 0;
+    }
+
+    @Override
+    public DoubleSupplier output(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "ewma":
+            case "mean":     return () -> mean;
+            case "variance": return () -> variance;
+            case "stddev":   return () -> Math.sqrt(variance);
+            case "count":    return () -> count;
+            default:
+                throw new IllegalArgumentException("Unknown EWMA output: " + name);
+        }
+    }
+
+    @Override
+    public String[] defaultOutputs() {
+        return DEFAULT_OUTPUTS.clone();
+    }
+}
@@ -0,0 +1,55 @@
+package graph;
+
+/**
+ * @file ExecutionMode.java
+ * @brief Enumeration of the ways an agent's callbacks can be executed
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * The execution mode decides which thread runs an agent's callback:
+ * - SYNCHRONOUS: the publishing thread calls the agent directly (no ParallelAgent)
+ * - DEDICATED_THREAD: the agent's ParallelAgent owns one platform thread
+ * - SHARED_POOL: the agent's mailbox is drained by the shared AgentScheduler
+ * - PLACED: the agent is pinned to one worker of an AgentPlacement; agents on
+ *   the same worker call each other directly
+ * 
+ * In every mode each agent receives its callbacks one at a time and in order.
+ */
+public enum ExecutionMode {
+    SYNCHRONOUS("sync"),
+    DEDICATED_THREAD("thread"),
+    SHARED_POOL("pool"),
+    PLACED("placed");
+
+    /** @brief Name used for this mode in configuration files */
+    private final String configName;
+
+    ExecutionMode(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Gets the name used for this mode in configuration files
+     * @return The configuration name (e.g., "pool")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a mode from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching execution mode
+     * @throws IllegalArgumentException if the value is not a known mode
+     */
+    public static ExecutionMode fromString(String value) {
+        String v = value.trim();
+        for (ExecutionMode mode : values()) {
+            if (mode.configName.equalsIgnoreCase(v) || mode.name().equalsIgnoreCase(v)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown execution mode: " + value);
+    }
+}
@@ -0,0 +1,277 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * @file ExecutionPlan.java
+ * @brief Compiled, allocation-free evaluation of an acyclic arithmetic graph
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * An ExecutionPlan replaces agent callbacks with a flat list of primitive
+ * operations over a double[] slot array, one slot per topic. Operations are
+ * stored in topological order, so evaluating an input update is a single
+ * pass over int/double arrays: an operation runs if one of its inputs was
+ * written earlier in the same pass (tracked with an epoch stamp per slot).
+ * Like WaveEngine, this is glitch-free: each operation runs at most once per
+ * update, on settled inputs.
+ * 
+ * Installing the plan seeds every slot from its topic's current value (the
+ * "0.0" default, or what the agents published while they were created), so
+ * the plan starts from the same state as the agents it replaces and a
+ * binary step runs as soon as one of its inputs changes.
+ * 
+ * Once installed, the plan owns its topics. Topic.publish feeds the plan,
+ * and Topic.getLastMessage builds (and caches) a Message from the slot only
+ * when someone reads it, so the evaluation loop itself allocates nothing.
+ * The regular agents can stay subscribed for visualization; they are no
+ * longer called. Evaluations are serialized by the plan's monitor.
+ * 
+ * The steps are run by a PlanKernel: an InterpretedKernel walking the step
+ * arrays, or, after generateKernel(), a hidden class with the steps unrolled
+ * into straight-line code (see KernelGenerator). Both give identical results.
+ */
+public class ExecutionPlan implements PropagationEngine {
+
+    /** @brief Topic of each slot */
+    private final Topic[] topics;
+
+    /** @brief Slot index of each topic */
+    private final Map<Topic, Integer> slotOf = new IdentityHashMap<>();
+
+    /** @brief Slot state, see PlanKernel */
+    private final double[] value;
+    private final double[] shown;
+    private final long[] stamp;
+    private final long[] touched;
+
+    /** @brief Inputs last seen by PLUS steps, see PlanKernel */
+    private final double[] last;
+
+    /** @brief Message of each slot and the epoch it belongs to (stale when touched[] moved on) */
+    private final Message[] cache;
+    private final long[] cacheEpoch;
+
+    /** @brief Operation, inputs and output of each step, in topological order */
+    private final PlanOp[] op;
+    private final int[] inA;
+    private final int[] inB;
+    private final int[] out;
+
+    /** @brief Kernel running the steps */
+    private PlanKernel kernel;
+
+    /** @brief Whether the kernel is generated code */
+    private boolean generated;
+
+    /** @brief Current evaluation epoch (slots stamped 0 hold no value) */
+    private long epoch;
+
+    /** @brief Number of evaluations (external publishes), guarded by the plan's monitor */
+    private long evaluations;
+
+    /** @brief Number of operation executions, guarded by the plan's monitor */
+    private long steps;
+
+    /**
+     * @brief Creates a plan over the given topics and operations
+     * @param topics Topic of each slot
+     * @param ops Operation of each step, in any order
+     * @param inputsA First input slot of each step
+     * @param inputsB Second input slot of each step (-1 for unary operations)
+     * @param outputs Output slot of each step
+     * @throws IllegalArgumentException if the arrays disagree in length or a slot is out of range
+     * @throws IllegalStateException if the steps form a cycle
+     */
+    public ExecutionPlan(Topic[] topics, PlanOp[] ops, int[] inputsA, int[] inputsB, int[] outputs) {
+        int n = ops.length;
+        if (inputsA.length != n || inputsB.length != n || outputs.length != n)
+            throw new IllegalArgumentException("Operation arrays must have the same length");
+
+        this.topics     = topics.clone();
+        this.value      = new double[topics.length];
+        this.shown      = new double[topics.length];
+        this.stamp      = new long[topics.length];
+        this.touched    = new long[topics.length];
+        this.cache      = new Message[topics.length];
+        this.cacheEpoch = new long[topics.length];
+        for (int s = 0; s < topics.length; s++) slotOf.put(topics[s], s);
+
+        int[] order = topologicalOrder(ops, inputsA, inputsB, outputs, topics.length);
+        this.op  = new PlanOp[n];
+        this.inA = new int[n];
+        this.inB = new int[n];
+        this.out = new int[n];
+        for (int i = 0; i < n; i++) {
+            int k = order[i];
+            op[i]  = ops[k];
+            inA[i] = inputsA[k];
+            inB[i] = ops[k].getArity() == 2 ? inputsB[k] : -1;
+            out[i] = outputs[k];
+        }
+        this.last = new double[2 * n];
+        Arrays.fill(last, Double.NaN);
+        this.kernel = new InterpretedKernel(op, inA, inB, out);
+    }
+
+    /**
+     * @brief Seeds the slots from the topics' current values and makes the plan own its topics
+     * 
+     * A numeric value counts as present; the inputs of PLUS steps count as
+     * already seen, like the operands a PlusAgent holds after initialization.
+     */
+    public synchronized void install() {
+        long e = ++epoch;
+        for (int s = 0; s < topics.length; s++) {
+            Message m = topics[s].storedMessage();
+            double v = m.asDouble();
+            shown[s] = v;
+            touched[s] = e;
+            cache[s] = m;
+            cacheEpoch[s] = e;
+            if (!Double.isNaN(v)) {
+                value[s] = v;
+                stamp[s] = e;
+            }
+        }
+        for (int i = 0; i < op.length; i++) {
+            if (op[i] != PlanOp.PLUS) continue;
+            if (stamp[inA[i]] != 0) last[2 * i] = value[inA[i]];
+            if (stamp[inB[i]] != 0) last[2 * i + 1] = value[inB[i]];
+        }
+        for (Topic t : topics) t.setEngine(this);
+    }
+
+    /**
+     * @brief Hands the topics back to direct propagation, keeping their current values
+     */
+    @Override
+    public synchronized void uninstall() {
+        for (Topic t : topics) {
+            t.setLastMessage(read(t));
+            t.setEngine(null);
+        }
+    }
+
+    /**
+     * @brief Replaces the interpreted kernel with generated straight-line code
+     * 
+     * The generated class is a hidden class that is not kept alive by its
+     * loader, so it is unloaded once this plan is no longer referenced.
+     * 
+     * @return true if code was generated, false if the interpreted kernel is kept
+     */
+    public boolean generateKernel() {
+        PlanKernel k;
+        try {
+            k = KernelGenerator.generate(op, inA, inB, out);
+        } catch (ReflectiveOperationException | LinkageError | IllegalArgumentException e) {
+            System.err.println("ExecutionPlan: No generated code, staying interpreted: " + e.getMessage());
+            return false;
+        }
+        synchronized (this) {
+            kernel = k;
+            generated = true;
+        }
+        return true;
+    }
+
+    public int                  getStepCount()       {return op.length;}
+    public synchronized boolean isGenerated()        {return generated;}
+    public synchronized long    getEvaluationCount() {return evaluations;}
+    public synchronized long    getStepExecutions()  {return steps;}
+
+    @Override
+    public void publish(Topic topic, Message m) {
+        Integer slot = slotOf.get(topic);
+        if (slot == null) return;
+        update(slot, m.asDouble(), m);
+    }
+
+    /**
+     * @brief Evaluates the plan for a new value of one slot
+     * @param slot The slot that changed
+     * @param v Its new value
+     * @param source The published message, shown as-is for this slot, or null
+     */
+    public synchronized void update(int slot, double v, Message source) {
+        evaluations++;
+        long e = ++epoch;
+        shown[slot] = v;
+        touched[slot] = e;
+        cache[slot] = source;
+        cacheEpoch[slot] = source != null ? e : 0;
+        if (Double.isNaN(v)) return;         // agents ignore non-numeric input
+        value[slot] = v;
+        stamp[slot] = e;
+        steps += kernel.run(e, value, shown, stamp, touched, last);
+    }
+
+    @Override
+    public synchronized Message read(Topic topic) {
+        Integer slot = slotOf.get(topic);
+        if (slot == null) return topic.storedMessage();
+        int s = slot;
+        long t = touched[s];
+        if (t == 0) return topic.storedMessage();
+        if (cacheEpoch[s] != t) {
+            cache[s] = new Message(shown[s]);
+            cacheEpoch[s] = t;
+        }
+        return cache[s];
+    }
+
+    /* helpers ------------------------------------------------------------ */
+
+    /**
+     * @brief Orders the steps so every step comes after the steps producing its inputs
+     * @return Step indices in execution order
+     * @throws IllegalStateException if the steps form a cycle
+     */
+    private static int[] topologicalOrder(PlanOp[] ops, int[] inA, int[] inB, int[] out, int slots) {
+        int n = ops.length;
+        int[] producers = new int[slots];
+        for (int k = 0; k < n; k++) {
+            if (out[k] < 0 || out[k] >= slots) throw new IllegalArgumentException("Slot out of range: " + out[k]);
+            producers[out[k]]++;
+        }
+
+        // indegree counts one edge per (input, producer) pair
+        int[][] consumers = new int[slots][];
+        int[] consumerCount = new int[slots];
+        int[] indegree = new int[n];
+        for (int k = 0; k < n; k++) {
+            int arity = ops[k].getArity();
+            for (int j = 0; j < arity; j++) {
+                int s = j == 0 ? inA[k] : inB[k];
+                if (s < 0 || s >= slots) throw new IllegalArgumentException("Slot out of range: " + s);
+                if (consumers[s] == null) consumers[s] = new int[4];
+                if (consumerCount[s] == consumers[s].length)
+                    consumers[s] = Arrays.copyOf(consumers[s], consumerCount[s] * 2);
+                consumers[s][consumerCount[s]++] = k;
+                indegree[k] += producers[s];
+            }
+        }
+
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int k = 0; k < n; k++) if (indegree[k] == 0) ready.add(k);
+
+        int[] order = new int[n];
+        int done = 0;
+        while (!ready.isEmpty()) {
+            int k = ready.poll();
+            order[done++] = k;
+            int s = out[k];
+            for (int c = 0; c < consumerCount[s]; c++) {
+                if (--indegree[consumers[s][c]] == 0) ready.add(consumers[s][c]);
+            }
+        }
+        if (done < n)
+            throw new IllegalStateException("Cannot compile a cyclic graph (" + (n - done) + " steps on or behind a cycle)");
+        return order;
+    }
+}
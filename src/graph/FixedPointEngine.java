@@ -0,0 +1,550 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @file FixedPointEngine.java
+ * @brief Ordered propagation for graphs with feedback loops
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * With direct propagation a feedback loop keeps calling Topic.publish
+ * recursively until the stack overflows. This engine condenses the agent
+ * graph into its strongly connected components (SCCs) and propagates each
+ * input change as a wave over the components, in topological order:
+ *
+ * - A component without a cycle is a single agent, activated once per wave
+ *   exactly as in a WaveEngine.
+ * - A cyclic component is iterated in rounds. Each round activates the
+ *   members whose inputs changed; a value fed back inside the component
+ *   only counts as a change if it moved by more than the tolerance. The
+ *   component has converged when a round changes nothing, and gives up
+ *   (keeping its latest values) after maxIterations rounds or when the
+ *   time budget is spent.
+ *
+ * Values leaving a component reach the downstream components when their
+ * turn comes, after the component has settled. Per-component convergence
+ * statistics are available from getComponentStats(). Waves are serialized;
+ * agents must run synchronously (no ParallelAgent).
+ *
+ * Agents of a cyclic graph may already publish while they are created, so
+ * the engine can be prepared on the topics first and started afterwards.
+ */
+public class FixedPointEngine implements PropagationEngine {
+
+    /** @brief Per-agent component and pending inputs */
+    private final Map<Agent, Vertex> vertices = new IdentityHashMap<>();
+
+    /** @brief Components, upstream first */
+    private final List<Component> components = new ArrayList<>();
+
+    /** @brief Topics this engine is installed on */
+    private final List<Topic> topics = new ArrayList<>();
+
+    /** @brief Marked components of the current wave, lowest rank first */
+    private final PriorityQueue<Component> ready = new PriorityQueue<>((a, b) -> Integer.compare(a.rank, b.rank));
+
+    /** @brief Serializes waves; also tells whether the current thread is inside one */
+    private final ReentrantLock waveLock = new ReentrantLock();
+
+    /** @brief Largest change of a fed-back value that still counts as converged */
+    private final double tolerance;
+
+    /** @brief Most rounds a cyclic component may run per wave */
+    private final int maxIterations;
+
+    /** @brief Time a cyclic component may run per wave, 0 for no limit */
+    private final long timeBudgetNanos;
+
+    /** @brief Whether start() has run; before that, publishes are only stored */
+    private boolean started;
+
+    /** @brief Topics published to before start() */
+    private final List<Topic> held = new ArrayList<>();
+
+    /** @brief Cyclic component being iterated, null between components */
+    private Component running;
+
+    /** @brief Number of waves run */
+    private final LongAdder waves = new LongAdder();
+
+    /** @brief Number of agent activations across all waves */
+    private final LongAdder activations = new LongAdder();
+
+    private FixedPointEngine(double tolerance, int maxIterations, long timeBudgetNanos) {
+        this.tolerance       = tolerance;
+        this.maxIterations   = maxIterations;
+        this.timeBudgetNanos = timeBudgetNanos;
+    }
+
+    /**
+     * @brief Finds the components of the given topics' agents and installs the engine on them
+     * @param allTopics Every topic of the loaded configuration
+     * @param tolerance Largest change of a fed-back value that counts as converged
+     * @param maxIterations Most rounds per cyclic component and wave
+     * @param timeBudgetMillis Time per cyclic component and wave, 0 for no limit
+     * @return The installed engine
+     * @throws IllegalArgumentException if a budget is out of range
+     */
+    public static FixedPointEngine install(Collection<Topic> allTopics, double tolerance,
+                                           int maxIterations, double timeBudgetMillis) {
+        FixedPointEngine engine = prepare(allTopics, tolerance, maxIterations, timeBudgetMillis);
+        engine.start();
+        return engine;
+    }
+
+    /**
+     * @brief Installs the engine before the agents are created
+     * @param allTopics Every topic of the configuration being loaded
+     * @param tolerance Largest change of a fed-back value that counts as converged
+     * @param maxIterations Most rounds per cyclic component and wave
+     * @param timeBudgetMillis Time per cyclic component and wave, 0 for no limit
+     * @return The engine; call start() once the agents exist
+     * @throws IllegalArgumentException if a budget is out of range
+     *
+     * Until start() is called, publishing only stores the value on the topic.
+     * Agents that publish while they are being created (e.g. when initialized
+     * from existing topic values) therefore cannot run around a cycle.
+     */
+    public static FixedPointEngine prepare(Collection<Topic> allTopics, double tolerance,
+                                           int maxIterations, double timeBudgetMillis) {
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("Tolerance must be a non-negative number: " + tolerance);
+        if (maxIterations <= 0)
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        if (!(timeBudgetMillis >= 0))
+            throw new IllegalArgumentException("Time budget must be a non-negative number: " + timeBudgetMillis);
+
+        FixedPointEngine engine = new FixedPointEngine(tolerance, maxIterations, (long) (timeBudgetMillis * 1e6));
+        for (Topic t : allTopics) {
+            engine.topics.add(t);
+            t.setEngine(engine);
+        }
+        return engine;
+    }
+
+    /**
+     * @brief Finds the components of the agents now on the topics and starts propagating
+     *
+     * Values published since prepare() are delivered to their subscribers in
+     * one wave.
+     */
+    public void start() {
+        waveLock.lock();
+        try {
+            if (started) return;
+            condense(topics);
+            started = true;
+            waves.increment();
+            for (Topic t : held) record(t, t.storedMessage());
+            held.clear();
+            settle();
+        } finally {
+            waveLock.unlock();
+        }
+    }
+
+    @Override
+    public void uninstall() {
+        for (Topic t : topics) t.setEngine(null);
+        topics.clear();
+    }
+
+    public long getWaveCount()       {return waves.sum();}
+    public long getActivationCount() {return activations.sum();}
+
+    /**
+     * @brief Gets the number of components that contain a cycle
+     * @return Cyclic components of the installed graph
+     */
+    public int getCyclicComponentCount() {
+        int n = 0;
+        for (Component c : components) if (c.cyclic) n++;
+        return n;
+    }
+
+    /**
+     * @brief Gets a snapshot of the convergence statistics of every cyclic component
+     * @return One entry per cyclic component, upstream first
+     */
+    public List<ComponentStats> getComponentStats() {
+        List<ComponentStats> stats = new ArrayList<>();
+        waveLock.lock();
+        try {
+            for (Component c : components) {
+                if (c.cyclic) stats.add(new ComponentStats(c));
+            }
+        } finally {
+            waveLock.unlock();
+        }
+        return stats;
+    }
+
+    /**
+     * @brief Entry point used by Topic.publish while this engine is installed
+     * @param topic The topic being published to
+     * @param m The message
+     *
+     * A publish from outside starts a wave and returns when it has settled.
+     * A publish made by an agent during a wave is only recorded.
+     */
+    @Override
+    public void publish(Topic topic, Message m) {
+        if (waveLock.isHeldByCurrentThread()) {
+            record(topic, m);
+            return;
+        }
+
+        waveLock.lock();
+        try {
+            if (!started) {
+                topic.setLastMessage(m);
+                if (!held.contains(topic)) held.add(topic);
+                return;
+            }
+            waves.increment();
+            record(topic, m);
+            settle();
+        } finally {
+            waveLock.unlock();
+        }
+    }
+
+    /* helpers ------------------------------------------------------------ */
+
+    /**
+     * @brief Runs the queued components in rank order until the wave has settled
+     */
+    private void settle() {
+        try {
+            Component c;
+            while ((c = ready.poll()) != null) {
+                c.queued = false;
+                if (c.cyclic) {
+                    iterate(c);
+                } else {
+                    activate(c.members[0]);
+                }
+            }
+        } finally {
+            Component left;
+            while ((left = ready.poll()) != null) {      // only non-empty if a callback threw
+                left.queued = false;
+                for (Vertex v : left.members) v.changed.clear();
+            }
+        }
+    }
+
+    /**
+     * @brief Stores the topic's new value and marks its subscribers
+     *
+     * Subscribers in the component being iterated are only marked if the
+     * value moved by more than the tolerance; the others are marked and
+     * their component is queued for this wave.
+     */
+    private void record(Topic topic, Message m) {
+        Message previous = topic.storedMessage();
+        topic.setLastMessage(m);
+        List<Agent> subs = topic.getSubs();
+        double distance = -1;
+        for (int i = 0; i < subs.size(); i++) {
+            Agent a = subs.get(i);
+            Vertex v = vertices.get(a);
+            if (v == null) {
+                a.callback(topic.name, m);               // subscribed after installation: deliver directly
+                continue;
+            }
+            Component c = v.component;
+            if (c == running) {
+                if (distance < 0) {
+                    distance = distance(previous, m);
+                    if (distance > c.residual) c.residual = distance;
+                }
+                if (distance <= tolerance) continue;
+                if (!v.queued) {
+                    v.queued = true;
+                    c.work.add(v);
+                }
+            } else if (!c.queued) {
+                c.queued = true;
+                ready.add(c);
+            }
+            if (!v.changed.contains(topic)) v.changed.add(topic);
+        }
+    }
+
+    /**
+     * @brief Runs the rounds of a cyclic component until it converges or its budget is spent
+     */
+    private void iterate(Component c) {
+        for (Vertex v : c.members) {
+            if (!v.changed.isEmpty()) {
+                v.queued = true;
+                c.work.add(v);
+            }
+        }
+        running = c;
+        long start = System.nanoTime();
+        int rounds = 0;
+        c.residual = 0;
+        try {
+            while (!c.work.isEmpty()) {
+                if (rounds == maxIterations
+                        || (timeBudgetNanos > 0 && System.nanoTime() - start > timeBudgetNanos)) {
+                    break;
+                }
+                rounds++;
+                c.residual = 0;
+                for (int n = c.work.size(); n > 0; n--) {
+                    Vertex v = c.work.poll();
+                    v.queued = false;
+                    activate(v);
+                }
+            }
+        } finally {
+            running = null;
+            boolean converged = c.work.isEmpty();
+            Vertex left;
+            while ((left = c.work.poll()) != null) {
+                left.queued = false;
+                left.changed.clear();
+            }
+            c.recordRun(rounds, converged, System.nanoTime() - start);
+        }
+        if (c.exhausted == 1) {
+            System.err.println("FixedPointEngine: " + c.describe() + " did not converge within "
+                + rounds + " rounds (residual " + c.residual + ")");
+        }
+    }
+
+    /**
+     * @brief Delivers the latest value of every pending input to one agent
+     *
+     * The pending list is swapped out first, so inputs the agent feeds back
+     * to itself are queued for the next round.
+     */
+    private void activate(Vertex v) {
+        if (v.changed.isEmpty()) return;
+        activations.increment();
+        List<Topic> inputs = v.changed;
+        v.changed = v.spare;
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                Topic t = inputs.get(i);
+                v.agent.callback(t.name, t.storedMessage());
+            }
+        } finally {
+            inputs.clear();
+            v.spare = inputs;
+        }
+    }
+
+    /**
+     * @brief Measures how far a fed-back value moved
+     * @return The absolute difference of numeric values, 0 or infinity for other messages
+     */
+    private static double distance(Message previous, Message m) {
+        if (previous == m) return 0;
+        if (previous == null) return Double.POSITIVE_INFINITY;
+        double x = previous.asDouble(), y = m.asDouble();
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            return DistinctFilter.same(previous, m, 0) ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return x == y ? 0 : Math.abs(x - y);             // x == y also covers equal infinities
+    }
+
+    /**
+     * @brief Builds the components with an iterative Tarjan walk and ranks them
+     */
+    private void condense(Collection<Topic> allTopics) {
+        Map<Agent, List<Agent>> downstream = new IdentityHashMap<>();
+        List<Agent> agents = new ArrayList<>();
+        for (Topic t : allTopics) {
+            for (Agent a : t.getSubs()) addVertex(a, agents);
+            for (Agent a : t.getPubs()) {
+                addVertex(a, agents);
+                downstream.computeIfAbsent(a, k -> new ArrayList<>()).addAll(t.getSubs());
+            }
+        }
+
+        // Tarjan, with an explicit stack of (vertex, next successor) frames
+        int counter = 0;
+        ArrayDeque<Vertex> stack = new ArrayDeque<>();
+        ArrayDeque<int[]> frames = new ArrayDeque<>();
+        ArrayDeque<Vertex> path = new ArrayDeque<>();
+        List<Component> found = new ArrayList<>();
+        for (Agent root : agents) {
+            Vertex r = vertices.get(root);
+            if (r.index >= 0) continue;
+            r.index = r.low = counter++;
+            stack.push(r);
+            r.onStack = true;
+            path.push(r);
+            frames.push(new int[]{0});
+            while (!path.isEmpty()) {
+                Vertex v = path.peek();
+                int[] frame = frames.peek();
+                List<Agent> next = downstream.getOrDefault(v.agent, List.of());
+                if (frame[0] < next.size()) {
+                    Vertex w = vertices.get(next.get(frame[0]++));
+                    if (w == v) v.selfLoop = true;
+                    if (w.index < 0) {
+                        w.index = w.low = counter++;
+                        stack.push(w);
+                        w.onStack = true;
+                        path.push(w);
+                        frames.push(new int[]{0});
+                    } else if (w.onStack) {
+                        v.low = Math.min(v.low, w.index);
+                    }
+                    continue;
+                }
+                path.pop();
+                frames.pop();
+                if (!path.isEmpty()) path.peek().low = Math.min(path.peek().low, v.low);
+                if (v.low == v.index) {
+                    List<Vertex> members = new ArrayList<>();
+                    Vertex w;
+                    do {
+                        w = stack.pop();
+                        w.onStack = false;
+                        members.add(w);
+                    } while (w != v);
+                    Collections.reverse(members);                // discovery order
+                    found.add(new Component(members));
+                }
+            }
+        }
+
+        // Tarjan emits sinks first: walk upstream-first and push ranks down
+        Collections.reverse(found);
+        for (Component c : found) {
+            for (Vertex v : c.members) {
+                v.component = c;
+                if (v.selfLoop) c.cyclic = true;
+            }
+        }
+        for (Component c : found) {
+            for (Vertex v : c.members) {
+                for (Agent a : downstream.getOrDefault(v.agent, List.of())) {
+                    Component d = vertices.get(a).component;
+                    if (d != c && d.rank <= c.rank) d.rank = c.rank + 1;
+                }
+            }
+        }
+        components.addAll(found);
+    }
+
+    private void addVertex(Agent a, List<Agent> agents) {
+        if (vertices.containsKey(a)) return;
+        vertices.put(a, new Vertex(a));
+        agents.add(a);
+    }
+
+    /**
+     * @brief Convergence statistics of one cyclic component
+     */
+    public static final class ComponentStats {
+        private final List<String> members;
+        private final long   runs;
+        private final long   converged;
+        private final long   exhausted;
+        private final long   totalRounds;
+        private final int    lastRounds;
+        private final int    maxRounds;
+        private final double lastResidual;
+        private final long   lastNanos;
+
+        private ComponentStats(Component c) {
+            List<String> names = new ArrayList<>();
+            for (Vertex v : c.members) names.add(v.agent.getName());
+            this.members      = Collections.unmodifiableList(names);
+            this.runs         = c.runs;
+            this.converged    = c.converged;
+            this.exhausted    = c.exhausted;
+            this.totalRounds  = c.totalRounds;
+            this.lastRounds   = c.lastRounds;
+            this.maxRounds    = c.maxRounds;
+            this.lastResidual = c.residual;
+            this.lastNanos    = c.lastNanos;
+        }
+
+        public List<String> getMembers()   {return members;}
+        public long   getRuns()            {return runs;}
+        public long   getConvergedCount()  {return converged;}
+        public long   getExhaustedCount()  {return exhausted;}
+        public long   getTotalRounds()     {return totalRounds;}
+        public int    getLastRounds()      {return lastRounds;}
+        public int    getMaxRounds()       {return maxRounds;}
+        public double getLastResidual()    {return lastResidual;}
+        public long   getLastNanos()       {return lastNanos;}
+
+        @Override
+        public String toString() {
+            return "ComponentStats{members=" + members + ", runs=" + runs + ", converged=" + converged
+                + ", exhausted=" + exhausted + ", lastRounds=" + lastRounds + ", maxRounds=" + maxRounds
+                + ", lastResidual=" + lastResidual + "}";
+        }
+    }
+
+    /**
+     * @brief One strongly connected component of the agent graph
+     */
+    private static final class Component {
+        final Vertex[]          members;
+        final ArrayDeque<Vertex> work = new ArrayDeque<>();
+        int                     rank;
+        boolean                 cyclic;
+        boolean                 queued;
+        double                  residual;
+        long                    runs, converged, exhausted, totalRounds, lastNanos;
+        int                     lastRounds, maxRounds;
+
+        Component(List<Vertex> members) {
+            this.members = members.toArray(new Vertex[0]);
+            this.cyclic  = this.members.length > 1;
+        }
+
+        void recordRun(int rounds, boolean done, long nanos) {
+            runs++;
+            if (done) converged++; else exhausted++;
+            totalRounds += rounds;
+            lastRounds = rounds;
+            if (rounds > maxRounds) maxRounds = rounds;
+            lastNanos = nanos;
+        }
+
+        String describe() {
+            StringBuilder sb = new StringBuilder("component [");
+            for (int i = 0; i < members.length; i++) sb.append(i > 0 ? ", " : "").append(members[i].agent.getName());
+            return sb.append(']').toString();
+        }
+    }
+
+    /**
+     * @brief Component membership, Tarjan state and pending inputs of one agent
+     */
+    private static final class Vertex {
+        final Agent agent;
+        Component   component;
+        List<Topic> changed = new ArrayList<>(2);
+        List<Topic> spare   = new ArrayList<>(2);
+        boolean     queued;
+        int         index = -1, low;
+        boolean     onStack, selfLoop;
+
+        Vertex(Agent agent) {
+            this.agent = agent;
+        }
+    }
+}
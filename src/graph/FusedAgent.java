@@ -0,0 +1,124 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @file FusedAgent.java
+ * @brief Composite agent that runs a connected group of agents in-line
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * A FusedAgent groups agents that are linked by internal topics: topics
+ * with exactly one publisher and one subscriber, both inside the group.
+ * The members stay subscribed to the internal topics, so an upstream
+ * member's publish calls the downstream member directly on the same
+ * thread. On every other (external) topic the FusedAgent takes the place
+ * of its members: it receives each message once and routes it to the
+ * members that subscribed to it, and it is registered as the publisher of
+ * the group's external outputs.
+ * 
+ * Wrapped in a ParallelAgent, the whole group therefore needs a single
+ * mailbox and worker instead of one per member, and the internal hops cost
+ * a method call instead of a queue handoff.
+ */
+public class FusedAgent implements Agent {
+
+    private final String  name;
+    private final Agent[] members;
+
+    /** @brief Members to call for each external input topic */
+    private final Map<String, Agent[]> routes = new LinkedHashMap<>();
+
+    /** @brief External topics this agent subscribed to in place of its members */
+    private final List<Topic> inputs = new ArrayList<>();
+
+    /** @brief External topics this agent publishes to in place of its members */
+    private final List<Topic> outputs = new ArrayList<>();
+
+    /**
+     * @brief Fuses already subscribed agents
+     * @param members The agents of the group, upstream first
+     * @param subscriptions Topic names each member subscribed to
+     * @param publications Topic names each member publishes to
+     * @param internal Names of the topics linking the members
+     * @throws IllegalArgumentException if the arrays disagree in length
+     */
+    public FusedAgent(Agent[] members, String[][] subscriptions, String[][] publications, Set<String> internal) {
+        if (subscriptions.length != members.length || publications.length != members.length)
+            throw new IllegalArgumentException("One subscription and publication list per member is required");
+        this.members = members.clone();
+
+        StringBuilder sb = new StringBuilder("Fused[");
+        for (int i = 0; i < members.length; i++) sb.append(i > 0 ? ">" : "").append(members[i].getName());
+        this.name = sb.append(']').toString();
+
+        Map<String, List<Agent>> byTopic = new LinkedHashMap<>();
+        for (int i = 0; i < members.length; i++) {
+            for (String t : new HashSet<>(Arrays.asList(subscriptions[i]))) {
+                if (!internal.contains(t)) byTopic.computeIfAbsent(t, k -> new ArrayList<>()).add(members[i]);
+            }
+        }
+
+        TopicManagerSingleton.TopicManager tm = TopicManagerSingleton.get();
+        for (Map.Entry<String, List<Agent>> e : byTopic.entrySet()) {
+            Topic t = tm.getTopic(e.getKey());
+            List<Agent> subscribed = e.getValue();
+            t.replaceSubscriber(subscribed.get(0), this);
+            for (int i = 1; i < subscribed.size(); i++) t.unsubscribe(subscribed.get(i));
+            routes.put(e.getKey(), subscribed.toArray(new Agent[0]));
+            inputs.add(t);
+        }
+        for (int i = 0; i < members.length; i++) {
+            for (String p : publications[i]) {
+                if (internal.contains(p)) continue;
+                Topic t = tm.getTopic(p);
+                t.removePublisher(members[i]);
+                if (!outputs.contains(t)) {
+                    t.addPublisher(this);
+                    outputs.add(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Gets the agents of this group
+     * @return The members, upstream first
+     */
+    public Agent[] getMembers() {return members.clone();}
+
+    /**
+     * @brief Gets the external topics this agent subscribes to
+     * @return Topic names, e.g. for wrapping this agent in a ParallelAgent
+     */
+    public String[] getSubscriptions() {return routes.keySet().toArray(new String[0]);}
+
+    @Override
+    public String getName() {return name;}
+
+    @Override
+    public void reset() {
+        for (Agent a : members) a.reset();
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        Agent[] targets = routes.get(topic);
+        if (targets == null) return;
+        for (Agent a : targets) a.callback(topic, msg);
+    }
+
+    @Override
+    public void close() {
+        for (Topic t : inputs) t.unsubscribe(this);
+        for (Topic t : outputs) t.removePublisher(this);
+        for (Agent a : members) a.close();
+    }
+}
@@ -0,0 +1,206 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * @file GraphPartitioner.java
+ * @brief Splits a weighted agent graph into balanced groups with few edges between them
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Used by AgentPlacement. The graph is given in compressed sparse row form:
+ * the successors of node v are targets[first[v] .. first[v+1]), each with a
+ * weight (messages observed on that edge). Nodes carry a load (messages
+ * they handled).
+ *
+ * 1. Nodes are visited breadth first along the edges, starting from the
+ *    sources, so a pipeline is visited stage after stage.
+ * 2. Each node joins the group it has the most edge weight to, scaled down
+ *    as that group fills up (linear deterministic greedy); a group never
+ *    grows beyond `slack` times the average load unless all groups do.
+ * 3. A few refinement passes move single nodes to the group they are most
+ *    connected to while that lowers the cut and keeps the balance.
+ *
+ * Everything runs in O(passes * (N + E) + N * groups).
+ */
+final class GraphPartitioner {
+
+    /** @brief Refinement passes after the greedy assignment */
+    static final int REFINE_PASSES = 4;
+
+    private final int    n;
+    private final int    groups;
+    private final int[]  first;
+    private final int[]  targets;
+    private final long[] weights;
+    private final long[] load;
+
+    /** @brief Undirected view: neighbours of v are adj[adjFirst[v] .. adjFirst[v+1]) */
+    private final int[]  adjFirst;
+    private final int[]  adj;
+    private final long[] adjWeight;
+
+    /**
+     * @param n Number of nodes
+     * @param first Edge offsets, n + 1 entries
+     * @param targets Edge targets
+     * @param weights Edge weights (at least 1)
+     * @param load Node loads (at least 1)
+     * @param groups Number of groups
+     */
+    GraphPartitioner(int n, int[] first, int[] targets, long[] weights, long[] load, int groups) {
+        this.n       = n;
+        this.groups  = groups;
+        this.first   = first;
+        this.targets = targets;
+        this.weights = weights;
+        this.load    = load;
+
+        int edges = first[n];
+        adjFirst = new int[n + 1];
+        for (int e = 0; e < edges; e++) adjFirst[targets[e] + 1]++;
+        for (int v = 0; v < n; v++) adjFirst[v + 1] += first[v + 1] - first[v];
+        for (int v = 0; v < n; v++) adjFirst[v + 1] += adjFirst[v];
+        adj = new int[2 * edges];
+        adjWeight = new long[2 * edges];
+        int[] fill = Arrays.copyOf(adjFirst, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                int w = targets[e];
+                adj[fill[v]] = w;
+                adjWeight[fill[v]++] = weights[e];
+                adj[fill[w]] = v;
+                adjWeight[fill[w]++] = weights[e];
+            }
+        }
+    }
+
+    /**
+     * @brief Computes the partition
+     * @param slack Allowed imbalance, e.g. 1.1 for groups up to 10% above the average load
+     * @return The group (0 .. groups-1) of every node
+     */
+    int[] partition(double slack) {
+        int[] part = new int[n];
+        Arrays.fill(part, -1);
+        long[] groupLoad = new long[groups];
+        long total = 0;
+        for (int v = 0; v < n; v++) total += load[v];
+        double capacity = Math.max(1.0, slack * total / groups);
+
+        long[] conn = new long[groups];
+        int[] touched = new int[groups];
+        for (int v : visitOrder()) {
+            int touchedCount = connections(v, part, conn, touched);
+            int best = -1;
+            double bestScore = -1;
+            for (int g = 0; g < groups; g++) {
+                if (groupLoad[g] + load[v] > capacity) continue;
+                double score = (conn[g] + 1e-9) * (1 - groupLoad[g] / capacity);
+                if (score > bestScore || (score == bestScore && groupLoad[g] < groupLoad[best])) {
+                    best = g;
+                    bestScore = score;
+                }
+            }
+            if (best < 0) best = lightest(groupLoad);       // everything is full
+            part[v] = best;
+            groupLoad[best] += load[v];
+            clear(conn, touched, touchedCount);
+        }
+
+        for (int pass = 0; pass < REFINE_PASSES; pass++) {
+            int moved = 0;
+            for (int v = 0; v < n; v++) {
+                int touchedCount = connections(v, part, conn, touched);
+                int current = part[v];
+                int best = current;
+                for (int i = 0; i < touchedCount; i++) {
+                    int g = touched[i];
+                    if (g == current || groupLoad[g] + load[v] > capacity) continue;
+                    if (conn[g] > conn[best]) best = g;
+                }
+                if (best != current) {
+                    part[v] = best;
+                    groupLoad[current] -= load[v];
+                    groupLoad[best] += load[v];
+                    moved++;
+                }
+                clear(conn, touched, touchedCount);
+            }
+            if (moved == 0) break;
+        }
+        return part;
+    }
+
+    /**
+     * @brief Gets the total weight of the edges between different groups
+     * @param part Group of every node
+     * @return The cut weight
+     */
+    long cutWeight(int[] part) {
+        long cut = 0;
+        for (int v = 0; v < n; v++) {
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                if (part[v] != part[targets[e]]) cut += weights[e];
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * @brief Orders the nodes breadth first along the edges, sources first
+     */
+    private int[] visitOrder() {
+        int[] indegree = new int[n];
+        for (int e = 0; e < first[n]; e++) indegree[targets[e]]++;
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int head = 0, tail = 0;
+        for (int pass = 0; pass < 2; pass++) {          // sources first, then whatever a cycle hid
+            for (int root = 0; root < n; root++) {
+                if (seen[root] || (pass == 0 && indegree[root] > 0)) continue;
+                seen[root] = true;
+                order[tail++] = root;
+                while (head < tail) {
+                    int v = order[head++];
+                    for (int e = first[v]; e < first[v + 1]; e++) {
+                        int w = targets[e];
+                        if (!seen[w]) {
+                            seen[w] = true;
+                            order[tail++] = w;
+                        }
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @brief Sums the edge weight from v to each group its assigned neighbours are in
+     * @return Number of groups written to touched
+     */
+    private int connections(int v, int[] part, long[] conn, int[] touched) {
+        int count = 0;
+        for (int i = adjFirst[v]; i < adjFirst[v + 1]; i++) {
+            int g = part[adj[i]];
+            if (g < 0 || adj[i] == v) continue;
+            if (conn[g] == 0) touched[count++] = g;
+            conn[g] += adjWeight[i];
+        }
+        return count;
+    }
+
+    private static void clear(long[] conn, int[] touched, int count) {
+        for (int i = 0; i < count; i++) conn[touched[i]] = 0;
+    }
+
+    private static int lightest(long[] groupLoad) {
+        int best = 0;
+        for (int g = 1; g < groupLoad.length; g++) {
+            if (groupLoad[g] < groupLoad[best]) best = g;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,77 @@
+package graph;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @file IdleStrategy.java
+ * @brief How a thread waits when a lock-free mailbox is empty or full
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Lock-free mailboxes have no condition variable to sleep on, so a waiting
+ * thread polls and calls idle() between attempts:
+ * - SPIN: busy-spins; lowest latency, burns a core while idle
+ * - YIELD: gives up the time slice between attempts
+ * - PARK: parks with exponential backoff from 1 microsecond to 1 millisecond
+ */
+public enum IdleStrategy {
+    SPIN("spin"),
+    YIELD("yield"),
+    PARK("park");
+
+    /** @brief Shortest park used by PARK, in nanoseconds */
+    private static final long MIN_PARK_NANOS = 1_000L;
+
+    /** @brief Longest park used by PARK, in nanoseconds */
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    /** @brief Name used for this strategy in configuration files */
+    private final String configName;
+
+    IdleStrategy(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Waits once before the caller retries
+     * @param attempt Number of consecutive unsuccessful attempts so far (0 on the first)
+     */
+    public void idle(int attempt) {
+        switch (this) {
+            case SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                LockSupport.parkNanos(Math.min(MIN_PARK_NANOS << Math.min(attempt, 10), MAX_PARK_NANOS));
+                break;
+        }
+    }
+
+    /**
+     * @brief Gets the name used for this strategy in configuration files
+     * @return The configuration name (e.g., "park")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a strategy from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching idle strategy
+     * @throws IllegalArgumentException if the value is not a known strategy
+     */
+    public static IdleStrategy fromString(String value) {
+        String v = value.trim();
+        for (IdleStrategy strategy : values()) {
+            if (strategy.configName.equalsIgnoreCase(v) || strategy.name().equalsIgnoreCase(v)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown idle strategy: " + value);
+    }
+}
@@ -0,0 +1,152 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * @file IndexedDoubleHeap.java
+ * @brief Binary heap of double keys addressed by a fixed index
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Holds at most one key for each index 0 .. capacity-1 and keeps the
+ * smallest (or, for a max-heap, the largest) of them on top. Setting the key
+ * of an index that is already in the heap moves it up or down in place, so
+ * changing one entry costs O(log n) and reading the top costs O(1). Used by
+ * MinAgent and MaxAgent, where the index is the input slot.
+ *
+ * Keys are compared with < and >, so NaN must not be stored. Not thread
+ * safe.
+ */
+public final class IndexedDoubleHeap {
+
+    private final boolean max;
+
+    /** @brief Key of each index (meaningful only while the index is in the heap) */
+    private final double[] keys;
+
+    /** @brief Heap array of indexes */
+    private final int[] heap;
+
+    /** @brief Position of each index in heap, or -1 if it is not in the heap */
+    private final int[] pos;
+
+    private int size;
+
+    /**
+     * @brief Creates an empty heap
+     * @param capacity Number of indexes (0 .. capacity-1)
+     * @param max true to keep the largest key on top, false for the smallest
+     */
+    public IndexedDoubleHeap(int capacity, boolean max) {
+        this.max = max;
+        keys = new double[capacity];
+        heap = new int[capacity];
+        pos  = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    /**
+     * @brief Inserts an index or changes its key
+     * @param index The index
+     * @param key Its new key (not NaN)
+     */
+    public void set(int index, double key) {
+        int p = pos[index];
+        if (p < 0) {
+            keys[index] = key;
+            heap[size] = index;
+            pos[index] = size;
+            up(size++);
+            return;
+        }
+        double old = keys[index];
+        keys[index] = key;
+        if (before(key, old)) up(p);
+        else if (before(old, key)) down(p);
+    }
+
+    /**
+     * @brief Removes an index from the heap
+     * @param index The index (ignored if not in the heap)
+     */
+    public void remove(int index) {
+        int p = pos[index];
+        if (p < 0) return;
+        pos[index] = -1;
+        int last = heap[--size];
+        if (p == size) return;
+        heap[p] = last;
+        pos[last] = p;
+        up(p);
+        down(pos[last]);
+    }
+
+    /**
+     * @brief Tells whether an index is in the heap
+     * @param index The index
+     * @return true if it has a key
+     */
+    public boolean contains(int index) {return pos[index] >= 0;}
+
+    /**
+     * @brief Gets the top key
+     * @return The smallest (largest) key, or NaN if the heap is empty
+     */
+    public double peek() {return size == 0 ? Double.NaN : keys[heap[0]];}
+
+    /**
+     * @brief Gets the index holding the top key
+     * @return The index, or -1 if the heap is empty
+     */
+    public int peekIndex() {return size == 0 ? -1 : heap[0];}
+
+    /**
+     * @brief Gets the number of indexes in the heap
+     * @return The size
+     */
+    public int size() {return size;}
+
+    /**
+     * @brief Removes every index
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private boolean before(double a, double b) {return max ? a > b : a < b;}
+
+    private void up(int p) {
+        int index = heap[p];
+        double key = keys[index];
+        while (p > 0) {
+            int parent = (p - 1) >>> 1;
+            int other = heap[parent];
+            if (!before(key, keys[other])) break;
+            heap[p] = other;
+            pos[other] = p;
+            p = parent;
+        }
+        heap[p] = index;
+        pos[index] = p;
+    }
+
+    private void down(int p) {
+        int index = heap[p];
+        double key = keys[index];
+        int half = size >>> 1;
+        while (p < half) {
+            int child = 2 * p + 1;
+            int right = child + 1;
+            if (right < size && before(keys[heap[right]], keys[heap[child]])) child = right;
+            int other = heap[child];
+            if (!before(keys[other], key)) break;
+            heap[p] = other;
+            pos[other] = p;
+            p = child;
+        }
+        heap[p] = index;
+        pos[index] = p;
+    }
+}
@@ -0,0 +1,60 @@
+package graph;
+
+/**
+ * @file InterpretedKernel.java
+ * @brief PlanKernel that walks the step arrays of a plan
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ */
+final class InterpretedKernel implements PlanKernel {
+
+    private final PlanOp[] op;
+    private final int[] inA;
+    private final int[] inB;
+    private final int[] out;
+
+    InterpretedKernel(PlanOp[] op, int[] inA, int[] inB, int[] out) {
+        this.op  = op;
+        this.inA = inA;
+        this.inB = inB;
+        this.out = out;
+    }
+
+    @Override
+    public int run(long epoch, double[] value, double[] shown, long[] stamp, long[] touched, double[] last) {
+        int executed = 0;
+        for (int i = 0; i < op.length; i++) {
+            int a = inA[i], b = inB[i];
+            boolean aNew = stamp[a] == epoch;
+            boolean bNew = b >= 0 && stamp[b] == epoch;
+            if (!aNew && !bNew) continue;
+
+            if (op[i] == PlanOp.PLUS) {                 // PlusAgent only fires on a changed input
+                boolean changed = false;
+                if (aNew && last[2 * i] != value[a]) {
+                    last[2 * i] = value[a];
+                    changed = true;
+                }
+                if (bNew && last[2 * i + 1] != value[b]) {
+                    last[2 * i + 1] = value[b];
+                    changed = true;
+                }
+                if (!changed) continue;
+            }
+            if (b >= 0 && (stamp[a] == 0 || stamp[b] == 0)) continue;
+
+            double result = op[i].apply(value[a], b >= 0 ? value[b] : 0);
+            executed++;
+
+            int o = out[i];
+            shown[o] = result;
+            touched[o] = epoch;
+            if (!Double.isNaN(result)) {                // NaN is shown, but ignored downstream
+                value[o] = result;
+                stamp[o] = epoch;
+            }
+        }
+        return executed;
+    }
+}
@@ -0,0 +1,353 @@
+package graph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file KernelGenerator.java
+ * @brief Generates a PlanKernel class with the steps of a plan unrolled
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * The generated class does exactly what InterpretedKernel does, but every
+ * step is emitted as straight-line bytecode with its operation and slot
+ * indices as constants. There are no step arrays to walk and no switch on
+ * the operation, so the JIT compiler can inline and register-allocate each
+ * chunk of the graph.
+ *
+ * Steps are split into static methods of STEPS_PER_METHOD steps. This keeps
+ * each method well below the size the JIT refuses to compile (8000 bytes of
+ * bytecode by default). run() calls the chunks in order.
+ *
+ * Plans with more than MAX_STEPS steps are not generated: the unrolled
+ * machine code of one pass then no longer fits the instruction caches and
+ * runs slower than the compact interpreted loop.
+ *
+ * The class is written by hand as class file version 49, which needs no
+ * stack map frames, and defined with Lookup.defineHiddenClass. It is not
+ * registered with any class loader, so it is unloaded together with the
+ * last ExecutionPlan that references it.
+ */
+final class KernelGenerator {
+
+    /** @brief Steps per generated method */
+    static final int STEPS_PER_METHOD = 32;
+
+    /** @brief Largest plan that is worth generating */
+    static final int MAX_STEPS = 512;
+
+    private static final String CLASS_NAME = "graph/GeneratedKernel";
+    private static final String CHUNK_DESC = "(J[D[D[J[J[D)I";
+
+    /* locals of a chunk method: arguments, then executed count, result and "changed" flag */
+    private static final int EPOCH = 0, VALUE = 2, SHOWN = 3, STAMP = 4, TOUCHED = 5, LAST = 6;
+    private static final int EXECUTED = 7, RESULT = 8, CHANGED = 10;
+
+    private KernelGenerator() {}
+
+    /**
+     * @brief Generates and instantiates a kernel for the given steps
+     * @param op Operation of each step, in topological order
+     * @param inA First input slot of each step
+     * @param inB Second input slot of each step (-1 for unary operations)
+     * @param out Output slot of each step
+     * @return A new instance of the generated kernel
+     * @throws IllegalArgumentException if the plan has more than MAX_STEPS steps
+     * @throws ReflectiveOperationException if the class cannot be defined or instantiated
+     */
+    static PlanKernel generate(PlanOp[] op, int[] inA, int[] inB, int[] out) throws ReflectiveOperationException {
+        if (op.length > MAX_STEPS)
+            throw new IllegalArgumentException(op.length + " steps exceed the limit of " + MAX_STEPS);
+        byte[] bytes = classBytes(op, inA, inB, out);
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+        return (PlanKernel) lookup.lookupClass().getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * @brief Writes the class file of a kernel
+     */
+    static byte[] classBytes(PlanOp[] op, int[] inA, int[] inB, int[] out) {
+        ConstantPool cp = new ConstantPool();
+        int thisClass  = cp.classRef(CLASS_NAME);
+        int superClass = cp.classRef("java/lang/Object");
+        int iface      = cp.classRef("graph/PlanKernel");
+        int code       = cp.utf8("Code");
+
+        List<byte[]> methods = new ArrayList<>();
+
+        // public <init>() { super(); }
+        Code init = new Code();
+        init.op(0x2a);                                           // aload_0
+        init.op(0xb7).u2(cp.methodRef("java/lang/Object", "<init>", "()V"));
+        init.op(0xb1);                                           // return
+        methods.add(method(0x0001, cp.utf8("<init>"), cp.utf8("()V"), code, init, 1, 1));
+
+        // private static int sK(...) for each chunk of steps
+        int chunks = (op.length + STEPS_PER_METHOD - 1) / STEPS_PER_METHOD;
+        int[] chunkRefs = new int[chunks];
+        for (int k = 0; k < chunks; k++) {
+            String name = "s" + k;
+            Code c = new Code();
+            c.op(0x03).op(0x36).u1(EXECUTED);                    // executed = 0
+            int end = Math.min(op.length, (k + 1) * STEPS_PER_METHOD);
+            for (int i = k * STEPS_PER_METHOD; i < end; i++) {
+                step(c, cp, i, op[i], inA[i], inB[i], out[i]);
+            }
+            c.op(0x15).u1(EXECUTED).op(0xac);                    // return executed
+            methods.add(method(0x000a, cp.utf8(name), cp.utf8(CHUNK_DESC), code, c, 8, 11));
+            chunkRefs[k] = cp.methodRef(CLASS_NAME, name, CHUNK_DESC);
+        }
+
+        // public int run(...) { return s0(...) + s1(...) + ...; }
+        Code run = new Code();
+        run.op(0x03);                                            // iconst_0
+        for (int ref : chunkRefs) {
+            run.op(0x1f);                                        // lload_1
+            for (int local = 3; local <= 7; local++) run.op(0x19).u1(local);
+            run.op(0xb8).u2(ref);                                // invokestatic
+            run.op(0x60);                                        // iadd
+        }
+        run.op(0xac);                                            // ireturn
+        methods.add(method(0x0001, cp.utf8("run"), cp.utf8(CHUNK_DESC), code, run, 9, 8));
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream o = new DataOutputStream(bytes);
+            o.writeInt(0xCAFEBABE);
+            o.writeShort(0);
+            o.writeShort(49);
+            cp.writeTo(o);
+            o.writeShort(0x0030);                                // final, super
+            o.writeShort(thisClass);
+            o.writeShort(superClass);
+            o.writeShort(1);
+            o.writeShort(iface);
+            o.writeShort(0);                                     // fields
+            o.writeShort(methods.size());
+            for (byte[] m : methods) o.write(m);
+            o.writeShort(0);                                     // attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @brief Emits one step; mirrors the loop body of InterpretedKernel
+     */
+    private static void step(Code c, ConstantPool cp, int i, PlanOp op, int a, int b, int o) {
+        Label skip = new Label();
+
+        // run only if an input was stamped in this epoch
+        if (b < 0) {
+            c.load(STAMP, a, cp).op(0x1e).op(0x94).jump(0x9a, skip);             // stamp[a] != epoch
+        } else {
+            Label go = new Label();
+            c.load(STAMP, a, cp).op(0x1e).op(0x94).jump(0x99, go);               // stamp[a] == epoch
+            c.load(STAMP, b, cp).op(0x1e).op(0x94).jump(0x9a, skip);             // stamp[b] != epoch
+            c.bind(go);
+        }
+
+        if (op == PlanOp.PLUS) {
+            c.op(0x03).op(0x36).u1(CHANGED);
+            seen(c, cp, a, 2 * i);
+            seen(c, cp, b, 2 * i + 1);
+            c.op(0x15).u1(CHANGED).jump(0x99, skip);
+        }
+        if (b >= 0) {                                                             // both inputs need a value (seeded on install)
+            c.load(STAMP, a, cp).op(0x09).op(0x94).jump(0x99, skip);
+            c.load(STAMP, b, cp).op(0x09).op(0x94).jump(0x99, skip);
+        }
+
+        c.op(0x84).u1(EXECUTED).u1(1);                                           // executed++
+        Label store = new Label();
+        switch (op) {
+            case INC:
+                c.load(VALUE, a, cp).op(0x0f).op(0x63);                         // value[a] + 1
+                break;
+            case DIV: {
+                Label divide = new Label();
+                c.load(VALUE, b, cp).op(0x0e).op(0x97).jump(0x9a, divide);      // value[b] != 0
+                c.op(0x0e).op(0x0e).op(0x6f).op(0x39).u1(RESULT).jump(0xa7, store); // NaN
+                c.bind(divide);
+                c.load(VALUE, a, cp).load(VALUE, b, cp).op(0x6f);
+                break;
+            }
+            case PLUS:
+                c.load(VALUE, a, cp).load(VALUE, b, cp).op(0x63);
+                break;
+            case SUB:
+                c.load(VALUE, a, cp).load(VALUE, b, cp).op(0x67);
+                break;
+            default:
+                c.load(VALUE, a, cp).load(VALUE, b, cp).op(0x6b);
+                break;
+        }
+        c.op(0x39).u1(RESULT);
+        c.bind(store);
+
+        c.op(0x19).u1(SHOWN).push(o, cp).op(0x18).u1(RESULT).op(0x52);          // shown[o] = r
+        c.op(0x19).u1(TOUCHED).push(o, cp).op(0x1e).op(0x50);                   // touched[o] = epoch
+        c.op(0x18).u1(RESULT).op(0x18).u1(RESULT).op(0x97).jump(0x9a, skip);    // NaN stops here
+        c.op(0x19).u1(VALUE).push(o, cp).op(0x18).u1(RESULT).op(0x52);          // value[o] = r
+        c.op(0x19).u1(STAMP).push(o, cp).op(0x1e).op(0x50);                     // stamp[o] = epoch
+        c.bind(skip);
+    }
+
+    /**
+     * @brief Emits the PLUS change check of one input: if new and different from last, record it
+     */
+    private static void seen(Code c, ConstantPool cp, int slot, int lastIndex) {
+        Label next = new Label();
+        c.load(STAMP, slot, cp).op(0x1e).op(0x94).jump(0x9a, next);             // not new
+        c.load(VALUE, slot, cp).load(LAST, lastIndex, cp).op(0x97).jump(0x99, next); // unchanged (NaN compares unequal)
+        c.op(0x19).u1(LAST).push(lastIndex, cp).load(VALUE, slot, cp).op(0x52);
+        c.op(0x04).op(0x36).u1(CHANGED);
+        c.bind(next);
+    }
+
+    private static byte[] method(int access, int name, int desc, int codeAttr, Code code,
+                                 int maxStack, int maxLocals) {
+        byte[] body = code.toByteArray();
+        if (body.length > 65535) throw new IllegalArgumentException("Generated method too large");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream o = new DataOutputStream(bytes);
+            o.writeShort(access);
+            o.writeShort(name);
+            o.writeShort(desc);
+            o.writeShort(1);
+            o.writeShort(codeAttr);
+            o.writeInt(12 + body.length);
+            o.writeShort(maxStack);
+            o.writeShort(maxLocals);
+            o.writeInt(body.length);
+            o.write(body);
+            o.writeShort(0);                                     // exception table
+            o.writeShort(0);                                     // attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* class file helpers ------------------------------------------------- */
+
+    /** @brief Branch target inside one method */
+    private static final class Label {
+        int position = -1;
+        final List<int[]> uses = new ArrayList<>();              // {opcode position, operand position}
+    }
+
+    /** @brief Growable bytecode buffer with forward branch patching */
+    private static final class Code {
+        private byte[] buf = new byte[256];
+        private int size;
+
+        Code u1(int v) {
+            if (size == buf.length) buf = java.util.Arrays.copyOf(buf, size * 2);
+            buf[size++] = (byte) v;
+            return this;
+        }
+
+        Code u2(int v) {
+            return u1(v >> 8).u1(v);
+        }
+
+        Code op(int opcode) {
+            return u1(opcode);
+        }
+
+        /** @brief Pushes an int constant */
+        Code push(int v, ConstantPool cp) {
+            if (v >= -1 && v <= 5) return op(0x03 + v);          // iconst_<v>
+            if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) return op(0x10).u1(v);
+            if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) return op(0x11).u2(v);
+            return op(0x13).u2(cp.integer(v));                   // ldc_w
+        }
+
+        /** @brief Loads array[index] from the long[] or double[] local */
+        Code load(int arrayLocal, int index, ConstantPool cp) {
+            op(0x19).u1(arrayLocal).push(index, cp);
+            return op(arrayLocal == STAMP || arrayLocal == TOUCHED ? 0x2f : 0x31);   // laload / daload
+        }
+
+        Code jump(int opcode, Label target) {
+            int at = size;
+            op(opcode);
+            target.uses.add(new int[] {at, size});
+            return u2(0);
+        }
+
+        void bind(Label label) {
+            label.position = size;
+            for (int[] use : label.uses) {
+                int offset = label.position - use[0];
+                buf[use[1]] = (byte) (offset >> 8);
+                buf[use[1] + 1] = (byte) offset;
+            }
+        }
+
+        byte[] toByteArray() {
+            return java.util.Arrays.copyOf(buf, size);
+        }
+    }
+
+    /** @brief Constant pool with de-duplicated entries */
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String s) {
+            return entry("U" + s, o -> { o.writeByte(1); o.writeUTF(s); });
+        }
+
+        int integer(int v) {
+            return entry("I" + v, o -> { o.writeByte(3); o.writeInt(v); });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, o -> { o.writeByte(7); o.writeShort(name); });
+        }
+
+        int methodRef(String owner, String name, String desc) {
+            int cls = classRef(owner);
+            int n = utf8(name), d = utf8(desc);
+            int nat = entry("N" + name + desc, o -> { o.writeByte(12); o.writeShort(n); o.writeShort(d); });
+            return entry("M" + owner + "." + name + desc, o -> { o.writeByte(10); o.writeShort(cls); o.writeShort(nat); });
+        }
+
+        void writeTo(DataOutputStream o) throws IOException {
+            if (count > 65535) throw new IllegalArgumentException("Constant pool too large");
+            o.writeShort(count);
+            o.write(bytes.toByteArray());
+        }
+
+        private interface Writer {
+            void write(DataOutputStream o) throws IOException;
+        }
+
+        private int entry(String key, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null) return index;
+            try {
+                writer.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            entries.put(key, count);
+            return count++;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @file LazyEngine.java
+ * @brief Pull-based propagation: topics are computed only when read
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Publishing an input does not run any agent. It records the value, queues
+ * it as a pending input of the subscribing agents and marks every topic
+ * downstream as dirty. Reading a dirty topic (Topic.getLastMessage, and so
+ * TopicDisplayer and the REST views) pulls it:
+ *
+ * 1. The dirty upstream cone of the topic is collected: its publishing
+ *    agents, the dirty topics they read, their publishers, and so on.
+ * 2. Those agents are activated in topological rank order, each receiving
+ *    the latest value of every pending input once, as in a WaveEngine.
+ * 3. The cone is clean again; reading it once more costs nothing until an
+ *    input changes.
+ *
+ * Branches nobody reads are never computed. Topics marked eager keep the
+ * push behaviour: they are pulled right after every external publish, so
+ * they always hold their current value (a "mixed" push/pull graph).
+ *
+ * Pulls and publishes are serialized; agents must run synchronously and the
+ * graph must be acyclic. Agents that subscribe after installation receive a
+ * topic's values whenever it is computed; mark the topic eager to have that
+ * happen on every change.
+ */
+public class LazyEngine implements PropagationEngine {
+
+    /** @brief Per-agent rank, pending inputs and outputs */
+    private final Map<Agent, Vertex> vertices = new IdentityHashMap<>();
+
+    /** @brief Per-topic dirty flag and graph links */
+    private final Map<Topic, Node> nodes = new IdentityHashMap<>();
+
+    /** @brief Topics pulled after every external publish */
+    private final List<Node> eager = new ArrayList<>();
+
+    /** @brief Serializes publishes and pulls; also tells whether the current thread is inside one */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** @brief Number of reads that had to compute something */
+    private final LongAdder pulls = new LongAdder();
+
+    /** @brief Number of agent activations */
+    private final LongAdder activations = new LongAdder();
+
+    /**
+     * @brief Ranks the agents of the given topics and installs the engine on them
+     * @param allTopics Every topic of the loaded configuration
+     * @param eagerTopics Names of the topics to keep computing on every change
+     * @return The installed engine
+     * @throws IllegalStateException if the agent graph contains a cycle
+     */
+    public static LazyEngine install(Collection<Topic> allTopics, Set<String> eagerTopics) {
+        LazyEngine engine = new LazyEngine();
+        Map<Agent, Integer> ranks = WaveEngine.rankAgents();
+        ranks.forEach((a, r) -> engine.vertices.put(a, new Vertex(a, r)));
+
+        for (Topic t : allTopics) {
+            Node n = new Node(t);
+            engine.nodes.put(t, n);
+            if (eagerTopics.contains(t.name)) engine.eager.add(n);
+        }
+        for (Node n : engine.nodes.values()) {
+            for (Agent a : n.topic.getPubs()) {
+                Vertex v = engine.vertices.get(a);
+                n.producers.add(v);
+                v.outputs.add(n);
+            }
+            for (Agent a : n.topic.getSubs()) {
+                Vertex v = engine.vertices.get(a);
+                n.consumers.add(v);
+                v.inputs.add(n);
+            }
+        }
+        for (Node n : engine.nodes.values()) n.topic.setEngine(engine);
+        return engine;
+    }
+
+    @Override
+    public void uninstall() {
+        lock.lock();
+        try {
+            for (Node n : nodes.values()) n.topic.setEngine(null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPullCount()       {return pulls.sum();}
+    public long getActivationCount() {return activations.sum();}
+
+    /**
+     * @brief Tells whether a topic's stored value is out of date
+     * @param topic The topic
+     * @return true if reading it would run agents
+     */
+    public boolean isDirty(Topic topic) {
+        lock.lock();
+        try {
+            Node n = nodes.get(topic);
+            return n != null && n.dirty;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @brief Entry point used by Topic.publish while this engine is installed
+     * @param topic The topic being published to
+     * @param m The message
+     *
+     * A publish from outside invalidates the downstream topics and refreshes
+     * the eager ones. A publish made by an agent during a pull is only recorded.
+     */
+    @Override
+    public void publish(Topic topic, Message m) {
+        if (lock.isHeldByCurrentThread()) {
+            record(topic, m);
+            return;
+        }
+
+        lock.lock();
+        try {
+            record(topic, m);
+            Node n = nodes.get(topic);
+            if (n != null) {
+                n.dirty = false;
+                for (Vertex c : n.consumers) invalidate(c);
+            }
+            if (!eager.isEmpty()) pull(eager);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @brief Returns the topic's current value, computing it first if needed
+     */
+    @Override
+    public Message read(Topic topic) {
+        lock.lock();
+        try {
+            Node n = nodes.get(topic);
+            if (n != null && n.dirty) pull(List.of(n));
+            return topic.storedMessage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* helpers ------------------------------------------------------------ */
+
+    /**
+     * @brief Stores the topic's new value and queues it for its subscribers
+     */
+    private void record(Topic topic, Message m) {
+        topic.setLastMessage(m);
+        List<Agent> subs = topic.getSubs();
+        for (int i = 0; i < subs.size(); i++) {
+            Agent a = subs.get(i);
+            Vertex v = vertices.get(a);
+            if (v == null) {
+                a.callback(topic.name, m);               // subscribed after installation: deliver directly
+            } else if (!v.changed.contains(topic)) {
+                v.changed.add(topic);
+            }
+        }
+    }
+
+    /**
+     * @brief Marks every topic downstream of an agent as dirty
+     */
+    private void invalidate(Vertex start) {
+        ArrayDeque<Vertex> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Vertex v = stack.pop();
+            for (Node out : v.outputs) {
+                if (out.dirty) continue;                 // everything below is dirty already
+                out.dirty = true;
+                for (Vertex c : out.consumers) stack.push(c);
+            }
+        }
+    }
+
+    /**
+     * @brief Brings the given topics up to date
+     * @param targets Topics to compute (clean ones are skipped)
+     */
+    private void pull(List<Node> targets) {
+        // collect the dirty upstream cone
+        List<Vertex> cone = new ArrayList<>();
+        List<Node> visited = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        for (Node t : targets) {
+            if (t.dirty && !t.visited) {
+                t.visited = true;
+                stack.push(t);
+            }
+        }
+        while (!stack.isEmpty()) {
+            Node n = stack.pop();
+            visited.add(n);
+            for (Vertex p : n.producers) {
+                if (p.inCone) continue;
+                p.inCone = true;
+                cone.add(p);
+                for (Node in : p.inputs) {
+                    if (in.dirty && !in.visited) {
+                        in.visited = true;
+                        stack.push(in);
+                    }
+                }
+            }
+        }
+        if (visited.isEmpty()) return;
+        pulls.increment();
+
+        // activate it in rank order
+        cone.sort((a, b) -> Integer.compare(a.rank, b.rank));
+        try {
+            for (Vertex v : cone) activate(v);
+        } finally {
+            for (Vertex v : cone) v.inCone = false;
+            for (Node n : visited) {
+                n.visited = false;
+                n.dirty = false;
+            }
+        }
+    }
+
+    /**
+     * @brief Delivers the latest value of every pending input to one agent
+     */
+    private void activate(Vertex v) {
+        if (v.changed.isEmpty()) return;
+        activations.increment();
+        // Only higher-ranked agents can be queued while v runs, so v.changed is stable here
+        try {
+            for (int i = 0; i < v.changed.size(); i++) {
+                Topic t = v.changed.get(i);
+                v.agent.callback(t.name, t.storedMessage());
+            }
+        } finally {
+            v.changed.clear();
+        }
+    }
+
+    /**
+     * @brief Rank, links and pending inputs of one agent
+     */
+    private static final class Vertex {
+        final Agent       agent;
+        final int         rank;
+        final List<Topic> changed = new ArrayList<>(2);
+        final List<Node>  inputs  = new ArrayList<>(2);
+        final List<Node>  outputs = new ArrayList<>(1);
+        boolean           inCone;
+
+        Vertex(Agent agent, int rank) {
+            this.agent = agent;
+            this.rank  = rank;
+        }
+    }
+
+    /**
+     * @brief Dirty flag and links of one topic
+     */
+    private static final class Node {
+        final Topic        topic;
+        final List<Vertex> producers = new ArrayList<>(1);
+        final List<Vertex> consumers = new ArrayList<>(2);
+        boolean            dirty;
+        boolean            visited;
+
+        Node(Topic topic) {
+            this.topic = topic;
+        }
+    }
+}
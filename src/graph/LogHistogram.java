@@ -0,0 +1,254 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * @file LogHistogram.java
+ * @brief Mergeable quantile sketch with logarithmic buckets
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * An HDR-style histogram over a logarithmic scale: a value x > 0 is counted
+ * in bucket ceil(log_gamma(x)) with gamma = (1 + a) / (1 - a), so every
+ * value in a bucket is within relative error a of the bucket's midpoint.
+ * Negative values use a mirrored set of buckets; values whose magnitude is
+ * below MIN_MAGNITUDE count as zero, and magnitudes above MAX_MAGNITUDE
+ * (including infinities) go to the last bucket.
+ *
+ * The bucket counts live in long[] arrays that only cover the indexes seen
+ * so far, so memory depends on the spread of the values, not on their
+ * number, and is bounded by the magnitude range (about 3,100 buckets per
+ * sign for a = 1%). Adding a value is O(1); a quantile walks the buckets.
+ * Two histograms with the same accuracy merge by adding their counts, so a
+ * merged histogram answers exactly as if it had seen both streams.
+ *
+ * Outputs: "pNN" (e.g. "p50", "p99.9"), "median", "min", "max", "mean", "count".
+ */
+public final class LogHistogram implements StreamStatistic {
+
+    /** @brief Outputs of a QuantileAgent that names none */
+    private static final String[] DEFAULT_OUTPUTS = {"p50", "p95", "p99"};
+
+    /** @brief Smallest magnitude kept apart from zero */
+    public static final double MIN_MAGNITUDE = 1e-9;
+
+    /** @brief Largest magnitude with its own bucket */
+    public static final double MAX_MAGNITUDE = 1e18;
+
+    private final double accuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int    minIndex;
+    private final int    maxIndex;
+
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long   zeros;
+    private long   count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @brief Creates an empty histogram
+     * @param accuracy Relative accuracy of the quantiles, in (0, 1), e.g. 0.01
+     * @throws IllegalArgumentException if the accuracy is out of range
+     */
+    public LogHistogram(double accuracy) {
+        if (!(accuracy > 0 && accuracy < 1)) {
+            throw new IllegalArgumentException("accuracy must be in (0, 1): " + accuracy);
+        }
+        this.accuracy = accuracy;
+        gamma    = (1 + accuracy) / (1 - accuracy);
+        logGamma = Math.log(gamma);
+        minIndex = index(MIN_MAGNITUDE);
+        maxIndex = index(MAX_MAGNITUDE);
+    }
+
+    @Override
+    public void accept(long stamp, double value) {
+        add(value, 1);
+    }
+
+    /**
+     * @brief Counts a value n times
+     * @param value The value (not NaN)
+     * @param n Number of occurrences
+     */
+    public void add(double value, long n) {
+        double magnitude = Math.abs(value);
+        if (magnitude < MIN_MAGNITUDE) {
+            zeros += n;
+        } else {
+            int i = Math.min(index(magnitude), maxIndex);
+            (value > 0 ? positive : negative).add(i, n);
+        }
+        count += n;
+        sum += value * n;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * @brief Adds the counts of another histogram to this one
+     * @param other A histogram with the same accuracy
+     * @throws IllegalArgumentException if the accuracies differ
+     */
+    public void merge(LogHistogram other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("Cannot merge histograms of accuracy "
+                + other.accuracy + " into " + accuracy);
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeros += other.zeros;
+        count += other.count;
+        sum   += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @brief Estimates a quantile
+     * @param q The quantile, in [0, 1] (0.5 for the median)
+     * @return A value within the relative accuracy of the true quantile, or NaN when empty
+     */
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        double rank = q * (count - 1);
+        long seen = 0;
+        for (int k = negative.counts.length - 1; k >= 0; k--) {   // most negative first
+            seen += negative.counts[k];
+            if (seen > rank) return clamp(-midpoint(negative.offset + k));
+        }
+        seen += zeros;
+        if (seen > rank) return clamp(0);
+        for (int k = 0; k < positive.counts.length; k++) {
+            seen += positive.counts[k];
+            if (seen > rank) return clamp(midpoint(positive.offset + k));
+        }
+        return max;
+    }
+
+    /**
+     * @brief Gets the number of values counted
+     * @return The count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @brief Gets the relative accuracy
+     * @return The accuracy given at construction
+     */
+    public double getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * @brief Gets the number of bucket counters allocated
+     * @return Counters of both signs (a measure of the memory used)
+     */
+    public int getBucketCount() {
+        return positive.counts.length + negative.counts.length;
+    }
+
+    @Override
+    public void clear() {
+        positive.clear();
+        negative.clear();
+        zeros = count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public DoubleSupplier output(String name) {
+        String n = name.trim().toLowerCase();
+        switch (n) {
+            case "median": return () -> quantile(0.5);
+            case "min":    return () -> count > 0 ? min : Double.NaN;
+            case "max":    return () -> count > 0 ? max : Double.NaN;
+            case "mean":   return () -> count > 0 ? sum / count : Double.NaN;
+            case "count":  return () -> count;
+            default:
+                break;
+        }
+        if (n.startsWith("p")) {
+            try {
+                double q = Double.parseDouble(n.substring(1)) / 100;
+                if (q >= 0 && q <= 1) return () -> quantile(q);
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException("Unknown quantile output: " + name);
+    }
+
+    @Override
+    public String[] defaultOutputs() {
+        return DEFAULT_OUTPUTS.clone();
+    }
+
+    /** @brief Bucket index of a positive magnitude */
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    /** @brief Value reported for bucket i: within the accuracy of every value in it */
+    private double midpoint(int i) {
+        return 2 * Math.pow(gamma, i) / (gamma + 1);
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @brief Dense counters for the bucket indexes offset .. offset + counts.length - 1
+     */
+    private final class Buckets {
+        long[] counts = new long[0];
+        int offset;
+
+        void add(int index, long n) {
+            int i = Math.max(index, minIndex);
+            if (counts.length == 0) {
+                counts = new long[8];
+                offset = Math.max(minIndex, Math.min(i - 4, maxIndex - 7));
+            } else if (i < offset || i >= offset + counts.length) {
+                cover(i);
+            }
+            counts[i - offset] += n;
+        }
+
+        void merge(Buckets other) {
+            for (int k = 0; k < other.counts.length; k++) {
+                if (other.counts[k] != 0) add(other.offset + k, other.counts[k]);
+            }
+        }
+
+        void clear() {
+            Arrays.fill(counts, 0);
+        }
+
+        /** @brief Grows the counters (at least doubling) so that they cover index i */
+        private void cover(int i) {
+            int low  = Math.min(offset, i);
+            int high = Math.max(offset + counts.length - 1, i);
+            int length = Math.max(high - low + 1, 2 * counts.length);
+            if (i < offset) low = Math.max(minIndex, high - length + 1);
+            length = Math.min(length, maxIndex - low + 1);
+            long[] grown = new long[length];
+            System.arraycopy(counts, 0, grown, offset - low, counts.length);
+            counts = grown;
+            offset = low;
+        }
+    }
+}
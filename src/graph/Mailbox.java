@@ -0,0 +1,84 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @file Mailbox.java
+ * @brief Bounded queue that buffers messages for a single consuming agent
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * A Mailbox is written to by any number of publishing threads and read by
+ * exactly one consumer at a time (the ParallelAgent worker thread or its
+ * current shared-pool drain task). Implementations are created through
+ * MailboxType so the queueing strategy can be chosen per configuration.
+ * 
+ * @param <E> Type of the buffered entries
+ */
+public interface Mailbox<E> {
+
+    /**
+     * @brief Adds an entry, waiting while the mailbox is full
+     * @param e The entry to add (not null)
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    void put(E e) throws InterruptedException;
+
+    /**
+     * @brief Adds an entry if there is room
+     * @param e The entry to add (not null)
+     * @return true if the entry was added, false if the mailbox is full
+     */
+    boolean offer(E e);
+
+    /**
+     * @brief Adds an entry, waiting up to the given time for room
+     * @param e The entry to add (not null)
+     * @param timeout How long to wait
+     * @param unit Unit of the timeout
+     * @return true if the entry was added, false if the mailbox stayed full
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * @brief Removes the oldest entry, waiting until one is available
+     * @return The oldest entry
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * 
+     * Consumer side only.
+     */
+    E take() throws InterruptedException;
+
+    /**
+     * @brief Removes the oldest entry if one is available
+     * @return The oldest entry, or null if the mailbox is empty
+     * 
+     * Consumer side only.
+     */
+    E poll();
+
+    /**
+     * @brief Removes up to limit entries in order and passes them to the sink
+     * @param sink Receives each removed entry
+     * @param limit Maximum number of entries to remove
+     * @return The number of entries handed to the sink
+     * 
+     * Consumer side only. Implementations may publish the consumer position
+     * once per batch rather than once per entry.
+     */
+    int drain(Consumer<? super E> sink, int limit);
+
+    /**
+     * @brief Checks whether the mailbox holds no entries
+     * @return true if no entry is buffered or being added
+     */
+    boolean isEmpty();
+
+    /**
+     * @brief Discards all buffered entries (consumer side only)
+     */
+    void clear();
+}
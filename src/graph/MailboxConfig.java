@@ -0,0 +1,123 @@
+package graph;
+
+/**
+ * @file MailboxConfig.java
+ * @brief Immutable description of a ParallelAgent mailbox
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Groups the capacity, implementation, idle strategy and overflow policy
+ * of one agent's mailbox, so they can be declared per agent in the
+ * configuration files and passed to ParallelAgent as a single value.
+ * 
+ * The default mailbox blocks a full publisher until there is room. Agents
+ * on the shared pool must not wait indefinitely (see ParallelAgent), so
+ * their default spills the messages that do not fit instead, and an
+ * explicit BLOCK waits at most POOL_BLOCK_TIMEOUT_MILLIS unless a timeout
+ * is given. Dropping is never a default.
+ */
+public final class MailboxConfig {
+
+    /** @brief Capacity used when a configuration does not declare one */
+    public static final int DEFAULT_CAPACITY = 128;
+
+    /** @brief Blocking mailbox of the default capacity that waits indefinitely when full */
+    public static final MailboxConfig DEFAULT = new MailboxConfig(DEFAULT_CAPACITY, MailboxType.BLOCKING,
+            IdleStrategy.PARK, OverflowPolicy.BLOCK, 0);
+
+    /** @brief Longest wait for room of a shared-pool BLOCK mailbox that declares no timeout */
+    public static final long POOL_BLOCK_TIMEOUT_MILLIS = 100;
+
+    /** @brief Default of shared-pool agents: spill what does not fit (POOL_BLOCK_TIMEOUT_MILLIS if switched to BLOCK) */
+    public static final MailboxConfig POOL_DEFAULT = new MailboxConfig(DEFAULT_CAPACITY, MailboxType.BLOCKING,
+            IdleStrategy.PARK, OverflowPolicy.SPILL, POOL_BLOCK_TIMEOUT_MILLIS);
+
+    /** @brief Maximum number of buffered messages */
+    private final int capacity;
+
+    /** @brief Mailbox implementation */
+    private final MailboxType type;
+
+    /** @brief How a RING mailbox waits when empty or full */
+    private final IdleStrategy idle;
+
+    /** @brief What happens to a message that does not fit */
+    private final OverflowPolicy overflow;
+
+    /** @brief Longest time BLOCK waits for room before dropping, 0 for no limit */
+    private final long blockTimeoutMillis;
+
+    /**
+     * @brief Creates a mailbox configuration
+     * @param capacity Maximum number of buffered messages
+     * @param type Mailbox implementation
+     * @param idle How a RING mailbox waits when empty or full
+     * @param overflow What happens to a message that does not fit
+     * @param blockTimeoutMillis Longest wait for room under BLOCK, 0 to wait indefinitely
+     * @throws IllegalArgumentException if a value is out of range or the policy
+     *         cannot be implemented by the mailbox type
+     */
+    public MailboxConfig(int capacity, MailboxType type, IdleStrategy idle,
+                         OverflowPolicy overflow, long blockTimeoutMillis) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Mailbox capacity must be positive: " + capacity);
+        if (blockTimeoutMillis < 0)
+            throw new IllegalArgumentException("Block timeout cannot be negative: " + blockTimeoutMillis);
+        if (overflow == OverflowPolicy.DROP_OLDEST && type == MailboxType.RING)
+            throw new IllegalArgumentException("drop-oldest needs a blocking mailbox (ring mailboxes have a single consumer)");
+
+        this.capacity           = capacity;
+        this.type               = type;
+        this.idle               = idle;
+        this.overflow           = overflow;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    public int            getCapacity()           {return capacity;}
+    public MailboxType    getType()               {return type;}
+    public IdleStrategy   getIdleStrategy()       {return idle;}
+    public OverflowPolicy getOverflowPolicy()     {return overflow;}
+    public long           getBlockTimeoutMillis() {return blockTimeoutMillis;}
+
+    /**
+     * @brief Gets the default mailbox for an execution mode
+     * @param mode How the agent runs
+     * @return POOL_DEFAULT for SHARED_POOL, DEFAULT otherwise
+     */
+    public static MailboxConfig defaultFor(ExecutionMode mode) {
+        return mode == ExecutionMode.SHARED_POOL ? POOL_DEFAULT : DEFAULT;
+    }
+
+    /**
+     * @brief Gets the block timeout used when a configuration declares none
+     * @param mode How the agent runs
+     * @return POOL_BLOCK_TIMEOUT_MILLIS for SHARED_POOL, 0 (no limit) otherwise
+     */
+    public static long defaultBlockTimeoutMillis(ExecutionMode mode) {
+        return defaultFor(mode).getBlockTimeoutMillis();
+    }
+
+    /**
+     * @brief Tells whether a publisher may wait for room without limit
+     * @return true for BLOCK (or CONFLATE tokens) without a timeout
+     */
+    public boolean blocksIndefinitely() {
+        return blockTimeoutMillis == 0
+            && (overflow == OverflowPolicy.BLOCK || overflow == OverflowPolicy.CONFLATE);
+    }
+
+    /**
+     * @brief Creates an empty mailbox matching this configuration
+     * @return A new mailbox
+     */
+    public <E> Mailbox<E> create() {
+        return type.create(capacity, idle);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MailboxConfig{capacity=%d, type=%s, idle=%s, overflow=%s, timeoutMs=%d}",
+                capacity, type.getConfigName(), idle.getConfigName(), overflow.getConfigName(), blockTimeoutMillis);
+    }
+}
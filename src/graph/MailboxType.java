@@ -0,0 +1,57 @@
+package graph;
+
+/**
+ * @file MailboxType.java
+ * @brief Enumeration of the available ParallelAgent mailbox implementations
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * - BLOCKING: lock-based ArrayBlockingQueue (BlockingMailbox)
+ * - RING: lock-free multi-producer/single-consumer ring buffer (RingMailbox)
+ */
+public enum MailboxType {
+    BLOCKING("blocking"),
+    RING("ring");
+
+    /** @brief Name used for this type in configuration files */
+    private final String configName;
+
+    MailboxType(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Creates a mailbox of this type
+     * @param capacity Maximum number of buffered entries
+     * @param idle How RING mailboxes wait when empty or full (ignored by BLOCKING)
+     * @return A new, empty mailbox
+     */
+    public <E> Mailbox<E> create(int capacity, IdleStrategy idle) {
+        return this == RING ? new RingMailbox<>(capacity, idle) : new BlockingMailbox<>(capacity);
+    }
+
+    /**
+     * @brief Gets the name used for this type in configuration files
+     * @return The configuration name (e.g., "ring")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a type from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching mailbox type
+     * @throws IllegalArgumentException if the value is not a known type
+     */
+    public static MailboxType fromString(String value) {
+        String v = value.trim();
+        for (MailboxType type : values()) {
+            if (type.configName.equalsIgnoreCase(v) || type.name().equalsIgnoreCase(v)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown mailbox type: " + value);
+    }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @file MemoAgent.java
+ * @brief Decorator that skips a pure agent when an input repeats its last value
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * The standard operators (PlusAgent, MulAgent, DivAgent, ...) only depend
+ * on the latest value of each input. When a poller republishes the value a
+ * topic already had, the agent would compute and publish the same result
+ * again and the whole downstream cone would follow. A MemoAgent takes over
+ * the agent's subscriptions and publications, remembers the last value seen
+ * on every input, and drops a message that does not change its input tuple,
+ * so neither the agent nor anything downstream runs.
+ * 
+ * Only wrap agents whose output is a function of their last inputs.
+ */
+public class MemoAgent implements Agent {
+
+    private final Agent agent;
+
+    /** @brief Last value received on each input topic */
+    private final Map<String, Message> lastInputs = new HashMap<>();
+
+    /** @brief Topics this agent subscribed to in place of the wrapped one */
+    private final List<Topic> inputs = new ArrayList<>();
+
+    /** @brief Topics this agent is registered on as publisher in place of the wrapped one */
+    private final List<Topic> outputs = new ArrayList<>();
+
+    /** @brief Messages dropped because the input had not changed */
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * @brief Wraps an already subscribed agent
+     * @param agent The pure agent
+     * @param subscriptions Topic names the agent subscribed to
+     * @param publications Topic names the agent publishes to
+     */
+    public MemoAgent(Agent agent, String[] subscriptions, String[] publications) {
+        this.agent = agent;
+        TopicManagerSingleton.TopicManager tm = TopicManagerSingleton.get();
+        for (String name : subscriptions) {
+            if (!tm.containsTopic(name)) continue;
+            Topic t = tm.getTopic(name);
+            if (!inputs.contains(t) && t.getSubs().contains(agent)) {
+                t.replaceSubscriber(agent, this);
+                inputs.add(t);
+            }
+        }
+        for (String name : publications) {
+            if (!tm.containsTopic(name)) continue;
+            Topic t = tm.getTopic(name);
+            if (!outputs.contains(t) && t.getPubs().contains(agent)) {
+                t.removePublisher(agent);
+                t.addPublisher(this);
+                outputs.add(t);
+            }
+        }
+    }
+
+    /**
+     * @brief Gets the wrapped agent
+     * @return The agent receiving the changed inputs
+     */
+    public Agent getAgent() {return agent;}
+
+    /**
+     * @brief Gets the number of messages that did not reach the agent
+     * @return Repeated inputs dropped so far
+     */
+    public long getSkippedCount() {return skipped.sum();}
+
+    @Override
+    public String getName() {return agent.getName();}
+
+    @Override
+    public void reset() {
+        synchronized (lastInputs) {
+            lastInputs.clear();
+        }
+        agent.reset();
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        Message previous;
+        synchronized (lastInputs) {                      // not held while the agent runs
+            previous = lastInputs.put(topic, msg);
+        }
+        if (previous != null && DistinctFilter.same(previous, msg, 0)) {
+            skipped.increment();
+            return;
+        }
+        agent.callback(topic, msg);
+    }
+
+    @Override
+    public void close() {
+        for (Topic t : inputs) t.replaceSubscriber(this, agent);   // hand them back
+        for (Topic t : outputs) {
+            t.removePublisher(this);
+            t.addPublisher(agent);
+        }
+        agent.close();
+    }
+}
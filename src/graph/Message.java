@@ -1,6 +1,7 @@
 package graph;
 
 import java.util.Date;
+import java.util.Objects;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -8,65 +9,153 @@ import java.nio.charset.StandardCharsets;
  * @brief Represents a message that can be passed between agents through topics
  * @author Advanced Programming Course
  * @date 2025
- * @version 1.0
+ * @version 2.0
  * 
  * A Message encapsulates data that flows through the agent graph system.
  * Messages can contain arbitrary binary data and provide convenient access
  * to the data as text and numeric values. Each message is timestamped
  * with its creation time for debugging and monitoring purposes.
+ * 
+ * A message keeps only the representation it was created from and derives
+ * the others on first access:
+ * - numeric messages hold a primitive double; text and bytes are produced
+ *   only if someone asks for them, so agent-to-agent hops stay allocation-light
+ * - text and byte messages decode/encode and parse lazily, once
+ * 
+ * The creation time is recorded as a System.nanoTime() stamp; the wall-clock
+ * Date is derived from it on demand, relative to the wall-clock time read
+ * when this class was loaded (see date()). Derived values are cached in
+ * volatile fields, so a message can be shared between threads safely.
+ * 
+ * Version 2.0 deliberately breaks source compatibility: the public final
+ * fields data, asText, asDouble and date of version 1.0 are now methods of
+ * the same names (msg.asDouble becomes msg.asDouble(), msg.date becomes
+ * msg.date()). Final fields would have to be filled in the constructor,
+ * which is exactly the per-message conversion this version avoids.
  */
 public class Message {
 
-    /** @brief Raw binary data of the message */
-    public final byte[] data;
+    /** @brief Reference point used to convert nanoTime stamps to wall-clock time */
+    private static final long EPOCH_MILLIS = System.currentTimeMillis();
+    
+    /** @brief nanoTime() value taken together with EPOCH_MILLIS */
+    private static final long EPOCH_NANOS  = System.nanoTime();
+
+    /** @brief Raw binary data of the message (lazily encoded for non-byte messages) */
+    private volatile byte[] data;
+    
+    /** @brief Text representation of the message data (lazily decoded) */
+    private volatile String asText;
     
-    /** @brief Text representation of the message data (UTF-8 decoded) */
-    public final String asText;
+    /** @brief Numeric representation of the message data (valid once parsed is true) */
+    private double asDouble;
     
-    /** @brief Numeric representation of the message data (parsed as double) */
-    public final double asDouble;
+    /** @brief Whether asDouble already holds the parsed value */
+    private volatile boolean parsed;
     
-    /** @brief Timestamp when this message was created */
-    public final Date   date;
+    /** @brief System.nanoTime() stamp taken when this message was created */
+    private final long nanoTime;
 
     /**
      * @brief Canonical constructor that creates a message from binary data
      * @param data The raw binary data for this message
      * 
      * This is the primary constructor that accepts binary data as the most
-     * general form. The data is automatically converted to text (UTF-8) and
-     * numeric (double) representations for convenient access by agents.
+     * general form. The text (UTF-8) and numeric (double) representations
+     * are derived from it the first time they are requested.
      * A timestamp is automatically assigned when the message is created.
+     * @throws NullPointerException if data is null
      */
     public Message(byte[] data) { // chose byte[] as it is the most general form
-        this.data      = data;
-        this.asText    = new String(data, StandardCharsets.UTF_8);
-        this.asDouble  = parseDoubleSafely(this.asText);
-        this.date      = new Date();          // creation time
+        this.data      = Objects.requireNonNull(data, "data");
+        this.nanoTime  = System.nanoTime();   // creation time
     }
 
     /**
      * @brief Convenience constructor that creates a message from text
      * @param text The text content for this message
      * 
-     * This constructor converts the text to UTF-8 bytes and calls the
-     * canonical constructor. This is a convenience method for creating
-     * text-based messages without manual byte conversion.
+     * The text is kept as-is; the UTF-8 bytes and the numeric value are
+     * only computed if they are requested.
+     * @throws NullPointerException if text is null
      */
     public Message(String text) {
-        this(text.getBytes(StandardCharsets.UTF_8));
+        this.asText    = Objects.requireNonNull(text, "text");
+        this.nanoTime  = System.nanoTime();
     }
 
     /**
      * @brief Convenience constructor that creates a message from a numeric value
      * @param value The numeric value to convert to a message
      * 
-     * This constructor converts the double value to its string representation
-     * and then to a text-based message. Useful for agents that work primarily
-     * with numeric data.
+     * This is the fast path used by the arithmetic agents: the value is stored
+     * as a primitive and no string or byte conversion takes place unless
+     * asText() or data() is called.
      */
     public Message(double value) {
-        this(Double.toString(value)); // calls the text constructor
+        this.asDouble  = value;
+        this.parsed    = true;
+        this.nanoTime  = System.nanoTime();
+    }
+
+    /**
+     * @brief Returns the raw binary data of the message
+     * @return The message bytes (UTF-8 encoded text for text and numeric messages)
+     */
+    public byte[] data() {
+        byte[] d = data;
+        if (d == null) {
+            d = asText().getBytes(StandardCharsets.UTF_8);
+            data = d;
+        }
+        return d;
+    }
+
+    /**
+     * @brief Returns the text representation of the message
+     * @return The UTF-8 decoded data, or Double.toString() of a numeric message
+     */
+    public String asText() {
+        String s = asText;
+        if (s == null) {
+            byte[] d = data;
+            s = d != null ? new String(d, StandardCharsets.UTF_8) : Double.toString(asDouble);
+            asText = s;
+        }
+        return s;
+    }
+
+    /**
+     * @brief Returns the numeric representation of the message
+     * @return The value parsed as a double, or Double.NaN if it is not a number
+     */
+    public double asDouble() {
+        if (!parsed) {
+            asDouble = parseDoubleSafely(asText());
+            parsed = true;                    // volatile write publishes asDouble
+        }
+        return asDouble;
+    }
+
+    /**
+     * @brief Returns the creation time of this message
+     * @return A new Date derived from the creation nanoTime stamp
+     * 
+     * The Date is the wall-clock time read when Message was loaded plus the
+     * nanoTime elapsed since then. nanoTime does not follow adjustments of
+     * the system clock (NTP corrections, manual changes), so after one the
+     * Date is off by the adjustment. Use nanoTime() to measure intervals.
+     */
+    public Date date() {
+        return new Date(EPOCH_MILLIS + (nanoTime - EPOCH_NANOS) / 1_000_000L);
+    }
+
+    /**
+     * @brief Returns the System.nanoTime() stamp taken at creation
+     * @return The creation stamp in nanoseconds
+     */
+    public long nanoTime() {
+        return nanoTime;
     }
 
     /**
@@ -86,4 +175,4 @@ public class Message {
             return Double.NaN;                // spec‑mandated fallback
         }
     }
-}
\ No newline at end of file
+}
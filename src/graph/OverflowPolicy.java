@@ -0,0 +1,58 @@
+package graph;
+
+/**
+ * @file OverflowPolicy.java
+ * @brief What a ParallelAgent does with a message when its mailbox is full
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * - BLOCK: the publisher waits for room, optionally up to a timeout after
+ *   which the message is dropped
+ * - DROP_NEWEST: the incoming message is discarded
+ * - DROP_OLDEST: the oldest buffered message is discarded to make room
+ *   (needs a mailbox that allows producers to remove entries, i.e. BLOCKING)
+ * - CONFLATE: only the latest pending message per topic is kept; a newer
+ *   message replaces an undelivered one instead of queueing behind it
+ * - SPILL: the message is appended to an unbounded list behind the
+ *   mailbox, and so are later ones until the list has been delivered;
+ *   nothing is dropped, order is kept and the publisher never waits
+ */
+public enum OverflowPolicy {
+    BLOCK("block"),
+    DROP_NEWEST("drop-newest"),
+    DROP_OLDEST("drop-oldest"),
+    CONFLATE("conflate"),
+    SPILL("spill");
+
+    /** @brief Name used for this policy in configuration files */
+    private final String configName;
+
+    OverflowPolicy(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Gets the name used for this policy in configuration files
+     * @return The configuration name (e.g., "drop-oldest")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a policy from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching overflow policy
+     * @throws IllegalArgumentException if the value is not a known policy
+     */
+    public static OverflowPolicy fromString(String value) {
+        String v = value.trim();
+        for (OverflowPolicy policy : values()) {
+            if (policy.configName.equalsIgnoreCase(v) || policy.name().equalsIgnoreCase(v)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown overflow policy: " + value);
+    }
+}
@@ -1,20 +1,177 @@
 package graph;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
+/**
+ * @file ParallelAgent.java
+ * @brief Decorator that runs an agent's callbacks off the publishing thread
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 2.0
+ * 
+ * A ParallelAgent buffers incoming messages in a bounded mailbox and hands
+ * them to the wrapped agent one at a time, in arrival order. On construction
+ * it takes over the wrapped agent's topic subscriptions, so publishers only
+ * pay for an enqueue. The mailbox is drained either by a dedicated platform
+ * thread (ExecutionMode.DEDICATED_THREAD) or by short drain tasks submitted
+ * to the shared AgentScheduler (ExecutionMode.SHARED_POOL).
+ * 
+ * The mailbox holds (topic, message) envelopes that carry the original
+ * Message object, so its representation (numeric, text or binary) and its
+ * timestamp reach the wrapped agent unchanged and nothing is re-encoded.
+ * The mailbox implementation is pluggable (see MailboxType); both the
+ * worker thread and the drain tasks consume it in batches.
+ * 
+ * When the mailbox is full the configured OverflowPolicy decides whether
+ * the publisher waits (optionally with a timeout) or a message is dropped.
+ * Dropped messages and the time publishers spent blocked are counted.
+ * 
+ * In SHARED_POOL mode the publishers are often drain tasks of other agents
+ * running on the same fixed-size pool; if they all waited for room
+ * indefinitely, nothing would be left to drain and the graph would
+ * deadlock. A shared-pool mailbox that waits for room (BLOCK, or the
+ * tokens of CONFLATE) must therefore have a timeout. By default a
+ * shared-pool mailbox spills what does not fit (OverflowPolicy.SPILL)
+ * instead, so nothing is lost and no pool thread waits.
+ */
 public class ParallelAgent implements Agent {
-    private static final char SEP = '\u0000';
+    /** @brief Maximum messages handled per batch (and per shared-pool drain task) */
+    private static final int DRAIN_BATCH = 64;
 
     private final Agent               agent;
-    private final BlockingQueue<Message> queue;
+    private final Mailbox<Envelope>   queue;
+    private final ExecutionMode       mode;
+    private final MailboxConfig       config;
+    
+    /** @brief Latest undelivered message per topic (CONFLATE policy only, null otherwise) */
+    private final ConcurrentHashMap<String, Message> pending;
+    
+    /** @brief Messages queued behind the full mailbox, oldest first (SPILL policy only, null otherwise) */
+    private final ConcurrentLinkedQueue<Envelope> spill;
+    
+    /** @brief Messages discarded by the overflow policy */
+    private final LongAdder           dropped = new LongAdder();
+    
+    /** @brief Total time publishers spent waiting for room, in nanoseconds */
+    private final LongAdder           blockedNanos = new LongAdder();
+    
+    /** @brief Hands one envelope to the wrapped agent (cached to avoid a lambda per batch) */
+    private final Consumer<Envelope>  deliverer = this::deliver;
+    
+    /** @brief Worker thread in DEDICATED_THREAD mode, null otherwise */
     private final Thread              worker;
+    
+    /** @brief Executor that runs drain tasks in SHARED_POOL mode, null otherwise */
+    private final Executor            scheduler;
+    
+    /** @brief Set while a drain task is queued or running (SHARED_POOL mode) */
+    private final AtomicBoolean       scheduled = new AtomicBoolean();
+    
+    /** @brief Held by a drain task while it delivers a batch (SHARED_POOL mode) */
+    private final Object              drainLock = new Object();
+    
+    /** @brief Set by close(); later callbacks are ignored and drain tasks deliver nothing */
+    private volatile boolean          closed;
+    
+    /** @brief Topics whose subscription was taken over from the wrapped agent */
+    private final List<Topic>         inputs = new ArrayList<>();
 
+    /**
+     * @brief Creates a parallel agent with its own worker thread
+     * @param agent The agent to decorate
+     * @param capacity Mailbox capacity
+     */
     public ParallelAgent(Agent agent, int capacity) {
-        this.agent  = agent;
-        this.queue  = new ArrayBlockingQueue<>(capacity);
-        this.worker = new Thread(this::runWorker, agent.getName() + "-worker");
-        this.worker.start();
+        this(agent, capacity, ExecutionMode.DEDICATED_THREAD);
+    }
+
+    /**
+     * @brief Creates a parallel agent using the given execution mode
+     * @param agent The agent to decorate
+     * @param capacity Mailbox capacity
+     * @param mode DEDICATED_THREAD or SHARED_POOL
+     * @throws IllegalArgumentException if mode is SYNCHRONOUS
+     * 
+     * Every topic is scanned for the agent's subscriptions. Callers that know
+     * the subscription list should use the overload that takes it.
+     */
+    public ParallelAgent(Agent agent, int capacity, ExecutionMode mode) {
+        this(agent, capacity, mode, null);
+    }
+
+    /**
+     * @brief Creates a parallel agent for an agent with known subscriptions
+     * @param agent The agent to decorate
+     * @param capacity Mailbox capacity
+     * @param mode DEDICATED_THREAD or SHARED_POOL
+     * @param subscriptions Names of the topics the agent subscribed to, or null to scan all topics
+     * @throws IllegalArgumentException if mode is SYNCHRONOUS
+     */
+    public ParallelAgent(Agent agent, int capacity, ExecutionMode mode, String[] subscriptions) {
+        this(agent, capacity, mode, subscriptions, MailboxType.BLOCKING, IdleStrategy.PARK);
+    }
+
+    /**
+     * @brief Creates a parallel agent with a specific mailbox implementation
+     * @param agent The agent to decorate
+     * @param capacity Mailbox capacity
+     * @param mode DEDICATED_THREAD or SHARED_POOL
+     * @param subscriptions Names of the topics the agent subscribed to, or null to scan all topics
+     * @param mailboxType Mailbox implementation to use
+     * @param idle How a RING mailbox waits when empty (worker) or full (publishers)
+     * @throws IllegalArgumentException if mode is SYNCHRONOUS
+     * 
+     * Publishers block when the mailbox is full; in SHARED_POOL mode the
+     * messages that do not fit spill over instead.
+     */
+    public ParallelAgent(Agent agent, int capacity, ExecutionMode mode, String[] subscriptions,
+                         MailboxType mailboxType, IdleStrategy idle) {
+        this(agent, mode, subscriptions, new MailboxConfig(capacity, mailboxType, idle,
+             MailboxConfig.defaultFor(mode).getOverflowPolicy(), MailboxConfig.defaultBlockTimeoutMillis(mode)));
+    }
+
+    /**
+     * @brief Creates a parallel agent with a fully described mailbox
+     * @param agent The agent to decorate
+     * @param mode DEDICATED_THREAD or SHARED_POOL
+     * @param subscriptions Names of the topics the agent subscribed to, or null to scan all topics
+     * @param config Capacity, implementation, idle strategy and overflow policy of the mailbox
+     * @throws IllegalArgumentException if mode is SYNCHRONOUS or PLACED, or a SHARED_POOL
+     *         mailbox would wait for room without a timeout
+     */
+    public ParallelAgent(Agent agent, ExecutionMode mode, String[] subscriptions, MailboxConfig config) {
+        if (mode == ExecutionMode.SYNCHRONOUS)
+            throw new IllegalArgumentException("ParallelAgent cannot run synchronously");
+        if (mode == ExecutionMode.PLACED)
+            throw new IllegalArgumentException("Placed agents are wrapped in a PlacedAgent");
+        if (mode == ExecutionMode.SHARED_POOL && config.blocksIndefinitely())
+            throw new IllegalArgumentException("A shared-pool mailbox must not block pool threads indefinitely: "
+                + "give " + config.getOverflowPolicy().getConfigName() + " a timeout or use a drop policy");
+
+        this.agent   = agent;
+        this.queue   = config.create();
+        this.mode    = mode;
+        this.config  = config;
+        this.pending = config.getOverflowPolicy() == OverflowPolicy.CONFLATE ? new ConcurrentHashMap<>() : null;
+        this.spill   = config.getOverflowPolicy() == OverflowPolicy.SPILL ? new ConcurrentLinkedQueue<>() : null;
+        if (mode == ExecutionMode.DEDICATED_THREAD) {
+            this.worker    = new Thread(this::runWorker, agent.getName() + "-worker");
+            this.scheduler = null;
+        } else {
+            this.worker    = null;
+            this.scheduler = AgentScheduler.shared();
+        }
+
+        takeOverSubscriptions(subscriptions);
+        if (worker != null) worker.start();
     }
 
     @Override
@@ -23,20 +180,80 @@ public class ParallelAgent implements Agent {
     @Override
     public void reset() {agent.reset();}
 
+    /**
+     * @brief Gets the decorated agent
+     * @return The agent whose callbacks this instance schedules
+     */
+    public Agent getAgent() {return agent;}
+
+    /**
+     * @brief Gets the execution mode of this agent
+     * @return DEDICATED_THREAD or SHARED_POOL
+     */
+    public ExecutionMode getMode() {return mode;}
+
+    /**
+     * @brief Gets the mailbox configuration of this agent
+     * @return The capacity, implementation and overflow policy in use
+     */
+    public MailboxConfig getMailboxConfig() {return config;}
+
+    /**
+     * @brief Gets the number of messages discarded by the overflow policy
+     * @return Dropped (or, under CONFLATE, superseded) messages so far
+     */
+    public long getDroppedCount() {return dropped.sum();}
+
+    /**
+     * @brief Gets the total time publishers spent waiting for mailbox room
+     * @return Blocked time in nanoseconds
+     */
+    public long getBlockedNanos() {return blockedNanos.sum();}
+
     @Override
     public void callback(String topic, Message msg) {
+        if (closed) return;
         try {
-            queue.put(new Message(topic + SEP + msg.asText));
+            if (pending != null) {
+                // Queue a token only for the first pending message of a topic;
+                // later ones just replace it until the worker picks it up.
+                if (pending.put(topic, msg) != null) {
+                    dropped.increment();
+                    return;
+                }
+                if (!enqueueToken(topic, msg)) return;
+            } else if (!enqueue(new Envelope(topic, msg))) {
+                return;
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
             Thread.currentThread().interrupt();
+            return;
         }
+        if (scheduler != null) scheduleDrain();
     }
 
+    /**
+     * @brief Stops delivery, then hands the subscriptions back and closes the wrapped agent
+     * 
+     * The worker is joined (or a drain batch in progress is waited for)
+     * before the subscriptions go back, so publishers never call the
+     * wrapped agent while a delivery is still running. Messages published
+     * in between are discarded.
+     */
     @Override
     public void close() {
-        worker.interrupt();
-        try { worker.join(); } catch (InterruptedException ignored) {}
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+            try { worker.join(); } catch (InterruptedException ignored) {}
+        } else {
+            synchronized (drainLock) {}                            // waits for a batch in progress
+        }
+        for (Topic t : inputs) t.replaceSubscriber(this, agent);   // hand them back
+        queue.clear();
+        if (pending != null) pending.clear();
+        if (spill != null) spill.clear();
         agent.close();
     }
 
@@ -44,16 +261,167 @@ public class ParallelAgent implements Agent {
 
     private void runWorker() {
         while (true) {
+            if (spill != null && queue.isEmpty() && drainSpill(DRAIN_BATCH) > 0) {
+                continue;
+            }
             try {
-                Message packed = queue.take();
-                int idx = packed.asText.indexOf(SEP);
-                if (idx < 0) continue; // malformed – skip
-                String topic  = packed.asText.substring(0, idx);
-                String body   = packed.asText.substring(idx + 1);
-                agent.callback(topic, new Message(body));
+                deliver(queue.take());
             } catch (InterruptedException e) {
                 break;
             }
+            queue.drain(deliverer, DRAIN_BATCH - 1);
+        }
+    }
+
+    /**
+     * @brief Submits a drain task unless one is already queued or running
+     */
+    private void scheduleDrain() {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    /**
+     * @brief Shared-pool drain task: handles a batch, then re-arms if needed
+     * 
+     * Only one drain task exists per agent at any time (guarded by the
+     * scheduled flag), which keeps callbacks single-threaded and ordered.
+     * After a batch the task yields the carrier so one busy agent cannot
+     * starve the others. The batch runs under drainLock, so close() can wait
+     * for it before closing the wrapped agent; a task that starts after
+     * close() delivers nothing.
+     */
+    private void drain() {
+        synchronized (drainLock) {
+            if (!closed) {
+                int n = queue.drain(deliverer, DRAIN_BATCH);
+                if (spill != null && queue.isEmpty()) drainSpill(DRAIN_BATCH - n);
+            }
+        }
+        scheduled.set(false);
+        if (!queue.isEmpty() || (spill != null && !spill.isEmpty())) scheduleDrain();
+    }
+
+    /**
+     * @brief Delivers spilled messages, oldest first (called once the mailbox is empty)
+     * @param limit Maximum number of messages to deliver
+     * @return The number delivered
+     * 
+     * Publishers append to the spill list while it is not empty, so its
+     * messages are newer than anything they put in the mailbox before.
+     */
+    private int drainSpill(int limit) {
+        int n = 0;
+        Envelope e;
+        while (n < limit && (e = spill.poll()) != null) {
+            deliver(e);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * @brief Adds an envelope to the mailbox, applying the overflow policy if it is full
+     * @param e The envelope to add
+     * @return true if the envelope was queued, false if it was dropped
+     * @throws InterruptedException if interrupted while waiting for room
+     */
+    private boolean enqueue(Envelope e) throws InterruptedException {
+        if (spill != null) {
+            if (!spill.isEmpty() || !queue.offer(e)) spill.add(e);   // keep order behind earlier spills
+            return true;
+        }
+        if (queue.offer(e)) return true;
+
+        switch (config.getOverflowPolicy()) {
+            case DROP_NEWEST:
+                dropped.increment();
+                return false;
+            case DROP_OLDEST:
+                while (!queue.offer(e)) {
+                    if (queue.poll() != null) dropped.increment();
+                }
+                return true;
+            default:                                  // BLOCK, and CONFLATE tokens
+                long start = System.nanoTime();
+                boolean added = true;
+                try {
+                    if (config.getBlockTimeoutMillis() > 0)
+                        added = queue.offer(e, config.getBlockTimeoutMillis(), TimeUnit.MILLISECONDS);
+                    else
+                        queue.put(e);
+                } finally {
+                    blockedNanos.add(System.nanoTime() - start);
+                }
+                if (!added && pending == null) dropped.increment();
+                return added;
+        }
+    }
+
+    /**
+     * @brief Queues the CONFLATE token for a topic whose pending slot this call filled
+     * @param topic The topic
+     * @param stored The message this call stored in the pending map
+     * @return true if a token was queued, false if the value was dropped
+     * @throws InterruptedException if interrupted while waiting for room
+     * 
+     * If the wait times out, only this call's own value is dropped. A newer
+     * value stored in the meantime relied on this token, so it gets one more
+     * non-blocking attempt and is dropped only if the mailbox is still full.
+     */
+    private boolean enqueueToken(String topic, Message stored) throws InterruptedException {
+        Envelope token = new Envelope(topic, null);
+        if (enqueue(token)) return true;
+        while (!pending.remove(topic, stored)) {
+            stored = pending.get(topic);
+            if (stored == null) return false;                      // delivered or dropped already
+            if (queue.offer(token)) return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    private void deliver(Envelope e) {
+        Message msg = e.msg != null ? e.msg : pending.remove(e.topic);
+        if (msg != null) agent.callback(e.topic, msg);
+    }
+
+    /**
+     * @brief Moves the wrapped agent's topic subscriptions to this instance
+     * @param subscriptions Topic names to take over, or null to scan every topic
+     */
+    private void takeOverSubscriptions(String[] subscriptions) {
+        TopicManagerSingleton.TopicManager tm = TopicManagerSingleton.get();
+        Iterable<Topic> candidates = tm.getTopics();
+        if (subscriptions != null) {
+            List<Topic> named = new ArrayList<>();
+            for (String name : subscriptions) {
+                if (tm.containsTopic(name)) named.add(tm.getTopic(name));
+            }
+            candidates = named;
+        }
+        for (Topic t : candidates) {
+            if (!inputs.contains(t) && t.getSubs().contains(agent)) {
+                t.replaceSubscriber(agent, this);
+                inputs.add(t);
+            }
+        }
+    }
+
+    /**
+     * @brief Mailbox entry pairing a message with the topic it arrived on
+     * 
+     * Under CONFLATE the message is null and the latest value is taken from
+     * the pending map at delivery time.
+     */
+    private static final class Envelope {
+        final String  topic;
+        final Message msg;
+
+        Envelope(String topic, Message msg) {
+            this.topic = topic;
+            this.msg   = msg;
         }
     }
 }
@@ -0,0 +1,156 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @file PlacedAgent.java
+ * @brief Decorator that runs an agent on the worker thread it is placed on
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Created for every agent of an ExecutionMode.PLACED configuration. Like a
+ * ParallelAgent it takes over the wrapped agent's subscriptions, but instead
+ * of a mailbox and a thread of its own it is assigned to one of the workers
+ * of an AgentPlacement:
+ *
+ * - A message published on the agent's own worker thread (by an agent
+ *   placed on the same worker) is delivered by a direct call.
+ * - Any other message is queued on the worker (a cross-thread handoff).
+ *
+ * The agent is therefore only ever run by its worker, one message at a time.
+ * When a repartition moves it to another worker, messages already queued on
+ * the old worker are delivered there first; messages sent to the new worker
+ * meanwhile are held until the old one hands the agent over.
+ */
+public class PlacedAgent implements Agent {
+
+    private final Agent          agent;
+    private final AgentPlacement placement;
+
+    /** @brief Worker that publishers queue messages on */
+    volatile AgentPlacement.Worker worker;
+
+    /** @brief Worker that runs the agent; differs from worker only during a handover */
+    volatile AgentPlacement.Worker owner;
+
+    /** @brief Messages that reached the new worker before the handover (new worker's thread only) */
+    final ArrayDeque<AgentPlacement.Envelope> held = new ArrayDeque<>();
+
+    /** @brief Input topic names, matched against incoming topics to count traffic per input */
+    private final String[] inputNames;
+
+    /** @brief Messages delivered per input (owner thread only; read for repartitioning) */
+    private final long[] delivered;
+
+    /** @brief Value of delivered at the last repartition */
+    private final long[] baseline;
+
+    /** @brief Topics whose subscription was taken over from the wrapped agent */
+    private final List<Topic> inputs = new ArrayList<>();
+
+    /**
+     * @brief Wraps an agent and registers it with a placement
+     * @param agent The agent to decorate
+     * @param subscriptions Names of the topics the agent subscribed to
+     * @param placement The placement whose workers run the agent
+     */
+    public PlacedAgent(Agent agent, String[] subscriptions, AgentPlacement placement) {
+        this.agent     = agent;
+        this.placement = placement;
+        TopicManagerSingleton.TopicManager tm = TopicManagerSingleton.get();
+        for (String name : subscriptions) {
+            if (!tm.containsTopic(name)) continue;
+            Topic t = tm.getTopic(name);
+            if (!inputs.contains(t) && t.getSubs().contains(agent)) {
+                t.replaceSubscriber(agent, this);
+                inputs.add(t);
+            }
+        }
+        inputNames = new String[inputs.size()];
+        for (int i = 0; i < inputNames.length; i++) inputNames[i] = inputs.get(i).name;
+        delivered = new long[inputNames.length];
+        baseline  = new long[inputNames.length];
+        placement.register(this);
+    }
+
+    @Override
+    public String getName() {return agent.getName();}
+
+    @Override
+    public void reset() {agent.reset();}
+
+    /**
+     * @brief Gets the decorated agent
+     * @return The agent run on the assigned worker
+     */
+    public Agent getAgent() {return agent;}
+
+    /**
+     * @brief Gets the worker the agent is assigned to
+     * @return The worker index
+     */
+    public int getWorkerIndex() {return worker.index;}
+
+    /**
+     * @brief Gets the topics this agent receives messages on
+     * @return The input topics, in the order of getDeliveredCount(i)
+     */
+    public List<Topic> getInputs() {return Collections.unmodifiableList(inputs);}
+
+    /**
+     * @brief Gets the number of messages delivered on one input
+     * @param input Index into getInputs()
+     * @return Messages delivered since the agent was created
+     */
+    public long getDeliveredCount(int input) {return delivered[input];}
+
+    @Override
+    public void callback(String topic, Message msg) {
+        AgentPlacement.Worker w = worker;
+        if (w == Thread.currentThread() && owner == w && held.isEmpty()) {
+            w.direct++;
+            deliver(topic, msg);
+        } else {
+            placement.send(this, topic, msg);
+        }
+    }
+
+    /**
+     * @brief Hands the subscriptions back and closes the wrapped agent
+     *
+     * Shut the placement down first; otherwise its workers may still be
+     * running this agent.
+     */
+    @Override
+    public void close() {
+        for (Topic t : inputs) t.replaceSubscriber(this, agent);   // hand them back
+        agent.close();
+    }
+
+    /**
+     * @brief Runs the wrapped agent (on the owning worker)
+     */
+    void deliver(String topic, Message msg) {
+        for (int i = 0; i < inputNames.length; i++) {
+            if (inputNames[i] == topic || inputNames[i].equals(topic)) {
+                delivered[i]++;
+                break;
+            }
+        }
+        agent.callback(topic, msg);
+    }
+
+    /**
+     * @brief Messages delivered on one input since the last repartition
+     */
+    long recentCount(int input) {return delivered[input] - baseline[input];}
+
+    /**
+     * @brief Starts a new observation period for repartitioning
+     */
+    void resetCounts() {System.arraycopy(delivered, 0, baseline, 0, delivered.length);}
+}
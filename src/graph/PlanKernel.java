@@ -0,0 +1,36 @@
+package graph;
+
+/**
+ * @file PlanKernel.java
+ * @brief Evaluation loop of an ExecutionPlan
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * A kernel runs the steps of a plan once, in topological order, for the
+ * current epoch. The plan owns all state; the kernel only reads and writes
+ * the arrays it is given:
+ * - value[slot]: latest non-NaN value of the slot
+ * - shown[slot]: latest value of the slot including NaN results
+ * - stamp[slot]: epoch of the last non-NaN write (0 = no value yet; the
+ *   plan stamps every slot whose topic held a number when it was installed)
+ * - touched[slot]: epoch of the last write of any kind
+ * - last[2 * step], last[2 * step + 1]: inputs last seen by a PLUS step
+ *   (NaN until first seen)
+ * 
+ * A step runs when one of its inputs was stamped in the current epoch, and
+ * a binary step only once both inputs have a value. Kernels must not keep
+ * state of their own: everything, including the values seeded at install
+ * time, lives in the arrays, which is what lets a generated kernel replace
+ * the interpreted one without changing any result.
+ * Implementations must produce exactly the same results, so the plan can
+ * switch between them at any time.
+ */
+interface PlanKernel {
+
+    /**
+     * @brief Runs every step affected by the writes of this epoch
+     * @return Number of steps executed
+     */
+    int run(long epoch, double[] value, double[] shown, long[] stamp, long[] touched, double[] last);
+}
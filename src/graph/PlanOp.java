@@ -0,0 +1,53 @@
+package graph;
+
+/**
+ * @file PlanOp.java
+ * @brief Primitive operations of a compiled ExecutionPlan
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Each operation reproduces the behaviour of one of the standard agents:
+ * - PLUS: x + y, only recomputed when an input value actually changed (PlusAgent)
+ * - SUB, MUL: x - y, x * y on every input update (SubAgent, MulAgent)
+ * - DIV: x / y, NaN when y is 0 (DivAgent)
+ * - INC: x + 1 (IncAgent)
+ */
+public enum PlanOp {
+    PLUS(2),
+    SUB(2),
+    MUL(2),
+    DIV(2),
+    INC(1);
+
+    /** @brief Number of input slots */
+    private final int arity;
+
+    PlanOp(int arity) {
+        this.arity = arity;
+    }
+
+    /**
+     * @brief Gets the number of inputs of this operation
+     * @return 1 or 2
+     */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * @brief Applies the operation
+     * @param x First input
+     * @param y Second input (ignored by unary operations)
+     * @return The result
+     */
+    public double apply(double x, double y) {
+        switch (this) {
+            case PLUS: return x + y;
+            case SUB:  return x - y;
+            case MUL:  return x * y;
+            case DIV:  return y != 0 ? x / y : Double.NaN;
+            default:   return x + 1;
+        }
+    }
+}
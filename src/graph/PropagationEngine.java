@@ -0,0 +1,39 @@
+package graph;
+
+/**
+ * @file PropagationEngine.java
+ * @brief Hook that takes over how values travel through a set of topics
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * While an engine is installed on a topic, Topic.publish and
+ * Topic.getLastMessage delegate to it instead of calling the subscribers
+ * directly. Implementations include WaveEngine (ordered waves over the
+ * regular agents) and ExecutionPlan (a compiled, allocation-free plan).
+ */
+public interface PropagationEngine {
+
+    /**
+     * @brief Handles a message published to one of the engine's topics
+     * @param topic The topic being published to
+     * @param m The published message
+     */
+    void publish(Topic topic, Message m);
+
+    /**
+     * @brief Returns the current value of one of the engine's topics
+     * @param topic The topic being read
+     * @return The topic's latest message
+     * 
+     * The default returns the message the topic stored itself.
+     */
+    default Message read(Topic topic) {
+        return topic.storedMessage();
+    }
+
+    /**
+     * @brief Removes the engine from its topics, restoring direct propagation
+     */
+    void uninstall();
+}
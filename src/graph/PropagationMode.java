@@ -0,0 +1,62 @@
+package graph;
+
+/**
+ * @file PropagationMode.java
+ * @brief Enumeration of the ways a published value travels through the graph
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * - DIRECT: Topic.publish calls the subscribers immediately (depth-first)
+ * - WAVE: a WaveEngine propagates each input change in topological rank
+ *   order, so every affected agent runs once per change on settled inputs
+ * - COMPILED: an ExecutionPlan evaluates the graph as primitive operations
+ *   over a slot array, with the same once-per-change semantics as WAVE
+ * - GENERATED: like COMPILED, but the plan runs as generated bytecode; graphs
+ *   that cannot be compiled fall back to DIRECT
+ * - LAZY: a LazyEngine only marks downstream topics dirty and computes a
+ *   topic when it is read; topics marked eager are still pushed
+ * - PARALLEL: like WAVE, but wide levels of the wave run as fork-join tasks
+ * - FIXPOINT: a FixedPointEngine propagates like WAVE over the strongly
+ *   connected components and iterates cyclic ones until they converge
+ */
+public enum PropagationMode {
+    DIRECT("direct"),
+    WAVE("wave"),
+    COMPILED("compiled"),
+    GENERATED("generated"),
+    LAZY("lazy"),
+    PARALLEL("parallel"),
+    FIXPOINT("fixpoint");
+
+    /** @brief Name used for this mode in configuration files */
+    private final String configName;
+
+    PropagationMode(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Gets the name used for this mode in configuration files
+     * @return The configuration name (e.g., "wave")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a mode from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching propagation mode
+     * @throws IllegalArgumentException if the value is not a known mode
+     */
+    public static PropagationMode fromString(String value) {
+        String v = value.trim();
+        for (PropagationMode mode : values()) {
+            if (mode.configName.equalsIgnoreCase(v) || mode.name().equalsIgnoreCase(v)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown propagation mode: " + value);
+    }
+}
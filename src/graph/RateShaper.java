@@ -0,0 +1,190 @@
+package graph;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @file RateShaper.java
+ * @brief Sampling, debouncing, throttling or deadband filtering of one message stream
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * A RateShaper receives every message of a stream through offer() and
+ * forwards a thinned-out subset to its sink, as described by a
+ * ShapingConfig (see ShapingMode). DEADBAND decides on the offering
+ * thread. The other modes keep the latest pending message and rely on the
+ * shared AgentScheduler timer, which only hands the delivery to the shared
+ * pool, so no shaper owns a thread and a slow sink never delays other
+ * timers. SAMPLE uses one periodic task; DEBOUNCE and THROTTLE schedule a
+ * one-shot task only while a message is pending, at most once per period.
+ *
+ * Messages are forwarded outside the shaper's lock. A message forwarded by
+ * offer() reaches the sink on the offering thread, one forwarded by a timer
+ * on the pool, so the two are not ordered and may overlap with other calls
+ * into the same agent (see ShapingConfig.forwardsLater()). close() cancels
+ * the timers and drops what is pending.
+ */
+public final class RateShaper {
+
+    private final ShapingConfig config;
+    private final ShapingMode mode;
+
+    /** @brief Sample period, quiet period or throttle spacing, in nanoseconds */
+    private final long intervalNanos;
+
+    /** @brief Receiver of the forwarded messages (replaced when a subscriber is wrapped) */
+    private volatile Consumer<Message> sink;
+
+    /** @brief Forwards from the pool what is pending (the timer only hands it over) */
+    private final Runnable deliverTask = this::deliver;
+    private final Runnable handOver    = () -> AgentScheduler.shared().execute(deliverTask);
+
+    /** @brief Periodic task of a SAMPLE shaper, null otherwise */
+    private final ScheduledFuture<?> sampler;
+
+    /** @brief Shaping state (guarded by this) */
+    private Message pending;
+    private Message lastForwarded;
+    private long lastForward;
+    private long lastArrival;
+    private boolean timerScheduled;
+    private boolean closed;
+    private long offered;
+    private long forwarded;
+
+    /**
+     * @brief Creates a shaper and, for SAMPLE, starts its periodic task
+     * @param config Mode and parameters
+     * @param sink Receiver of the forwarded messages
+     */
+    public RateShaper(ShapingConfig config, Consumer<Message> sink) {
+        this.config   = config;
+        this.mode     = config.getMode();
+        this.sink     = sink;
+        intervalNanos = config.getIntervalNanos();
+        lastForward   = System.nanoTime() - intervalNanos;
+        sampler = mode == ShapingMode.SAMPLE
+            ? AgentScheduler.timer().scheduleAtFixedRate(handOver, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS)
+            : null;
+    }
+
+    /**
+     * @brief Gets the configuration of this shaper
+     * @return The shaping configuration
+     */
+    public ShapingConfig getConfig() {return config;}
+
+    /**
+     * @brief Redirects the forwarded messages
+     * @param sink The new receiver
+     */
+    public void setSink(Consumer<Message> sink) {this.sink = sink;}
+
+    /**
+     * @brief Offers the next message of the stream
+     * @param m The message
+     */
+    public void offer(Message m) {
+        synchronized (this) {
+            if (closed) return;
+            offered++;
+            switch (mode) {
+                case DEADBAND:
+                    if (lastForwarded != null && DistinctFilter.same(lastForwarded, m, config.getAmount())) return;
+                    lastForwarded = m;
+                    break;
+                case SAMPLE:
+                    pending = m;
+                    return;
+                case DEBOUNCE:
+                    pending = m;
+                    lastArrival = System.nanoTime();
+                    if (!timerScheduled) schedule(intervalNanos);
+                    return;
+                default: {                              // THROTTLE
+                    long now = System.nanoTime();
+                    if (config.isLeading() && !timerScheduled && now - lastForward >= intervalNanos) {
+                        lastForward = now;
+                        break;
+                    }
+                    if (config.isTrailing()) {
+                        pending = m;
+                        if (!timerScheduled) {
+                            schedule(config.isLeading() ? lastForward + intervalNanos - now : intervalNanos);
+                        }
+                    }
+                    return;
+                }
+            }
+            forwarded++;
+        }
+        sink.accept(m);
+    }
+
+    /**
+     * @brief Forgets the pending message and the reference values
+     */
+    public synchronized void reset() {
+        pending = null;
+        lastForwarded = null;
+        lastForward = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * @brief Stops the timers; later offers are ignored
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            pending = null;
+        }
+        if (sampler != null) sampler.cancel(false);
+    }
+
+    /**
+     * @brief Gets the number of messages offered
+     * @return Messages received by offer()
+     */
+    public synchronized long getOfferedCount() {return offered;}
+
+    /**
+     * @brief Gets the number of messages forwarded to the sink
+     * @return Forwarded messages
+     */
+    public synchronized long getForwardedCount() {return forwarded;}
+
+    /**
+     * @brief Schedules a delivery on the shared timer (holding the lock)
+     * @param delayNanos Time until the delivery
+     */
+    private void schedule(long delayNanos) {
+        timerScheduled = true;
+        AgentScheduler.timer().schedule(handOver, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @brief Forwards the pending message when it is due (runs on the pool)
+     */
+    private void deliver() {
+        Message m;
+        synchronized (this) {
+            if (closed) return;
+            if (mode == ShapingMode.DEBOUNCE) {
+                long quiet = System.nanoTime() - lastArrival;
+                if (quiet < intervalNanos) {            // a newer message restarted the quiet period
+                    schedule(intervalNanos - quiet);
+                    return;
+                }
+            }
+            if (mode != ShapingMode.SAMPLE) timerScheduled = false;
+            m = pending;
+            if (m == null) return;
+            pending = null;
+            lastForward = System.nanoTime();
+            forwarded++;
+        }
+        sink.accept(m);
+    }
+}
@@ -0,0 +1,53 @@
+package graph;
+
+/**
+ * @file RepublishAgent.java
+ * @brief Agent that copies every message of one topic to other topics
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Used when several identical agents are replaced by one shared agent: the
+ * shared agent publishes to its own output and this agent republishes the
+ * same Message object to the outputs of the removed duplicates, so every
+ * declared topic still receives every result. It runs on the publishing
+ * thread and allocates nothing.
+ */
+public class RepublishAgent implements Agent {
+
+    private final Topic   source;
+    private final Topic[] targets;
+
+    /**
+     * @brief Creates and subscribes a republishing agent
+     * @param source Name of the topic to copy from
+     * @param targets Names of the topics to copy to
+     */
+    public RepublishAgent(String source, String[] targets) {
+        TopicManagerSingleton.TopicManager tm = TopicManagerSingleton.get();
+        this.source  = tm.getTopic(source);
+        this.targets = new Topic[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            this.targets[i] = tm.getTopic(targets[i]);
+            this.targets[i].addPublisher(this);
+        }
+        this.source.subscribe(this);
+    }
+
+    @Override
+    public String getName() {return "RepublishAgent";}
+
+    @Override
+    public void reset() {}
+
+    @Override
+    public void callback(String topic, Message msg) {
+        for (Topic t : targets) t.publish(msg);
+    }
+
+    @Override
+    public void close() {
+        source.unsubscribe(this);
+        for (Topic t : targets) t.removePublisher(this);
+    }
+}
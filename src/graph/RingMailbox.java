@@ -0,0 +1,191 @@
+package graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @file RingMailbox.java
+ * @brief Bounded lock-free multi-producer/single-consumer ring buffer
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Producers claim a slot by advancing the tail sequence with a CAS and then
+ * publish the entry into the slot with a release store. The single consumer
+ * reads slots in order with acquire loads and, after a batch, publishes its
+ * new head sequence once. A claimed slot that has not been written yet reads
+ * as null, so the consumer simply stops there until the producer finishes.
+ * 
+ * Head and tail live in separately padded objects so producers bumping the
+ * tail do not invalidate the cache line the consumer reads the head from.
+ * No locks are taken; waiting on a full or empty ring uses the IdleStrategy.
+ * 
+ * @param <E> Type of the buffered entries
+ */
+public class RingMailbox<E> implements Mailbox<E> {
+
+    /** @brief Release/acquire access to the slots of the buffer array */
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /** @brief Slot array; its length is a power of two >= capacity */
+    private final Object[] buffer;
+
+    /** @brief buffer.length - 1, used to map sequences to slots */
+    private final int mask;
+
+    /** @brief Maximum number of buffered entries */
+    private final int capacity;
+
+    /** @brief How waiting producers and the consumer back off */
+    private final IdleStrategy idle;
+
+    /** @brief Next sequence to be claimed by a producer */
+    private final Sequence tail = new Sequence();
+
+    /** @brief Next sequence to be consumed */
+    private final Sequence head = new Sequence();
+
+    /**
+     * @brief Creates a ring mailbox
+     * @param capacity Maximum number of buffered entries
+     * @param idle How threads wait while the ring is full (producers) or empty (consumer)
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public RingMailbox(int capacity, IdleStrategy idle) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.buffer   = new Object[size];
+        this.mask     = size - 1;
+        this.capacity = capacity;
+        this.idle     = idle;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() >= capacity) return false;          // full
+            if (tail.compareAndSet(t, t + 1)) {
+                SLOT.setRelease(buffer, (int) t & mask, e);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        for (int attempt = 0; !offer(e); attempt++) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            idle.idle(attempt);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(e); attempt++) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (System.nanoTime() - deadline >= 0) return false;
+            idle.idle(attempt);
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long h = head.get();
+        E e = read(h);
+        if (e != null) head.setRelease(h + 1);
+        return e;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        for (int attempt = 0; (e = poll()) == null; attempt++) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            idle.idle(attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public int drain(Consumer<? super E> sink, int limit) {
+        long h = head.get();
+        int n = 0;
+        try {
+            E e;
+            while (n < limit && (e = read(h + n)) != null) {
+                n++;
+                sink.accept(e);
+            }
+        } finally {
+            if (n > 0) head.setRelease(h + n);              // one publication per batch
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isEmpty() {return head.get() == tail.get();}
+
+    @Override
+    public void clear() {
+        while (poll() != null) { /* discard */ }
+    }
+
+    /**
+     * @brief Reads and clears the slot of a sequence if it has been published
+     * @param seq The sequence to read
+     * @return The entry, or null if the slot is not written yet
+     */
+    @SuppressWarnings("unchecked")
+    private E read(long seq) {
+        int idx = (int) seq & mask;
+        Object e = SLOT.getAcquire(buffer, idx);
+        if (e != null) SLOT.setOpaque(buffer, idx, null);        // freed once head moves past it
+        return (E) e;
+    }
+
+    /* padded sequence ---------------------------------------------------- */
+
+    /**
+     * @brief Left padding keeping Sequence.value off the preceding cache line
+     */
+    @SuppressWarnings("unused")
+    private static class LhsPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * @brief The counter itself; superclass fields are laid out first
+     */
+    private static class Value extends LhsPadding {
+        volatile long value;
+    }
+
+    /**
+     * @brief A volatile long padded on both sides against false sharing
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends Value {
+        private static final VarHandle VALUE;
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        long get()                                 {return value;}
+        void setRelease(long v)                    {VALUE.setRelease(this, v);}
+        boolean compareAndSet(long expect, long v) {return VALUE.compareAndSet(this, expect, v);}
+    }
+}
@@ -0,0 +1,106 @@
+package graph;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * @file RunningVariance.java
+ * @brief Mean and variance of all values seen, by Welford's method
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Keeps the count, the mean and the sum of squared differences from the
+ * mean (m2), updated per value as
+ *   mean += (x - mean) / n;  m2 += (x - oldMean) * (x - mean)
+ * which stays accurate where the naive sum of squares cancels. Two
+ * summaries can be merged (Chan et al.), e.g. to combine partial streams.
+ *
+ * Outputs: "mean", "variance" (sample, n - 1), "stddev", "count", "min", "max".
+ */
+public final class RunningVariance implements StreamStatistic {
+
+    /** @brief Outputs of a VarianceAgent that names none */
+    private static final String[] DEFAULT_OUTPUTS = {"variance", "stddev", "mean"};
+
+    private long   count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    @Override
+    public void accept(long stamp, double value) {
+        count++;
+        double diff = value - mean;
+        mean += diff / count;
+        m2 += diff * (value - mean);
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * @brief Adds the values summarized by another instance
+     * @param other The summary to merge into this one
+     */
+    public void merge(RunningVariance other) {
+        if (other.count == 0) return;
+        long n = count + other.count;
+        double diff = other.mean - mean;
+        mean += diff * other.count / n;
+        m2 += other.m2 + diff * diff * ((double) count * other.count / n);
+        count = n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @brief Gets the sample variance
+     * @return m2 / (n - 1), or NaN with fewer than two values
+     */
+    public double variance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * @brief Gets the mean
+     * @return The mean, or NaN when empty
+     */
+    public double mean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /**
+     * @brief Gets the number of values
+     * @return The count
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        count = 0;
+        mean = m2 = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public DoubleSupplier output(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "mean":     return this::mean;
+            case "variance": return this::variance;
+            case "stddev":   return () -> Math.sqrt(variance());
+            case "count":    return () -> count;
+            case "min":      return () -> count > 0 ? min : Double.NaN;
+            case "max":      return () -> count > 0 ? max : Double.NaN;
+            default:
+                throw new IllegalArgumentException("Unknown variance output: " + name);
+        }
+    }
+
+    @Override
+    public String[] defaultOutputs() {
+        return DEFAULT_OUTPUTS.clone();
+    }
+}
@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import graph.TopicManagerSingleton.TopicManager;
+
+/**
+ * @file ShapingAgent.java
+ * @brief Agent that republishes a thinned-out copy of its inputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Base of SampleAgent, DebounceAgent, ThrottleAgent and DeadbandAgent. The
+ * messages of all input topics form one stream that goes through a
+ * RateShaper; every message it lets through is published unchanged to
+ * every publication. The same shaping is available without the extra
+ * topic as an inline option on a subscription (see Topic.shape).
+ *
+ * Identical shaping agents on the same inputs are merged when a
+ * configuration is loaded (see AgentDeduplicator): the outputs of the
+ * removed ones are republished from the kept one's, publication by
+ * publication, so they all follow one shaper.
+ */
+public abstract class ShapingAgent implements Agent {
+
+    /** @brief The name reported by getName() */
+    private final String name;
+
+    /** @brief Distinct input topics */
+    private final Topic[] inputs;
+
+    private final Topic[] outputs;
+
+    private final RateShaper shaper;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param name Name reported by getName()
+     * @param subs Input topic names
+     * @param pubs Output topic names
+     * @param config How the inputs are thinned out
+     * @param mode The mode the config must have
+     * @throws IllegalArgumentException if subs or pubs is empty or the config has another mode
+     */
+    protected ShapingAgent(String name, String[] subs, String[] pubs, ShapingConfig config, ShapingMode mode) {
+        if (subs.length == 0 || pubs.length == 0)
+            throw new IllegalArgumentException(name + " needs at least 1 sub & 1 pub");
+        if (config.getMode() != mode)
+            throw new IllegalArgumentException(name + " needs a " + mode.getConfigName()
+                + " configuration, not " + config.getMode().getConfigName());
+
+        this.name = name;
+        TopicManager tm = TopicManagerSingleton.get();
+        outputs = new Topic[pubs.length];
+        for (int i = 0; i < pubs.length; i++) {
+            outputs[i] = tm.getTopic(pubs[i]);
+            outputs[i].addPublisher(this);
+        }
+        shaper = new RateShaper(config, this::forward);
+
+        Set<Topic> distinct = new LinkedHashSet<>();
+        for (String sub : subs) distinct.add(tm.getTopic(sub));
+        inputs = distinct.toArray(new Topic[0]);
+        for (Topic t : inputs) t.subscribe(this);
+    }
+
+    @Override public String getName() { return name; }
+
+    /**
+     * @brief Gets the shaper of this agent
+     * @return The shaper (for its counters)
+     */
+    public RateShaper getShaper() { return shaper; }
+
+    @Override
+    public void reset() {
+        shaper.reset();
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        shaper.offer(msg);
+    }
+
+    @Override
+    public void close() {
+        shaper.close();
+        for (Topic t : inputs) t.unsubscribe(this);
+        for (Topic t : outputs) t.removePublisher(this);
+    }
+
+    private void forward(Message msg) {
+        for (Topic t : outputs) t.publish(msg);
+    }
+}
@@ -0,0 +1,156 @@
+package graph;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @file ShapingConfig.java
+ * @brief Immutable description of a RateShaper
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Groups the mode and parameters of one rate shaper so that they can be
+ * declared in the configuration files, either on a rate-shaping agent or
+ * inline on a subscription ("Sensor[throttle=20,trailing=false]"). The
+ * options are:
+ * - "sample" = period in milliseconds
+ * - "debounce" = quiet period in milliseconds
+ * - "throttle" = most messages per second, with "leading" and "trailing"
+ *   (both default true) choosing which messages of a burst pass
+ * - "deadband" = smallest change of value that is forwarded
+ * Exactly one of the mode keys must be given.
+ */
+public final class ShapingConfig {
+
+    /** @brief Option names understood by fromOptions() */
+    public static final Set<String> OPTION_NAMES =
+        Set.of("sample", "debounce", "throttle", "deadband", "leading", "trailing");
+
+    private final ShapingMode mode;
+
+    /** @brief Period (ms), rate (per second) or deadband, depending on the mode */
+    private final double amount;
+
+    /** @brief Throttle: forward the first message of a burst immediately */
+    private final boolean leading;
+
+    /** @brief Throttle: forward the last message of a burst at the end of the interval */
+    private final boolean trailing;
+
+    /**
+     * @brief Creates a shaping configuration
+     * @param mode How messages are thinned out
+     * @param amount Period in milliseconds (SAMPLE, DEBOUNCE), messages per second (THROTTLE)
+     *        or smallest forwarded change (DEADBAND)
+     * @param leading THROTTLE: forward the first message of a burst immediately
+     * @param trailing THROTTLE: forward the last message of a burst when the interval ends
+     * @throws IllegalArgumentException if the amount is out of range or a throttle forwards nothing
+     */
+    public ShapingConfig(ShapingMode mode, double amount, boolean leading, boolean trailing) {
+        if (mode == ShapingMode.DEADBAND ? !(amount >= 0) : !(amount > 0) || Double.isInfinite(amount))
+            throw new IllegalArgumentException(mode.getConfigName() + " must be a "
+                + (mode == ShapingMode.DEADBAND ? "non-negative" : "positive") + " number: " + amount);
+        if (mode == ShapingMode.THROTTLE && !leading && !trailing)
+            throw new IllegalArgumentException("A throttle needs leading or trailing delivery");
+
+        this.mode     = mode;
+        this.amount   = amount;
+        this.leading  = leading;
+        this.trailing = trailing;
+    }
+
+    public ShapingMode getMode()     {return mode;}
+    public double      getAmount()   {return amount;}
+    public boolean     isLeading()   {return leading;}
+    public boolean     isTrailing()  {return trailing;}
+
+    /**
+     * @brief Tells whether a shaper forwards some messages from a timer
+     * @return true for SAMPLE, DEBOUNCE and a trailing THROTTLE, whose deliveries run on
+     *         the shared pool; false if every message is forwarded by the thread offering it
+     */
+    public boolean forwardsLater() {
+        return mode == ShapingMode.SAMPLE || mode == ShapingMode.DEBOUNCE
+            || (mode == ShapingMode.THROTTLE && trailing);
+    }
+
+    /**
+     * @brief Gets the period of the timer-based modes
+     * @return Sample period, quiet period or minimum spacing of a throttle, in nanoseconds (0 for DEADBAND)
+     */
+    public long getIntervalNanos() {
+        switch (mode) {
+            case SAMPLE:
+            case DEBOUNCE:
+                return Math.max(1, (long) (amount * TimeUnit.MILLISECONDS.toNanos(1)));
+            case THROTTLE:
+                return Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / amount));
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @brief Reads a shaping configuration from configuration options
+     * @param options Option names mapped to raw values (other keys are ignored)
+     * @return The configuration
+     * @throws IllegalArgumentException if no mode or several modes are given, or a value is invalid
+     */
+    public static ShapingConfig fromOptions(Map<String, String> options) {
+        ShapingMode mode = null;
+        for (ShapingMode m : ShapingMode.values()) {
+            if (options.containsKey(m.getConfigName())) {
+                if (mode != null)
+                    throw new IllegalArgumentException("Choose one of " + mode.getConfigName()
+                        + " and " + m.getConfigName());
+                mode = m;
+            }
+        }
+        if (mode == null)
+            throw new IllegalArgumentException("Missing sample, debounce, throttle or deadband option");
+
+        String raw = options.get(mode.getConfigName()).trim();
+        double amount;
+        try {
+            amount = Double.parseDouble(raw);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(mode.getConfigName() + " is not a number: " + raw);
+        }
+        return new ShapingConfig(mode, amount, flag(options, "leading"), flag(options, "trailing"));
+    }
+
+    private static boolean flag(Map<String, String> options, String name) {
+        String v = options.get(name);
+        if (v == null) return true;
+        v = v.trim();
+        if (v.equalsIgnoreCase("true")) return true;
+        if (v.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException(name + " must be true or false: " + v);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ShapingConfig)) return false;
+        ShapingConfig that = (ShapingConfig) o;
+        return mode == that.mode && Double.compare(amount, that.amount) == 0
+            && leading == that.leading && trailing == that.trailing;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mode.hashCode();
+        result = 31 * result + Double.hashCode(amount);
+        result = 31 * result + (leading ? 1 : 0);
+        return 31 * result + (trailing ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return mode == ShapingMode.THROTTLE
+            ? String.format("ShapingConfig{throttle=%s, leading=%b, trailing=%b}", amount, leading, trailing)
+            : String.format("ShapingConfig{%s=%s}", mode.getConfigName(), amount);
+    }
+}
@@ -0,0 +1,56 @@
+package graph;
+
+/**
+ * @file ShapingMode.java
+ * @brief How a RateShaper thins out a stream of messages
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * - SAMPLE: every period, forwards the latest message if one arrived since
+ *   the previous period
+ * - DEBOUNCE: forwards the latest message once the stream has been quiet
+ *   for a period
+ * - THROTTLE: forwards at most a given number of messages per second, the
+ *   first of a burst immediately (leading) and/or the last one at the end
+ *   of the interval (trailing)
+ * - DEADBAND: forwards a message only if its value moved by more than a
+ *   threshold from the last one forwarded (no timer)
+ */
+public enum ShapingMode {
+    SAMPLE("sample"),
+    DEBOUNCE("debounce"),
+    THROTTLE("throttle"),
+    DEADBAND("deadband");
+
+    /** @brief Name used for this mode in configuration files */
+    private final String configName;
+
+    ShapingMode(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Gets the name used for this mode in configuration files
+     * @return The configuration name (e.g., "throttle")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a mode from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching shaping mode
+     * @throws IllegalArgumentException if the value is not a known mode
+     */
+    public static ShapingMode fromString(String value) {
+        String v = value.trim();
+        for (ShapingMode mode : values()) {
+            if (mode.configName.equalsIgnoreCase(v) || mode.name().equalsIgnoreCase(v)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown shaping mode: " + value);
+    }
+}
@@ -0,0 +1,181 @@
+package graph;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import graph.TopicManagerSingleton.TopicManager;
+
+/**
+ * @file StatisticsAgent.java
+ * @brief Agent that feeds its inputs into a StreamStatistic and publishes its outputs
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Base of EwmaAgent, VarianceAgent and QuantileAgent. Every valid value of
+ * every input topic is added to one statistic; the statistic's named
+ * outputs are published to the publications, one output per topic in
+ * order (e.g. outputs "p50,p99" to publications "Latency50,Latency99").
+ *
+ * Publishing is throttled by an interval: values arriving sooner than the
+ * interval after the last publication only update the statistic, and the
+ * shared AgentScheduler timer publishes the latest outputs once the
+ * interval has passed, so the final state is never lost (its subscribers
+ * are then called from the pool, so "sync" configurations cannot set an
+ * interval). With an interval of 0 the outputs are published after every
+ * value. Outputs that are still
+ * undefined (NaN, e.g. a variance after one value) are not published.
+ */
+public abstract class StatisticsAgent implements Agent {
+
+    /** @brief The name reported by getName() */
+    private final String name;
+
+    private final StreamStatistic statistic;
+
+    /** @brief Distinct input topics */
+    private final Topic[] inputs;
+
+    /** @brief Output topics and the statistic output published to each */
+    private final Topic[] outputs;
+    private final DoubleSupplier[] readers;
+
+    /** @brief Minimum time between two publications, in nanoseconds */
+    private final long intervalNanos;
+
+    /** @brief Publishes from the pool what was throttled (the timer only hands it over) */
+    private final Runnable flushTask = this::flush;
+    private final Runnable handOver  = () -> AgentScheduler.shared().execute(flushTask);
+
+    /** @brief Throttling state (guarded by this) */
+    private long lastPublish;
+    private boolean pending;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    /**
+     * @brief Creates the agent and registers it on its topics
+     * @param name Name reported by getName()
+     * @param subs Input topic names
+     * @param pubs Output topic names, one per output
+     * @param statistic The statistic fed with the inputs
+     * @param outputNames Output published to each publication, or null for the statistic's defaults
+     * @param intervalMillis Minimum time between two publications (0 for every value)
+     * @throws IllegalArgumentException if subs or pubs is empty, an output is unknown,
+     *         or the outputs do not match the publications
+     */
+    protected StatisticsAgent(String name, String[] subs, String[] pubs, StreamStatistic statistic,
+                              String[] outputNames, long intervalMillis) {
+        if (subs.length == 0 || pubs.length == 0)
+            throw new IllegalArgumentException(name + " needs at least 1 sub & 1 pub");
+        if (intervalMillis < 0)
+            throw new IllegalArgumentException(name + " interval cannot be negative: " + intervalMillis);
+
+        String[] names = outputNames != null ? outputNames : statistic.defaultOutputs();
+        if (outputNames != null ? names.length != pubs.length : names.length < pubs.length)
+            throw new IllegalArgumentException(name + " has " + pubs.length + " publications but "
+                + names.length + " outputs");
+
+        this.name      = name;
+        this.statistic = statistic;
+        intervalNanos  = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        lastPublish    = System.nanoTime() - intervalNanos;
+        readers = new DoubleSupplier[pubs.length];
+        for (int i = 0; i < pubs.length; i++) readers[i] = statistic.output(names[i]);
+
+        TopicManager tm = TopicManagerSingleton.get();
+        Set<Topic> distinct = new LinkedHashSet<>();
+        for (String sub : subs) distinct.add(tm.getTopic(sub));
+        inputs = distinct.toArray(new Topic[0]);
+        for (Topic t : inputs) t.subscribe(this);
+
+        outputs = new Topic[pubs.length];
+        for (int i = 0; i < pubs.length; i++) {
+            outputs[i] = tm.getTopic(pubs[i]);
+            outputs[i].addPublisher(this);
+        }
+    }
+
+    @Override public String getName() { return name; }
+
+    /**
+     * @brief Gets the statistic fed by this agent
+     * @return The statistic (synchronize on the agent to read it consistently)
+     */
+    public StreamStatistic getStatistic() { return statistic; }
+
+    @Override
+    public synchronized void reset() {
+        statistic.clear();
+        pending = false;
+    }
+
+    @Override
+    public void callback(String topic, Message msg) {
+        double v = msg.asDouble();
+        if (Double.isNaN(v)) return;                // ignore bad data
+
+        double[] values;
+        synchronized (this) {
+            statistic.accept(msg.nanoTime(), v);
+            pending = true;
+            values = takeIfDue(System.nanoTime());
+        }
+        publish(values);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (Topic t : inputs) t.unsubscribe(this);
+        for (Topic t : outputs) t.removePublisher(this);
+    }
+
+    /**
+     * @brief Reads the outputs if the interval has passed, else makes sure a flush is scheduled
+     * @param now Current System.nanoTime()
+     * @return The outputs to publish, or null (holding the lock)
+     */
+    private double[] takeIfDue(long now) {
+        long wait = lastPublish + intervalNanos - now;
+        if (wait > 0) {
+            if (!flushScheduled) {
+                flushScheduled = true;
+                AgentScheduler.timer().schedule(handOver, wait, TimeUnit.NANOSECONDS);
+            }
+            return null;
+        }
+        lastPublish = now;
+        pending = false;
+        double[] values = new double[readers.length];
+        for (int i = 0; i < readers.length; i++) values[i] = readers[i].getAsDouble();
+        return values;
+    }
+
+    /**
+     * @brief Publishes the outputs that were throttled
+     */
+    private void flush() {
+        double[] values;
+        synchronized (this) {
+            flushScheduled = false;
+            if (!pending || closed) return;
+            values = takeIfDue(System.nanoTime());
+        }
+        publish(values);
+    }
+
+    /**
+     * @brief Publishes output values, outside the lock
+     */
+    private void publish(double[] values) {
+        if (values == null) return;
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) outputs[i].publish(new Message(values[i]));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package graph;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * @file StreamStatistic.java
+ * @brief Bounded-memory summary of a stream of values
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Implemented by Ewma, RunningVariance and LogHistogram and fed by a
+ * StatisticsAgent. A statistic sees every value once, keeps a summary of
+ * constant (or bounded) size, and exposes named outputs such as "mean" or
+ * "p99" that the agent publishes to its topics.
+ */
+public interface StreamStatistic {
+
+    /**
+     * @brief Adds a value to the summary
+     * @param stamp System.nanoTime() stamp of the value
+     * @param value The value (not NaN)
+     */
+    void accept(long stamp, double value);
+
+    /**
+     * @brief Forgets every value
+     */
+    void clear();
+
+    /**
+     * @brief Resolves a named output
+     * @param name Output name (e.g., "mean", "p99")
+     * @return Reads the current value of the output (NaN while undefined)
+     * @throws IllegalArgumentException if the name is not an output of this statistic
+     */
+    DoubleSupplier output(String name);
+
+    /**
+     * @brief Gets the outputs published when a configuration names none
+     * @return Output names, one per publication in order
+     */
+    String[] defaultOutputs();
+}
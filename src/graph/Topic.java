@@ -1,33 +1,80 @@
 package graph;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @file Topic.java
  * @brief Represents a communication topic in the agent graph system
  * @author Advanced Programming Course
  * @date 2025
- * @version 1.0
+ * @version 1.1
  * 
  * A Topic is a named communication channel through which agents can publish
  * and subscribe to messages. Topics implement a publish-subscribe pattern
  * where multiple agents can subscribe to receive messages, and any agent
  * can publish messages to notify all subscribers.
+ * 
+ * Subscribers and publishers are kept in immutable snapshot arrays that are
+ * replaced (copy-on-write) under the topic's monitor whenever the membership
+ * changes. publish() only reads the current volatile snapshot, so dispatch is
+ * a plain array walk that never blocks and can safely run concurrently with
+ * subscribe/unsubscribe calls from other threads.
+ * 
+ * A topic can be switched to conflating mode for high-rate, latest-value
+ * streams. publish() then only records the message as pending for each
+ * subscriber; subscribers are called asynchronously on the shared
+ * AgentScheduler with the newest value whenever they are ready, optionally
+ * no more often than a minimum interval. Intermediate values are coalesced.
+ * 
+ * A topic can also be made distinct-until-changed: publish() then drops a
+ * message whose value equals (within an optional numeric deadband) the last
+ * one it let through, so repeated values do not run the subscribers again.
+ * 
+ * Individual subscribers can be given a RateShaper (sampling, debouncing,
+ * throttling or a deadband): direct delivery then offers each message to
+ * the subscriber's shaper, which calls the subscriber only with the
+ * messages it lets through. The shaper follows the subscription when a
+ * decorator takes it over with replaceSubscriber().
+ * 
+ * While a PropagationEngine (e.g. a WaveEngine) is installed, publish() and
+ * getLastMessage() are routed through it instead.
  */
 public class Topic {
     
+    /** @brief Shared empty snapshot used before the first (un)subscribe */
+    private static final Agent[] NO_AGENTS = new Agent[0];
+    
     /** @brief The unique name identifier for this topic */
     public final String name;
     
-    /** @brief List of agents subscribed to this topic */
-    List<Agent> subs;
+    /** @brief Manager notified of subscriber and publisher changes, null for none */
+    private final TopicManagerSingleton.TopicManager manager;
     
-    /** @brief List of agents that can publish to this topic */
-    List<Agent> pubs;
+    /** @brief Immutable snapshot of the agents subscribed to this topic */
+    private volatile Agent[] subs;
+    
+    /** @brief Immutable snapshot of the agents that can publish to this topic */
+    private volatile Agent[] pubs;
     
     /** @brief The most recently published message on this topic */
-    private Message lastMessage;
+    private volatile Message lastMessage;
+    
+    /** @brief Latest-value dispatcher in conflating mode, null for direct delivery */
+    private volatile ConflatingDispatcher conflation;
+    
+    /** @brief Filter dropping unchanged values, null to publish everything */
+    private volatile DistinctFilter distinct;
+    
+    /** @brief Engine that publish() delegates to, null for direct propagation */
+    private volatile PropagationEngine engine;
+    
+    /** @brief Rate shapers of individual subscribers (copy-on-write), null when none is shaped */
+    private volatile Map<Agent, RateShaper> shapers;
 
     /**
      * @brief Constructor for creating a new topic
@@ -38,9 +85,19 @@ public class Topic {
      * are also created.
      */
     Topic(String name) {
+        this(name, null);
+    }
+
+    /**
+     * @brief Constructor for a topic owned by a TopicManager
+     * @param name The unique name for this topic
+     * @param manager The manager to report structural changes to
+     */
+    Topic(String name, TopicManagerSingleton.TopicManager manager) {
         this.name = name;
-        this.subs = new ArrayList<>();
-        this.pubs = new ArrayList<>();
+        this.manager = manager;
+        this.subs = NO_AGENTS;
+        this.pubs = NO_AGENTS;
         this.lastMessage = new Message("0.0");
     }
 
@@ -51,7 +108,10 @@ public class Topic {
      * When a message is published to this topic, the subscribed agent's
      * callback method will be invoked with the message content.
      */
-    public void subscribe(Agent a) {subs.add(a);}
+    public synchronized void subscribe(Agent a) {
+        subs = append(subs, a);
+        changed(a, true, true);
+    }
 
     /**
      * @brief Unsubscribes an agent from this topic
@@ -60,7 +120,183 @@ public class Topic {
      * The agent will no longer receive notifications when messages are
      * published to this topic.
      */
-    public void unsubscribe(Agent a) {subs.remove(a);}
+    public synchronized void unsubscribe(Agent a) {
+        Agent[] before = subs;
+        subs = remove(subs, a);
+        if (conflation != null) conflation.remove(a);
+        if (subs != before) {
+            if (shapers != null && !Arrays.asList(subs).contains(a)) dropShaper(a);
+            changed(a, true, false);
+        }
+    }
+
+    /**
+     * @brief Replaces every subscription of an agent in place, keeping its position in the dispatch order
+     * @param current The agent currently subscribed
+     * @param replacement The agent that should receive its messages from now on
+     * 
+     * Used by decorators such as ParallelAgent that take over the subscriptions
+     * of the agent they wrap. Does nothing if current is not subscribed.
+     */
+    public synchronized void replaceSubscriber(Agent current, Agent replacement) {
+        Agent[] next = null;
+        int replaced = 0;
+        for (int i = 0; i < subs.length; i++) {
+            if (subs[i].equals(current)) {
+                if (next == null) next = subs.clone();
+                next[i] = replacement;
+                replaced++;
+            }
+        }
+        if (next != null) {
+            subs = next;
+            if (conflation != null) conflation.remove(current);
+            if (shapers != null && shapers.containsKey(current)) {
+                Map<Agent, RateShaper> moved = new HashMap<>(shapers);
+                RateShaper shaper = moved.remove(current);
+                shaper.setSink(deliveryTo(replacement));
+                moved.put(replacement, shaper);
+                shapers = moved;
+            }
+            for (int i = 0; i < replaced; i++) {
+                changed(current, true, false);
+                changed(replacement, true, true);
+            }
+        }
+    }
+
+    /**
+     * @brief Switches this topic to conflating (latest-value) delivery
+     * @param minIntervalMillis Minimum time between two deliveries to the same subscriber, 0 for none
+     * @throws IllegalArgumentException if minIntervalMillis is negative
+     * 
+     * Replaces any previous conflation settings; pending values and counters
+     * are reset.
+     */
+    public synchronized void setConflating(long minIntervalMillis) {
+        if (minIntervalMillis < 0)
+            throw new IllegalArgumentException("Minimum interval cannot be negative: " + minIntervalMillis);
+        conflation = new ConflatingDispatcher(name, minIntervalMillis);
+    }
+
+    /**
+     * @brief Switches this topic back to direct, synchronous delivery
+     */
+    public synchronized void setDirect() {conflation = null;}
+
+    /**
+     * @brief Checks whether this topic coalesces updates
+     * @return true in conflating mode
+     */
+    public boolean isConflating() {return conflation != null;}
+
+    /**
+     * @brief Gets the minimum delivery interval of a conflating topic
+     * @return The interval in milliseconds, or 0 for direct topics
+     */
+    public long getMinIntervalMillis() {
+        ConflatingDispatcher c = conflation;
+        return c != null ? c.getMinIntervalMillis() : 0;
+    }
+
+    /**
+     * @brief Gets the number of updates that were coalesced away
+     * @return Pending values replaced by a newer one (conflating mode), 0 for direct topics
+     */
+    public long getCoalescedCount() {
+        ConflatingDispatcher c = conflation;
+        return c != null ? c.getCoalescedCount() : 0;
+    }
+
+    /**
+     * @brief Gets the number of subscriber callbacks made in conflating mode
+     * @return Deliveries so far, or 0 for direct topics
+     */
+    public long getDeliveredCount() {
+        ConflatingDispatcher c = conflation;
+        return c != null ? c.getDeliveredCount() : 0;
+    }
+
+    /**
+     * @brief Makes this topic drop messages that do not change its value
+     * @param deadband Largest numeric difference treated as unchanged, 0 for exact equality
+     * @throws IllegalArgumentException if deadband is negative or not a number
+     * 
+     * Replaces any previous filter; the counter is reset and the next message
+     * is always published.
+     */
+    public synchronized void setDistinct(double deadband) {
+        if (!(deadband >= 0))
+            throw new IllegalArgumentException("Deadband must be a non-negative number: " + deadband);
+        distinct = new DistinctFilter(deadband);
+    }
+
+    /**
+     * @brief Makes this topic publish every message again
+     */
+    public synchronized void clearDistinct() {distinct = null;}
+
+    /**
+     * @brief Checks whether this topic drops unchanged values
+     * @return true if a distinct-until-changed filter is set
+     */
+    public boolean isDistinct() {return distinct != null;}
+
+    /**
+     * @brief Gets the deadband of a distinct topic
+     * @return The deadband, or 0 if the topic is not distinct
+     */
+    public double getDeadband() {
+        DistinctFilter d = distinct;
+        return d != null ? d.getDeadband() : 0;
+    }
+
+    /**
+     * @brief Gets the number of publishes dropped as unchanged
+     * @return Suppressed publishes so far, or 0 if the topic is not distinct
+     */
+    public long getSuppressedCount() {
+        DistinctFilter d = distinct;
+        return d != null ? d.getSuppressedCount() : 0;
+    }
+
+    /**
+     * @brief Shapes the messages delivered to one subscriber
+     * @param subscriber An agent subscribed to this topic
+     * @param config How its messages are thinned out
+     * @throws IllegalArgumentException if the agent is not subscribed
+     * 
+     * Replaces (and closes) any shaper the subscriber already had. Shaping
+     * applies to direct delivery; conflating topics and installed engines
+     * call the subscriber without it.
+     */
+    public synchronized void shape(Agent subscriber, ShapingConfig config) {
+        if (!Arrays.asList(subs).contains(subscriber))
+            throw new IllegalArgumentException(subscriber.getName() + " is not subscribed to " + name);
+        Map<Agent, RateShaper> next = shapers != null ? new HashMap<>(shapers) : new HashMap<>();
+        RateShaper previous = next.put(subscriber, new RateShaper(config, deliveryTo(subscriber)));
+        if (previous != null) previous.close();
+        shapers = next;
+    }
+
+    /**
+     * @brief Removes the shapers of every subscriber
+     */
+    public synchronized void clearShaping() {
+        if (shapers == null) return;
+        for (RateShaper shaper : shapers.values()) shaper.close();
+        shapers = null;
+    }
+
+    /**
+     * @brief Gets the shaper of a subscriber
+     * @param subscriber An agent subscribed to this topic
+     * @return Its shaper, or null if its messages are not shaped
+     */
+    public RateShaper getShaper(Agent subscriber) {
+        Map<Agent, RateShaper> s = shapers;
+        return s != null ? s.get(subscriber) : null;
+    }
 
     /**
      * @brief Publishes a message to all subscribers of this topic
@@ -69,10 +305,40 @@ public class Topic {
      * Notifies all subscribed agents by calling their callback method
      * with this topic's name and the message. Also updates the topic's
      * last message for monitoring purposes.
+     * 
+     * The subscriber snapshot is read once, so agents that (un)subscribe
+     * while the message is being dispatched take effect from the next publish.
+     * In conflating mode the callbacks happen later, on the shared scheduler.
+     * A distinct topic ignores messages that do not change its value, and
+     * shaped subscribers only receive what their RateShaper lets through.
      */
     public void publish(Message m) {
-        for (Agent ag : subs) {
-            ag.callback(name, m);
+        DistinctFilter d = distinct;
+        if (d != null && !d.accept(m)) return;
+        
+        PropagationEngine e = engine;
+        if (e != null) {
+            e.publish(this, m);
+            return;
+        }
+        
+        Agent[] snapshot = subs;
+        ConflatingDispatcher c = conflation;
+        if (c != null) {
+            c.publish(snapshot, m);
+        } else {
+            Map<Agent, RateShaper> shaped = shapers;
+            if (shaped == null) {
+                for (int i = 0; i < snapshot.length; i++) {
+                    snapshot[i].callback(name, m);
+                }
+            } else {
+                for (int i = 0; i < snapshot.length; i++) {
+                    RateShaper shaper = shaped.get(snapshot[i]);
+                    if (shaper != null) shaper.offer(m);
+                    else snapshot[i].callback(name, m);
+                }
+            }
         }
         this.lastMessage = m;
     }
@@ -84,13 +350,116 @@ public class Topic {
      * Registers an agent as being capable of publishing messages to this topic.
      * This is primarily used for tracking and visualization purposes.
      */
-    public void addPublisher(Agent a) {pubs.add(a);}
+    public synchronized void addPublisher(Agent a) {
+        pubs = append(pubs, a);
+        changed(a, false, true);
+    }
 
-    public void removePublisher(Agent a) {pubs.remove(a);}
+    public synchronized void removePublisher(Agent a) {
+        Agent[] before = pubs;
+        pubs = remove(pubs, a);
+        if (pubs != before) changed(a, false, false);
+    }
     
-    public List<Agent> getSubs() {return subs;}
+    /**
+     * @brief Returns a read-only view of the current subscriber snapshot
+     * @return Unmodifiable list of subscribed agents
+     */
+    public List<Agent> getSubs() {return Collections.unmodifiableList(Arrays.asList(subs));}
     
-    public List<Agent> getPubs() {return pubs;}
+    /**
+     * @brief Returns a read-only view of the current publisher snapshot
+     * @return Unmodifiable list of publishing agents
+     */
+    public List<Agent> getPubs() {return Collections.unmodifiableList(Arrays.asList(pubs));}
     
-    public Message getLastMessage() {return lastMessage;}
+    /**
+     * @brief Returns the latest value of this topic
+     * @return The last published message (as seen by the installed engine, if any)
+     */
+    public Message getLastMessage() {
+        PropagationEngine e = engine;
+        return e != null ? e.read(this) : lastMessage;
+    }
+
+    /**
+     * @brief Gets the engine that publish() delegates to
+     * @return The installed engine, or null for direct propagation
+     */
+    public PropagationEngine getEngine() {return engine;}
+
+    /**
+     * @brief Installs or removes the engine that publish() delegates to
+     * @param engine The engine, or null for direct propagation
+     */
+    void setEngine(PropagationEngine engine) {this.engine = engine;}
+
+    /**
+     * @brief Returns the message stored on the topic itself, bypassing any engine
+     * @return The last message recorded by publish() or setLastMessage()
+     */
+    Message storedMessage() {return lastMessage;}
+
+    /**
+     * @brief Records a value without notifying subscribers (used by engines)
+     * @param m The new last message
+     */
+    void setLastMessage(Message m) {this.lastMessage = m;}
+
+    /**
+     * @brief Reports a subscriber or publisher change to the owning manager (called with the lock held)
+     */
+    private void changed(Agent a, boolean subscriber, boolean added) {
+        if (manager != null) manager.edgeChanged(this, a, subscriber, added);
+    }
+
+    /**
+     * @brief Closes and forgets the shaper of a former subscriber (called with the lock held)
+     */
+    private void dropShaper(Agent a) {
+        if (!shapers.containsKey(a)) return;
+        Map<Agent, RateShaper> next = new HashMap<>(shapers);
+        next.remove(a).close();
+        shapers = next.isEmpty() ? null : next;
+    }
+
+    /**
+     * @brief Creates the sink through which a shaper calls a subscriber
+     */
+    private Consumer<Message> deliveryTo(Agent a) {
+        return m -> a.callback(name, m);
+    }
+
+    /* copy-on-write helpers ------------------------------------------------ */
+
+    /**
+     * @brief Returns a new snapshot with the agent appended
+     * @param current The current snapshot
+     * @param a The agent to append
+     * @return A fresh array one element longer than current
+     */
+    private static Agent[] append(Agent[] current, Agent a) {
+        Agent[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = a;
+        return next;
+    }
+
+    /**
+     * @brief Returns a new snapshot without the first occurrence of the agent
+     * @param current The current snapshot
+     * @param a The agent to remove
+     * @return A fresh array without the agent, or current if it was absent
+     */
+    private static Agent[] remove(Agent[] current, Agent a) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(a)) {
+                if (current.length == 1) return NO_AGENTS;
+                Agent[] next = new Agent[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                return next;
+            }
+        }
+        return current;
+    }
 }
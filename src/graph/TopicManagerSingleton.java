@@ -1,7 +1,10 @@
 package graph;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @file TopicManagerSingleton.java
@@ -44,11 +47,29 @@ public final class TopicManagerSingleton {
      * The TopicManager is responsible for creating, storing, and providing
      * access to all topics in the agent graph system. It ensures that topics
      * are unique by name and provides thread-safe operations.
+     * 
+     * Every structural change (topics created or removed, subscriptions and
+     * publishers added or removed) increments a version counter and is
+     * reported to the registered TopologyListeners, among them a live
+     * TopologyIndex of the agent graph.
      */
     public static class TopicManager {
 
         /** @brief Thread-safe map of all topics indexed by name */
         private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+        
+        /** @brief Incremented on every structural change */
+        private final AtomicLong version = new AtomicLong();
+        
+        /** @brief Receivers of structural changes */
+        private final List<TopologyListener> listeners = new CopyOnWriteArrayList<>();
+        
+        /** @brief Agent graph kept up to date from the change events */
+        private final TopologyIndex topology = new TopologyIndex();
+        
+        TopicManager() {
+            listeners.add(topology);
+        }
 
         /**
          * @brief Gets or creates a topic with the specified name
@@ -60,7 +81,19 @@ public final class TopicManagerSingleton {
          * it creates a new topic. The operation is thread-safe.
          */
         public Topic getTopic(String name) {
-            return topics.computeIfAbsent(name, Topic::new);   // flyweight creation
+            Topic t = topics.get(name);
+            if (t != null) return t;
+            Topic[] created = new Topic[1];
+            t = topics.computeIfAbsent(name, n -> created[0] = new Topic(n, this));   // flyweight creation
+            if (created[0] != null) {
+                synchronized (t) {                                   // ordered with its edge events and removal
+                    if (topics.get(name) == t) {
+                        version.incrementAndGet();
+                        for (TopologyListener l : listeners) l.topicAdded(t);
+                    }
+                }
+            }
+            return t;
         }
 
         /**
@@ -79,7 +112,23 @@ public final class TopicManagerSingleton {
          * This method clears all topics from the system. It's typically used
          * for resetting the system state or during shutdown procedures.
          */
-        public void clear() { topics.clear(); }
+        public void clear() {
+            for (Topic t : topics.values()) {
+                if (topics.remove(t.name, t)) removed(t);
+            }
+        }
+
+        /**
+         * @brief Removes a single topic from the manager
+         * @param name The name of the topic to remove
+         * 
+         * Agents that already hold the Topic keep using it; it just stops
+         * being visible to (and reachable from) everyone else.
+         */
+        public void remove(String name) {
+            Topic t = topics.remove(name);
+            if (t != null) removed(t);
+        }
         
         /**
          * @brief Checks if a topic with the given name exists
@@ -90,6 +139,62 @@ public final class TopicManagerSingleton {
          * a new topic if it doesn't exist (unlike getTopic).
          */
         public boolean containsTopic(String name) { return topics.containsKey(name); }
+        
+        /**
+         * @brief Gets the structural version of the graph
+         * @return A counter that changes whenever a topic, subscription or publisher is added or removed
+         * 
+         * Consumers that cache anything derived from the topology can compare
+         * the version they built it at instead of walking the graph again.
+         */
+        public long getVersion() { return version.get(); }
+        
+        /**
+         * @brief Gets the live index of the agent graph
+         * @return The index maintained from this manager's change events
+         * 
+         * Its cycle flag, ranks and per-agent topic lists are what the ordered
+         * propagation engines, Graph and the visualization data read.
+         */
+        public TopologyIndex getTopology() { return topology; }
+        
+        /**
+         * @brief Registers a receiver of structural changes
+         * @param l The listener
+         */
+        public void addTopologyListener(TopologyListener l) { listeners.add(l); }
+        
+        /**
+         * @brief Unregisters a receiver of structural changes
+         * @param l The listener
+         */
+        public void removeTopologyListener(TopologyListener l) { listeners.remove(l); }
+        
+        /**
+         * @brief Reports a change of a topic's subscribers or publishers
+         * @param t The topic (locked by the caller)
+         * @param a The agent
+         * @param subscriber true for a subscription, false for a publisher
+         * @param added true if the edge was added, false if it was removed
+         */
+        void edgeChanged(Topic t, Agent a, boolean subscriber, boolean added) {
+            if (topics.get(t.name) != t) return;                   // no longer managed
+            version.incrementAndGet();
+            for (TopologyListener l : listeners) {
+                if (subscriber) {
+                    if (added) l.subscribed(t, a); else l.unsubscribed(t, a);
+                } else {
+                    if (added) l.publisherAdded(t, a); else l.publisherRemoved(t, a);
+                }
+            }
+        }
+        
+        private void removed(Topic t) {
+            version.incrementAndGet();
+            synchronized (t) {                                       // orders it after the topic's edge events
+                for (TopologyListener l : listeners) l.topicRemoved(t);
+            }
+        }
     }
 
     private TopicManagerSingleton() {}
@@ -0,0 +1,539 @@
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * @file TopologyIndex.java
+ * @brief Live agent graph with an incrementally maintained topological order
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Kept up to date by the TopicManager's structural change events. Agent a
+ * precedes agent b if a publishes to a topic b subscribes to; each such
+ * edge counts how many (topic, publisher, subscriber) triples produce it,
+ * so a change to a topic costs O(subscribers + publishers of that topic).
+ *
+ * The order is maintained with the algorithm of Pearce and Kelly: adding an
+ * edge that already points forward costs nothing, otherwise only the agents
+ * whose positions lie between its ends are searched and reshuffled. An edge
+ * that would close a cycle is kept aside; the order stays valid for every
+ * other edge and hasCycles() reports true until enough edges are removed
+ * for it to fit again. Removing an edge never invalidates the order.
+ *
+ * Position numbers may have gaps and change when edges are added; they are
+ * comparable with each other only. Ranks are maintained as well: the rank
+ * of an agent is its longest distance from the graph inputs over the
+ * ordered edges. When an ordered edge appears or goes away, only the agents
+ * downstream of it whose rank actually changes are visited, in position
+ * order, so each of them is recomputed once.
+ *
+ * The index also keeps the topics every agent subscribes and publishes to;
+ * getAgents() returns them per agent, rebuilding the lists only of agents
+ * that changed since the previous call.
+ *
+ * The ordered propagation engines take their ranks from here, the plan
+ * compiler uses the cycle flag, and the visualization data is read from
+ * getAgents(), so none of them walks the topics again.
+ */
+public class TopologyIndex implements TopologyListener {
+
+    /** @brief Per-agent position and edges */
+    private final Map<Agent, Vertex> vertices = new IdentityHashMap<>();
+
+    /** @brief Publishers and subscribers of each topic, with multiplicities */
+    private final Map<Topic, Membership> topics = new IdentityHashMap<>();
+
+    /** @brief Vertex at each position, null for gaps */
+    private Vertex[] byPosition = new Vertex[16];
+
+    /** @brief First unused position */
+    private int nextPosition;
+
+    /** @brief Edges that would close a cycle, in insertion order */
+    private final Set<Edge> cyclic = new LinkedHashSet<>();
+
+    /** @brief Number of distinct agent-to-agent edges */
+    private int edgeCount;
+
+    /** @brief Incremented on every applied change */
+    private long version;
+
+    /** @brief Marks of the current search, compared with Vertex.mark */
+    private int epoch;
+
+    /** @brief Order in which rank changes are propagated */
+    private static final Comparator<Vertex> BY_POSITION = (a, b) -> Integer.compare(a.position, b.position);
+
+    /* TopologyListener ---------------------------------------------------- */
+
+    @Override
+    public synchronized void topicAdded(Topic topic) {
+        topics.computeIfAbsent(topic, t -> new Membership());
+        version++;
+    }
+
+    @Override
+    public synchronized void topicRemoved(Topic topic) {
+        Membership m = topics.remove(topic);
+        if (m == null) return;
+        for (Map.Entry<Vertex, int[]> p : m.pubs.entrySet()) {
+            for (Map.Entry<Vertex, int[]> s : m.subs.entrySet()) {
+                link(p.getKey(), s.getKey(), -p.getValue()[0] * s.getValue()[0]);
+            }
+        }
+        for (Vertex v : m.pubs.keySet()) {
+            v.publications.remove(topic);
+            v.view = null;
+            release(v, m.pubs.get(v)[0]);
+        }
+        for (Vertex v : m.subs.keySet()) {
+            v.subscriptions.remove(topic);
+            v.view = null;
+            release(v, m.subs.get(v)[0]);
+        }
+        version++;
+    }
+
+    @Override
+    public synchronized void subscribed(Topic topic, Agent agent) {
+        Membership m = topics.computeIfAbsent(topic, t -> new Membership());
+        Vertex v = acquire(agent);
+        m.subs.computeIfAbsent(v, k -> new int[1])[0]++;
+        count(v.subscriptions, topic, v, 1);
+        for (Map.Entry<Vertex, int[]> p : m.pubs.entrySet()) link(p.getKey(), v, p.getValue()[0]);
+        version++;
+    }
+
+    @Override
+    public synchronized void unsubscribed(Topic topic, Agent agent) {
+        Membership m = topics.get(topic);
+        Vertex v = vertices.get(agent);
+        if (m == null || v == null || !m.subs.containsKey(v)) return;
+        decrement(m.subs, v);
+        count(v.subscriptions, topic, v, -1);
+        for (Map.Entry<Vertex, int[]> p : m.pubs.entrySet()) link(p.getKey(), v, -p.getValue()[0]);
+        release(v, 1);
+        version++;
+    }
+
+    @Override
+    public synchronized void publisherAdded(Topic topic, Agent agent) {
+        Membership m = topics.computeIfAbsent(topic, t -> new Membership());
+        Vertex v = acquire(agent);
+        m.pubs.computeIfAbsent(v, k -> new int[1])[0]++;
+        count(v.publications, topic, v, 1);
+        for (Map.Entry<Vertex, int[]> s : m.subs.entrySet()) link(v, s.getKey(), s.getValue()[0]);
+        version++;
+    }
+
+    @Override
+    public synchronized void publisherRemoved(Topic topic, Agent agent) {
+        Membership m = topics.get(topic);
+        Vertex v = vertices.get(agent);
+        if (m == null || v == null || !m.pubs.containsKey(v)) return;
+        decrement(m.pubs, v);
+        count(v.publications, topic, v, -1);
+        for (Map.Entry<Vertex, int[]> s : m.subs.entrySet()) link(v, s.getKey(), -s.getValue()[0]);
+        release(v, 1);
+        version++;
+    }
+
+    /* queries ------------------------------------------------------------- */
+
+    /**
+     * @brief Gets the number of changes applied to the index
+     * @return A counter that changes whenever the indexed graph does
+     */
+    public synchronized long getVersion() {return version;}
+
+    /**
+     * @brief Checks whether the agent graph has a cycle
+     * @return true if some edge could not be placed in the order; O(1)
+     */
+    public synchronized boolean hasCycles() {return !cyclic.isEmpty();}
+
+    public synchronized int getAgentCount() {return vertices.size();}
+    public synchronized int getTopicCount() {return topics.size();}
+    public synchronized int getEdgeCount()  {return edgeCount;}
+
+    /**
+     * @brief Gets the number of edges that close a cycle
+     * @return Edges left out of the order; 0 if the graph is acyclic
+     */
+    public synchronized int getCyclicEdgeCount() {return cyclic.size();}
+
+    /**
+     * @brief Gets the position of an agent in the topological order
+     * @param agent The agent
+     * @return Its position (lower runs first), or -1 if it is not on any topic
+     */
+    public synchronized int getPosition(Agent agent) {
+        Vertex v = vertices.get(agent);
+        return v != null ? v.position : -1;
+    }
+
+    /**
+     * @brief Gets the rank of an agent
+     * @param agent The agent
+     * @return Its longest distance from the graph inputs over the ordered
+     *         edges (0 if no agent feeds it), or -1 if it is not on any topic
+     */
+    public synchronized int getRank(Agent agent) {
+        Vertex v = vertices.get(agent);
+        return v != null ? v.rank : -1;
+    }
+
+    /**
+     * @brief Gets the rank of every agent of an acyclic graph
+     * @return Rank of each agent (0 for agents fed only by external inputs)
+     * @throws IllegalStateException if the graph has a cycle
+     */
+    public synchronized Map<Agent, Integer> getRanks() {
+        if (!cyclic.isEmpty())
+            throw new IllegalStateException("Ordered propagation requires an acyclic graph ("
+                    + cyclic.size() + " agent links close a cycle)");
+        Map<Agent, Integer> ranks = new IdentityHashMap<>(vertices.size() * 2);
+        for (Vertex v : vertices.values()) ranks.put(v.agent, v.rank);
+        return ranks;
+    }
+
+    /**
+     * @brief Gets every agent with the topics it subscribes and publishes to
+     * @return One view per agent, in topological order
+     */
+    public synchronized List<AgentView> getAgents() {
+        List<AgentView> agents = new ArrayList<>(vertices.size());
+        for (int i = 0; i < nextPosition; i++) {
+            Vertex v = byPosition[i];
+            if (v == null) continue;
+            if (v.view == null) {
+                v.view = new AgentView(v.agent, topicList(v.subscriptions), topicList(v.publications));
+            }
+            agents.add(v.view);
+        }
+        return Collections.unmodifiableList(agents);
+    }
+
+    /**
+     * @brief Gets every agent in topological order
+     * @return Agents sorted so that every publisher precedes its subscribers,
+     *         except across the edges counted by getCyclicEdgeCount()
+     */
+    public synchronized List<Agent> getTopologicalOrder() {
+        List<Agent> order = new ArrayList<>(vertices.size());
+        for (int i = 0; i < nextPosition; i++) {
+            if (byPosition[i] != null) order.add(byPosition[i].agent);
+        }
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * @brief Gets the agents fed by an agent
+     * @param agent The agent
+     * @return Agents subscribed to a topic it publishes to
+     */
+    public synchronized List<Agent> getSuccessors(Agent agent) {
+        Vertex v = vertices.get(agent);
+        return v != null ? agents(v.out.keySet()) : List.of();
+    }
+
+    /**
+     * @brief Gets the agents feeding an agent
+     * @param agent The agent
+     * @return Agents publishing to a topic it subscribes to
+     */
+    public synchronized List<Agent> getPredecessors(Agent agent) {
+        Vertex v = vertices.get(agent);
+        return v != null ? agents(v.in.keySet()) : List.of();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TopologyIndex{agents=" + vertices.size() + ", topics=" + topics.size()
+            + ", edges=" + edgeCount + ", cyclicEdges=" + cyclic.size() + ", version=" + version + "}";
+    }
+
+    /* helpers ------------------------------------------------------------- */
+
+    private static List<Agent> agents(Set<Vertex> vs) {
+        List<Agent> result = new ArrayList<>(vs.size());
+        for (Vertex v : vs) result.add(v.agent);
+        return Collections.unmodifiableList(result);
+    }
+
+    private static void decrement(Map<Vertex, int[]> counts, Vertex v) {
+        if (--counts.get(v)[0] == 0) counts.remove(v);
+    }
+
+    private static List<Topic> topicList(Map<Topic, int[]> counts) {
+        return Collections.unmodifiableList(new ArrayList<>(counts.keySet()));
+    }
+
+    /**
+     * @brief Changes how often an agent is on a topic and drops its cached view
+     */
+    private static void count(Map<Topic, int[]> counts, Topic topic, Vertex v, int delta) {
+        int[] c = counts.computeIfAbsent(topic, k -> new int[1]);
+        c[0] += delta;
+        if (c[0] <= 0) counts.remove(topic);
+        v.view = null;
+    }
+
+    /**
+     * @brief Gets an agent's vertex, appending it to the order if new, and counts one more membership
+     */
+    private Vertex acquire(Agent agent) {
+        Vertex v = vertices.get(agent);
+        if (v == null) {
+            v = new Vertex(agent);
+            vertices.put(agent, v);
+            if (nextPosition == byPosition.length) compact();
+            v.position = nextPosition;
+            byPosition[nextPosition++] = v;
+        }
+        v.memberships++;
+        return v;
+    }
+
+    /**
+     * @brief Counts memberships removed from an agent and forgets it once it has none
+     */
+    private void release(Vertex v, int count) {
+        v.memberships -= count;
+        if (v.memberships > 0) return;
+        vertices.remove(v.agent);
+        byPosition[v.position] = null;
+    }
+
+    /**
+     * @brief Renumbers the positions without gaps, growing the table if it is still full
+     */
+    private void compact() {
+        int n = 0;
+        for (int i = 0; i < nextPosition; i++) {
+            Vertex v = byPosition[i];
+            if (v == null) continue;
+            v.position = n;
+            byPosition[n++] = v;
+        }
+        Arrays.fill(byPosition, n, nextPosition, null);
+        nextPosition = n;
+        if (n * 2 > byPosition.length) byPosition = Arrays.copyOf(byPosition, byPosition.length * 2);
+    }
+
+    /**
+     * @brief Changes the multiplicity of the edge from -> to
+     * @param delta Number of (topic, publisher, subscriber) triples added, negative for removed
+     */
+    private void link(Vertex from, Vertex to, int delta) {
+        if (delta == 0) return;
+        Edge e = from.out.get(to);
+        if (e == null) {
+            e = new Edge(from, to);
+            from.out.put(to, e);
+            to.in.put(from, e);
+            edgeCount++;
+        }
+        e.count += delta;
+        if (e.count > 0) {
+            if (e.count == delta) {                               // new edge
+                if (insert(e)) settle(to);
+                else cyclic.add(e);
+            }
+            return;
+        }
+        from.out.remove(to);
+        to.in.remove(from);
+        edgeCount--;
+        if (cyclic.remove(e)) return;
+        settle(to);
+        if (cyclic.isEmpty()) return;
+        // an ordered edge is gone: cycles it closed may have opened up
+        for (Iterator<Edge> it = cyclic.iterator(); it.hasNext(); ) {
+            Edge c = it.next();
+            c.ordered = false;
+            if (insert(c)) {
+                it.remove();
+                settle(c.to);
+            }
+        }
+    }
+
+    /**
+     * @brief Recomputes the ranks that depend on the ordered in-edges of one agent
+     * @param start The agent whose in-edges changed
+     * 
+     * Agents are visited in position order, so every predecessor of an agent
+     * is final when the agent is recomputed; propagation stops at agents
+     * whose rank does not change.
+     */
+    private void settle(Vertex start) {
+        epoch++;
+        PriorityQueue<Vertex> queue = new PriorityQueue<>(BY_POSITION);
+        start.mark = epoch;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            Vertex v = queue.poll();
+            int rank = 0;
+            for (Edge in : v.in.values()) {
+                if (in.ordered) rank = Math.max(rank, in.from.rank + 1);
+            }
+            if (rank == v.rank) continue;
+            v.rank = rank;
+            for (Edge out : v.out.values()) {
+                Vertex w = out.to;
+                if (out.ordered && w.mark != epoch) {
+                    w.mark = epoch;
+                    queue.add(w);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Places an edge in the order (Pearce-Kelly)
+     * @return false if the ordered edges already lead from its target to its source
+     */
+    private boolean insert(Edge e) {
+        Vertex x = e.from, y = e.to;
+        if (x == y) return false;
+        if (x.position < y.position) {
+            e.ordered = true;
+            return true;
+        }
+        int lower = y.position, upper = x.position;
+
+        // agents reachable from y that sit before x; reaching x means a cycle
+        epoch++;
+        List<Vertex> forward = new ArrayList<>();
+        ArrayDeque<Vertex> stack = new ArrayDeque<>();
+        y.mark = epoch;
+        stack.push(y);
+        while (!stack.isEmpty()) {
+            Vertex v = stack.pop();
+            forward.add(v);
+            for (Edge out : v.out.values()) {
+                Vertex w = out.to;
+                if (!out.ordered || w.mark == epoch) continue;
+                if (w == x) return false;
+                if (w.position < upper) {
+                    w.mark = epoch;
+                    stack.push(w);
+                }
+            }
+        }
+
+        // agents reaching x that sit after y
+        List<Vertex> backward = new ArrayList<>();
+        x.mark = epoch;
+        stack.push(x);
+        while (!stack.isEmpty()) {
+            Vertex v = stack.pop();
+            backward.add(v);
+            for (Edge in : v.in.values()) {
+                Vertex w = in.from;
+                if (!in.ordered || w.mark == epoch) continue;
+                if (w.position > lower) {
+                    w.mark = epoch;
+                    stack.push(w);
+                }
+            }
+        }
+
+        // reuse their positions: the backward set first, then the forward set
+        forward.sort((a, b) -> Integer.compare(a.position, b.position));
+        backward.sort((a, b) -> Integer.compare(a.position, b.position));
+        int[] slots = new int[forward.size() + backward.size()];
+        int n = 0;
+        for (Vertex v : backward) slots[n++] = v.position;
+        for (Vertex v : forward)  slots[n++] = v.position;
+        Arrays.sort(slots);
+        n = 0;
+        for (Vertex v : backward) place(v, slots[n++]);
+        for (Vertex v : forward)  place(v, slots[n++]);
+        e.ordered = true;
+        return true;
+    }
+
+    private void place(Vertex v, int position) {
+        v.position = position;
+        byPosition[position] = v;
+    }
+
+    /**
+     * @brief An agent and the topics it subscribes and publishes to
+     */
+    public static final class AgentView {
+        private final Agent       agent;
+        private final List<Topic> subscriptions;
+        private final List<Topic> publications;
+
+        AgentView(Agent agent, List<Topic> subscriptions, List<Topic> publications) {
+            this.agent         = agent;
+            this.subscriptions = subscriptions;
+            this.publications  = publications;
+        }
+
+        public Agent       getAgent()         {return agent;}
+        public List<Topic> getSubscriptions() {return subscriptions;}
+        public List<Topic> getPublications()  {return publications;}
+    }
+
+    /**
+     * @brief Position, rank, memberships and edges of one agent
+     */
+    private static final class Vertex {
+        final Agent             agent;
+        final Map<Vertex, Edge> out = new IdentityHashMap<>(4);
+        final Map<Vertex, Edge> in  = new IdentityHashMap<>(4);
+        /** @brief Topics with the number of times the agent is on them, in insertion order */
+        final Map<Topic, int[]> subscriptions = new LinkedHashMap<>(4);
+        final Map<Topic, int[]> publications  = new LinkedHashMap<>(2);
+        /** @brief Cached result for getAgents(), null after a change */
+        AgentView               view;
+        int                     position;
+        int                     rank;
+        int                     memberships;
+        int                     mark;
+
+        Vertex(Agent agent) {
+            this.agent = agent;
+        }
+    }
+
+    /**
+     * @brief One agent-to-agent edge and the number of topic paths producing it
+     */
+    private static final class Edge {
+        final Vertex from;
+        final Vertex to;
+        int          count;
+        boolean      ordered;
+
+        Edge(Vertex from, Vertex to) {
+            this.from = from;
+            this.to   = to;
+        }
+    }
+
+    /**
+     * @brief Publisher and subscriber counts of one topic
+     */
+    private static final class Membership {
+        final Map<Vertex, int[]> pubs = new IdentityHashMap<>(2);
+        final Map<Vertex, int[]> subs = new IdentityHashMap<>(2);
+    }
+}
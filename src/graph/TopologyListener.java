@@ -0,0 +1,35 @@
+package graph;
+
+/**
+ * @file TopologyListener.java
+ * @brief Receives structural changes of the topic-agent graph
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Registered on the TopicManager. Edge events are delivered while the topic
+ * that changed is locked, so the events of one topic arrive in order and
+ * the topic's subscriber and publisher lists already show the change.
+ * Events of topics that are no longer managed (see TopicManager.remove) are
+ * not delivered. Listeners must be quick and must not change the topology.
+ */
+public interface TopologyListener {
+
+    /** @brief A topic was created */
+    default void topicAdded(Topic topic) {}
+
+    /** @brief A topic was removed or cleared; its edges are gone with it */
+    default void topicRemoved(Topic topic) {}
+
+    /** @brief An agent subscribed to a topic (once per subscription) */
+    default void subscribed(Topic topic, Agent agent) {}
+
+    /** @brief One subscription of an agent to a topic was removed */
+    default void unsubscribed(Topic topic, Agent agent) {}
+
+    /** @brief An agent was registered as a publisher of a topic */
+    default void publisherAdded(Topic topic, Agent agent) {}
+
+    /** @brief One publisher registration of an agent was removed */
+    default void publisherRemoved(Topic topic, Agent agent) {}
+}
@@ -0,0 +1,400 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @file WaveEngine.java
+ * @brief Glitch-free, topologically ordered propagation of topic updates
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * With direct propagation a diamond (A feeds B and C, both feed D) makes D
+ * fire once per path, the first time on a half-updated input. A WaveEngine
+ * instead ranks every agent by its longest distance from the graph inputs
+ * and turns each externally published value into a wave:
+ * 
+ * 1. Publishing records the value on the topic and marks its subscribers.
+ * 2. Marked agents are activated in rank order. An activation delivers the
+ *    latest value of every input that changed in this wave, back to back.
+ * 3. Values the agent publishes are recorded the same way; downstream
+ *    agents only see them when their own (higher) rank comes up.
+ * 
+ * Every affected agent is therefore activated exactly once per wave, after
+ * all of its upstream agents have settled. Waves are serialized; agents must
+ * run synchronously (no ParallelAgent) and the graph must be acyclic.
+ * 
+ * Agents of the same rank never feed each other, so a wave can also run
+ * level by level on a ForkJoinPool: every level with at least `threshold`
+ * ready agents is split into fork-join tasks of at most `threshold` agents,
+ * smaller levels run inline on the publishing thread. While a level runs in
+ * parallel, values published by its agents are stored on their topics and
+ * the subscribers are marked after the level completes.
+ * 
+ * A parallel level gives the same result on every run: agents of one rank
+ * that publish to a common topic form a unit that runs on one thread in
+ * level order, so the same agent always writes last, and the topics a level
+ * published are marked in level order. Whether "parallel" runs faster than
+ * "wave" depends on the work per agent and the number of cores.
+ */
+public class WaveEngine implements PropagationEngine {
+
+    /** @brief Per-agent rank and wave bookkeeping */
+    private final Map<Agent, Vertex> vertices = new IdentityHashMap<>();
+
+    /** @brief Topics this engine is installed on */
+    private final List<Topic> topics = new ArrayList<>();
+
+    /** @brief Marked agents of the current wave, lowest rank first */
+    private final PriorityQueue<Vertex> ready = new PriorityQueue<>((a, b) -> Integer.compare(a.rank, b.rank));
+
+    /** @brief Serializes waves; also tells whether the current thread is inside one */
+    private final ReentrantLock waveLock = new ReentrantLock();
+
+    /** @brief Number of waves run */
+    private final LongAdder waves = new LongAdder();
+
+    /** @brief Number of agent activations across all waves */
+    private final LongAdder activations = new LongAdder();
+
+    /** @brief Pool running wide levels, null to run every level inline */
+    private final ForkJoinPool pool;
+
+    /** @brief Smallest level that is run on the pool, and largest task size */
+    private final int threshold;
+
+    /** @brief Agents of the level being activated */
+    private final List<Vertex> level = new ArrayList<>();
+
+    /** @brief Set while a level is being activated on the pool */
+    private volatile boolean parallelLevel;
+
+    /** @brief Agent a thread is activating in a parallel level, null outside of one */
+    private final ThreadLocal<Vertex> inTask = new ThreadLocal<>();
+
+    /** @brief Start of each unit of the current parallel level in `level` (one past the
+     *         end last), or null if every agent is a unit of its own */
+    private int[] units;
+
+    private WaveEngine(ForkJoinPool pool, int threshold) {
+        this.pool      = pool;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    /**
+     * @brief Ranks the agents of the given topics and installs the engine on them
+     * @param allTopics Every topic of the loaded configuration
+     * @return The installed engine
+     * @throws IllegalStateException if the agent graph contains a cycle
+     */
+    public static WaveEngine install(Collection<Topic> allTopics) {
+        return install(allTopics, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @brief Installs an engine that runs wide levels as fork-join tasks
+     * @param allTopics Every topic of the loaded configuration
+     * @param pool Pool for the tasks (shut down by uninstall()), or null to run inline
+     * @param threshold Levels with fewer ready agents run inline; also the task size
+     * @return The installed engine
+     * @throws IllegalStateException if the agent graph contains a cycle
+     */
+    public static WaveEngine install(Collection<Topic> allTopics, ForkJoinPool pool, int threshold) {
+        WaveEngine engine = new WaveEngine(pool, threshold);
+        engine.rank(allTopics);
+        for (Topic t : allTopics) {
+            engine.topics.add(t);
+            t.setEngine(engine);
+        }
+        return engine;
+    }
+
+    @Override
+    public void uninstall() {
+        for (Topic t : topics) t.setEngine(null);
+        topics.clear();
+        if (pool != null) pool.shutdown();
+    }
+
+    /**
+     * @brief Gets the topological rank of an agent
+     * @param a The agent
+     * @return Its rank (0 for agents fed only by external inputs), or -1 if unknown
+     */
+    public int getRank(Agent a) {
+        Vertex v = vertices.get(a);
+        return v != null ? v.rank : -1;
+    }
+
+    public long getWaveCount()       {return waves.sum();}
+    public long getActivationCount() {return activations.sum();}
+    public int  getThreshold()       {return threshold;}
+
+    /**
+     * @brief Gets the number of threads that may run a level in parallel
+     * @return The pool's parallelism, or 1 if every level runs inline
+     */
+    public int getParallelism() {return pool != null ? pool.getParallelism() : 1;}
+
+    /**
+     * @brief Entry point used by Topic.publish while this engine is installed
+     * @param topic The topic being published to
+     * @param m The message
+     * 
+     * A publish from outside starts (and completes) a new wave. A publish made
+     * by an agent during a wave is only recorded.
+     */
+    @Override
+    public void publish(Topic topic, Message m) {
+        Vertex publisher = parallelLevel ? inTask.get() : null;
+        if (publisher != null) {
+            topic.setLastMessage(m);                     // subscribers are marked after the level
+            publisher.published.add(topic);
+            return;
+        }
+        if (waveLock.isHeldByCurrentThread()) {
+            record(topic, m);
+            return;
+        }
+
+        waveLock.lock();
+        try {
+            waves.increment();
+            record(topic, m);
+            while (!ready.isEmpty()) {
+                int rank = ready.peek().rank;
+                level.clear();
+                while (!ready.isEmpty() && ready.peek().rank == rank) level.add(ready.poll());
+
+                if (pool == null || level.size() < threshold) {
+                    for (int i = 0; i < level.size(); i++) activate(level.get(i));
+                } else {
+                    activateInParallel();
+                }
+            }
+        } finally {
+            Vertex left;
+            while ((left = ready.poll()) != null) {      // only non-empty if a callback threw
+                left.queued = false;
+                left.changed.clear();
+            }
+            for (Vertex v : level) {
+                v.changed.clear();
+                v.published.clear();
+            }
+            level.clear();
+            waveLock.unlock();
+        }
+    }
+
+    /**
+     * @brief Activates the current level as fork-join tasks, then marks what it published
+     */
+    private void activateInParallel() {
+        int unitCount = groupUnits();
+        parallelLevel = true;
+        try {
+            pool.invoke(new LevelTask(0, unitCount));
+        } finally {
+            parallelLevel = false;
+        }
+        for (int i = 0; i < level.size(); i++) {
+            List<Topic> published = level.get(i).published;
+            for (int j = 0; j < published.size(); j++) {
+                Topic t = published.get(j);
+                mark(t, t.storedMessage());
+            }
+            published.clear();
+        }
+    }
+
+    /**
+     * @brief Orders the current level so that agents sharing an output are adjacent
+     * @return Number of units, each run on one thread
+     * 
+     * Agents keep their relative order within a unit, and units are ordered
+     * by their first agent.
+     */
+    private int groupUnits() {
+        units = null;
+        boolean shared = false;
+        for (int i = 0; i < level.size() && !shared; i++) shared = level.get(i).group != null;
+        if (!shared) return level.size();
+
+        Map<Vertex, List<Vertex>> byUnit = new LinkedHashMap<>();
+        for (Vertex v : level) {
+            byUnit.computeIfAbsent(v.group != null ? v.group : v, k -> new ArrayList<>(1)).add(v);
+        }
+        level.clear();
+        units = new int[byUnit.size() + 1];
+        int u = 0;
+        for (List<Vertex> unit : byUnit.values()) {
+            units[u++] = level.size();
+            level.addAll(unit);
+        }
+        units[u] = level.size();
+        return u;
+    }
+
+    /**
+     * @brief Stores the topic's new value and marks its subscribers for this wave
+     */
+    private void record(Topic topic, Message m) {
+        topic.setLastMessage(m);
+        mark(topic, m);
+    }
+
+    /**
+     * @brief Marks the subscribers of a topic for this wave
+     */
+    private void mark(Topic topic, Message m) {
+        List<Agent> subs = topic.getSubs();
+        for (int i = 0; i < subs.size(); i++) {
+            Agent a = subs.get(i);
+            Vertex v = vertices.get(a);
+            if (v == null) {
+                a.callback(topic.name, m);               // subscribed after ranking: deliver directly
+                continue;
+            }
+            if (!v.changed.contains(topic)) v.changed.add(topic);
+            if (!v.queued) {
+                v.queued = true;
+                ready.add(v);
+            }
+        }
+    }
+
+    /**
+     * @brief Delivers the settled value of every changed input to one agent
+     */
+    private void activate(Vertex v) {
+        v.queued = false;
+        activations.increment();
+        // Only higher-ranked agents can be marked while v runs, so v.changed is stable here
+        try {
+            for (int i = 0; i < v.changed.size(); i++) {
+                Topic t = v.changed.get(i);
+                v.agent.callback(t.name, t.getLastMessage());
+            }
+        } finally {
+            v.changed.clear();
+        }
+    }
+
+    /**
+     * @brief Assigns each agent its longest-path distance from the graph inputs
+     * @throws IllegalStateException if the agent graph has a cycle
+     */
+    private void rank(Collection<Topic> allTopics) {
+        rankAgents().forEach((a, r) -> vertices.computeIfAbsent(a, Vertex::new).rank = r);
+        groupSharedOutputs(allTopics);
+    }
+
+    /**
+     * @brief Groups agents of the same rank that publish to a common topic
+     * 
+     * Union-find over the publishers of every topic with several of them;
+     * afterwards each grouped agent points at its group's representative and
+     * every other agent has no group.
+     */
+    private void groupSharedOutputs(Collection<Topic> allTopics) {
+        Map<Vertex, Vertex> parent = new IdentityHashMap<>();
+        for (Topic t : allTopics) {
+            List<Agent> pubs = t.getPubs();
+            if (pubs.size() < 2) continue;
+            Map<Integer, Vertex> firstOfRank = new HashMap<>();
+            for (Agent a : pubs) {
+                Vertex v = vertices.get(a);
+                Vertex first = firstOfRank.putIfAbsent(v.rank, v);
+                if (first != null && first != v) parent.put(find(parent, v), find(parent, first));
+            }
+        }
+        for (Vertex v : parent.keySet()) {
+            Vertex root = find(parent, v);
+            v.group    = root;
+            root.group = root;
+        }
+    }
+
+    private static Vertex find(Map<Vertex, Vertex> parent, Vertex v) {
+        Vertex root = v;
+        for (Vertex p = parent.get(root); p != null && p != root; p = parent.get(root)) root = p;
+        return root;
+    }
+
+    /**
+     * @brief Ranks every agent by its longest distance from the graph inputs
+     * @return Rank of each agent (0 for agents fed only by external inputs)
+     * @throws IllegalStateException if the agent graph has a cycle
+     * 
+     * Agent a precedes agent b if a publishes to a topic b subscribes to. The
+     * ranks are kept up to date by the TopicManager's TopologyIndex as agents
+     * subscribe and publish, so nothing is recomputed here. Shared with
+     * LazyEngine.
+     */
+    static Map<Agent, Integer> rankAgents() {
+        return TopicManagerSingleton.get().getTopology().getRanks();
+    }
+
+    /**
+     * @brief Activates a range of units of the current level, splitting it while it exceeds the threshold
+     */
+    private final class LevelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        LevelTask(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new LevelTask(from, mid), new LevelTask(mid, to));
+                return;
+            }
+            try {
+                int end = units != null ? units[to] : to;
+                for (int i = units != null ? units[from] : from; i < end; i++) {
+                    Vertex v = level.get(i);
+                    inTask.set(v);
+                    activate(v);
+                }
+            } finally {
+                inTask.remove();
+            }
+        }
+    }
+
+    /**
+     * @brief Rank and pending inputs of one agent
+     */
+    private static final class Vertex {
+        final Agent       agent;
+        final List<Topic> changed = new ArrayList<>(2);
+        /** @brief Topics published while activated in a parallel level */
+        final List<Topic> published = new ArrayList<>(1);
+        /** @brief Representative of the agents this one shares an output with, null if none */
+        Vertex            group;
+        int               rank;
+        boolean           queued;
+
+        Vertex(Agent agent) {
+            this.agent = agent;
+        }
+    }
+}
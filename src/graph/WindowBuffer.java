@@ -0,0 +1,270 @@
+package graph;
+
+/**
+ * @file WindowBuffer.java
+ * @brief Ring buffer of timestamped doubles with O(1) sum, minimum and maximum
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * Holds the values of a sliding window in primitive arrays (long[] stamps,
+ * double[] values) used as a ring, oldest first. Nothing is allocated per
+ * value: a bounded buffer (count window) drops its oldest value when full,
+ * an unbounded one (time window) doubles its arrays when full and then
+ * keeps reusing them.
+ *
+ * - The sum is kept by adding each new value and subtracting each evicted
+ *   one. It is compensated (Neumaier), infinities are counted apart, and it
+ *   is rebuilt from the buffer every RECOMPUTE_FACTOR * capacity
+ *   evictions, which is O(1) per eviction on average.
+ * - Minimum and maximum (when requested) are kept in monotonic deques of
+ *   sequence numbers: a new value removes the values it dominates from the
+ *   back, an evicted value leaves the front. Every value enters and leaves
+ *   each deque once, so add and evict are O(1) amortized.
+ *
+ * Not thread safe.
+ */
+public final class WindowBuffer {
+
+    /** @brief Evictions per slot of capacity between two rebuilds of the sum */
+    static final int RECOMPUTE_FACTOR = 64;
+
+    private final boolean growable;
+
+    private long[]   stamps;
+    private double[] values;
+
+    /** @brief Ring index of the oldest value */
+    private int head;
+    private int size;
+
+    /** @brief Sequence number of the oldest value (values are numbered in arrival order) */
+    private long first;
+
+    private double sum;
+    private double compensation;
+    private int positiveInfinities;
+    private int negativeInfinities;
+    private long evictions;
+
+    /** @brief Monotonic deques, or null when extremes were not requested */
+    private final Extremes min;
+    private final Extremes max;
+
+    /**
+     * @brief Creates an empty buffer
+     * @param capacity Number of values held (bounded) or initial capacity (growable)
+     * @param growable false to drop the oldest value when full, true to grow instead
+     * @param extremes true to keep the minimum and maximum
+     */
+    public WindowBuffer(int capacity, boolean growable, boolean extremes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Window capacity must be positive: " + capacity);
+        }
+        this.growable = growable;
+        stamps = new long[capacity];
+        values = new double[capacity];
+        min = extremes ? new Extremes(false) : null;
+        max = extremes ? new Extremes(true) : null;
+    }
+
+    /**
+     * @brief Appends a value, evicting the oldest one if a bounded buffer is full
+     * @param stamp Time stamp of the value (nanoseconds, not decreasing)
+     * @param value The value (not NaN)
+     */
+    public void add(long stamp, double value) {
+        if (size == values.length) {
+            if (growable) grow();
+            else evictOldest();
+        }
+        int i = index(size);
+        stamps[i] = stamp;
+        values[i] = value;
+        long seq = first + size++;
+        accumulate(value, 1);
+        if (min != null) {
+            min.push(seq, value);
+            max.push(seq, value);
+        }
+    }
+
+    /**
+     * @brief Removes the oldest value
+     */
+    public void evictOldest() {
+        if (size == 0) return;
+        double value = values[head];
+        if (min != null) {
+            min.evict(first);
+            max.evict(first);
+        }
+        head = index(1);
+        size--;
+        first++;
+        if (++evictions >= (long) RECOMPUTE_FACTOR * values.length) {
+            recompute();
+        } else {
+            accumulate(value, -1);
+        }
+    }
+
+    /**
+     * @brief Removes every value stamped at or before a time
+     * @param stamp The time (nanoseconds)
+     */
+    public void evictThrough(long stamp) {
+        while (size > 0 && stamps[head] - stamp <= 0) evictOldest();
+    }
+
+    /**
+     * @brief Removes every value
+     */
+    public void clear() {
+        first += size;
+        head = size = 0;
+        sum = compensation = 0;
+        positiveInfinities = negativeInfinities = 0;
+        evictions = 0;
+        if (min != null) {
+            min.clear();
+            max.clear();
+        }
+    }
+
+    /**
+     * @brief Gets the number of values in the buffer
+     * @return The size
+     */
+    public int size() {return size;}
+
+    /**
+     * @brief Gets the sum of the values
+     * @return The sum (0 when empty)
+     */
+    public double sum() {
+        if (positiveInfinities > 0) {
+            return negativeInfinities > 0 ? Double.NaN : Double.POSITIVE_INFINITY;
+        }
+        if (negativeInfinities > 0) return Double.NEGATIVE_INFINITY;
+        return sum + compensation;
+    }
+
+    /**
+     * @brief Gets the smallest value
+     * @return The minimum, or NaN if empty or extremes were not requested
+     */
+    public double min() {return min != null ? min.top() : Double.NaN;}
+
+    /**
+     * @brief Gets the largest value
+     * @return The maximum, or NaN if empty or extremes were not requested
+     */
+    public double max() {return max != null ? max.top() : Double.NaN;}
+
+    /**
+     * @brief Gets the stamp of the oldest value
+     * @return The stamp (meaningless when empty)
+     */
+    public long oldestStamp() {return stamps[head];}
+
+    /**
+     * @brief Gets the stamp of the newest value
+     * @return The stamp (meaningless when empty)
+     */
+    public long newestStamp() {return stamps[index(size - 1)];}
+
+    /** @brief Ring index of the value at offset from the oldest one */
+    private int index(int offset) {
+        int i = head + offset;
+        return i >= values.length ? i - values.length : i;
+    }
+
+    private double valueOf(long seq) {return values[index((int) (seq - first))];}
+
+    private void accumulate(double value, int sign) {
+        if (value == Double.POSITIVE_INFINITY) {
+            positiveInfinities += sign;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            negativeInfinities += sign;
+        } else {
+            double x = sign * value;
+            double t = sum + x;
+            if (Math.abs(sum) >= Math.abs(x)) compensation += (sum - t) + x;
+            else compensation += (x - t) + sum;
+            sum = t;
+        }
+    }
+
+    private void recompute() {
+        sum = compensation = 0;
+        positiveInfinities = negativeInfinities = 0;
+        evictions = 0;
+        for (int k = 0; k < size; k++) accumulate(values[index(k)], 1);
+    }
+
+    private void grow() {
+        int capacity = values.length * 2;
+        long[] s = new long[capacity];
+        double[] v = new double[capacity];
+        for (int k = 0; k < size; k++) {
+            int i = index(k);
+            s[k] = stamps[i];
+            v[k] = values[i];
+        }
+        stamps = s;
+        values = v;
+        head = 0;
+        if (min != null) {
+            min.grow(capacity);
+            max.grow(capacity);
+        }
+    }
+
+    /**
+     * @brief Monotonic deque of sequence numbers whose values only increase
+     *        (minimum) or decrease (maximum) from front to back
+     */
+    private final class Extremes {
+        private final boolean largest;
+        private long[] seqs = new long[values.length];
+        private int front;
+        private int count;
+
+        Extremes(boolean largest) {
+            this.largest = largest;
+        }
+
+        void push(long seq, double value) {
+            while (count > 0) {
+                double back = valueOf(seqs[at(count - 1)]);
+                if (largest ? back > value : back < value) break;
+                count--;
+            }
+            seqs[at(count++)] = seq;
+        }
+
+        void evict(long seq) {
+            if (count > 0 && seqs[front] == seq) {
+                front = at(1);
+                count--;
+            }
+        }
+
+        double top() {return count == 0 ? Double.NaN : valueOf(seqs[front]);}
+
+        void clear() {front = count = 0;}
+
+        void grow(int capacity) {
+            long[] s = new long[capacity];
+            for (int k = 0; k < count; k++) s[k] = seqs[at(k)];
+            seqs = s;
+            front = 0;
+        }
+
+        private int at(int offset) {
+            int i = front + offset;
+            return i >= seqs.length ? i - seqs.length : i;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package graph;
+
+/**
+ * @file WindowFunction.java
+ * @brief Enumeration of the aggregates a window agent can publish
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * - SUM: sum of the values in the window
+ * - AVG: mean of the values in the window
+ * - MIN / MAX: smallest / largest value in the window
+ * - COUNT: number of values in the window
+ * - RATE: messages per second over the window
+ */
+public enum WindowFunction {
+    SUM("sum"),
+    AVG("avg"),
+    MIN("min"),
+    MAX("max"),
+    COUNT("count"),
+    RATE("rate");
+
+    /** @brief Name used for this function in configuration files */
+    private final String configName;
+
+    WindowFunction(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @brief Tells whether the function needs the window's minimum and maximum
+     * @return true for MIN and MAX
+     */
+    public boolean needsExtremes() {
+        return this == MIN || this == MAX;
+    }
+
+    /**
+     * @brief Computes the function from the window's running aggregates
+     * @param count Number of values in the window
+     * @param sum Their sum
+     * @param min Their minimum (ignored if count is 0)
+     * @param max Their maximum (ignored if count is 0)
+     * @param rate Messages per second over the window
+     * @return The value to publish, or NaN if it is undefined (e.g. AVG of an empty window)
+     */
+    public double evaluate(long count, double sum, double min, double max, double rate) {
+        switch (this) {
+            case SUM:   return sum;
+            case AVG:   return count == 0 ? Double.NaN : sum / count;
+            case MIN:   return count == 0 ? Double.NaN : min;
+            case MAX:   return count == 0 ? Double.NaN : max;
+            case COUNT: return count;
+            default:    return rate;
+        }
+    }
+
+    /**
+     * @brief Gets the name used for this function in configuration files
+     * @return The configuration name (e.g., "avg")
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * @brief Parses a function from its configuration name or enum constant name
+     * @param value The value to parse (case-insensitive)
+     * @return The matching function
+     * @throws IllegalArgumentException if the value is not a known function
+     */
+    public static WindowFunction fromString(String value) {
+        String v = value.trim();
+        for (WindowFunction function : values()) {
+            if (function.configName.equalsIgnoreCase(v) || function.name().equalsIgnoreCase(v)) {
+                return function;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window function: " + value);
+    }
+}
@@ -4,6 +4,7 @@ import servlets.SimpleConfLoader;
 import servlets.TopicDisplayer;
 import servlets.HtmlLoader;
 import servlets.ConfigurationDataProvider;
+import servlets.PlacementServlet;
 
 /**
  * @file WebApplication.java
@@ -65,6 +66,11 @@ public class WebApplication {
             ConfigurationDataProvider configDataProvider = new ConfigurationDataProvider();
             server.addServlet("GET", "/app/config-data", configDataProvider);
             
+            // Worker placement admin endpoint ("placed" execution)
+            PlacementServlet placementServlet = new PlacementServlet();
+            server.addServlet("GET", "/app/placement", placementServlet);
+            server.addServlet("POST", "/app/placement", placementServlet);
+            
             System.out.println("Servlets configured:");
             System.out.println("  GET  /               -> HtmlLoader (main page)");
             System.out.println("  GET  /index.html     -> HtmlLoader");
@@ -73,6 +79,8 @@ public class WebApplication {
             System.out.println("  GET  /app/topics     -> TopicDisplayer (monitoring)");
             System.out.println("  POST /app/topics     -> TopicDisplayer (message publishing)");
             System.out.println("  GET  /app/config-data -> ConfigurationDataProvider (graph data)");
+            System.out.println("  GET  /app/placement  -> PlacementServlet (worker placement stats)");
+            System.out.println("  POST /app/placement  -> PlacementServlet (repartition agents)");
             
             // Start the server
             System.out.println("\nStarting server on port 8080...");
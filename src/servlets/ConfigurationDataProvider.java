@@ -6,11 +6,22 @@ import graph.TopicManagerSingleton;
 import graph.TopicManagerSingleton.TopicManager;
 import graph.Topic;
 import graph.Agent;
+import graph.FixedPointEngine;
+import graph.FusedAgent;
+import graph.MemoAgent;
+import graph.ParallelAgent;
+import graph.PlacedAgent;
+import graph.TopologyIndex;
+import configs.CompactGraph;
+import configs.CycleAnalysis;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
 
 /**
  * @file ConfigurationDataProvider.java
@@ -22,6 +33,11 @@ import java.util.ArrayList;
  * This servlet provides the current agent configuration in JSON format
  * for use by the network visualization component. It extracts information
  * from the active TopicManager to build a configuration representation.
+ * The agents and their topics are read from the TopicManager's live
+ * TopologyIndex, which keeps them up to date as agents subscribe and
+ * publish, so the agent list is written out without walking the topics.
+ * Which agents lie on a cycle ("inCycle") comes from one CompactGraph
+ * snapshot and its strongly connected components.
  */
 public class ConfigurationDataProvider implements Servlet {
     
@@ -51,58 +67,101 @@ public class ConfigurationDataProvider implements Servlet {
         StringBuilder json = new StringBuilder();
         json.append("{\"agents\":[");
         
-        // Get all topics from topic manager
+        // The live index lists every agent, in topological order, with its topics
         List<Topic> allTopics = new ArrayList<>(topicManager.getTopics());
+        Set<Agent> onCycle = agentsOnCycles(allTopics);
         boolean firstAgent = true;
         
-        // Track agents already processed to avoid duplicates
-        List<Agent> processedAgents = new ArrayList<>();
+        // Build agent configurations for every agent that subscribes to a topic
+        for (TopologyIndex.AgentView view : topicManager.getTopology().getAgents()) {
+            if (view.getSubscriptions().isEmpty()) {
+                continue;
+            }
+            Agent agent = view.getAgent();
+            
+            if (!firstAgent) {
+                json.append(",");
+            }
+            firstAgent = false;
+            
+            // Report the decorated agent's type rather than the ParallelAgent/PlacedAgent/MemoAgent
+            // wrapper, and the members of a fused group (e.g. "Fused[MulAgent>IncAgent]")
+            Agent core = agent instanceof ParallelAgent ? ((ParallelAgent) agent).getAgent() : agent;
+            if (core instanceof PlacedAgent) core = ((PlacedAgent) core).getAgent();
+            if (core instanceof MemoAgent) core = ((MemoAgent) core).getAgent();
+            String agentType = core instanceof FusedAgent
+                    ? core.getName()
+                    : core.getClass().getSimpleName();
+            
+            json.append("{");
+            json.append("\"type\":\"").append(agentType).append("\",");
+            json.append("\"agentClass\":\"").append(agentType).append("\",");
+            if (agent instanceof ParallelAgent) {
+                ParallelAgent parallel = (ParallelAgent) agent;
+                json.append("\"overflow\":\"").append(parallel.getMailboxConfig().getOverflowPolicy().getConfigName()).append("\",");
+                json.append("\"dropped\":").append(parallel.getDroppedCount()).append(",");
+                json.append("\"blockedMs\":").append(parallel.getBlockedNanos() / 1_000_000L).append(",");
+            }
+            if (agent instanceof PlacedAgent) {
+                json.append("\"worker\":").append(((PlacedAgent) agent).getWorkerIndex()).append(",");
+            }
+            json.append("\"inCycle\":").append(onCycle.contains(agent)).append(",");
+            json.append("\"subscriptions\":");
+            appendTopicNames(json, view.getSubscriptions());
+            json.append(",\"publications\":");
+            appendTopicNames(json, view.getPublications());
+            json.append("}");
+        }
+        
+        json.append("],\"topics\":[");
         
-        // Build agent configurations from topic subscribers
+        // Delivery statistics of conflating and distinct topics
+        boolean firstTopic = true;
         for (Topic topic : allTopics) {
-            List<Agent> subscribers = topic.getSubs();
-            
-            for (Agent agent : subscribers) {
-                // Skip if we've already processed this agent
-                if (processedAgents.contains(agent)) {
-                    continue;
-                }
-                processedAgents.add(agent);
-                
-                if (!firstAgent) {
+            if (!topic.isConflating() && !topic.isDistinct()) {
+                continue;
+            }
+            if (!firstTopic) {
+                json.append(",");
+            }
+            firstTopic = false;
+            json.append("{\"name\":\"").append(topic.name).append("\"");
+            if (topic.isConflating()) {
+                json.append(",\"conflating\":true,");
+                json.append("\"minIntervalMs\":").append(topic.getMinIntervalMillis()).append(",");
+                json.append("\"delivered\":").append(topic.getDeliveredCount()).append(",");
+                json.append("\"coalesced\":").append(topic.getCoalescedCount());
+            }
+            if (topic.isDistinct()) {
+                json.append(",\"distinct\":true,");
+                json.append("\"deadband\":").append(topic.getDeadband()).append(",");
+                json.append("\"suppressed\":").append(topic.getSuppressedCount());
+            }
+            json.append("}");
+        }
+        
+        // Convergence statistics of the cyclic components of a fixpoint graph
+        json.append("],\"components\":[");
+        if (!allTopics.isEmpty() && allTopics.get(0).getEngine() instanceof FixedPointEngine) {
+            FixedPointEngine engine = (FixedPointEngine) allTopics.get(0).getEngine();
+            boolean firstComponent = true;
+            for (FixedPointEngine.ComponentStats stats : engine.getComponentStats()) {
+                if (!firstComponent) {
                     json.append(",");
                 }
-                firstAgent = false;
-                
-                json.append("{");
-                json.append("\"type\":\"").append(agent.getClass().getSimpleName()).append("\",");
-                json.append("\"agentClass\":\"").append(agent.getClass().getSimpleName()).append("\",");
-                json.append("\"subscriptions\":[");
-                
-                // Get agent's subscription topics
-                boolean firstSub = true;
-                for (Topic t : allTopics) {
-                    if (t.getSubs().contains(agent)) {
-                        if (!firstSub) json.append(",");
-                        json.append("\"").append(t.name).append("\"");
-                        firstSub = false;
-                    }
+                firstComponent = false;
+                json.append("{\"members\":[");
+                for (int i = 0; i < stats.getMembers().size(); i++) {
+                    if (i > 0) json.append(",");
+                    json.append("\"").append(stats.getMembers().get(i)).append("\"");
                 }
-                
                 json.append("],");
-                json.append("\"publications\":[");
-                
-                // Get agent's publication topics
-                boolean firstPub = true;
-                for (Topic t : allTopics) {
-                    if (t.getPubs().contains(agent)) {
-                        if (!firstPub) json.append(",");
-                        json.append("\"").append(t.name).append("\"");
-                        firstPub = false;
-                    }
-                }
-                
-                json.append("]}");
+                json.append("\"runs\":").append(stats.getRuns()).append(",");
+                json.append("\"converged\":").append(stats.getConvergedCount()).append(",");
+                json.append("\"exhausted\":").append(stats.getExhaustedCount()).append(",");
+                json.append("\"lastRounds\":").append(stats.getLastRounds()).append(",");
+                json.append("\"maxRounds\":").append(stats.getMaxRounds()).append(",");
+                json.append("\"lastResidual\":").append(jsonNumber(stats.getLastResidual())).append("}");
             }
         }
         
@@ -110,6 +169,49 @@ public class ConfigurationDataProvider implements Servlet {
         return json.toString();
     }
     
+    /**
+     * @brief Finds the agents that lie on a cycle
+     * @param allTopics The topics of the loaded configuration
+     * @return The agents of the cyclic strongly connected components
+     */
+    private Set<Agent> agentsOnCycles(List<Topic> allTopics) {
+        Set<Agent> onCycle = Collections.newSetFromMap(new IdentityHashMap<>());
+        CompactGraph graph = CompactGraph.fromTopics(allTopics);
+        CycleAnalysis cycles = graph.analyzeCycles();
+        if (!cycles.hasCycles()) {
+            return onCycle;
+        }
+        for (int id = graph.getTopicCount(); id < graph.getNodeCount(); id++) {
+            if (cycles.isInCycle(id)) {
+                onCycle.add(graph.getAgent(id));
+            }
+        }
+        return onCycle;
+    }
+    
+    /**
+     * @brief Appends the names of the given topics as a JSON array
+     * @param json The output
+     * @param topics The topics
+     */
+    private void appendTopicNames(StringBuilder json, List<Topic> topics) {
+        json.append("[");
+        for (int i = 0; i < topics.size(); i++) {
+            if (i > 0) json.append(",");
+            json.append("\"").append(topics.get(i).name).append("\"");
+        }
+        json.append("]");
+    }
+    
+    /**
+     * @brief Formats a double for JSON, which has no NaN or infinity
+     * @param value The value
+     * @return The number, or null if it is not finite
+     */
+    private String jsonNumber(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+    
     /**
      * @brief Sends JSON response
      * @param toClient Output stream
@@ -0,0 +1,114 @@
+package servlets;
+
+import servlet.Servlet;
+import server.RequestParser.RequestInfo;
+import graph.AgentPlacement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @file PlacementServlet.java
+ * @brief Admin endpoint for the worker placement of "placed" configurations
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ *
+ * GET returns the current placement as JSON: agents per worker, handoff and
+ * direct call counters, and their rates per second since the previous
+ * request. POST (or GET with action=repartition) regroups the agents by the
+ * traffic observed since the last repartition and then returns the same
+ * data, so polling before and after shows the effect.
+ *
+ * When the loaded configuration does not use "placed" execution the
+ * response is {"active":false}.
+ */
+public class PlacementServlet implements Servlet {
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    @Override
+    public void handle(RequestInfo ri, OutputStream toClient) throws IOException {
+        try {
+            AgentPlacement placement = AgentPlacement.current();
+            if (placement == null) {
+                sendJsonResponse(toClient, "{\"active\":false}");
+                return;
+            }
+            if ("POST".equals(ri.getHttpCommand()) || "repartition".equals(ri.getParameters().get("action"))) {
+                System.out.println("PlacementServlet: Repartitioning " + placement.getAgents().size() + " agents");
+                placement.repartition();
+            }
+            sendJsonResponse(toClient, buildPlacementJson(placement));
+        } catch (Exception e) {
+            System.err.println("PlacementServlet: Error handling request: " + e.getMessage());
+            sendErrorResponse(toClient, "Failed to report placement");
+        }
+    }
+
+    /**
+     * @brief Builds the JSON view of a placement
+     * @param placement The running placement
+     * @return JSON object with its layout, counters and rates
+     */
+    private String buildPlacementJson(AgentPlacement placement) {
+        AgentPlacement.Rates rates = placement.sampleRates();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"active\":true,");
+        json.append("\"workers\":").append(placement.getWorkerCount()).append(",");
+        json.append("\"agentsPerWorker\":[");
+        int[] counts = placement.getAgentsPerWorker();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) json.append(",");
+            json.append(counts[i]);
+        }
+        json.append("],");
+        json.append("\"repartitions\":").append(placement.getRepartitionCount()).append(",");
+        json.append("\"lastMoved\":").append(placement.getLastMovedCount()).append(",");
+        json.append("\"lastCutWeight\":").append(placement.getLastCutWeight()).append(",");
+        json.append("\"externalHandoffs\":").append(placement.getExternalHandoffCount()).append(",");
+        json.append("\"crossWorkerHandoffs\":").append(placement.getCrossWorkerHandoffCount()).append(",");
+        json.append("\"directCalls\":").append(placement.getDirectCallCount()).append(",");
+        json.append("\"intervalSeconds\":").append(rates.getSeconds()).append(",");
+        json.append("\"handoffsPerSecond\":").append(rates.getHandoffsPerSecond()).append(",");
+        json.append("\"directCallsPerSecond\":").append(rates.getDirectCallsPerSecond());
+        json.append("}");
+        return json.toString();
+    }
+
+    /**
+     * @brief Sends JSON response
+     * @param toClient Output stream
+     * @param json JSON content
+     * @throws IOException if writing fails
+     */
+    private void sendJsonResponse(OutputStream toClient, String json) throws IOException {
+        String response = "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: application/json; charset=utf-8\r\n" +
+                "Content-Length: " + json.getBytes("UTF-8").length + "\r\n" +
+                "Access-Control-Allow-Origin: *\r\n" +
+                "\r\n" + json;
+
+        toClient.write(response.getBytes("UTF-8"));
+    }
+
+    /**
+     * @brief Sends error response
+     * @param toClient Output stream
+     * @param errorMessage Error message
+     * @throws IOException if writing fails
+     */
+    private void sendErrorResponse(OutputStream toClient, String errorMessage) throws IOException {
+        String json = "{\"error\":\"" + errorMessage + "\"}";
+        String response = "HTTP/1.1 500 Internal Server Error\r\n" +
+                "Content-Type: application/json; charset=utf-8\r\n" +
+                "Content-Length: " + json.getBytes("UTF-8").length + "\r\n" +
+                "Access-Control-Allow-Origin: *\r\n" +
+                "\r\n" + json;
+
+        toClient.write(response.getBytes("UTF-8"));
+    }
+}
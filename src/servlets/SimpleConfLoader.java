@@ -101,6 +101,7 @@ public class SimpleConfLoader implements Servlet {
                 "<h3 style='color: #c9a96e; margin-top: 0;'>Configuration Details:</h3>" +
                 "<p style='color: #f0f0f0; margin: 5px 0;'><strong>Format:</strong> " + result.getFormat() + "</p>" +
                 "<p style='color: #f0f0f0; margin: 5px 0;'><strong>Agents Created:</strong> " + result.getAgentCount() + "</p>" +
+                "<p style='color: #f0f0f0; margin: 5px 0;'><strong>Agents Deduplicated:</strong> " + result.getDedupedCount() + "</p>" +
                 "<p style='color: #f0f0f0; margin: 5px 0;'><strong>Topics Created:</strong> " + result.getTopicCount() + "</p>" +
                 "</div>" +
                 "<p style='color: #c9a96e; font-size: 1.1rem;'>Agent network is now active and ready for use.</p>" +
@@ -109,7 +109,7 @@ public class TopicDisplayer implements Servlet {
             System.out.println("TopicDisplayer: Found " + topics.size() + " topics");
             for (Topic t : topics) {
                 System.out.println("TopicDisplayer: Topic - " + t.name + " with message: " + 
-                    (t.getLastMessage() != null ? t.getLastMessage().asText : "null"));
+                    (t.getLastMessage() != null ? t.getLastMessage().asText() : "null"));
             }
             
             // Send proper HTTP headers first
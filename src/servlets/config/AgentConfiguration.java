@@ -1,6 +1,9 @@
 package servlets.config;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @file AgentConfiguration.java
@@ -12,6 +15,14 @@ import java.util.Arrays;
  * This immutable data class holds the configuration information
  * for a single agent, including its type and topic subscriptions/publications.
  * Follows the Value Object pattern for data integrity.
+ * 
+ * Optional per-agent options (e.g., "capacity", "overflow", "timeout") are
+ * kept as raw strings and interpreted by ConfigurationService.
+ * 
+ * A subscription may carry its own options in brackets after the topic name,
+ * separated by commas or semicolons, e.g. "Sensor[throttle=20,trailing=false]".
+ * They are removed from the topic name and available per topic through
+ * getSubscriptionOptions().
  */
 public final class AgentConfiguration {
     
@@ -24,6 +35,12 @@ public final class AgentConfiguration {
     /** @brief Array of topic names the agent publishes to */
     private final String[] publications;
     
+    /** @brief Per-agent options by name, in declaration order */
+    private final Map<String, String> options;
+    
+    /** @brief Inline options of the subscriptions that declare any, by topic name */
+    private final Map<String, Map<String, String>> subscriptionOptions;
+    
     /**
      * @brief Constructor for agent configuration
      * @param agentClass The agent class name
@@ -32,6 +49,20 @@ public final class AgentConfiguration {
      * @throws IllegalArgumentException if agentClass is null or empty
      */
     public AgentConfiguration(String agentClass, String[] subscriptions, String[] publications) {
+        this(agentClass, subscriptions, publications, null);
+    }
+    
+    /**
+     * @brief Constructor for agent configuration with per-agent options
+     * @param agentClass The agent class name
+     * @param subscriptions Array of subscription topic names
+     * @param publications Array of publication topic names
+     * @param options Option names mapped to their raw values, or null for none
+     * @throws IllegalArgumentException if agentClass is null or empty, or the inline
+     *         options of a subscription are malformed
+     */
+    public AgentConfiguration(String agentClass, String[] subscriptions, String[] publications,
+                              Map<String, String> options) {
         if (agentClass == null || agentClass.trim().isEmpty()) {
             throw new IllegalArgumentException("Agent class cannot be null or empty");
         }
@@ -39,10 +70,14 @@ public final class AgentConfiguration {
         this.agentClass = agentClass.trim();
         this.subscriptions = subscriptions != null ? subscriptions.clone() : new String[0];
         this.publications = publications != null ? publications.clone() : new String[0];
+        this.options = options != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(options))
+                : Collections.emptyMap();
         
         // Clean up topic names
         cleanTopicNames(this.subscriptions);
         cleanTopicNames(this.publications);
+        this.subscriptionOptions = extractSubscriptionOptions(this.subscriptions);
     }
     
     /**
@@ -69,6 +104,31 @@ public final class AgentConfiguration {
         return publications.clone();
     }
     
+    /**
+     * @brief Gets the per-agent options
+     * @return Unmodifiable map of option names to raw values
+     */
+    public Map<String, String> getOptions() {
+        return options;
+    }
+    
+    /**
+     * @brief Gets a single per-agent option
+     * @param name The option name
+     * @return The raw option value, or null if it was not declared
+     */
+    public String getOption(String name) {
+        return options.get(name);
+    }
+    
+    /**
+     * @brief Gets the inline options of the subscriptions
+     * @return Unmodifiable map of topic names to their options (only topics that declare any)
+     */
+    public Map<String, Map<String, String>> getSubscriptionOptions() {
+        return subscriptionOptions;
+    }
+    
     /**
      * @brief Gets all unique topic names from subscriptions and publications
      * @return Array of all unique topic names
@@ -102,8 +162,9 @@ public final class AgentConfiguration {
     
     @Override
     public String toString() {
-        return String.format("AgentConfiguration{class='%s', subs=%s, pubs=%s}", 
-                           agentClass, Arrays.toString(subscriptions), Arrays.toString(publications));
+        return String.format("AgentConfiguration{class='%s', subs=%s, pubs=%s, options=%s%s}", 
+                           agentClass, Arrays.toString(subscriptions), Arrays.toString(publications), options,
+                           subscriptionOptions.isEmpty() ? "" : ", subscriptionOptions=" + subscriptionOptions);
     }
     
     @Override
@@ -114,7 +175,9 @@ public final class AgentConfiguration {
         AgentConfiguration that = (AgentConfiguration) o;
         return agentClass.equals(that.agentClass) &&
                Arrays.equals(subscriptions, that.subscriptions) &&
-               Arrays.equals(publications, that.publications);
+               Arrays.equals(publications, that.publications) &&
+               options.equals(that.options) &&
+               subscriptionOptions.equals(that.subscriptionOptions);
     }
     
     @Override
@@ -122,6 +185,8 @@ public final class AgentConfiguration {
         int result = agentClass.hashCode();
         result = 31 * result + Arrays.hashCode(subscriptions);
         result = 31 * result + Arrays.hashCode(publications);
+        result = 31 * result + options.hashCode();
+        result = 31 * result + subscriptionOptions.hashCode();
         return result;
     }
     
@@ -138,4 +203,39 @@ public final class AgentConfiguration {
             }
         }
     }
+    
+    /**
+     * @brief Removes the bracketed options from subscription names
+     * @param topics Cleaned subscription names, updated in place
+     * @return Unmodifiable map of topic names to their options
+     * @throws IllegalArgumentException if the options are malformed or differ between
+     *         two subscriptions to the same topic
+     */
+    private static Map<String, Map<String, String>> extractSubscriptionOptions(String[] topics) {
+        Map<String, Map<String, String>> result = new LinkedHashMap<>();
+        for (int i = 0; i < topics.length; i++) {
+            int open = topics[i].indexOf('[');
+            if (open < 0) continue;
+            if (!topics[i].endsWith("]")) {
+                throw new IllegalArgumentException("Unterminated options in subscription: " + topics[i]);
+            }
+            String body = topics[i].substring(open + 1, topics[i].length() - 1);
+            topics[i] = topics[i].substring(0, open).trim();
+            
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (String entry : body.split("[,;]")) {
+                if (entry.trim().isEmpty()) continue;
+                int eq = entry.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected key=value in options of " + topics[i] + ": " + entry.trim());
+                }
+                entries.put(entry.substring(0, eq).trim(), entry.substring(eq + 1).trim());
+            }
+            Map<String, String> previous = result.put(topics[i], Collections.unmodifiableMap(entries));
+            if (previous != null && !previous.equals(entries)) {
+                throw new IllegalArgumentException("Conflicting options for subscription " + topics[i]);
+            }
+        }
+        return result.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(result);
+    }
 }
@@ -0,0 +1,137 @@
+package servlets.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @file AgentDeduplicator.java
+ * @brief Common-subexpression elimination over agent configurations
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Two agents are identical when they have the same class, the same options,
+ * the same ordered subscriptions (with their inline options) and the same
+ * number of publications. Only the first one is kept; each output of the
+ * others is fed by republishing the kept agent's output at the same
+ * position (the k-th publication carries the k-th result).
+ * 
+ * A removed agent's output carries exactly the values of the kept agent's
+ * output at its position, so (when nothing else publishes to it) it is
+ * treated as the same topic when comparing the agents downstream. The comparison is repeated
+ * until nothing changes, so whole duplicated chains collapse.
+ * 
+ * An agent is only used as the shared one if it is the sole publisher of
+ * every one of its outputs; otherwise republishing would also copy the other publishers'
+ * messages.
+ */
+public class AgentDeduplicator {
+
+    /** @brief Configurations kept by the last call */
+    private final List<AgentConfiguration> unique = new ArrayList<>();
+
+    /** @brief Output of each shared agent -> outputs of the agents it replaced */
+    private final Map<String, List<String>> republish = new LinkedHashMap<>();
+
+    /** @brief Number of agents removed by the last call */
+    private int removed;
+
+    /**
+     * @brief Removes duplicated agents
+     * @param configurations The configurations to deduplicate
+     * @return The configurations to instantiate, in their original order
+     */
+    public List<AgentConfiguration> dedupe(List<AgentConfiguration> configurations) {
+        unique.clear();
+        republish.clear();
+        removed = 0;
+
+        int n = configurations.size();
+        Map<String, Integer> publisherCount = new HashMap<>();
+        for (AgentConfiguration c : configurations) {
+            for (String p : c.getPublications()) publisherCount.merge(p, 1, Integer::sum);
+        }
+
+        Map<String, String> alias = new HashMap<>();        // topic -> topic carrying the same values
+        boolean[] dropped = new boolean[n];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Map<String, Integer> seen = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                if (dropped[i]) continue;
+                AgentConfiguration c = configurations.get(i);
+                String[] pubs = c.getPublications();
+                if (pubs.length == 0) continue;
+                String key = keyOf(c, alias);
+                Integer first = seen.get(key);
+                if (first == null) {
+                    if (soleOutputs(pubs, publisherCount)) seen.put(key, i);
+                    continue;
+                }
+
+                String[] kept = configurations.get(first).getPublications();
+                dropped[i] = true;
+                removed++;
+                changed = true;
+                for (int k = 0; k < pubs.length; k++) {
+                    List<String> targets = republish.computeIfAbsent(kept[k], t -> new ArrayList<>());
+                    List<String> inherited = republish.remove(pubs[k]);  // it may have been shared itself
+                    targets.add(pubs[k]);
+                    if (inherited != null) targets.addAll(inherited);
+                    if (publisherCount.get(pubs[k]) == 1) alias.put(pubs[k], kept[k]);
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (!dropped[i]) unique.add(configurations.get(i));
+        }
+        return new ArrayList<>(unique);
+    }
+
+    /**
+     * @brief Gets the topics to republish, as computed by the last call
+     * @return Output of each shared agent -> outputs of the agents it replaced
+     */
+    public Map<String, List<String>> getRepublishTargets() {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        republish.forEach((k, v) -> copy.put(k, new ArrayList<>(v)));
+        return copy;
+    }
+
+    /**
+     * @brief Gets the number of agents removed by the last call
+     * @return Deduplicated agent count
+     */
+    public int getRemovedCount() {
+        return removed;
+    }
+
+    private static boolean soleOutputs(String[] pubs, Map<String, Integer> publisherCount) {
+        for (String p : pubs) {
+            if (publisherCount.get(p) != 1) return false;
+        }
+        return true;
+    }
+
+    private static String keyOf(AgentConfiguration c, Map<String, String> alias) {
+        String[] subs = c.getSubscriptions();
+        for (int i = 0; i < subs.length; i++) subs[i] = resolve(subs[i], alias);
+        Map<String, Map<String, String>> shaping = new TreeMap<>();
+        c.getSubscriptionOptions().forEach((t, o) -> shaping.put(resolve(t, alias), new TreeMap<>(o)));
+        return c.getAgentClass() + "|" + Arrays.toString(subs) + "|" + new TreeMap<>(c.getOptions()) + "|" + shaping
+            + "|" + c.getPublications().length;
+    }
+
+    private static String resolve(String topic, Map<String, String> alias) {
+        String t = topic;
+        for (String next = alias.get(t); next != null && !next.equals(t); next = alias.get(t)) t = next;
+        return t;
+    }
+}
@@ -2,6 +2,8 @@ package servlets.config;
 
 import graph.Agent;
 
+import java.util.Set;
+
 /**
  * @file AgentFactory.java
  * @brief Interface for creating agent instances
@@ -35,4 +37,19 @@ public interface AgentFactory {
      * @return Array of supported agent class names
      */
     String[] getSupportedAgentTypes();
+    
+    /**
+     * @brief Returns the per-agent option names understood by an agent type
+     * @param agentClass The agent class name
+     * @return Names of the options read when creating the agent (empty if none)
+     */
+    Set<String> getOptionNames(String agentClass);
+    
+    /**
+     * @brief Tells whether an agent would publish from a timer thread
+     * @param config The agent configuration
+     * @return true if some publications of the agent run on the shared AgentScheduler
+     *         rather than in a callback (false if its options are invalid)
+     */
+    boolean publishesFromTimer(AgentConfiguration config);
 }
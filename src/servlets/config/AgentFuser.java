@@ -0,0 +1,136 @@
+package servlets.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @file AgentFuser.java
+ * @brief Finds groups of agents that can be fused into one FusedAgent
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * A topic can be fused away when exactly one agent publishes to it, exactly
+ * one other agent subscribes to it, and it is not listed as a topic to keep
+ * (topics watched in the monitor, conflating topics, ...). Agents connected
+ * by such topics form a group. A group whose fusable topics form a cycle is
+ * left alone.
+ */
+public class AgentFuser {
+
+    /** @brief Topics that must stay visible */
+    private final Set<String> keep;
+
+    /** @brief Topics linking the members of the groups found by the last call */
+    private final Set<String> internal = new HashSet<>();
+
+    /**
+     * @brief Constructor
+     * @param keep Topic names that must not be fused away
+     */
+    public AgentFuser(Set<String> keep) {
+        this.keep = new HashSet<>(keep);
+    }
+
+    /**
+     * @brief Groups the given agents
+     * @param configurations Configurations of the created agents
+     * @return Every configuration index exactly once, grouped; a group of
+     *         several agents lists them upstream first. Groups appear in
+     *         the order of their first configuration.
+     */
+    public List<List<Integer>> group(List<AgentConfiguration> configurations) {
+        internal.clear();
+        int n = configurations.size();
+
+        Map<String, List<Integer>> publishers  = new HashMap<>();
+        Map<String, List<Integer>> subscribers = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            AgentConfiguration c = configurations.get(i);
+            for (String t : c.getPublications())  publishers.computeIfAbsent(t, k -> new ArrayList<>()).add(i);
+            for (String t : c.getSubscriptions()) subscribers.computeIfAbsent(t, k -> new ArrayList<>()).add(i);
+        }
+
+        // fusable topics, as (publisher, subscriber) edges
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+        Map<String, int[]> edges = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> e : publishers.entrySet()) {
+            String topic = e.getKey();
+            List<Integer> subs = subscribers.get(topic);
+            if (keep.contains(topic) || e.getValue().size() != 1 || subs == null || subs.size() != 1) continue;
+            int from = e.getValue().get(0), to = subs.get(0);
+            if (from == to) continue;
+            edges.put(topic, new int[] {from, to});
+            parent[find(parent, from)] = find(parent, to);
+        }
+
+        // collect groups; a group with as many edges as members contains a cycle
+        Map<Integer, List<Integer>> members = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) members.computeIfAbsent(find(parent, i), k -> new ArrayList<>()).add(i);
+        Map<Integer, Integer> edgeCount = new HashMap<>();
+        for (int[] edge : edges.values()) edgeCount.merge(find(parent, edge[0]), 1, Integer::sum);
+
+        List<List<Integer>> groups = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> e : members.entrySet()) {
+            List<Integer> group = e.getValue();
+            if (group.size() > 1 && edgeCount.getOrDefault(e.getKey(), 0) >= group.size()) {
+                for (int i : group) groups.add(List.of(i));        // cyclic: keep separate
+                continue;
+            }
+            groups.add(upstreamFirst(group, edges));
+        }
+        groups.sort((a, b) -> Integer.compare(a.stream().min(Integer::compare).get(),
+                                              b.stream().min(Integer::compare).get()));
+
+        for (Map.Entry<String, int[]> e : edges.entrySet()) {
+            Integer root = find(parent, e.getValue()[0]);
+            if (edgeCount.getOrDefault(root, 0) < members.get(root).size()) internal.add(e.getKey());
+        }
+        return groups;
+    }
+
+    /**
+     * @brief Gets the topics fused away by the last call to group()
+     * @return Names of the internal topics
+     */
+    public Set<String> getInternalTopics() {
+        return new HashSet<>(internal);
+    }
+
+    /**
+     * @brief Orders a group so that every member comes after the members feeding it
+     */
+    private List<Integer> upstreamFirst(List<Integer> group, Map<String, int[]> edges) {
+        if (group.size() == 1) return group;
+        Map<Integer, Integer> indegree = new HashMap<>();
+        for (int i : group) indegree.put(i, 0);
+        for (int[] edge : edges.values()) {
+            if (indegree.containsKey(edge[1])) indegree.merge(edge[1], 1, Integer::sum);
+        }
+        List<Integer> ordered = new ArrayList<>();
+        List<Integer> ready = new ArrayList<>();
+        for (int i : group) if (indegree.get(i) == 0) ready.add(i);
+        while (!ready.isEmpty()) {
+            int i = ready.remove(0);
+            ordered.add(i);
+            for (int[] edge : edges.values()) {
+                if (edge[0] == i && indegree.merge(edge[1], -1, Integer::sum) == 0) ready.add(edge[1]);
+            }
+        }
+        return ordered;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -1,7 +1,9 @@
 package servlets.config;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @file ConfFormatParser.java
@@ -13,9 +15,18 @@ import java.util.List;
  * This parser handles the legacy CONF format where each agent is defined
  * in three consecutive lines: agent class, subscriptions, publications.
  * Implements the Strategy pattern for different configuration formats.
+ * 
+ * Lines starting with '@' are configuration-wide settings written as
+ * "@key=value" (e.g., "@execution=pool") and may appear anywhere in the file.
+ * The agent class line may be followed by per-agent options written as
+ * whitespace-separated key=value pairs, e.g.
+ * "configs.PlusAgent capacity=256 overflow=drop-oldest".
  */
 public class ConfFormatParser implements ConfigurationParser {
     
+    /** @brief Prefix marking a configuration-wide setting line */
+    private static final String SETTING_PREFIX = "@";
+    
     @Override
     public List<AgentConfiguration> parseConfiguration(String configContent) throws ConfigurationException {
         if (configContent == null || configContent.trim().isEmpty()) {
@@ -23,7 +34,7 @@ public class ConfFormatParser implements ConfigurationParser {
         }
         
         List<AgentConfiguration> configurations = new ArrayList<>();
-        String[] lines = configContent.trim().split("\\n");
+        String[] lines = agentLines(configContent);
         
         if (lines.length % 3 != 0) {
             throw new ConfigurationException(
@@ -33,14 +44,17 @@ public class ConfFormatParser implements ConfigurationParser {
         
         for (int i = 0; i < lines.length; i += 3) {
             try {
-                String agentClass = lines[i].trim();
+                String[] classTokens = lines[i].trim().split("\\s+");
+                String agentClass = classTokens[0];
+                Map<String, String> options = parseOptions(classTokens, i + 1);
                 String[] subscriptions = parseTopicList(lines[i + 1]);
                 String[] publications = parseTopicList(lines[i + 2]);
                 
                 // Extract simple class name from full package name
                 String simpleClassName = extractSimpleClassName(agentClass);
                 
-                AgentConfiguration config = new AgentConfiguration(simpleClassName, subscriptions, publications);
+                AgentConfiguration config = new AgentConfiguration(
+                    simpleClassName, subscriptions, publications, options);
                 
                 if (!config.isValid()) {
                     throw new ConfigurationException(
@@ -78,7 +92,7 @@ public class ConfFormatParser implements ConfigurationParser {
         }
         
         // Check if it follows the 3-line pattern
-        String[] lines = content.split("\\n");
+        String[] lines = agentLines(content);
         if (lines.length < 3 || lines.length % 3 != 0) {
             return false;
         }
@@ -98,17 +112,78 @@ public class ConfFormatParser implements ConfigurationParser {
         return "CONF";
     }
     
+    @Override
+    public Map<String, String> parseSettings(String configContent) throws ConfigurationException {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (configContent == null) {
+            return settings;
+        }
+        
+        String[] lines = configContent.trim().split("\\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (!line.startsWith(SETTING_PREFIX)) {
+                continue;
+            }
+            
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                throw new ConfigurationException("Setting must be written as @key=value: " + line, "CONF", i + 1);
+            }
+            settings.put(line.substring(1, eq).trim(), line.substring(eq + 1).trim());
+        }
+        return settings;
+    }
+    
+    /**
+     * @brief Splits the content into lines, dropping "@key=value" setting lines
+     * @param configContent The raw configuration content
+     * @return The lines that make up the agent triplets
+     */
+    private String[] agentLines(String configContent) {
+        List<String> lines = new ArrayList<>();
+        for (String line : configContent.trim().split("\\n")) {
+            if (!line.trim().startsWith(SETTING_PREFIX)) {
+                lines.add(line);
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+    
+    /**
+     * @brief Parses the key=value options that follow the class name on an agent line
+     * @param classTokens The agent line split on whitespace (class name first)
+     * @param lineNumber Line number used in error messages
+     * @return Map of option names to raw values
+     * @throws ConfigurationException if an option is not written as key=value
+     */
+    private Map<String, String> parseOptions(String[] classTokens, int lineNumber) throws ConfigurationException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int t = 1; t < classTokens.length; t++) {
+            int eq = classTokens[t].indexOf('=');
+            if (eq <= 0) {
+                throw new ConfigurationException(
+                    "Agent option must be written as key=value: " + classTokens[t], "CONF", lineNumber);
+            }
+            options.put(classTokens[t].substring(0, eq), classTokens[t].substring(eq + 1));
+        }
+        return options;
+    }
+    
     /**
      * @brief Parses a comma-separated list of topics
      * @param topicLine Line containing comma-separated topic names
      * @return Array of cleaned topic names
+     * 
+     * Commas inside the bracketed options of a topic (e.g. "A[throttle=20,leading=false]")
+     * do not separate topics.
      */
     private String[] parseTopicList(String topicLine) {
         if (topicLine == null || topicLine.trim().isEmpty()) {
             return new String[0];
         }
         
-        String[] topics = topicLine.trim().split(",");
+        String[] topics = topicLine.trim().split(",(?![^\\[]*\\])");
         List<String> cleanedTopics = new ArrayList<>();
         
         for (String topic : topics) {
@@ -1,6 +1,8 @@
 package servlets.config;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @file ConfigurationParser.java
@@ -35,4 +37,14 @@ public interface ConfigurationParser {
      * @return The format name (e.g., "JSON", "CONF", "XML")
      */
     String getFormatName();
+    
+    /**
+     * @brief Extracts configuration-wide settings (e.g., "execution" -> "pool")
+     * @param configContent The raw configuration content as a string
+     * @return Map of setting names to values; empty if the format has none
+     * @throws ConfigurationException if the settings section is malformed
+     */
+    default Map<String, String> parseSettings(String configContent) throws ConfigurationException {
+        return Collections.emptyMap();
+    }
 }
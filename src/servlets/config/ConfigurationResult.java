@@ -28,6 +28,9 @@ public final class ConfigurationResult {
     /** @brief Number of topics that were created */
     private final int topicCount;
     
+    /** @brief Number of configured agents replaced by an identical shared agent */
+    private final int dedupedCount;
+    
     /** @brief List of successfully created agents */
     private final List<Agent> createdAgents;
     
@@ -45,10 +48,26 @@ public final class ConfigurationResult {
      */
     public ConfigurationResult(boolean success, String format, int agentCount, 
                              int topicCount, List<Agent> createdAgents, String message) {
+        this(success, format, agentCount, topicCount, 0, createdAgents, message);
+    }
+    
+    /**
+     * @brief Constructor for a configuration result with deduplicated agents
+     * @param success Whether the operation succeeded
+     * @param format The configuration format used
+     * @param agentCount Number of agents configured
+     * @param topicCount Number of topics created
+     * @param dedupedCount Number of configured agents replaced by an identical shared agent
+     * @param createdAgents List of created agent instances
+     * @param message Result message
+     */
+    public ConfigurationResult(boolean success, String format, int agentCount, int topicCount,
+                             int dedupedCount, List<Agent> createdAgents, String message) {
         this.success = success;
         this.format = format != null ? format : "unknown";
         this.agentCount = agentCount;
         this.topicCount = topicCount;
+        this.dedupedCount = dedupedCount;
         this.createdAgents = createdAgents != null ? new java.util.ArrayList<>(createdAgents) : new java.util.ArrayList<>();
         this.message = message != null ? message : "";
     }
@@ -93,6 +112,14 @@ public final class ConfigurationResult {
         return topicCount;
     }
     
+    /**
+     * @brief Gets the number of configured agents replaced by an identical shared agent
+     * @return The deduplicated agent count
+     */
+    public int getDedupedCount() {
+        return dedupedCount;
+    }
+    
     /**
      * @brief Gets the list of successfully created agents
      * @return Immutable list of created agents
@@ -115,8 +142,8 @@ public final class ConfigurationResult {
      */
     public String getSummary() {
         if (success) {
-            return String.format("Successfully loaded %s configuration with %d agents and %d topics: %s",
-                               format, agentCount, topicCount, message);
+            return String.format("Successfully loaded %s configuration with %d agents (%d deduplicated) and %d topics: %s",
+                               format, agentCount, dedupedCount, topicCount, message);
         } else {
             return String.format("Configuration loading failed: %s", message);
         }
@@ -124,7 +151,7 @@ public final class ConfigurationResult {
     
     @Override
     public String toString() {
-        return String.format("ConfigurationResult{success=%s, format='%s', agents=%d, topics=%d, message='%s'}",
-                           success, format, agentCount, topicCount, message);
+        return String.format("ConfigurationResult{success=%s, format='%s', agents=%d, deduped=%d, topics=%d, message='%s'}",
+                           success, format, agentCount, dedupedCount, topicCount, message);
     }
 }
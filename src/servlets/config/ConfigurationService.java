@@ -3,11 +3,36 @@ package servlets.config;
 import graph.TopicManagerSingleton;
 import graph.TopicManagerSingleton.TopicManager;
 import graph.Agent;
+import graph.AgentPlacement;
+import graph.ExecutionMode;
+import graph.ExecutionPlan;
+import graph.FixedPointEngine;
+import graph.FusedAgent;
+import graph.LazyEngine;
+import graph.MemoAgent;
+import graph.IdleStrategy;
+import graph.MailboxConfig;
+import graph.MailboxType;
+import graph.OverflowPolicy;
+import graph.ParallelAgent;
+import graph.PlacedAgent;
+import graph.PropagationEngine;
+import graph.PropagationMode;
+import graph.RepublishAgent;
+import graph.ShapingConfig;
+import graph.ShapingMode;
+import graph.Topic;
+import graph.WaveEngine;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * @file ConfigurationService.java
@@ -19,6 +44,12 @@ import java.util.HashSet;
  * This service coordinates between parsers, factories, and the topic manager
  * to load agent configurations. Follows the Facade pattern to provide a
  * simplified interface for complex configuration operations.
+ * 
+ * Configuration-wide settings choose how the loaded agents run ("execution")
+ * and how values propagate between them ("propagation"); loadConfiguration()
+ * lists them, and the passes that implement the other options (mailboxes,
+ * conflation, shaping, fusion, memoization, compiled plans) document them
+ * where they are applied.
  */
 public class ConfigurationService {
     
@@ -34,6 +65,33 @@ public class ConfigurationService {
     /** @brief Multipart file extractor */
     private final MultipartFileExtractor fileExtractor;
     
+    /** @brief Smallest wave level run as fork-join tasks in "parallel" propagation */
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+    
+    /** @brief Largest change of a fed-back value that counts as converged in "fixpoint" propagation */
+    private static final double DEFAULT_TOLERANCE = 1e-9;
+    
+    /** @brief Most rounds a cyclic component runs per input change in "fixpoint" propagation */
+    private static final int DEFAULT_MAX_ITERATIONS = 1000;
+    
+    /** @brief Time a cyclic component may run per input change in "fixpoint" propagation */
+    private static final double DEFAULT_TIME_BUDGET_MILLIS = 100;
+    
+    /** @brief Per-agent options of the ParallelAgent mailbox ("thread" and "pool" execution only) */
+    private static final Set<String> MAILBOX_OPTIONS = Set.of("capacity", "overflow", "timeout");
+    
+    /** @brief Compiler used for "compiled" propagation */
+    private final PlanCompiler planCompiler = new PlanCompiler();
+    
+    /** @brief Agents created by the most recent configuration load */
+    private List<Agent> activeAgents = new ArrayList<>();
+    
+    /** @brief Engine of the most recent configuration, null for direct propagation */
+    private PropagationEngine activeEngine;
+    
+    /** @brief Worker threads of the most recent configuration, null unless execution is "placed" */
+    private AgentPlacement activePlacement;
+    
     /**
      * @brief Constructor with default parsers and factory
      */
@@ -67,6 +125,27 @@ public class ConfigurationService {
      * @param configContent The configuration content as string
      * @return Configuration loading result with success status and details
      * @throws ConfigurationException if loading fails
+     * 
+     * Agents from the previous configuration are closed first. "execution"
+     * selects how the new agents run: "sync" (default, callbacks on the
+     * publishing thread), "thread" (one ParallelAgent thread per agent),
+     * "pool" (ParallelAgent mailboxes drained by the shared scheduler) or
+     * "placed" (agents grouped onto "workers" threads by an AgentPlacement,
+     * with "capacity" bounding the messages queued from outside them).
+     * 
+     * "propagation" selects the engine: "direct" (default), "wave" (each
+     * affected agent runs once per input change, in topological order),
+     * "parallel" ("wave" with levels of at least "parallelThreshold" agents
+     * run on "parallelism" fork-join threads), "lazy" (topics are computed
+     * when read, except those listed in "eager"), "fixpoint" (cyclic
+     * components iterate to "tolerance" within "maxIterations" and
+     * "timeBudget"), "compiled" or "generated" (see installPlan()). Every
+     * mode but "direct" requires "sync" execution, and all but "fixpoint"
+     * an acyclic graph.
+     * 
+     * Agents with the same class, options and ordered subscriptions are
+     * created only once; a RepublishAgent copies the shared result to the
+     * outputs of the duplicates ("dedupe" = "false" turns this off).
      */
     public ConfigurationResult loadConfiguration(String configContent) throws ConfigurationException {
         if (configContent == null || configContent.trim().isEmpty()) {
@@ -83,27 +162,302 @@ public class ConfigurationService {
         
         // Parse configuration
         List<AgentConfiguration> configurations = parser.parseConfiguration(configContent);
+        Map<String, String> settings = parser.parseSettings(configContent);
+        ExecutionMode executionMode = parseExecutionMode(settings);
+        MailboxConfig mailboxDefaults = parseMailboxDefaults(settings, executionMode);
+        long conflateInterval = parseConflateInterval(settings);
+        double deadband = parseDeadband(settings);
+        PropagationMode propagation = parseSetting(settings, "propagation", PropagationMode.DIRECT,
+                                                   PropagationMode::fromString);
+        if (propagation != PropagationMode.DIRECT && executionMode != ExecutionMode.SYNCHRONOUS) {
+            throw new ConfigurationException("Propagation '" + propagation.getConfigName()
+                + "' requires synchronous execution");
+        }
+        String conflate = settings.get("conflate");
+        if (conflate != null && !conflate.trim().isEmpty()) {
+            // deliveries run on the pool and would race the publishing threads of a "sync" agent,
+            // and an engine takes over propagation before publish() reaches the dispatcher
+            if (executionMode == ExecutionMode.SYNCHRONOUS) {
+                throw new ConfigurationException("Conflation needs thread, pool or placed execution");
+            }
+            if (propagation != PropagationMode.DIRECT) {
+                throw new ConfigurationException("Conflation requires direct propagation");
+            }
+        }
+        int parallelism = parsePositiveInt(settings, "parallelism", Runtime.getRuntime().availableProcessors());
+        int workers = parsePositiveInt(settings, "workers", Runtime.getRuntime().availableProcessors());
+        int parallelThreshold = parsePositiveInt(settings, "parallelThreshold", DEFAULT_PARALLEL_THRESHOLD);
+        double tolerance = parseNonNegativeDouble(settings, "tolerance", DEFAULT_TOLERANCE);
+        int maxIterations = parsePositiveInt(settings, "maxIterations", DEFAULT_MAX_ITERATIONS);
+        double timeBudget = parseNonNegativeDouble(settings, "timeBudget", DEFAULT_TIME_BUDGET_MILLIS);
+        boolean fuse = Boolean.parseBoolean(settings.getOrDefault("fuse", "false").trim());
+        if (fuse && propagation != PropagationMode.DIRECT) {
+            throw new ConfigurationException("Fusion requires direct propagation");
+        }
+        Set<String> shapedTopics = shapedTopics(configurations);
+        if (!shapedTopics.isEmpty() && propagation != PropagationMode.DIRECT) {
+            throw new ConfigurationException("Subscription shaping requires direct propagation");
+        }
         
         // Clear existing configuration
+        closeActiveAgents();
         topicManager.clear();
         
         // Create topics
         Set<String> allTopics = extractAllTopics(configurations);
         createTopics(allTopics);
+        applyConflation(settings.get("conflate"), conflateInterval, allTopics);
+        applyDistinct(settings.get("distinct"), deadband, allTopics);
+        if (propagation == PropagationMode.FIXPOINT) {
+            // installed before the agents, which may publish around a cycle while being created
+            activeEngine = FixedPointEngine.prepare(topicManager.getTopics(), tolerance, maxIterations, timeBudget);
+        }
+        
+        // Remove duplicated agents
+        AgentDeduplicator deduplicator = new AgentDeduplicator();
+        List<AgentConfiguration> uniqueConfigurations = configurations;
+        if (Boolean.parseBoolean(settings.getOrDefault("dedupe", "true").trim())) {
+            uniqueConfigurations = deduplicator.dedupe(configurations);
+        }
+        Map<String, List<String>> republish = deduplicator.getRepublishTargets();
         
         // Create agents
-        List<Agent> createdAgents = createAgents(configurations);
+        AgentFuser fuser = null;
+        if (fuse) {
+            Set<String> keep = fusionKeepList(settings.get("fuseKeep"), allTopics);
+            keep.addAll(republish.keySet());            // also read by a RepublishAgent
+            keep.addAll(shapedTopics);                  // shaped per subscriber
+            fuser = new AgentFuser(keep);
+        }
+        if (executionMode == ExecutionMode.PLACED) {
+            activePlacement = new AgentPlacement(workers, mailboxDefaults.getCapacity());
+        }
+        List<Agent> createdAgents;
+        try {
+            createdAgents = createAgents(uniqueConfigurations, executionMode, mailboxDefaults, fuser);
+        } catch (ConfigurationException e) {
+            closeActiveAgents();
+            throw e;
+        }
+        if (activePlacement != null) {
+            activePlacement.repartition();              // by structure; repeat at runtime to use observed traffic
+        }
+        for (Map.Entry<String, List<String>> e : republish.entrySet()) {
+            createdAgents.add(new RepublishAgent(e.getKey(), e.getValue().toArray(new String[0])));
+            System.out.println("ConfigurationService: Republishing " + e.getKey() + " to " + e.getValue());
+        }
+        activeAgents = createdAgents;
+        
+        if (propagation == PropagationMode.WAVE || propagation == PropagationMode.PARALLEL) {
+            try {
+                activeEngine = propagation == PropagationMode.WAVE
+                    ? WaveEngine.install(topicManager.getTopics())
+                    : WaveEngine.install(topicManager.getTopics(), new ForkJoinPool(parallelism), parallelThreshold);
+            } catch (IllegalStateException e) {
+                closeActiveAgents();
+                topicManager.clear();
+                throw new ConfigurationException(e.getMessage(), e);
+            }
+        } else if (propagation == PropagationMode.LAZY) {
+            try {
+                activeEngine = LazyEngine.install(topicManager.getTopics(), topicList(settings.get("eager"), allTopics));
+            } catch (IllegalStateException e) {
+                closeActiveAgents();
+                topicManager.clear();
+                throw new ConfigurationException(e.getMessage(), e);
+            }
+        } else if (propagation == PropagationMode.FIXPOINT) {
+            FixedPointEngine engine = (FixedPointEngine) activeEngine;
+            engine.start();
+            System.out.println("ConfigurationService: " + engine.getCyclicComponentCount()
+                + " cyclic components iterate to a fixed point");
+        } else if (propagation == PropagationMode.COMPILED) {
+            try {
+                activeEngine = installPlan(configurations, false);
+            } catch (ConfigurationException e) {
+                closeActiveAgents();
+                topicManager.clear();
+                throw e;
+            }
+        } else if (propagation == PropagationMode.GENERATED) {
+            try {
+                activeEngine = installPlan(configurations, true);
+            } catch (ConfigurationException e) {
+                System.err.println("ConfigurationService: " + e.getMessage() + ", using direct propagation");
+                propagation = PropagationMode.DIRECT;
+            }
+        }
         
         return new ConfigurationResult(
             true, 
             parser.getFormatName(),
             configurations.size(),
             allTopics.size(),
+            deduplicator.getRemovedCount(),
             createdAgents,
-            "Configuration loaded successfully"
+            "Configuration loaded successfully (execution: " + executionMode.getConfigName()
+                + ", propagation: " + propagation.getConfigName()
+                + (fuser != null ? ", fused topics: " + fuser.getInternalTopics().size() : "")
+                + ", deduplicated agents: " + deduplicator.getRemovedCount() + ")"
         );
     }
     
+    /**
+     * @brief Compiles the configuration into an ExecutionPlan and installs it on the topics
+     * @param configurations Agent configurations of the loaded graph
+     * @param generate Whether to replace the plan's interpreted kernel with generated code
+     * @return The installed plan
+     * @throws ConfigurationException if the graph cannot be compiled
+     * 
+     * Used by "compiled" propagation, which runs the graph as primitive
+     * operations over a double[] slot array (acyclic graphs of the standard
+     * agent types only), and by "generated", which also turns the plan into a
+     * hidden class and falls back to direct propagation if compiling fails.
+     */
+    private ExecutionPlan installPlan(List<AgentConfiguration> configurations, boolean generate)
+            throws ConfigurationException {
+        ExecutionPlan plan = planCompiler.compile(configurations, topicManager);
+        if (generate) {
+            long start = System.nanoTime();
+            boolean generated = plan.generateKernel();
+            System.out.println("ConfigurationService: " + (generated ? "Generated" : "Could not generate")
+                + " code for " + plan.getStepCount() + " steps in "
+                + (System.nanoTime() - start) / 1000 + " us");
+        }
+        plan.install();
+        System.out.println("ConfigurationService: Compiled " + plan.getStepCount() + " steps");
+        return plan;
+    }
+    
+    /**
+     * @brief Reads the execution mode from the configuration settings
+     * @param settings Configuration-wide settings
+     * @return The requested mode, or SYNCHRONOUS if none is set
+     * @throws ConfigurationException if the mode is unknown
+     */
+    private ExecutionMode parseExecutionMode(Map<String, String> settings) throws ConfigurationException {
+        return parseSetting(settings, "execution", ExecutionMode.SYNCHRONOUS, ExecutionMode::fromString);
+    }
+    
+    /**
+     * @brief Reads the configuration-wide mailbox settings
+     * @param settings Configuration-wide settings
+     * @param executionMode How the agents run (the shared pool needs a block timeout)
+     * @return Mailbox configuration used by agents that declare no options of their own
+     * @throws ConfigurationException if a setting is invalid
+     * 
+     * "mailbox" picks the ParallelAgent queue ("blocking" or "ring") and
+     * "idle" how a ring mailbox waits ("spin", "yield" or "park").
+     * "capacity", "overflow" ("block", "drop-newest", "drop-oldest",
+     * "conflate" or "spill") and "timeout" (milliseconds a blocked publisher
+     * waits before dropping the message) given here are the defaults that
+     * each agent may override. In "pool" execution the overflow defaults to
+     * "spill", the timeout to 100 ms, and the timeout cannot be 0 for
+     * "block" or "conflate" (see checkMailbox()).
+     */
+    private MailboxConfig parseMailboxDefaults(Map<String, String> settings, ExecutionMode executionMode)
+            throws ConfigurationException {
+        MailboxType type = parseSetting(settings, "mailbox", MailboxType.BLOCKING, MailboxType::fromString);
+        IdleStrategy idle = parseSetting(settings, "idle", IdleStrategy.PARK, IdleStrategy::fromString);
+        try {
+            return checkMailbox(mailboxConfigFor(settings,
+                new MailboxConfig(MailboxConfig.DEFAULT_CAPACITY, type, idle,
+                                  MailboxConfig.defaultFor(executionMode).getOverflowPolicy(),
+                                  MailboxConfig.defaultBlockTimeoutMillis(executionMode))), executionMode);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid mailbox settings: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * @brief Rejects a mailbox that would block shared-pool threads indefinitely
+     * @param mailbox The mailbox configuration
+     * @param executionMode How the agents run
+     * @return The mailbox configuration
+     * @throws IllegalArgumentException if the mode is "pool" and the mailbox waits without a timeout
+     */
+    private MailboxConfig checkMailbox(MailboxConfig mailbox, ExecutionMode executionMode) {
+        if (executionMode == ExecutionMode.SHARED_POOL && mailbox.blocksIndefinitely()) {
+            throw new IllegalArgumentException("pool execution needs a timeout for overflow "
+                + mailbox.getOverflowPolicy().getConfigName());
+        }
+        return mailbox;
+    }
+    
+    /**
+     * @brief Applies "capacity", "overflow" and "timeout" entries to a mailbox configuration
+     * @param options Per-agent options or configuration-wide settings
+     * @param defaults Values used for entries that are absent
+     * @return The resulting mailbox configuration
+     * @throws IllegalArgumentException if an entry is malformed or out of range
+     */
+    private MailboxConfig mailboxConfigFor(Map<String, String> options, MailboxConfig defaults) {
+        String capacity = options.get("capacity");
+        String overflow = options.get("overflow");
+        String timeout  = options.get("timeout");
+        if (capacity == null && overflow == null && timeout == null) {
+            return defaults;
+        }
+        return new MailboxConfig(
+            capacity != null ? Integer.parseInt(capacity.trim()) : defaults.getCapacity(),
+            defaults.getType(),
+            defaults.getIdleStrategy(),
+            overflow != null ? OverflowPolicy.fromString(overflow) : defaults.getOverflowPolicy(),
+            timeout != null ? Long.parseLong(timeout.trim()) : defaults.getBlockTimeoutMillis());
+    }
+    
+    /**
+     * @brief Reads one enumerated setting from the configuration settings
+     * @param settings Configuration-wide settings
+     * @param key The setting name
+     * @param defaultValue Value used when the setting is absent or blank
+     * @param parser Converts the setting text, throwing IllegalArgumentException if unknown
+     * @return The parsed value, or defaultValue
+     * @throws ConfigurationException if the value is not recognized
+     */
+    private <T> T parseSetting(Map<String, String> settings, String key, T defaultValue,
+                               Function<String, T> parser) throws ConfigurationException {
+        String value = settings.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * @brief Closes the agents of the previously loaded configuration
+     * 
+     * Uninstalls the propagation engine, stops the shaping timers and the
+     * placement's worker threads, then stops ParallelAgent workers and
+     * unsubscribes every agent, so that reloading a configuration does not
+     * leak threads or stale subscribers, and no agent runs once it is closed.
+     */
+    private void closeActiveAgents() {
+        if (activeEngine != null) {
+            activeEngine.uninstall();
+            activeEngine = null;
+        }
+        for (Topic topic : topicManager.getTopics()) {
+            topic.clearShaping();                       // stops their timers before the agents go
+        }
+        if (activePlacement != null) {
+            activePlacement.shutdown();                 // before its agents hand their subscriptions back
+            activePlacement = null;
+        }
+        for (Agent agent : activeAgents) {
+            try {
+                agent.close();
+            } catch (RuntimeException e) {
+                System.err.println("ConfigurationService: Failed to close " + agent.getName() + ": " + e.getMessage());
+            }
+        }
+        activeAgents = new ArrayList<>();
+    }
+    
     /**
      * @brief Finds the appropriate parser for the given configuration content
      * @param configContent The configuration content
@@ -138,6 +492,151 @@ public class ConfigurationService {
         return allTopics;
     }
     
+    /**
+     * @brief Reads the minimum delivery interval of conflating topics
+     * @param settings Configuration-wide settings
+     * @return The interval in milliseconds (0 if not set)
+     * @throws ConfigurationException if the value is not a non-negative number
+     */
+    private long parseConflateInterval(Map<String, String> settings) throws ConfigurationException {
+        String value = settings.get("conflateInterval");
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            long interval = Long.parseLong(value.trim());
+            if (interval < 0) {
+                throw new ConfigurationException("conflateInterval cannot be negative: " + value);
+            }
+            return interval;
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid conflateInterval: " + value, e);
+        }
+    }
+    
+    /**
+     * @brief Reads the deadband of distinct topics
+     * @param settings Configuration-wide settings
+     * @return The deadband (0 if not set)
+     * @throws ConfigurationException if the value is not a non-negative number
+     */
+    private double parseDeadband(Map<String, String> settings) throws ConfigurationException {
+        return parseNonNegativeDouble(settings, "deadband", 0);
+    }
+    
+    /**
+     * @brief Reads a non-negative decimal setting
+     * @param settings Configuration-wide settings
+     * @param key The setting's name
+     * @param defaultValue Value used when the setting is absent
+     * @return The setting's value
+     * @throws ConfigurationException if the value is not a non-negative number
+     */
+    private double parseNonNegativeDouble(Map<String, String> settings, String key, double defaultValue)
+            throws ConfigurationException {
+        String value = settings.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            double d = Double.parseDouble(value.trim());
+            if (!(d >= 0)) {
+                throw new ConfigurationException(key + " must be a non-negative number: " + value);
+            }
+            return d;
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid " + key + ": " + value, e);
+        }
+    }
+    
+    /**
+     * @brief Reads a positive integer setting
+     * @param settings Configuration-wide settings
+     * @param key The setting's name
+     * @param defaultValue Value used when the setting is absent
+     * @return The setting's value
+     * @throws ConfigurationException if the value is not a positive number
+     */
+    private int parsePositiveInt(Map<String, String> settings, String key, int defaultValue)
+            throws ConfigurationException {
+        String value = settings.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int n = Integer.parseInt(value.trim());
+            if (n <= 0) {
+                throw new ConfigurationException(key + " must be positive: " + value);
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid " + key + ": " + value, e);
+        }
+    }
+    
+    /**
+     * @brief Makes the listed topics drop values that do not change them
+     * @param topicList Comma-separated topic names, "*" for all, or null for none
+     * @param deadband Largest numeric difference treated as unchanged
+     * @param allTopics Names of the topics of this configuration
+     * 
+     * Applies the "distinct" setting: a listed topic drops a value equal to
+     * the last one it let through, or within "deadband" of it for numbers.
+     */
+    private void applyDistinct(String topicList, double deadband, Set<String> allTopics) {
+        for (String name : topicList(topicList, allTopics)) {
+            if (!allTopics.contains(name)) {
+                System.err.println("ConfigurationService: Cannot make unknown topic distinct: " + name);
+                continue;
+            }
+            topicManager.getTopic(name).setDistinct(deadband);
+            System.out.println("ConfigurationService: Topic " + name + " is distinct (deadband " + deadband + ")");
+        }
+    }
+    
+    /**
+     * @brief Switches the listed topics to conflating delivery
+     * @param topicList Comma-separated topic names, "*" for all, or null for none
+     * @param minIntervalMillis Minimum time between deliveries to one subscriber
+     * @param allTopics Names of the topics of this configuration
+     * 
+     * Applies the "conflate" setting: a listed topic delivers only the latest
+     * value to each subscriber, at most once every "conflateInterval" ms.
+     * Conflation requires direct propagation and thread, pool or placed
+     * execution.
+     */
+    private void applyConflation(String topicList, long minIntervalMillis, Set<String> allTopics) {
+        for (String name : topicList(topicList, allTopics)) {
+            if (!allTopics.contains(name)) {
+                System.err.println("ConfigurationService: Cannot conflate unknown topic: " + name);
+                continue;
+            }
+            topicManager.getTopic(name).setConflating(minIntervalMillis);
+            System.out.println("ConfigurationService: Topic " + name + " is conflating");
+        }
+    }
+    
+    /**
+     * @brief Parses a comma-separated list of topic names
+     * @param topicList Topic names, "*" for all topics, or null for none
+     * @param allTopics Names of the topics of this configuration
+     * @return The listed names
+     */
+    private Set<String> topicList(String topicList, Set<String> allTopics) {
+        Set<String> names = new HashSet<>();
+        if (topicList == null) {
+            return names;
+        }
+        for (String name : topicList.split(",")) {
+            if (name.trim().equals("*")) {
+                names.addAll(allTopics);
+            } else if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+    
     /**
      * @brief Creates topics in the TopicManager
      * @param topicNames Set of topic names to create
@@ -153,14 +652,46 @@ public class ConfigurationService {
         }
     }
     
+    /**
+     * @brief Collects the topics that fusion must leave visible
+     * @param topicList Comma-separated topic names from the "fuseKeep" setting, or null
+     * @param allTopics Names of the topics of this configuration
+     * @return The listed topics plus every conflating or distinct topic
+     * 
+     * With "fuse" = "true", agents linked by single-publisher,
+     * single-subscriber topics are merged into FusedAgents that run in-line
+     * and those topics are hidden; the topics returned here never are.
+     * Fusion requires direct propagation.
+     */
+    private Set<String> fusionKeepList(String topicList, Set<String> allTopics) {
+        Set<String> keep = topicList(topicList, allTopics);
+        for (String name : allTopics) {
+            Topic topic = topicManager.getTopic(name);
+            if (topic.isConflating() || topic.isDistinct()) keep.add(name);
+        }
+        return keep;
+    }
+    
     /**
      * @brief Creates agent instances from configurations
      * @param configurations List of agent configurations
+     * @param executionMode How the created agents should be executed
+     * @param mailboxDefaults Mailbox used by ParallelAgent wrappers unless an agent overrides it
+     * @param fuser Groups agents to fuse, or null to keep every agent separate
      * @return List of created agent instances
      * @throws ConfigurationException if any agent creation fails
+     * 
+     * A group whose wrappers cannot be set up is closed and reported like an
+     * agent that could not be created. So is, in "sync" execution, an agent
+     * that would publish from a timer (see AgentFactory.publishesFromTimer()).
      */
-    private List<Agent> createAgents(List<AgentConfiguration> configurations) throws ConfigurationException {
-        List<Agent> createdAgents = new ArrayList<>();
+    private List<Agent> createAgents(List<AgentConfiguration> configurations, ExecutionMode executionMode,
+                                     MailboxConfig mailboxDefaults, AgentFuser fuser)
+            throws ConfigurationException {
+        List<Agent> coreAgents = new ArrayList<>();
+        List<AgentConfiguration> created = new ArrayList<>();
+        List<MailboxConfig> mailboxes = new ArrayList<>();
+        List<Map<String, ShapingConfig>> shapings = new ArrayList<>();
         List<String> failures = new ArrayList<>();
         
         System.out.println("ConfigurationService: Creating " + configurations.size() + " agents");
@@ -172,8 +703,39 @@ public class ConfigurationService {
                     continue;
                 }
                 
-                Agent agent = agentFactory.createAgent(config);
-                createdAgents.add(agent);
+                List<String> unknown = unknownOptions(config, executionMode);
+                if (!unknown.isEmpty()) {
+                    failures.add("Unknown options for " + config.getAgentClass() + ": " + unknown);
+                    continue;
+                }
+                
+                if (executionMode == ExecutionMode.SYNCHRONOUS && agentFactory.publishesFromTimer(config)) {
+                    // the timer would call the downstream agents concurrently with their publishers
+                    failures.add(config.getAgentClass() + " with these options publishes from a timer"
+                        + " and needs thread, pool or placed execution");
+                    continue;
+                }
+                
+                MailboxConfig mailbox;
+                try {
+                    mailbox = checkMailbox(mailboxConfigFor(config.getOptions(), mailboxDefaults), executionMode);
+                } catch (IllegalArgumentException e) {
+                    failures.add("Invalid mailbox options for " + config.getAgentClass() + ": " + e.getMessage());
+                    continue;
+                }
+                
+                Map<String, ShapingConfig> shaping;
+                try {
+                    shaping = shapingFor(config, executionMode);
+                } catch (IllegalArgumentException e) {
+                    failures.add("Invalid subscription options for " + config.getAgentClass() + ": " + e.getMessage());
+                    continue;
+                }
+                
+                coreAgents.add(agentFactory.createAgent(config));
+                created.add(config);
+                mailboxes.add(mailbox);
+                shapings.add(shaping);
                 System.out.println("ConfigurationService: Created agent: " + config.getAgentClass());
                 
             } catch (AgentCreationException e) {
@@ -183,6 +745,55 @@ public class ConfigurationService {
             }
         }
         
+        List<List<Integer>> groups = new ArrayList<>();
+        if (fuser != null) {
+            groups = fuser.group(created);
+            for (String topic : fuser.getInternalTopics()) {
+                topicManager.remove(topic);
+            }
+        } else {
+            for (int i = 0; i < created.size(); i++) groups.add(List.of(i));
+        }
+        
+        List<Agent> createdAgents = new ArrayList<>();
+        for (List<Integer> group : groups) {
+            int head = group.get(0);
+            Agent agent = coreAgents.get(head);
+            try {
+                String[] subscriptions = created.get(head).getSubscriptions();
+                if (group.size() > 1) {
+                    FusedAgent fused = fuseGroup(group, coreAgents, created, fuser.getInternalTopics());
+                    System.out.println("ConfigurationService: Fused " + fused.getName());
+                    agent = fused;
+                    subscriptions = fused.getSubscriptions();
+                }
+                if (isMemoized(group, created)) {
+                    List<String> publications = new ArrayList<>();
+                    for (int k : group) publications.addAll(Arrays.asList(created.get(k).getPublications()));
+                    agent = new MemoAgent(agent, subscriptions, publications.toArray(new String[0]));
+                    System.out.println("ConfigurationService: Memoizing inputs of " + agent.getName());
+                }
+                if (executionMode == ExecutionMode.PLACED) {
+                    agent = new PlacedAgent(agent, subscriptions, activePlacement);
+                } else if (executionMode != ExecutionMode.SYNCHRONOUS) {
+                    agent = new ParallelAgent(agent, executionMode, subscriptions, mailboxes.get(head));
+                }
+                applyShaping(agent, group, shapings, failures);
+            } catch (RuntimeException e) {
+                // a wrapper closes what it wraps; before fusion succeeded, close the members one by one
+                if (agent == coreAgents.get(head)) {
+                    for (int k : group) coreAgents.get(k).close();
+                } else {
+                    agent.close();
+                }
+                String errorMsg = "Failed to set up " + agent.getName() + ": " + e.getMessage();
+                failures.add(errorMsg);
+                System.err.println("ConfigurationService: " + errorMsg);
+                continue;
+            }
+            createdAgents.add(agent);
+        }
+        
         if (!failures.isEmpty() && createdAgents.isEmpty()) {
             // All agents failed - throw exception
             throw new ConfigurationException("Failed to create any agents: " + String.join("; ", failures));
@@ -193,4 +804,146 @@ public class ConfigurationService {
         
         return createdAgents;
     }
+    
+    /**
+     * @brief Lists the per-agent options that nothing would read
+     * @param config The agent configuration
+     * @param executionMode How the agents run
+     * @return Names of the unknown options (empty if all are understood)
+     * 
+     * Understood are "memo", the options the factory reads for the agent's
+     * type and, in "thread" and "pool" execution, the mailbox options.
+     */
+    private List<String> unknownOptions(AgentConfiguration config, ExecutionMode executionMode) {
+        boolean mailboxes = executionMode == ExecutionMode.DEDICATED_THREAD
+                         || executionMode == ExecutionMode.SHARED_POOL;
+        Set<String> known = agentFactory.getOptionNames(config.getAgentClass());
+        List<String> unknown = new ArrayList<>();
+        for (String key : config.getOptions().keySet()) {
+            if (!key.equals("memo") && !known.contains(key) && !(mailboxes && MAILBOX_OPTIONS.contains(key))) {
+                unknown.add(key);
+            }
+        }
+        return unknown;
+    }
+    
+    /**
+     * @brief Collects the topics that some agent subscribes to with inline options
+     * @param configurations The agent configurations
+     * @return Names of the shaped topics
+     * 
+     * A subscription such as "Sensor[throttle=20]" makes the agent receive
+     * only the messages a RateShaper lets through (see ShapingConfig), without
+     * an extra agent and topic. Shaping requires direct propagation, and
+     * shaped topics are never fused away.
+     */
+    private Set<String> shapedTopics(List<AgentConfiguration> configurations) {
+        Set<String> topics = new HashSet<>();
+        for (AgentConfiguration config : configurations) {
+            topics.addAll(config.getSubscriptionOptions().keySet());
+        }
+        return topics;
+    }
+    
+    /**
+     * @brief Reads the inline shaping options of an agent's subscriptions
+     * @param config The agent configuration
+     * @param executionMode How the agents run
+     * @return Shaping of each shaped topic (empty if none)
+     * @throws IllegalArgumentException if an option is unknown or invalid, a shaped topic
+     *         conflates, or a timer would call a synchronous agent
+     * 
+     * Timer deliveries of a shaper run on the shared pool while the agent's
+     * other inputs still arrive on the publishing threads, so "sync"
+     * execution only allows shaping that forwards on the publishing thread:
+     * "deadband" and a throttle with "trailing" = "false".
+     */
+    private Map<String, ShapingConfig> shapingFor(AgentConfiguration config, ExecutionMode executionMode) {
+        Map<String, ShapingConfig> shapings = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, String>> e : config.getSubscriptionOptions().entrySet()) {
+            for (String key : e.getValue().keySet()) {
+                if (!ShapingConfig.OPTION_NAMES.contains(key)) {
+                    throw new IllegalArgumentException("Unknown option '" + key + "' on " + e.getKey());
+                }
+            }
+            if (topicManager.getTopic(e.getKey()).isConflating()) {
+                throw new IllegalArgumentException(e.getKey() + " is conflating and cannot be shaped");
+            }
+            ShapingConfig shaping = ShapingConfig.fromOptions(e.getValue());
+            if (executionMode == ExecutionMode.SYNCHRONOUS && shaping.forwardsLater()) {
+                throw new IllegalArgumentException(e.getKey() + ": " + shaping.getMode().getConfigName()
+                    + (shaping.getMode() == ShapingMode.THROTTLE ? " with trailing delivery" : "")
+                    + " needs thread, pool or placed execution");
+            }
+            shapings.put(e.getKey(), shaping);
+        }
+        return shapings;
+    }
+    
+    /**
+     * @brief Installs the subscription shaping of a group of agents on its final subscriber
+     * @param agent The agent (or wrapper) subscribed for the group
+     * @param group Indices of the agents
+     * @param shapings Shaping of each created agent
+     * @param failures Collects shaping that could not be installed
+     * 
+     * A fused group shares the shaping of its members; conflicting shaping of
+     * the same topic keeps the first one.
+     */
+    private void applyShaping(Agent agent, List<Integer> group, List<Map<String, ShapingConfig>> shapings,
+                              List<String> failures) {
+        Map<String, ShapingConfig> merged = new LinkedHashMap<>();
+        for (int k : group) {
+            for (Map.Entry<String, ShapingConfig> e : shapings.get(k).entrySet()) {
+                ShapingConfig previous = merged.putIfAbsent(e.getKey(), e.getValue());
+                if (previous != null && !previous.equals(e.getValue())) {
+                    failures.add("Conflicting shaping of " + e.getKey() + " in " + agent.getName()
+                        + ", keeping " + previous);
+                }
+            }
+        }
+        for (Map.Entry<String, ShapingConfig> e : merged.entrySet()) {
+            topicManager.getTopic(e.getKey()).shape(agent, e.getValue());
+            System.out.println("ConfigurationService: Shaping " + e.getKey() + " for " + agent.getName()
+                + ": " + e.getValue());
+        }
+    }
+    
+    /**
+     * @brief Tells whether every agent of a group declared "memo" = "true"
+     * @param group Indices of the agents
+     * @param created Configurations of the created agents
+     * @return true if the group's inputs should be memoized
+     * 
+     * A memoized agent is wrapped in a MemoAgent that skips it when an input
+     * repeats its last value, so "memo" suits pure agents only.
+     */
+    private boolean isMemoized(List<Integer> group, List<AgentConfiguration> created) {
+        for (int k : group) {
+            String memo = created.get(k).getOption("memo");
+            if (memo == null || !Boolean.parseBoolean(memo.trim())) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * @brief Wraps one group of created agents in a FusedAgent
+     * @param group Indices of the members, upstream first
+     * @param coreAgents Created agents
+     * @param created Configurations of the created agents
+     * @param internal Topics linking the members
+     * @return The fused agent
+     */
+    private FusedAgent fuseGroup(List<Integer> group, List<Agent> coreAgents, List<AgentConfiguration> created,
+                                 Set<String> internal) {
+        Agent[] members = new Agent[group.size()];
+        String[][] subscriptions = new String[group.size()][];
+        String[][] publications = new String[group.size()][];
+        for (int k = 0; k < group.size(); k++) {
+            members[k] = coreAgents.get(group.get(k));
+            subscriptions[k] = created.get(group.get(k)).getSubscriptions();
+            publications[k] = created.get(group.get(k)).getPublications();
+        }
+        return new FusedAgent(members, subscriptions, publications, internal);
+    }
 }
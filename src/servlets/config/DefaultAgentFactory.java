@@ -1,10 +1,20 @@
 package servlets.config;
 
 import graph.Agent;
+import graph.AggregateAgent;
+import graph.DoubleBinaryAgent;
+import graph.Ewma;
 import graph.TopicManagerSingleton;
 import graph.TopicManagerSingleton.TopicManager;
 import graph.Topic;
 import graph.Message;
+import graph.ShapingConfig;
+import graph.WindowFunction;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 /**
  * @file DefaultAgentFactory.java
@@ -14,7 +24,22 @@ import graph.Message;
  * @version 1.0
  * 
  * This factory creates instances of the standard agent types (PlusAgent, IncAgent, etc.)
- * and handles initial value processing for reactive agents.
+ * and handles initial value processing for reactive agents. The binary operator types
+ * all belong to the DoubleBinaryAgent family and are created from one table; the
+ * N-ary aggregates (SumAgent, AvgAgent, MinAgent, MaxAgent, CountAgent) from another.
+ * 
+ * The window agents (SlidingWindowAgent, TumblingWindowAgent) read their per-agent
+ * options: "size" (values per window) or "span" (window length in milliseconds), and
+ * "function" (sum, avg, min, max, count or rate; default avg).
+ * 
+ * The statistics agents (EwmaAgent, VarianceAgent, QuantileAgent) read "outputs" (the
+ * statistic published to each publication, e.g. "p50,p99"), "interval" (minimum
+ * milliseconds between publications), and "alpha" or "halfLife" (EwmaAgent) or
+ * "accuracy" (QuantileAgent).
+ * 
+ * The rate-shaping agents read the option named after them: "sample" or "debounce"
+ * (milliseconds), "throttle" (messages per second, with "leading" and "trailing") or
+ * "deadband" (smallest forwarded change); see ShapingConfig.
  */
 public class DefaultAgentFactory implements AgentFactory {
     
@@ -23,9 +48,49 @@ public class DefaultAgentFactory implements AgentFactory {
     
     /** @brief Array of supported agent types */
     private static final String[] SUPPORTED_TYPES = {
-        "PlusAgent", "IncAgent", "MulAgent", "DivAgent", "SubAgent"
+        "PlusAgent", "IncAgent", "MulAgent", "DivAgent", "SubAgent",
+        "SumAgent", "AvgAgent", "MinAgent", "MaxAgent", "CountAgent",
+        "SlidingWindowAgent", "TumblingWindowAgent",
+        "EwmaAgent", "VarianceAgent", "QuantileAgent",
+        "SampleAgent", "DebounceAgent", "ThrottleAgent", "DeadbandAgent"
     };
     
+    /** @brief EWMA weight per value used when neither "alpha" nor "halfLife" is given */
+    private static final double DEFAULT_ALPHA = 0.1;
+    
+    /** @brief Constructors of the DoubleBinaryAgent types, by class name */
+    private static final Map<String, BiFunction<String[], String[], DoubleBinaryAgent>> BINARY_AGENTS = Map.of(
+        "PlusAgent", configs.PlusAgent::new,
+        "SubAgent",  configs.SubAgent::new,
+        "MulAgent",  configs.MulAgent::new,
+        "DivAgent",  configs.DivAgent::new
+    );
+    
+    /** @brief Constructors of the AggregateAgent types, by class name */
+    private static final Map<String, BiFunction<String[], String[], AggregateAgent>> AGGREGATE_AGENTS = Map.of(
+        "SumAgent",   configs.SumAgent::new,
+        "AvgAgent",   configs.AvgAgent::new,
+        "MinAgent",   configs.MinAgent::new,
+        "MaxAgent",   configs.MaxAgent::new,
+        "CountAgent", configs.CountAgent::new
+    );
+    
+    /** @brief Options read by the window agents */
+    private static final Set<String> WINDOW_OPTIONS = Set.of("size", "span", "function");
+    
+    /** @brief Per-agent options read by each agent type that takes any */
+    private static final Map<String, Set<String>> OPTION_NAMES = Map.of(
+        "SlidingWindowAgent",  WINDOW_OPTIONS,
+        "TumblingWindowAgent", WINDOW_OPTIONS,
+        "EwmaAgent",     Set.of("outputs", "interval", "alpha", "halfLife"),
+        "VarianceAgent", Set.of("outputs", "interval"),
+        "QuantileAgent", Set.of("outputs", "interval", "accuracy"),
+        "SampleAgent",   ShapingConfig.OPTION_NAMES,
+        "DebounceAgent", ShapingConfig.OPTION_NAMES,
+        "ThrottleAgent", ShapingConfig.OPTION_NAMES,
+        "DeadbandAgent", ShapingConfig.OPTION_NAMES
+    );
+    
     /**
      * @brief Constructor
      */
@@ -40,7 +105,7 @@ public class DefaultAgentFactory implements AgentFactory {
         String[] publications = config.getPublications();
         
         try {
-            Agent agent = createAgentInstance(agentClass, subscriptions, publications);
+            Agent agent = createAgentInstance(agentClass, subscriptions, publications, config.getOptions());
             initializeAgentWithExistingValues(agent, agentClass, subscriptions);
             return agent;
         } catch (Exception e) {
@@ -64,33 +129,168 @@ public class DefaultAgentFactory implements AgentFactory {
         return SUPPORTED_TYPES.clone();
     }
     
+    @Override
+    public Set<String> getOptionNames(String agentClass) {
+        return OPTION_NAMES.getOrDefault(agentClass, Set.of());
+    }
+    
+    @Override
+    public boolean publishesFromTimer(AgentConfiguration config) {
+        Map<String, String> options = config.getOptions();
+        try {
+            switch (config.getAgentClass()) {
+                case "SampleAgent":
+                case "DebounceAgent":
+                case "ThrottleAgent":
+                    return ShapingConfig.fromOptions(options).forwardsLater();
+                case "TumblingWindowAgent":
+                    return windowSpan(options) > 0;     // closes time windows on the timer
+                case "EwmaAgent":
+                case "VarianceAgent":
+                case "QuantileAgent":
+                    return statisticInterval(options) > 0;  // flushes throttled outputs on the timer
+                default:
+                    return false;
+            }
+        } catch (IllegalArgumentException e) {
+            return false;                               // reported by createAgent()
+        }
+    }
+    
     /**
      * @brief Creates an agent instance based on the agent class name
      * @param agentClass The agent class name
      * @param subscriptions Array of subscription topics
      * @param publications Array of publication topics
+     * @param options Per-agent options
      * @return The created agent instance
      * @throws AgentCreationException if agent creation fails
      */
-    private Agent createAgentInstance(String agentClass, String[] subscriptions, String[] publications) 
-            throws AgentCreationException {
+    private Agent createAgentInstance(String agentClass, String[] subscriptions, String[] publications,
+                                      Map<String, String> options) throws AgentCreationException {
         
+        BiFunction<String[], String[], DoubleBinaryAgent> binary = BINARY_AGENTS.get(agentClass);
+        if (binary != null) {
+            return binary.apply(subscriptions, publications);
+        }
+        BiFunction<String[], String[], AggregateAgent> aggregate = AGGREGATE_AGENTS.get(agentClass);
+        if (aggregate != null) {
+            return aggregate.apply(subscriptions, publications);
+        }
         switch (agentClass) {
-            case "PlusAgent":
-                return new configs.PlusAgent(subscriptions, publications);
             case "IncAgent":
                 return new configs.IncAgent(subscriptions, publications);
-            case "MulAgent":
-                return new configs.MulAgent(subscriptions, publications);
-            case "DivAgent":
-                return new configs.DivAgent(subscriptions, publications);
-            case "SubAgent":
-                return new configs.SubAgent(subscriptions, publications);
+            case "SlidingWindowAgent":
+                return new configs.SlidingWindowAgent(subscriptions, publications,
+                    windowFunction(options), windowSize(options), windowSpan(options));
+            case "TumblingWindowAgent":
+                return new configs.TumblingWindowAgent(subscriptions, publications,
+                    windowFunction(options), windowSize(options), windowSpan(options));
+            case "EwmaAgent":
+                return new configs.EwmaAgent(subscriptions, publications, ewma(options),
+                    statisticOutputs(options), statisticInterval(options));
+            case "VarianceAgent":
+                return new configs.VarianceAgent(subscriptions, publications,
+                    statisticOutputs(options), statisticInterval(options));
+            case "QuantileAgent":
+                return new configs.QuantileAgent(subscriptions, publications, quantileAccuracy(options),
+                    statisticOutputs(options), statisticInterval(options));
+            case "SampleAgent":
+                return new configs.SampleAgent(subscriptions, publications, ShapingConfig.fromOptions(options));
+            case "DebounceAgent":
+                return new configs.DebounceAgent(subscriptions, publications, ShapingConfig.fromOptions(options));
+            case "ThrottleAgent":
+                return new configs.ThrottleAgent(subscriptions, publications, ShapingConfig.fromOptions(options));
+            case "DeadbandAgent":
+                return new configs.DeadbandAgent(subscriptions, publications, ShapingConfig.fromOptions(options));
             default:
                 throw new AgentCreationException("Unknown agent type: " + agentClass, agentClass);
         }
     }
     
+    /**
+     * @brief Reads the "function" option of a window agent
+     * @param options Per-agent options
+     * @return The window function (AVG if absent)
+     * @throws IllegalArgumentException if the function is unknown
+     */
+    private static WindowFunction windowFunction(Map<String, String> options) {
+        String function = options.get("function");
+        return function != null ? WindowFunction.fromString(function) : WindowFunction.AVG;
+    }
+    
+    /**
+     * @brief Reads the "size" option of a window agent
+     * @param options Per-agent options
+     * @return Values per window, or 0 if absent
+     * @throws NumberFormatException if the size is not a number
+     */
+    private static int windowSize(Map<String, String> options) {
+        String size = options.get("size");
+        return size != null ? Integer.parseInt(size.trim()) : 0;
+    }
+    
+    /**
+     * @brief Reads the "span" option of a window agent
+     * @param options Per-agent options
+     * @return Window length in milliseconds, or 0 if absent
+     * @throws NumberFormatException if the span is not a number
+     */
+    private static long windowSpan(Map<String, String> options) {
+        String span = options.get("span");
+        return span != null ? Long.parseLong(span.trim()) : 0;
+    }
+    
+    /**
+     * @brief Reads the "alpha" or "halfLife" option of an EWMA agent
+     * @param options Per-agent options
+     * @return The average to maintain (alpha DEFAULT_ALPHA if neither is given)
+     * @throws IllegalArgumentException if both are given or a value is invalid
+     */
+    private static Ewma ewma(Map<String, String> options) {
+        String alpha = options.get("alpha");
+        String halfLife = options.get("halfLife");
+        if (alpha != null && halfLife != null) {
+            throw new IllegalArgumentException("EwmaAgent takes either alpha or halfLife, not both");
+        }
+        if (halfLife != null) {
+            return Ewma.withHalfLife(Double.parseDouble(halfLife.trim()));
+        }
+        return Ewma.withAlpha(alpha != null ? Double.parseDouble(alpha.trim()) : DEFAULT_ALPHA);
+    }
+    
+    /**
+     * @brief Reads the "accuracy" option of a quantile agent
+     * @param options Per-agent options
+     * @return Relative accuracy of the quantiles (QuantileAgent.DEFAULT_ACCURACY if absent)
+     * @throws NumberFormatException if the accuracy is not a number
+     */
+    private static double quantileAccuracy(Map<String, String> options) {
+        String accuracy = options.get("accuracy");
+        return accuracy != null ? Double.parseDouble(accuracy.trim()) : configs.QuantileAgent.DEFAULT_ACCURACY;
+    }
+    
+    /**
+     * @brief Reads the "outputs" option of a statistics agent
+     * @param options Per-agent options
+     * @return Output names (comma-separated in the option), or null for the defaults
+     */
+    private static String[] statisticOutputs(Map<String, String> options) {
+        String outputs = options.get("outputs");
+        return outputs != null ? outputs.trim().split("\\s*,\\s*") : null;
+    }
+    
+    /**
+     * @brief Reads the "interval" option of a statistics agent
+     * @param options Per-agent options
+     * @return Minimum milliseconds between publications, or 0 if absent
+     * @throws NumberFormatException if the interval is not a number
+     */
+    private static long statisticInterval(Map<String, String> options) {
+        String interval = options.get("interval");
+        return interval != null ? Long.parseLong(interval.trim()) : 0;
+    }
+    
     /**
      * @brief Initializes an agent with existing topic values for reactive behavior
      * @param agent The agent instance to initialize
@@ -103,18 +303,15 @@ public class DefaultAgentFactory implements AgentFactory {
         }
         
         try {
-            switch (agentClass) {
-                case "PlusAgent":
-                case "MulAgent":
-                case "DivAgent":
-                case "SubAgent":
-                    // Binary operation agents need both inputs
-                    initializeBinaryAgent(agent, subscriptions);
-                    break;
-                case "IncAgent":
-                    // Unary operation agents need single input
-                    initializeUnaryAgent(agent, subscriptions);
-                    break;
+            if (agent instanceof DoubleBinaryAgent) {
+                // Binary operation agents need both inputs
+                initializeBinaryAgent(agent, subscriptions);
+            } else if (agent instanceof AggregateAgent) {
+                // Aggregates work on whichever inputs already have a value
+                initializeAggregateAgent((AggregateAgent) agent, subscriptions);
+            } else if ("IncAgent".equals(agentClass)) {
+                // Unary operation agents need single input
+                initializeUnaryAgent(agent, subscriptions);
             }
         } catch (Exception e) {
             System.err.println("Warning: Failed to initialize agent with existing values: " + e.getMessage());
@@ -157,6 +354,27 @@ public class DefaultAgentFactory implements AgentFactory {
         }
     }
     
+    /**
+     * @brief Initializes aggregate agents with the existing values of their inputs
+     * @param agent The agent instance
+     * @param subscriptions Array of subscription topics
+     */
+    private void initializeAggregateAgent(AggregateAgent agent, String[] subscriptions) {
+        Set<String> fed = new HashSet<>();
+        for (String topicName : subscriptions) {
+            if (!fed.add(topicName) || !topicManager.containsTopic(topicName)) {
+                continue;
+            }
+            Message lastMsg = topicManager.getTopic(topicName).getLastMessage();
+            if (lastMsg != null) {
+                agent.callback(topicName, lastMsg);
+            }
+        }
+        if (agent.getPresentCount() > 0) {
+            System.out.println("DefaultAgentFactory: Initialized aggregate agent with existing values");
+        }
+    }
+    
     /**
      * @brief Initializes unary operation agents with existing topic values
      * @param agent The agent instance
@@ -1,7 +1,12 @@
 package servlets.config;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @file JsonFormatParser.java
@@ -13,9 +18,22 @@ import java.util.List;
  * This parser handles JSON configuration files with agent definitions.
  * Uses manual JSON parsing to avoid external dependencies while providing
  * robust error handling and validation.
+ * 
+ * The document is scanned member by member: string literals (with their
+ * escapes) and nested objects and arrays are skipped as a whole, so keys
+ * and brackets inside values are never mistaken for structure.
+ * 
+ * An optional top-level "settings" object holds configuration-wide options,
+ * e.g. {"settings": {"execution": "pool"}, "agents": [...]}.
+ * Any other scalar entry of an agent object (e.g. "capacity": 256,
+ * "overflow": "drop-oldest") is passed on as a per-agent option.
  */
 public class JsonFormatParser implements ConfigurationParser {
     
+    /** @brief Agent object keys that describe the agent itself rather than options */
+    private static final Set<String> AGENT_KEYS = new HashSet<>(
+            Arrays.asList("name", "type", "agentClass", "subscriptions", "publications"));
+    
     @Override
     public List<AgentConfiguration> parseConfiguration(String configContent) throws ConfigurationException {
         if (configContent == null || configContent.trim().isEmpty()) {
@@ -29,19 +47,23 @@ public class JsonFormatParser implements ConfigurationParser {
             for (int i = 0; i < agentObjects.length; i++) {
                 try {
                     String agentJson = agentObjects[i];
+                    Map<String, int[]> fields = members(agentJson, 0, "agent");
+                    Map<String, String> options = entries(agentJson, fields);
                     
-                    String agentClass = extractStringValue(agentJson, "type");
+                    String agentClass = options.getOrDefault("type", "");
                     if (agentClass.isEmpty()) {
-                        agentClass = extractStringValue(agentJson, "agentClass");
+                        agentClass = options.getOrDefault("agentClass", "");
                     }
                     
-                    String[] subscriptions = extractArrayValue(agentJson, "subscriptions");
-                    String[] publications = extractArrayValue(agentJson, "publications");
+                    String[] subscriptions = stringArray(agentJson, fields.get("subscriptions"));
+                    String[] publications = stringArray(agentJson, fields.get("publications"));
+                    options.keySet().removeAll(AGENT_KEYS);
                     
                     // Extract simple class name
                     String simpleClassName = extractSimpleClassName(agentClass);
                     
-                    AgentConfiguration config = new AgentConfiguration(simpleClassName, subscriptions, publications);
+                    AgentConfiguration config = new AgentConfiguration(
+                        simpleClassName, subscriptions, publications, options);
                     
                     if (!config.isValid()) {
                         throw new ConfigurationException(
@@ -91,6 +113,14 @@ public class JsonFormatParser implements ConfigurationParser {
         return "JSON";
     }
     
+    @Override
+    public Map<String, String> parseSettings(String configContent) throws ConfigurationException {
+        if (configContent == null) {
+            return new LinkedHashMap<>();
+        }
+        return extractObjectEntries(configContent, "settings");
+    }
+    
     /**
      * @brief Extracts agent objects from the JSON agents array
      * @param jsonContent Full JSON configuration content
@@ -100,35 +130,18 @@ public class JsonFormatParser implements ConfigurationParser {
     private String[] extractAgentObjects(String jsonContent) throws ConfigurationException {
         List<String> agents = new ArrayList<>();
         
-        // Find the agents array
-        int agentsStart = jsonContent.indexOf("\"agents\"");
-        if (agentsStart == -1) {
+        // Find the top-level agents array
+        int[] array = topLevelMember(jsonContent, "agents");
+        if (array == null) {
             throw new ConfigurationException("Missing 'agents' array in JSON configuration", "JSON");
         }
-        
-        int arrayStart = jsonContent.indexOf("[", agentsStart);
-        if (arrayStart == -1) {
+        if (jsonContent.charAt(array[0]) != '[') {
             throw new ConfigurationException("Invalid 'agents' array format", "JSON");
         }
         
-        int level = 0;
-        int objStart = -1;
-        
-        for (int i = arrayStart; i < jsonContent.length(); i++) {
-            char c = jsonContent.charAt(i);
-            
-            if (c == '{') {
-                if (level == 0) {
-                    objStart = i;
-                }
-                level++;
-            } else if (c == '}') {
-                level--;
-                if (level == 0 && objStart != -1) {
-                    agents.add(jsonContent.substring(objStart, i + 1));
-                }
-            } else if (c == ']' && level == 0) {
-                break;
+        for (int[] element : elements(jsonContent, array)) {
+            if (jsonContent.charAt(element[0]) == '{') {
+                agents.add(jsonContent.substring(element[0], element[1]));
             }
         }
         
@@ -140,71 +153,238 @@ public class JsonFormatParser implements ConfigurationParser {
     }
     
     /**
-     * @brief Extracts a string value from a JSON object
-     * @param jsonObj JSON object as string
-     * @param key The key to extract
-     * @return The string value, or empty string if not found
+     * @brief Reads the strings of an array value
+     * @param json JSON text containing the array
+     * @param range Start and end of the array value, or null if the key is absent
+     * @return The non-empty string elements, trimmed (other elements are ignored)
      */
-    private String extractStringValue(String jsonObj, String key) {
-        try {
-            String searchKey = "\"" + key + "\"";
-            int keyIndex = jsonObj.indexOf(searchKey);
-            if (keyIndex == -1) return "";
-            
-            int colonIndex = jsonObj.indexOf(":", keyIndex);
-            if (colonIndex == -1) return "";
+    private String[] stringArray(String json, int[] range) {
+        List<String> values = new ArrayList<>();
+        if (range == null || json.charAt(range[0]) != '[') return new String[0];
+        
+        for (int[] element : elements(json, range)) {
+            if (json.charAt(element[0]) != '"') continue;
+            String value = valueText(json, element).trim();
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+        return values.toArray(new String[0]);
+    }
+    
+    /**
+     * @brief Extracts the flat entries of a top-level JSON object value
+     * @param json JSON text of the whole document
+     * @param key The top-level key whose object value should be read
+     * @return Map of entry names to values (see entries); empty if the key is absent
+     * @throws ConfigurationException if the document or the object is not terminated
+     */
+    private Map<String, String> extractObjectEntries(String json, String key) throws ConfigurationException {
+        int[] value = topLevelMember(json, key);
+        if (value == null || json.charAt(value[0]) != '{') return new LinkedHashMap<>();
+        
+        return entries(json, members(json, value[0], key));
+    }
+    
+    /**
+     * @brief Converts located members to their text values
+     * @param json JSON text containing the members
+     * @param members Member names mapped to the start and end of their values
+     * @return Map of entry names to values (strings unescaped, numbers and
+     *         booleans as written, arrays joined with commas)
+     */
+    private Map<String, String> entries(String json, Map<String, int[]> members) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        members.forEach((name, range) -> entries.put(name, valueText(json, range)));
+        return entries;
+    }
+    
+    /**
+     * @brief Locates a member of the document's top-level object
+     * @param json JSON text of the whole document
+     * @param key The member name
+     * @return Start and end of the member's value, or null if there is no such member
+     * @throws ConfigurationException if the top-level object is not terminated
+     */
+    private static int[] topLevelMember(String json, String key) throws ConfigurationException {
+        int open = skipWhitespace(json, 0);
+        if (open >= json.length() || json.charAt(open) != '{') return null;
+        return members(json, open, "configuration").get(key);
+    }
+    
+    /**
+     * @brief Locates the members of the JSON object starting at a given brace
+     * @param json JSON text containing the object
+     * @param openBrace Index of the object's opening '{'
+     * @param what Name of the object, used in error messages
+     * @return Member names mapped to the start and end of their values, in document order
+     * @throws ConfigurationException if the object is not terminated
+     */
+    private static Map<String, int[]> members(String json, int openBrace, String what) throws ConfigurationException {
+        Map<String, int[]> members = new LinkedHashMap<>();
+        int i = openBrace + 1;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '}') return members;
+            if (c != '"') { i++; continue; }
             
-            int valueStart = jsonObj.indexOf("\"", colonIndex) + 1;
-            int valueEnd = jsonObj.indexOf("\"", valueStart);
+            int nameEnd = skipString(json, i);
+            if (nameEnd == -1) break;
+            String name = unescape(json.substring(i + 1, nameEnd - 1));
+            int colon = skipWhitespace(json, nameEnd);
+            if (colon >= json.length() || json.charAt(colon) != ':') break;
             
-            if (valueStart == 0 || valueEnd == -1) return "";
+            int v = skipWhitespace(json, colon + 1);
+            if (v >= json.length()) break;
+            int end = skipValue(json, v);
+            if (end == -1) break;
             
-            return jsonObj.substring(valueStart, valueEnd);
-        } catch (Exception e) {
-            return "";
+            members.put(name, new int[] {v, end});
+            i = end;
         }
+        throw new ConfigurationException("Unterminated '" + what + "' object", "JSON");
     }
     
     /**
-     * @brief Extracts an array value from a JSON object
-     * @param jsonObj JSON object as string
-     * @param key The key to extract
-     * @return Array of string values
+     * @brief Locates the elements of an array value
+     * @param json JSON text containing the array
+     * @param range Start and end of the array value
+     * @return Start and end of each element
      */
-    private String[] extractArrayValue(String jsonObj, String key) {
-        List<String> values = new ArrayList<>();
-        String searchKey = "\"" + key + "\"";
-        int start = jsonObj.indexOf(searchKey);
-        if (start == -1) return new String[0];
-        
-        start = jsonObj.indexOf("[", start);
-        if (start == -1) return new String[0];
-        
-        boolean inString = false;
-        StringBuilder current = new StringBuilder();
+    private static List<int[]> elements(String json, int[] range) {
+        List<int[]> elements = new ArrayList<>();
+        int i = range[0] + 1;
+        int last = range[1] - 1;                        // the closing ']'
+        while (true) {
+            while (i < last && (json.charAt(i) == ',' || Character.isWhitespace(json.charAt(i)))) i++;
+            if (i >= last) return elements;
+            int end = skipValue(json, i);
+            if (end <= i) return elements;
+            elements.add(new int[] {i, end});
+            i = end;
+        }
+    }
+    
+    /**
+     * @brief Gets the text of a located value
+     * @param json JSON text containing the value
+     * @param range Start and end of the value
+     * @return Unescaped contents of a string, the elements of an array joined
+     *         with commas, or the trimmed source text of anything else
+     */
+    private static String valueText(String json, int[] range) {
+        char first = json.charAt(range[0]);
+        if (first == '"') {
+            return unescape(json.substring(range[0] + 1, range[1] - 1));
+        }
+        if (first == '[') {
+            StringBuilder joined = new StringBuilder();
+            for (int[] element : elements(json, range)) {
+                if (joined.length() > 0) joined.append(',');
+                joined.append(valueText(json, element).trim());
+            }
+            return joined.toString();
+        }
+        return json.substring(range[0], range[1]).trim();
+    }
+    
+    /**
+     * @brief Returns the index just past a JSON value
+     * @param json JSON text containing the value
+     * @param start Index of the value's first character
+     * @return Index after the value, or -1 if a string, object or array is not terminated
+     * 
+     * Strings end at their unescaped closing quote; objects and arrays at
+     * the matching bracket, with the strings inside them skipped; anything
+     * else at the next ',', '}' or ']'.
+     */
+    private static int skipValue(String json, int start) {
+        char first = json.charAt(start);
+        if (first == '"') return skipString(json, start);
+        if (first != '{' && first != '[') {
+            int end = start;
+            while (end < json.length() && ",}]".indexOf(json.charAt(end)) < 0) end++;
+            return end;
+        }
         
-        for (int i = start + 1; i < jsonObj.length(); i++) {
-            char c = jsonObj.charAt(i);
-            
-            if (c == '"' && (i == 0 || jsonObj.charAt(i - 1) != '\\')) {
-                if (inString) {
-                    String value = current.toString().trim();
-                    if (!value.isEmpty()) {
-                        values.add(value);
+        int depth = 0;
+        for (int i = start; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                i = skipString(json, i) - 1;
+                if (i < 0) return -1;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @brief Returns the index just past a JSON string literal
+     * @param json JSON text containing the string
+     * @param quote Index of the opening '"'
+     * @return Index after the closing '"', or -1 if the string is not terminated
+     */
+    private static int skipString(String json, int quote) {
+        for (int i = quote + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @brief Resolves the escape sequences of a JSON string's contents
+     * @param text Contents of the string literal, without the quotes
+     * @return The unescaped text (invalid escapes are kept as written)
+     */
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) return text;
+        StringBuilder b = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                b.append(c);
+                continue;
+            }
+            char e = text.charAt(++i);
+            switch (e) {
+                case 'b': b.append('\b'); break;
+                case 'f': b.append('\f'); break;
+                case 'n': b.append('\n'); break;
+                case 'r': b.append('\r'); break;
+                case 't': b.append('\t'); break;
+                case 'u':
+                    if (i + 4 < text.length() && text.substring(i + 1, i + 5).matches("[0-9a-fA-F]{4}")) {
+                        b.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    } else {
+                        b.append('\\').append(e);
                     }
-                    current = new StringBuilder();
-                    inString = false;
-                } else {
-                    inString = true;
-                }
-            } else if (inString) {
-                current.append(c);
-            } else if (c == ']') {
-                break;
+                    break;
+                default:  b.append(e);            // \" \\ \/
             }
         }
-        
-        return values.toArray(new String[0]);
+        return b.toString();
+    }
+    
+    /**
+     * @brief Returns the index of the first non-whitespace character
+     * @param text The text to scan
+     * @param from Index to start scanning at
+     * @return Index of the first non-whitespace character, or text.length()
+     */
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) i++;
+        return i;
     }
     
     /**
@@ -0,0 +1,110 @@
+package servlets.config;
+
+import graph.ExecutionPlan;
+import graph.PlanOp;
+import graph.Topic;
+import graph.TopicManagerSingleton.TopicManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @file PlanCompiler.java
+ * @brief Compiles agent configurations into an ExecutionPlan
+ * @author Advanced Programming Course
+ * @date 2025
+ * @version 1.0
+ * 
+ * Every topic of the configuration becomes a slot index and every standard
+ * agent becomes a primitive PlanOp reading its subscriptions and writing
+ * its first publication. Only the arithmetic agent types of DefaultAgentFactory can be
+ * compiled; any other type, or a cyclic graph, is reported as a
+ * ConfigurationException so the caller can fall back to interpretation.
+ * 
+ * A cyclic graph is rejected up front from the TopicManager's live
+ * TopologyIndex. The plan orders its own steps: they come from the
+ * configurations, which deduplication and fusion make differ from the live
+ * agents the index ranks.
+ */
+public class PlanCompiler {
+
+    /**
+     * @brief Compiles the given configurations
+     * @param configurations Agent configurations of the loaded graph
+     * @param topicManager Manager holding the topics of the configuration
+     * @return The compiled plan (not yet installed)
+     * @throws ConfigurationException if an agent cannot be compiled or the graph is cyclic
+     */
+    public ExecutionPlan compile(List<AgentConfiguration> configurations, TopicManager topicManager)
+            throws ConfigurationException {
+        if (topicManager.getTopology().hasCycles()) {
+            throw new ConfigurationException("Cannot compile a cyclic graph ("
+                + topicManager.getTopology().getCyclicEdgeCount() + " agent links close a cycle)");
+        }
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<PlanOp> ops = new ArrayList<>();
+        List<int[]> wiring = new ArrayList<>();
+
+        for (AgentConfiguration config : configurations) {
+            PlanOp op = opFor(config.getAgentClass());
+            String[] subs = config.getSubscriptions();
+            String[] pubs = config.getPublications();
+            if (subs.length < op.getArity() || pubs.length == 0) {
+                throw new ConfigurationException("Cannot compile " + config.getAgentClass()
+                    + ": needs " + op.getArity() + " subscription(s) and 1 publication");
+            }
+            int a = slotFor(subs[0], slots);
+            int b = op.getArity() == 2 ? slotFor(subs[1], slots) : -1;
+            int o = slotFor(pubs[0], slots);
+            ops.add(op);
+            wiring.add(new int[] {a, b, o});
+        }
+
+        Topic[] topics = new Topic[slots.size()];
+        for (Map.Entry<String, Integer> e : slots.entrySet()) {
+            topics[e.getValue()] = topicManager.getTopic(e.getKey());
+        }
+        int n = ops.size();
+        int[] inA = new int[n], inB = new int[n], out = new int[n];
+        for (int i = 0; i < n; i++) {
+            inA[i] = wiring.get(i)[0];
+            inB[i] = wiring.get(i)[1];
+            out[i] = wiring.get(i)[2];
+        }
+
+        try {
+            return new ExecutionPlan(topics, ops.toArray(new PlanOp[0]), inA, inB, out);
+        } catch (IllegalStateException e) {
+            throw new ConfigurationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @brief Maps a standard agent type to its primitive operation
+     * @param agentClass The agent class name
+     * @return The matching operation
+     * @throws ConfigurationException if the type has no compiled form
+     */
+    private PlanOp opFor(String agentClass) throws ConfigurationException {
+        switch (agentClass) {
+            case "PlusAgent": return PlanOp.PLUS;
+            case "SubAgent":  return PlanOp.SUB;
+            case "MulAgent":  return PlanOp.MUL;
+            case "DivAgent":  return PlanOp.DIV;
+            case "IncAgent":  return PlanOp.INC;
+            default:
+                throw new ConfigurationException("Cannot compile agent type: " + agentClass);
+        }
+    }
+
+    private int slotFor(String topic, Map<String, Integer> slots) {
+        Integer slot = slots.get(topic);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(topic, slot);
+        }
+        return slot;
+    }
+}
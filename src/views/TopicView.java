@@ -62,13 +62,13 @@ public class TopicView implements View {
             for (Topic topic : topics) {
                 Message lastMsg = topic.getLastMessage();
                 String lastMessage = "<em style=\"color: #c9a96e;\">No messages yet</em>";
-                if (lastMsg != null && lastMsg.asText != null && !lastMsg.asText.isEmpty()) {
+                if (lastMsg != null && lastMsg.asText() != null && !lastMsg.asText().isEmpty()) {
                     // Display the actual message value (including 0, 0.0, etc.)
-                    lastMessage = escapeHtml(lastMsg.asText);
+                    lastMessage = escapeHtml(lastMsg.asText());
                 }
                 
                 System.out.println("TopicView: Topic " + topic.name + " has message: " + 
-                    (lastMsg != null ? lastMsg.asText : "null"));
+                    (lastMsg != null ? lastMsg.asText() : "null"));
                 
                 html.append("<tr style=\"background: rgba(177, 156, 217, 0.1); transition: all 0.3s ease;\">")
                     .append("<td style=\"padding: 12px 15px; border-bottom: 1px solid rgba(177, 156, 217, 0.2); color: #f0f0f0;\">")